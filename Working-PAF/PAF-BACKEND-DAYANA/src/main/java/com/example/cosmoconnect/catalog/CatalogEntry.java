@@ -0,0 +1,7 @@
+package com.example.cosmoconnect.catalog;
+
+import java.util.List;
+
+// One celestial object: id is the canonical, URL-safe key stored on posts (e.g. "m31", "ngc7000", "moon")
+public record CatalogEntry(String id, String name, String type, List<String> aliases) {
+}
@@ -0,0 +1,183 @@
+package com.example.cosmoconnect.catalog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Dictionary of named objects with alias resolution and autocomplete. Names and aliases are
+// normalised to lower-case letters and digits only, so "M 31", "m31" and "Messier-31" are one key.
+// NGC/IC numbers outside the bundled list still resolve to ngc<n>/ic<n>, so every NGC 7000 post
+// groups together whether or not the object has a nickname here.
+public final class CelestialCatalog {
+
+    private static final Pattern NGC_IC = Pattern.compile("^(ngc|ic)0*(\\d{1,4})$");
+    private static final Pattern MESSIER = Pattern.compile("^(?:m|messier)0*(\\d{1,3})$");
+    private static final Pattern PARTS = Pattern.compile("[(),;/]");
+    private static final int TOP_SIZE = 20;
+    private static final int LAST_NGC = 7840;
+    private static final int LAST_IC = 5386;
+
+    private final List<CatalogEntry> entries;
+    private final Map<String, CatalogEntry> byId;
+    private final PrefixTrie trie;
+
+    private CelestialCatalog(List<CatalogEntry> entries) {
+        this.entries = entries;
+        Map<String, CatalogEntry> ids = new HashMap<>();
+        PrefixTrie.Builder builder = PrefixTrie.builder(TOP_SIZE);
+        for (int rank = 0; rank < entries.size(); rank++) {
+            CatalogEntry entry = entries.get(rank);
+            ids.put(entry.id(), entry);
+            builder.add(normalize(entry.name()), rank);
+            for (String alias : entry.aliases()) {
+                builder.add(normalize(alias), rank);
+            }
+        }
+        this.byId = ids;
+        this.trie = builder.build();
+    }
+
+    // Tab-separated: id, name, type, |-separated aliases. Lines starting with # are comments.
+    // File order is popularity order.
+    public static CelestialCatalog load(InputStream in) throws IOException {
+        List<CatalogEntry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\t", -1);
+                if (columns.length < 3) {
+                    throw new IOException("Malformed catalog line: " + line);
+                }
+                List<String> aliases = columns.length > 3 && !columns[3].isBlank()
+                        ? List.of(columns[3].split("\\|"))
+                        : List.of();
+                entries.add(new CatalogEntry(columns[0], columns[1], columns[2], aliases));
+            }
+        }
+        return new CelestialCatalog(Collections.unmodifiableList(entries));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Optional<CatalogEntry> byId(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        CatalogEntry entry = byId.get(id);
+        return entry != null ? Optional.of(entry) : numbered(normalize(id));
+    }
+
+    // The object a free-text name refers to. Tries the whole text, then each bracketed or
+    // separated part, so "Andromeda Galaxy (M31)" and "M42 / Orion" both resolve.
+    public Optional<CatalogEntry> resolve(String text) {
+        if (text == null || text.isBlank()) {
+            return Optional.empty();
+        }
+        Optional<CatalogEntry> whole = resolveKey(normalize(text));
+        if (whole.isPresent()) {
+            return whole;
+        }
+        for (String part : PARTS.split(text)) {
+            Optional<CatalogEntry> entry = resolveKey(normalize(part));
+            if (entry.isPresent()) {
+                return entry;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<CatalogEntry> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        int[] ranks = trie.prefix(key);
+        List<CatalogEntry> suggestions = new ArrayList<>(Math.min(limit, ranks.length + 1));
+        // An exact NGC/IC number not in the bundled list still deserves a suggestion
+        Matcher numbered = NGC_IC.matcher(key);
+        if (numbered.matches() && trie.get(key).length == 0) {
+            numbered(key).ifPresent(suggestions::add);
+        }
+        for (int rank : Arrays.copyOf(ranks, Math.min(ranks.length, limit))) {
+            if (suggestions.size() >= limit) {
+                break;
+            }
+            suggestions.add(entries.get(rank));
+        }
+        return suggestions;
+    }
+
+    private Optional<CatalogEntry> resolveKey(String key) {
+        if (key.isEmpty()) {
+            return Optional.empty();
+        }
+        int[] ranks = trie.get(key);
+        if (ranks.length > 0) {
+            return Optional.of(entries.get(ranks[0]));
+        }
+        if (key.startsWith("the") && key.length() > 3) {
+            ranks = trie.get(key.substring(3));
+            if (ranks.length > 0) {
+                return Optional.of(entries.get(ranks[0]));
+            }
+        }
+        Matcher messier = MESSIER.matcher(key);
+        if (messier.matches()) {
+            return Optional.ofNullable(byId.get("m" + messier.group(1)));
+        }
+        return numbered(key);
+    }
+
+    private Optional<CatalogEntry> numbered(String key) {
+        Matcher matcher = NGC_IC.matcher(key);
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        int number = Integer.parseInt(matcher.group(2));
+        if (number == 0 || number > ("ngc".equals(matcher.group(1)) ? LAST_NGC : LAST_IC)) {
+            return Optional.empty();
+        }
+        String id = matcher.group(1) + matcher.group(2);
+        CatalogEntry known = byId.get(id);
+        if (known != null) {
+            return Optional.of(known);
+        }
+        // Leading zeros stripped, the number may be an alias of a named entry (ngc0224 -> m31)
+        int[] ranks = trie.get(id);
+        if (ranks.length > 0) {
+            return Optional.of(entries.get(ranks[0]));
+        }
+        String label = matcher.group(1).toUpperCase(Locale.ROOT) + " " + matcher.group(2);
+        return Optional.of(new CatalogEntry(id, label, "deep-sky object", List.of()));
+    }
+
+    public static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder key = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = Character.toLowerCase(decomposed.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+}
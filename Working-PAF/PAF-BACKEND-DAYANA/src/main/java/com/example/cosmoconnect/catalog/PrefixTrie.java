@@ -0,0 +1,172 @@
+package com.example.cosmoconnect.catalog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Immutable trie over normalised keys, flattened into int/char arrays after building. Every node
+// stores the best few values (lowest value first) found anywhere below it, so autocomplete is a
+// walk down the prefix plus a copy: O(prefix length) no matter how many keys share the prefix.
+// Values are caller-defined ints; the catalog uses entry ranks, so "lowest" means most popular.
+public final class PrefixTrie {
+
+    private final int[] firstEdge;   // edges of node n are [firstEdge[n], firstEdge[n + 1])
+    private final char[] edgeLabels; // sorted within each node, for binary search
+    private final int[] edgeTargets;
+    private final int[] exactStart;  // values whose key ends at node n
+    private final int[] exact;
+    private final int[] topStart;    // best values anywhere in node n's subtree
+    private final int[] top;
+
+    private PrefixTrie(int[] firstEdge, char[] edgeLabels, int[] edgeTargets,
+                       int[] exactStart, int[] exact, int[] topStart, int[] top) {
+        this.firstEdge = firstEdge;
+        this.edgeLabels = edgeLabels;
+        this.edgeTargets = edgeTargets;
+        this.exactStart = exactStart;
+        this.exact = exact;
+        this.topStart = topStart;
+        this.top = top;
+    }
+
+    // Values stored under exactly this key, lowest first
+    public int[] get(String key) {
+        int node = find(key);
+        return node < 0 ? new int[0] : Arrays.copyOfRange(exact, exactStart[node], exactStart[node + 1]);
+    }
+
+    // Up to the build-time top size of the lowest values under any key starting with prefix
+    public int[] prefix(String prefix) {
+        int node = find(prefix);
+        return node < 0 ? new int[0] : Arrays.copyOfRange(top, topStart[node], topStart[node + 1]);
+    }
+
+    public int nodeCount() {
+        return firstEdge.length - 1;
+    }
+
+    private int find(String key) {
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            int edge = Arrays.binarySearch(edgeLabels, firstEdge[node], firstEdge[node + 1], key.charAt(i));
+            if (edge < 0) {
+                return -1;
+            }
+            node = edgeTargets[edge];
+        }
+        return node;
+    }
+
+    public static Builder builder(int topSize) {
+        return new Builder(topSize);
+    }
+
+    public static final class Builder {
+
+        private final int topSize;
+        private final BuildNode root = new BuildNode();
+
+        private Builder(int topSize) {
+            this.topSize = topSize;
+        }
+
+        public Builder add(String key, int value) {
+            BuildNode node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new BuildNode());
+            }
+            node.values.add(value);
+            return this;
+        }
+
+        public PrefixTrie build() {
+            // Number nodes breadth-first so each node's edges are contiguous
+            List<BuildNode> order = new ArrayList<>();
+            Deque<BuildNode> queue = new ArrayDeque<>();
+            queue.add(root);
+            while (!queue.isEmpty()) {
+                BuildNode node = queue.poll();
+                node.index = order.size();
+                order.add(node);
+                queue.addAll(node.children.values());
+            }
+
+            int nodes = order.size();
+            int[] firstEdge = new int[nodes + 1];
+            char[] edgeLabels = new char[nodes - 1];
+            int[] edgeTargets = new int[nodes - 1];
+            int edge = 0;
+            for (int n = 0; n < nodes; n++) {
+                firstEdge[n] = edge;
+                for (Map.Entry<Character, BuildNode> child : order.get(n).children.entrySet()) {
+                    edgeLabels[edge] = child.getKey();
+                    edgeTargets[edge++] = child.getValue().index;
+                }
+            }
+            firstEdge[nodes] = edge;
+
+            // Children always come after their parent in BFS order, so a reverse pass sees them first
+            int[][] best = new int[nodes][];
+            for (int n = nodes - 1; n >= 0; n--) {
+                BuildNode node = order.get(n);
+                int[] merged = node.values.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+                for (BuildNode child : node.children.values()) {
+                    merged = mergeLowest(merged, best[child.index], topSize);
+                }
+                best[n] = merged.length > topSize ? Arrays.copyOf(merged, topSize) : merged;
+            }
+
+            int[] exactStart = new int[nodes + 1];
+            int[] topStart = new int[nodes + 1];
+            int exactTotal = 0;
+            int topTotal = 0;
+            for (int n = 0; n < nodes; n++) {
+                exactStart[n] = exactTotal;
+                topStart[n] = topTotal;
+                exactTotal += (int) order.get(n).values.stream().distinct().count();
+                topTotal += best[n].length;
+            }
+            exactStart[nodes] = exactTotal;
+            topStart[nodes] = topTotal;
+            int[] exact = new int[exactTotal];
+            int[] top = new int[topTotal];
+            for (int n = 0; n < nodes; n++) {
+                int[] values = order.get(n).values.stream().mapToInt(Integer::intValue).sorted().distinct().toArray();
+                System.arraycopy(values, 0, exact, exactStart[n], values.length);
+                System.arraycopy(best[n], 0, top, topStart[n], best[n].length);
+            }
+            return new PrefixTrie(firstEdge, edgeLabels, edgeTargets, exactStart, exact, topStart, top);
+        }
+
+        // Merges two ascending, distinct arrays, keeping at most limit of the lowest values
+        private static int[] mergeLowest(int[] a, int[] b, int limit) {
+            int[] out = new int[Math.min(limit, a.length + b.length)];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (n < out.length && (i < a.length || j < b.length)) {
+                int next;
+                if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                    next = a[i++];
+                    if (j < b.length && b[j] == next) {
+                        j++;
+                    }
+                } else {
+                    next = b[j++];
+                }
+                out[n++] = next;
+            }
+            return n == out.length ? out : Arrays.copyOf(out, n);
+        }
+    }
+
+    private static final class BuildNode {
+        private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+        private final List<Integer> values = new ArrayList<>(1);
+        private int index;
+    }
+}
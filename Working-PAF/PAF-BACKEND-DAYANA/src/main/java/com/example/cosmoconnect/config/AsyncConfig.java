@@ -0,0 +1,49 @@
+package com.example.cosmoconnect.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig {
+
+    @Value("${media.tasks.threads:2}")
+    private int threads;
+
+    @Value("${media.tasks.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${backfill.tasks.threads:2}")
+    private int backfillThreads;
+
+    // Bounded pool for CPU-heavy media work (resizing, previews). When the queue is full the task is
+    // dropped rather than run on the request thread; readers fall back to the original media.
+    @Bean(name = "mediaTaskExecutor")
+    public ThreadPoolTaskExecutor mediaTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("media-");
+        executor.setRejectedExecutionHandler((task, pool) -> log.warn("Media task queue full, dropping task"));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Startup backfills and index loads. Each is one long scan queued once, so the queue is unbounded
+    // and nothing is dropped; keeping them off the media pool means uploads never wait behind them.
+    @Bean(name = "backfillTaskExecutor")
+    public ThreadPoolTaskExecutor backfillTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(backfillThreads);
+        executor.setMaxPoolSize(backfillThreads);
+        executor.setThreadNamePrefix("backfill-");
+        return executor;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.cosmoconnect.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+// Matches GET/HEAD requests for public, cacheable media so they can skip the JWT chain.
+// Prefixes are plain strings checked in order, busiest first, instead of ant patterns.
+public class PublicMediaRequestMatcher implements RequestMatcher {
+
+    private static final String[] MEDIA_PREFIXES = {
+            "/api/posts/files/",
+            "/api/files/",
+            "/api/competitions/files/",
+            "/api/learningplans/files/",
+            "/api/v1/competitions/files/",
+            "/api/v1/learningplan/uploads/",
+            "/uploads/"
+    };
+
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return false;
+        }
+
+        String uri = request.getRequestURI();
+        int offset = request.getContextPath().length();
+        for (String prefix : MEDIA_PREFIXES) {
+            if (uri.startsWith(prefix, offset) && uri.length() > offset + prefix.length()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,12 +2,16 @@ package com.example.cosmoconnect.config;
 
 import com.example.cosmoconnect.oauth2.CustomOAuth2UserService;
 import com.example.cosmoconnect.oauth2.OAuth2AuthenticationSuccessHandler;
+import com.example.cosmoconnect.ratelimit.RateLimitFilter;
 import com.example.cosmoconnect.service.CustomUserDetailsService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -39,8 +43,31 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CustomOAuth2UserService customOAuth2UserService;
     private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
+    private final RateLimitFilter rateLimitFilter;
+    private final StorageQuotaFilter storageQuotaFilter;
 
+    // Public media gets its own chain: no JWT parsing, no SecurityContext, no session or request cache
     @Bean
+    @Order(1)
+    public SecurityFilterChain publicMediaFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(new PublicMediaRequestMatcher())
+                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .csrf(AbstractHttpConfigurer::disable)
+                .securityContext(AbstractHttpConfigurer::disable)
+                .sessionManagement(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .anonymous(AbstractHttpConfigurer::disable)
+                .servletApi(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .exceptionHandling(AbstractHttpConfigurer::disable)
+                .headers(headers -> headers.cacheControl(cache -> cache.disable()));
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -51,15 +78,15 @@ public class SecurityConfig {
                             "/api/auth/**", 
                             "/oauth2/**", 
                             "/login/oauth2/code/**", 
-                            "/api/files/**",
                             "/api/v1/learning/**",  // Add learning endpoints
-                            "/api/v1/competitions/**",  // Add competition endpoints
                             "/api/v1/learningplan/uploads/**",
                             // Permit static file endpoints
                             "/api/posts/files/**",
                             "/api/competitions/files/**",
                             "/api/learningplans/files/**"
                         ).permitAll()
+                        // Anyone may browse competitions, but uploads count against a user's quota
+                        .requestMatchers(HttpMethod.GET, "/api/v1/competitions/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(ex -> ex.authenticationEntryPoint(authenticationEntryPoint()))
@@ -76,10 +103,34 @@ public class SecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
+        http.addFilterAfter(storageQuotaFilter, RateLimitFilter.class);
 
         return http.build();
     }
 
+    // These filters only belong inside the security chain, not as global servlet filters
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<StorageQuotaFilter> storageQuotaFilterRegistration() {
+        FilterRegistrationBean<StorageQuotaFilter> registration = new FilterRegistrationBean<>(storageQuotaFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     @Bean
     public AuthenticationEntryPoint authenticationEntryPoint() {
         return (request, response, authException) -> {
@@ -105,11 +156,16 @@ public class SecurityConfig {
             "Accept",
             "Origin",
             "Access-Control-Request-Method",
-            "Access-Control-Request-Headers"
+            "Access-Control-Request-Headers",
+            "Upload-Offset",
+            "Upload-Checksum"
         ));
         configuration.setExposedHeaders(Arrays.asList(
             "Access-Control-Allow-Origin",
-            "Access-Control-Allow-Credentials"
+            "Access-Control-Allow-Credentials",
+            "Location",
+            "Upload-Offset",
+            "Upload-Length"
         ));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
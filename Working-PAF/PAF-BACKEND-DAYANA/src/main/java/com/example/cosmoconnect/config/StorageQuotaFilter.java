@@ -0,0 +1,74 @@
+package com.example.cosmoconnect.config;
+
+import com.example.cosmoconnect.exception.PayloadTooLargeException;
+import com.example.cosmoconnect.ratelimit.EndpointClass;
+import com.example.cosmoconnect.service.StorageUsageService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Refuses uploads that would take the caller over their storage quota before the body is read.
+// Content-Length includes multipart framing, so this can only over-estimate the stored size.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StorageQuotaFilter extends OncePerRequestFilter {
+
+    private final StorageUsageService storageUsageService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        // Resumable uploads declare their length when the session starts and are checked there;
+        // the duplicate check only reads the image and stores nothing
+        return path.startsWith("/api/uploads") || path.equals("/api/posts/duplicates")
+                || EndpointClass.of(request) != EndpointClass.UPLOAD;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        // The anonymous filter runs later in the chain, so unauthenticated callers arrive with no
+        // authentication at all; they share one "anonymous" allowance
+        String owner = StorageUsageService.ANONYMOUS_OWNER;
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            if (authentication.getAuthorities().stream().anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()))) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            owner = authentication.getName();
+        }
+
+        try {
+            storageUsageService.checkQuota(owner, request.getContentLengthLong());
+        } catch (PayloadTooLargeException e) {
+            log.warn("Upload to {} refused for {}: {}", request.getRequestURI(), owner, e.getMessage());
+            setPayloadTooLargeResponse(response, e.getMessage());
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void setPayloadTooLargeResponse(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        String jsonResponse = String.format("{\"status\": %d, \"error\": \"Payload Too Large\", \"message\": \"%s\"}",
+                HttpStatus.PAYLOAD_TOO_LARGE.value(), message);
+        response.getWriter().write(jsonResponse);
+    }
+}
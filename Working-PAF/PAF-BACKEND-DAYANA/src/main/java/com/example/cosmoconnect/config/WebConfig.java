@@ -1,19 +1,25 @@
 package com.example.cosmoconnect.config;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.http.HttpMethod;
 import org.springframework.web.filter.HiddenHttpMethodFilter;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
     @Bean
     public HiddenHttpMethodFilter hiddenHttpMethodFilter() {
-        return new HiddenHttpMethodFilter();
+        return new HiddenHttpMethodFilter() {
+            @Override
+            protected boolean shouldNotFilter(HttpServletRequest request) {
+                // Looking up _method would make the container parse and spool the streamed multipart body
+                return request.getRequestURI().endsWith("/api/posts/stream");
+            }
+        };
     }
 
     @Override
@@ -33,15 +39,4 @@ public class WebConfig implements WebMvcConfigurer {
             .allowCredentials(true)
             .maxAge(3600);
     }
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        String userDir = System.getProperty("user.dir");
-        registry.addResourceHandler("/api/posts/files/**")
-                .addResourceLocations("file:" + userDir + "/uploads/posts/");
-        registry.addResourceHandler("/api/competitions/files/**")
-                .addResourceLocations("file:" + userDir + "/uploads/competitions/");
-        registry.addResourceHandler("/api/learningplans/files/**")
-                .addResourceLocations("file:" + userDir + "/uploads/learningplans/");
-    }
 } 
\ No newline at end of file
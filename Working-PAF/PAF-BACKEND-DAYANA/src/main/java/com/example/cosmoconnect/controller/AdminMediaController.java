@@ -0,0 +1,103 @@
+package com.example.cosmoconnect.controller;
+
+import com.example.cosmoconnect.dto.MediaGcReport;
+import com.example.cosmoconnect.dto.MediaMigrationStatus;
+import com.example.cosmoconnect.dto.StorageUsageDto;
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.service.ImageDerivativeService;
+import com.example.cosmoconnect.service.MediaGarbageCollectionService;
+import com.example.cosmoconnect.service.MediaMigrationService;
+import com.example.cosmoconnect.service.StorageUsageReconciler;
+import com.example.cosmoconnect.service.StorageUsageService;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/media")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminMediaController {
+
+    private final MediaMigrationService mediaMigrationService;
+    private final MediaGarbageCollectionService mediaGarbageCollectionService;
+    private final StorageUsageService storageUsageService;
+    private final StorageUsageReconciler storageUsageReconciler;
+    private final ImageDerivativeService imageDerivativeService;
+
+    // Starts moving flat legacy uploads into the hash-sharded layout; poll GET for progress
+    @PostMapping("/migration")
+    public ResponseEntity<MediaMigrationStatus> startMigration(@RequestParam(defaultValue = "false") boolean dryRun) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(mediaMigrationService.start(dryRun));
+    }
+
+    @GetMapping("/migration")
+    public ResponseEntity<MediaMigrationStatus> getMigrationStatus() {
+        return ResponseEntity.ok(mediaMigrationService.status());
+    }
+
+    @DeleteMapping("/migration")
+    public ResponseEntity<MediaMigrationStatus> cancelMigration() {
+        mediaMigrationService.cancel();
+        return ResponseEntity.ok(mediaMigrationService.status());
+    }
+
+    // Runs the orphaned media collector now; with dryRun=true it only reports what it would quarantine
+    @PostMapping("/gc")
+    public ResponseEntity<MediaGcReport> startGc(@RequestParam(defaultValue = "true") boolean dryRun) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(mediaGarbageCollectionService.start(dryRun));
+    }
+
+    @GetMapping("/gc")
+    public ResponseEntity<MediaGcReport> getGcReport() {
+        return ResponseEntity.ok(mediaGarbageCollectionService.report());
+    }
+
+    @DeleteMapping("/gc")
+    public ResponseEntity<MediaGcReport> cancelGc() {
+        mediaGarbageCollectionService.cancel();
+        return ResponseEntity.ok(mediaGarbageCollectionService.report());
+    }
+
+    // Generates missing resized copies and perceptual hashes for existing posts in the background
+    @PostMapping("/derivatives")
+    public ResponseEntity<Void> backfillDerivatives() {
+        imageDerivativeService.backfill();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    // Largest storage consumers, optionally within one namespace (posts, profile-photos, ...)
+    @GetMapping("/usage")
+    public ResponseEntity<List<StorageUsageDto>> getTopConsumers(@RequestParam(defaultValue = "20") int limit,
+                                                                 @RequestParam(required = false) String namespace) {
+        MediaNamespace filter = null;
+        if (namespace != null && !namespace.isBlank()) {
+            for (MediaNamespace candidate : MediaNamespace.values()) {
+                if (candidate.getDirectory().equals(namespace) || candidate.name().equalsIgnoreCase(namespace)) {
+                    filter = candidate;
+                }
+            }
+            if (filter == null) {
+                throw new BadRequestException("Unknown namespace: " + namespace);
+            }
+        }
+        return ResponseEntity.ok(storageUsageService.topConsumers(Math.max(1, Math.min(limit, 500)), filter));
+    }
+
+    @GetMapping("/usage/{owner}")
+    public ResponseEntity<StorageUsageDto> getUsage(@PathVariable String owner) {
+        return ResponseEntity.ok(storageUsageService.usageOf(owner));
+    }
+
+    // Recomputes every counter from the documents that own media; also runs nightly
+    @PostMapping("/usage/reconcile")
+    public ResponseEntity<Map<String, Long>> reconcileUsage() {
+        return ResponseEntity.ok(storageUsageReconciler.reconcile());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.cosmoconnect.controller;
+
+import com.example.cosmoconnect.catalog.CatalogEntry;
+import com.example.cosmoconnect.dto.PostDto;
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.service.CelestialCatalogService;
+import com.example.cosmoconnect.service.PostService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+public class CatalogController {
+
+    private final CelestialCatalogService celestialCatalogService;
+    private final PostService postService;
+
+    // Autocomplete for the celestial object field: "andr" -> Andromeda Galaxy, "ngc 70" -> NGC 7000, ...
+    @GetMapping("/suggest")
+    public ResponseEntity<List<CatalogEntry>> suggest(@RequestParam String q,
+                                                      @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(celestialCatalogService.suggest(q, Math.max(1, Math.min(limit, 20))));
+    }
+
+    // Accepts an id or any alias, e.g. /api/catalog/m31 or /api/catalog/Andromeda
+    @GetMapping("/{id}")
+    public ResponseEntity<CatalogEntry> getObject(@PathVariable String id) {
+        return ResponseEntity.ok(find(id));
+    }
+
+    @GetMapping("/{id}/posts")
+    public ResponseEntity<List<PostDto>> getObjectPosts(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication
+    ) {
+        CatalogEntry entry = find(id);
+        return ResponseEntity.ok(postService.getPostsForObject(entry.id(), Math.max(0, page),
+                Math.max(1, Math.min(size, 100)), authentication.getName()));
+    }
+
+    private CatalogEntry find(String id) {
+        return celestialCatalogService.get(id)
+                .or(() -> celestialCatalogService.get(celestialCatalogService.canonicalIdOf(id)))
+                .orElseThrow(() -> new ResourceNotFoundException("Unknown celestial object: " + id));
+    }
+}
@@ -2,11 +2,13 @@ package com.example.cosmoconnect.controller;
 
 import com.example.cosmoconnect.model.Competition;
 import com.example.cosmoconnect.service.CompetitionService;
-import com.example.cosmoconnect.service.CompetitionFileStorageService;
+import com.example.cosmoconnect.service.MediaStorageService;
+import com.example.cosmoconnect.service.MediaServingService;
+import com.example.cosmoconnect.service.StorageUsageService;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -15,8 +17,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.MalformedURLException;
-import java.nio.file.Path;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -28,7 +29,13 @@ public class CompetitionController {
     private CompetitionService competitionService;
 
     @Autowired
-    private CompetitionFileStorageService competitionFileStorageService;
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private MediaServingService mediaServingService;
+
+    @Autowired
+    private StorageUsageService storageUsageService;
 
     @PostMapping(value = "/add", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<?> addCompetition(
@@ -57,14 +64,16 @@ public class CompetitionController {
             competition.setSubmissionDeadline(java.time.LocalDate.parse(submissionDeadline));
             competition.setCompetitionStatus(competitionStatus);
             competition.setCountdownTimerEnabled(countdownTimerEnabled);
+            competition.setCreatedBy(storageUsageService.currentOwner());
+            String owner = StorageUsageService.ownerOfCreator(competition.getCreatedBy());
 
             if (competitionBanner != null && !competitionBanner.isEmpty()) {
-                String bannerFilename = competitionFileStorageService.storeFile(competitionBanner);
+                String bannerFilename = MediaNamespace.COMPETITIONS.relative(mediaStorageService.store(competitionBanner, MediaNamespace.COMPETITIONS, owner));
                 competition.setCompetitionBanner("/api/competitions/files/" + bannerFilename.replaceFirst("^competitions/", ""));
             }
 
             if (competitionInstructions != null && !competitionInstructions.isEmpty()) {
-                String instructionsFilename = competitionFileStorageService.storeFile(competitionInstructions);
+                String instructionsFilename = MediaNamespace.COMPETITIONS.relative(mediaStorageService.store(competitionInstructions, MediaNamespace.COMPETITIONS, owner));
                 competition.setCompetition_instructions("/api/competitions/files/" + instructionsFilename.replaceFirst("^competitions/", ""));
             }
 
@@ -119,22 +128,23 @@ public class CompetitionController {
             competition.setSubmissionDeadline(java.time.LocalDate.parse(submissionDeadline));
             competition.setCompetitionStatus(competitionStatus);
             competition.setCountdownTimerEnabled(countdownTimerEnabled);
+            String owner = StorageUsageService.ownerOfCreator(competition.getCreatedBy());
 
             if (competitionBanner != null && !competitionBanner.isEmpty()) {
                 if (competition.getCompetitionBanner() != null) {
                     String oldBanner = competition.getCompetitionBanner().replace("/api/competitions/files/", "competitions/");
-                    competitionFileStorageService.deleteFile(oldBanner);
+                    mediaStorageService.release(MediaNamespace.COMPETITIONS.qualify(oldBanner), owner);
                 }
-                String bannerFilename = competitionFileStorageService.storeFile(competitionBanner);
+                String bannerFilename = MediaNamespace.COMPETITIONS.relative(mediaStorageService.store(competitionBanner, MediaNamespace.COMPETITIONS, owner));
                 competition.setCompetitionBanner("/api/competitions/files/" + bannerFilename.replaceFirst("^competitions/", ""));
             }
 
             if (competitionInstructions != null && !competitionInstructions.isEmpty()) {
                 if (competition.getCompetition_instructions() != null) {
                     String oldInstructions = competition.getCompetition_instructions().replace("/api/competitions/files/", "competitions/");
-                    competitionFileStorageService.deleteFile(oldInstructions);
+                    mediaStorageService.release(MediaNamespace.COMPETITIONS.qualify(oldInstructions), owner);
                 }
-                String instructionsFilename = competitionFileStorageService.storeFile(competitionInstructions);
+                String instructionsFilename = MediaNamespace.COMPETITIONS.relative(mediaStorageService.store(competitionInstructions, MediaNamespace.COMPETITIONS, owner));
                 competition.setCompetition_instructions("/api/competitions/files/" + instructionsFilename.replaceFirst("^competitions/", ""));
             }
 
@@ -152,14 +162,15 @@ public class CompetitionController {
         try {
             logger.info("Received request to delete competition with id: {}", id);
             Competition competition = competitionService.getCompetitionByID(id);
+            String owner = StorageUsageService.ownerOfCreator(competition.getCreatedBy());
 
             if (competition.getCompetitionBanner() != null) {
                 String oldBanner = competition.getCompetitionBanner().replace("/api/competitions/files/", "competitions/");
-                competitionFileStorageService.deleteFile(oldBanner);
+                mediaStorageService.release(MediaNamespace.COMPETITIONS.qualify(oldBanner), owner);
             }
             if (competition.getCompetition_instructions() != null) {
                 String oldInstructions = competition.getCompetition_instructions().replace("/api/competitions/files/", "competitions/");
-                competitionFileStorageService.deleteFile(oldInstructions);
+                mediaStorageService.release(MediaNamespace.COMPETITIONS.qualify(oldInstructions), owner);
             }
 
             competitionService.deleteCompetition(id);
@@ -185,7 +196,8 @@ public class CompetitionController {
     }
 
     @GetMapping("/files/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
-        return competitionFileStorageService.loadFile("competitions/" + filename);
+    public void serveFile(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        mediaServingService.serve("competitions/" + filename, request, response);
     }
 }
\ No newline at end of file
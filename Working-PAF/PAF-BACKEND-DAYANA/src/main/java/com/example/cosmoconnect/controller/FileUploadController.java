@@ -1,18 +1,16 @@
 package com.example.cosmoconnect.controller;
 
-import com.example.cosmoconnect.service.FileStorageService;
+import com.example.cosmoconnect.service.MediaStorageService;
+import com.example.cosmoconnect.service.MediaServingService;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,12 +19,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FileUploadController {
 
-    private final FileStorageService fileStorageService;
+    private final MediaStorageService mediaStorageService;
+    private final MediaServingService mediaServingService;
 
     @PostMapping("/upload")
     public ResponseEntity<String> uploadFile(@RequestParam("file") MultipartFile file) {
         try {
-            String fileName = fileStorageService.storeFile(file, "uploads");
+            String fileName = mediaStorageService.store(file, MediaNamespace.UPLOADS);
             return ResponseEntity.ok(fileName);
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body("Failed to upload file: " + e.getMessage());
@@ -41,7 +40,7 @@ public class FileUploadController {
         List<String> fileNames = new ArrayList<>();
         try {
             for (MultipartFile file : files) {
-                String fileName = fileStorageService.storeFile(file, "uploads");
+                String fileName = mediaStorageService.store(file, MediaNamespace.UPLOADS);
                 fileNames.add(fileName);
             }
             return ResponseEntity.ok(fileNames);
@@ -50,22 +49,11 @@ public class FileUploadController {
         }
     }
 
-    @GetMapping("/{fileName:.+}")
-    public ResponseEntity<Resource> getFile(@PathVariable String fileName) {
-        try {
-            Path filePath = fileStorageService.getFilePath(fileName);
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists() || resource.isReadable()) {
-                return ResponseEntity.ok()
-                        .contentType(MediaType.IMAGE_JPEG)
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                        .body(resource);
-            } else {
-                throw new RuntimeException("Could not read the file!");
-            }
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("Error: " + e.getMessage());
-        }
+    // Stored names may contain a namespace directory, e.g. profile-photos/<name>.jpg
+    @GetMapping("/{*fileName}")
+    public void getFile(@PathVariable String fileName, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String name = fileName.startsWith("/") ? fileName.substring(1) : fileName;
+        mediaServingService.serve(name, request, response);
     }
 } 
\ No newline at end of file
@@ -2,9 +2,13 @@ package com.example.cosmoconnect.controller;
 
 import com.example.cosmoconnect.model.LearningPlan;
 import com.example.cosmoconnect.service.LearningPlanService;
-import com.example.cosmoconnect.service.LearningPlanFileStorageService;
+import com.example.cosmoconnect.service.MediaStorageService;
+import com.example.cosmoconnect.service.MediaServingService;
+import com.example.cosmoconnect.service.StorageUsageService;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -15,6 +19,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/learningplan")
@@ -24,7 +29,10 @@ public class LearningPlanController {
     private LearningPlanService service;
 
     @Autowired
-    private LearningPlanFileStorageService learningPlanFileStorageService;
+    private MediaStorageService mediaStorageService;
+
+    @Autowired
+    private MediaServingService mediaServingService;
 
     @PostMapping
     public ResponseEntity<?> save(
@@ -53,8 +61,9 @@ public class LearningPlanController {
             
             // Store file and set URL
             if (learningMaterial != null && !learningMaterial.isEmpty()) {
-                String storedPath = learningPlanFileStorageService.storeFile(learningMaterial);
-                plan.setLearningMaterials(java.util.List.of("/api/learningplans/files/" + storedPath.substring("learningplans/".length())));
+                String storedPath = mediaStorageService.store(learningMaterial, MediaNamespace.LEARNING_PLANS,
+                        StorageUsageService.ownerOfCreator(plan.getCreatedBy()));
+                plan.setLearningMaterials(java.util.List.of("/api/learningplans/files/" + MediaNamespace.LEARNING_PLANS.relative(storedPath)));
             }
             LearningPlan savedPlan = service.save(plan, null);
             return ResponseEntity.ok(savedPlan);
@@ -75,11 +84,16 @@ public class LearningPlanController {
         try {
             ObjectMapper mapper = new ObjectMapper();
             LearningPlan plan = mapper.readValue(planJson, LearningPlan.class);
-            
-            // Store file and set URL
+            Optional<LearningPlan> existing = service.getById(id);
+            if (existing.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            // Store file and set URL; it counts against the plan creator's quota, not the editor's
             if (learningMaterial != null && !learningMaterial.isEmpty()) {
-                String storedPath = learningPlanFileStorageService.storeFile(learningMaterial);
-                plan.setLearningMaterials(java.util.List.of("/api/learningplans/files/" + storedPath.substring("learningplans/".length())));
+                String storedPath = mediaStorageService.store(learningMaterial, MediaNamespace.LEARNING_PLANS,
+                        StorageUsageService.ownerOfCreator(existing.get().getCreatedBy()));
+                plan.setLearningMaterials(java.util.List.of("/api/learningplans/files/" + MediaNamespace.LEARNING_PLANS.relative(storedPath)));
             }
             LearningPlan updated = service.update(id, plan, null);
             return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
@@ -110,8 +124,9 @@ public class LearningPlanController {
     }
 
     @GetMapping("/uploads/{filename:.+}")
-    public ResponseEntity<Resource> getFile(@PathVariable String filename) {
-        return learningPlanFileStorageService.loadFile("learningplans/" + filename);
+    public void getFile(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        mediaServingService.serve("learningplans/" + filename, request, response);
     }
 
     @DeleteMapping("/{id}")
@@ -136,9 +151,14 @@ public class LearningPlanController {
             @RequestPart("learningmaterial") MultipartFile learningMaterial
     ) throws IOException {
         if (learningMaterial != null && !learningMaterial.isEmpty()) {
-            String storedPath = learningPlanFileStorageService.storeFile(learningMaterial);
+            Optional<LearningPlan> existing = service.getById(id);
+            if (existing.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String storedPath = mediaStorageService.store(learningMaterial, MediaNamespace.LEARNING_PLANS,
+                    StorageUsageService.ownerOfCreator(existing.get().getCreatedBy()));
             LearningPlan plan = new LearningPlan();
-            plan.setLearningMaterials(java.util.List.of("/api/learningplans/files/" + storedPath.substring("learningplans/".length())));
+            plan.setLearningMaterials(java.util.List.of("/api/learningplans/files/" + MediaNamespace.LEARNING_PLANS.relative(storedPath)));
             LearningPlan updated = service.update(id, plan, null);
             return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
         }
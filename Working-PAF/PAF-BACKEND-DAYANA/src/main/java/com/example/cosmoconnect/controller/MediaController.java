@@ -0,0 +1,46 @@
+package com.example.cosmoconnect.controller;
+
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.service.MediaServingService;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequiredArgsConstructor
+public class MediaController {
+
+    private final MediaServingService mediaServingService;
+
+    @GetMapping("/api/{namespace:posts|competitions|learningplans}/files/{filename:.+}")
+    public void serveFile(
+            @PathVariable String namespace,
+            @PathVariable String filename,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws IOException {
+        mediaServingService.serve(namespace + "/" + filename, request, response);
+    }
+
+    // Legacy direct links to the upload directory, now read through the configured MediaStore. Only
+    // names inside a media namespace resolve; flat names are learning plan materials that were once
+    // written to the root, which the learningplans/ lookup falls back to.
+    @GetMapping("/uploads/{*name}")
+    public void serveUpload(@PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String storedName = name.startsWith("/") ? name.substring(1) : name;
+        if (MediaNamespace.ofStoredName(storedName) == null) {
+            if (storedName.contains("/")) {
+                throw new ResourceNotFoundException("File not found: " + storedName);
+            }
+            storedName = MediaNamespace.LEARNING_PLANS.qualify(storedName);
+        }
+        mediaServingService.serve(storedName, request, response);
+    }
+}
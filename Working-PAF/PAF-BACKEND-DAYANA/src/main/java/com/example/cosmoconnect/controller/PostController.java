@@ -1,8 +1,14 @@
 package com.example.cosmoconnect.controller;
 
+import com.example.cosmoconnect.dto.CursorPage;
 import com.example.cosmoconnect.dto.PostDto;
 import com.example.cosmoconnect.service.PostService;
-import com.example.cosmoconnect.service.PostFileStorageService;
+import com.example.cosmoconnect.service.ExploreFeedService;
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.service.MediaStorageService;
+import com.example.cosmoconnect.service.StreamingIngestService;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +19,8 @@ import org.springframework.web.bind.annotation.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -22,7 +30,9 @@ import java.util.List;
 public class PostController {
 
     private final PostService postService;
-    private final PostFileStorageService postFileStorageService;
+    private final ExploreFeedService exploreFeedService;
+    private final MediaStorageService mediaStorageService;
+    private final StreamingIngestService streamingIngestService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private String getUserEmail(Authentication authentication) {
@@ -77,6 +87,64 @@ public class PostController {
         return ResponseEntity.ok(postService.getPost(postId, userEmail));
     }
 
+    @GetMapping("/{postId}/similar")
+    public ResponseEntity<List<PostDto>> getSimilarPosts(
+            @PathVariable String postId,
+            @RequestParam(required = false) Integer maxDistance,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication
+    ) {
+        String userEmail = getUserEmail(authentication);
+        return ResponseEntity.ok(postService.getSimilarPosts(postId, userEmail, maxDistance, Math.max(1, Math.min(limit, 100))));
+    }
+
+    // Near-duplicates of an image the user is about to post; an empty list means nothing similar
+    @PostMapping(value = "/duplicates", consumes = "multipart/form-data")
+    public ResponseEntity<List<PostDto>> findDuplicates(@RequestPart("media") MultipartFile media,
+                                                        Authentication authentication) {
+        String userEmail = getUserEmail(authentication);
+        return ResponseEntity.ok(postService.findDuplicates(media, userEmail));
+    }
+
+    // Cone search: posts whose coordinates lie within radius degrees of ra/dec (or of the text in at)
+    @GetMapping("/sky")
+    public ResponseEntity<List<PostDto>> getPostsInCone(
+            @RequestParam(required = false) Double ra,
+            @RequestParam(required = false) Double dec,
+            @RequestParam(required = false) String at,
+            @RequestParam(defaultValue = "1") double radius,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication
+    ) {
+        String userEmail = getUserEmail(authentication);
+        return ResponseEntity.ok(postService.getPostsInCone(ra, dec, at, radius, Math.max(1, Math.min(limit, 200)), userEmail));
+    }
+
+    // Sightings observed within km of lat/lon, e.g. ?lat=64.1&lon=-21.9&km=50&since=PT6H for tonight's aurora
+    @GetMapping("/nearby")
+    public ResponseEntity<List<PostDto>> getNearbyPosts(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "25") double km,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication
+    ) {
+        String userEmail = getUserEmail(authentication);
+        return ResponseEntity.ok(postService.getNearbyPosts(lat, lon, km, since, Math.max(1, Math.min(limit, 200)), userEmail));
+    }
+
+    // Hot posts: likes and comments decayed by age (12 h half-life by default); pass nextCursor back as cursor
+    @GetMapping("/trending")
+    public ResponseEntity<CursorPage<PostDto>> getTrendingPosts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication
+    ) {
+        String userEmail = getUserEmail(authentication);
+        return ResponseEntity.ok(postService.getTrendingPosts(cursor, Math.max(1, Math.min(limit, 50)), userEmail));
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<PostDto>> getUserPosts(@PathVariable String userId, Authentication authentication) {
         String userEmail = getUserEmail(authentication);
@@ -90,11 +158,18 @@ public class PostController {
         return ResponseEntity.ok(postService.getFeedPosts(userEmail));
     }
 
+    // Explore feed, newest first; category narrows it to AstroCapture, SkyLog, SkillTutorial, ...
     @GetMapping("/public")
-    public ResponseEntity<List<PostDto>> getPublicPosts(Authentication authentication) {
+    public ResponseEntity<List<PostDto>> getPublicPosts(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication
+    ) {
         log.debug("Getting public posts with authentication: {}", authentication);
         String userEmail = getUserEmail(authentication);
-        return ResponseEntity.ok(postService.getAllPublicPosts(userEmail));
+        return ResponseEntity.ok(exploreFeedService.getExplorePage(category, Math.max(0, page),
+                Math.max(1, Math.min(size, 50)), userEmail));
     }
 
     @PutMapping("/{postId}")
@@ -156,16 +231,37 @@ public class PostController {
         PostDto postDto = objectMapper.readValue(postJson, PostDto.class);
         log.debug("Parsed PostDto: {}", postDto);
         
-        // Store files and set URLs
-        if (media != null && media.length > 0) {
-            List<String> mediaUrls = new java.util.ArrayList<>();
-            for (MultipartFile file : media) {
-                String storedPath = postFileStorageService.storeFile(file);
-                mediaUrls.add("/api/posts/files/" + storedPath.substring("posts/".length()));
+        List<String> uploaded = storeAll(media, userEmail);
+        try {
+            return ResponseEntity.ok(postService.createPost(postDto, uploaded, userEmail));
+        } catch (Exception e) {
+            releaseAll(uploaded, userEmail);
+            throw e;
+        }
+    }
+
+    // Same as /multipart, but the body is parsed as it arrives and files go straight into media
+    // storage instead of being spooled to container temp files first
+    @PostMapping(value = "/stream", consumes = "multipart/form-data")
+    public ResponseEntity<PostDto> createPostStreaming(HttpServletRequest request, Authentication authentication)
+            throws Exception {
+        String userEmail = getUserEmail(authentication);
+        StreamingIngestService.IngestResult upload = streamingIngestService.ingest(request, MediaNamespace.POSTS);
+        try {
+            String postJson = upload.getFields().get("post");
+            if (postJson == null) {
+                throw new BadRequestException("Missing 'post' part");
+            }
+            PostDto postDto = objectMapper.readValue(postJson, PostDto.class);
+            List<String> uploaded = new ArrayList<>();
+            for (StreamingIngestService.StoredFile file : upload.getFiles()) {
+                uploaded.add(file.getStoredName());
             }
-            postDto.setMediaUrls(mediaUrls);
+            return ResponseEntity.ok(postService.createPost(postDto, uploaded, userEmail));
+        } catch (Exception e) {
+            streamingIngestService.discard(upload);
+            throw e;
         }
-        return ResponseEntity.ok(postService.createPost(postDto, userEmail));
     }
 
     @PutMapping("/{postId}/multipart")
@@ -177,15 +273,40 @@ public class PostController {
     ) throws Exception {
         String userEmail = getUserEmail(authentication);
         PostDto postDto = objectMapper.readValue(postJson, PostDto.class);
-        // Store files and set URLs
-        if (media != null && media.length > 0) {
-            List<String> mediaUrls = postDto.getMediaUrls() != null ? new java.util.ArrayList<>(postDto.getMediaUrls()) : new java.util.ArrayList<>();
-            for (MultipartFile file : media) {
-                String storedPath = postFileStorageService.storeFile(file);
-                mediaUrls.add("/api/posts/files/" + storedPath.substring("posts/".length()));
+        List<String> uploaded = storeAll(media, userEmail);
+        try {
+            return ResponseEntity.ok(postService.updatePost(postId, postDto, uploaded, userEmail));
+        } catch (Exception e) {
+            releaseAll(uploaded, userEmail);
+            throw e;
+        }
+    }
+
+    // Stored names of the request's files; the post they are attached to takes over their references.
+    // If the request fails first, they are released so neither the blobs nor the quota stay charged.
+    private List<String> storeAll(MultipartFile[] media, String userEmail) throws IOException {
+        List<String> uploaded = new ArrayList<>();
+        if (media != null) {
+            try {
+                for (MultipartFile file : media) {
+                    uploaded.add(mediaStorageService.store(file, MediaNamespace.POSTS, userEmail));
+                }
+            } catch (IOException | RuntimeException e) {
+                releaseAll(uploaded, userEmail);
+                throw e;
+            }
+        }
+        return uploaded;
+    }
+
+    // Failures are left for the media garbage collector rather than hiding the original error
+    private void releaseAll(List<String> uploaded, String userEmail) {
+        for (String storedName : uploaded) {
+            try {
+                mediaStorageService.release(storedName, userEmail);
+            } catch (RuntimeException e) {
+                log.warn("Failed to release media {}", storedName, e);
             }
-            postDto.setMediaUrls(mediaUrls);
         }
-        return ResponseEntity.ok(postService.updatePost(postId, postDto, userEmail));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.cosmoconnect.controller;
+
+import com.example.cosmoconnect.dto.CursorPage;
+import com.example.cosmoconnect.dto.PostSearchHit;
+import com.example.cosmoconnect.service.PostSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final PostSearchService postSearchService;
+
+    // q accepts words, "quoted phrases" and -excluded terms; pass nextCursor back as cursor for more
+    @GetMapping("/posts")
+    public ResponseEntity<CursorPage<PostSearchHit>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication
+    ) {
+        return ResponseEntity.ok(postSearchService.search(q, cursor, Math.max(1, Math.min(limit, 50)), authentication.getName()));
+    }
+}
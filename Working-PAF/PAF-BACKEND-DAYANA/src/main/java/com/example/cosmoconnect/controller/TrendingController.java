@@ -0,0 +1,28 @@
+package com.example.cosmoconnect.controller;
+
+import com.example.cosmoconnect.dto.TrendingItem;
+import com.example.cosmoconnect.service.TrendingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/trending")
+@RequiredArgsConstructor
+public class TrendingController {
+
+    private final TrendingService trendingService;
+
+    // Most-posted catalog objects across public posts in the trending window (24 hours by default)
+    @GetMapping("/objects")
+    public ResponseEntity<List<TrendingItem>> getTrendingObjects(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingService.topObjects(Math.max(1, Math.min(limit, 50))));
+    }
+
+    @GetMapping("/tags")
+    public ResponseEntity<List<TrendingItem>> getTrendingTags(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(trendingService.topTags(Math.max(1, Math.min(limit, 50))));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.cosmoconnect.controller;
+
+import com.example.cosmoconnect.dto.UploadSessionDto;
+import com.example.cosmoconnect.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+
+// Resumable upload protocol (modelled on tus): POST to start, PUT chunks with Upload-Offset,
+// HEAD to find where to resume, then POST /complete. The returned mediaReference ("upload:<id>")
+// can be used in a post's mediaUrls.
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+
+    private final ResumableUploadService resumableUploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionDto> startUpload(@RequestBody UploadSessionDto request, Authentication authentication)
+            throws IOException {
+        UploadSessionDto session = resumableUploadService.start(request, authentication.getName());
+        return ResponseEntity.created(URI.create("/api/uploads/" + session.getId()))
+                .header(UPLOAD_OFFSET, "0")
+                .body(session);
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getOffset(@PathVariable String id, Authentication authentication) {
+        UploadSessionDto session = resumableUploadService.get(id, authentication.getName());
+        return ResponseEntity.ok()
+                .header(UPLOAD_OFFSET, String.valueOf(session.getOffset()))
+                .header(UPLOAD_LENGTH, String.valueOf(session.getLength()))
+                .header("Cache-Control", "no-store")
+                .build();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionDto> getUpload(@PathVariable String id, Authentication authentication) {
+        return ResponseEntity.ok(resumableUploadService.get(id, authentication.getName()));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Void> uploadChunk(
+            @PathVariable String id,
+            @RequestHeader(UPLOAD_OFFSET) long offset,
+            @RequestHeader(value = "Upload-Checksum", required = false) String checksum,
+            HttpServletRequest request,
+            Authentication authentication
+    ) throws IOException {
+        long newOffset = resumableUploadService.writeChunk(id, authentication.getName(), offset,
+                request.getContentLengthLong(), checksum, request.getInputStream());
+        return ResponseEntity.status(HttpStatus.NO_CONTENT)
+                .header(UPLOAD_OFFSET, String.valueOf(newOffset))
+                .build();
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<UploadSessionDto> completeUpload(
+            @PathVariable String id,
+            @RequestBody(required = false) UploadSessionDto request,
+            Authentication authentication
+    ) throws IOException {
+        String sha256 = request != null ? request.getSha256() : null;
+        return ResponseEntity.ok(resumableUploadService.complete(id, authentication.getName(), sha256));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> abortUpload(@PathVariable String id, Authentication authentication) throws IOException {
+        resumableUploadService.abort(id, authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,6 +1,12 @@
 package com.example.cosmoconnect.controller;
 
+import com.example.cosmoconnect.dto.CursorPage;
+import com.example.cosmoconnect.dto.FollowSuggestion;
 import com.example.cosmoconnect.dto.UserDto;
+import com.example.cosmoconnect.dto.UserSummary;
+import com.example.cosmoconnect.service.FollowService;
+import com.example.cosmoconnect.service.FollowSuggestionService;
+import com.example.cosmoconnect.service.UserDirectoryService;
 import com.example.cosmoconnect.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -8,9 +14,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import com.example.cosmoconnect.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import com.example.cosmoconnect.model.User;
 
 import java.util.List;
 
@@ -20,8 +23,9 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
-    @Autowired
-    private UserRepository userRepository;
+    private final FollowService followService;
+    private final UserDirectoryService userDirectoryService;
+    private final FollowSuggestionService followSuggestionService;
 
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
@@ -29,6 +33,24 @@ public class UserController {
         return ResponseEntity.ok(userService.getCurrentUser());
     }
 
+    // People search by name or username prefix, most followed first; a blank q lists everyone
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<UserSummary>> searchUsers(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        return ResponseEntity.ok(markFollowed(userDirectoryService.search(q, cursor, Math.max(1, Math.min(limit, 50))),
+                authentication));
+    }
+
+    // Who to follow, recomputed nightly from the follow graph and shared interests
+    @GetMapping("/suggestions")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<FollowSuggestion>> getSuggestions(Authentication authentication) {
+        return ResponseEntity.ok(followSuggestionService.suggestionsFor(authentication.getName()));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserDto> getUserById(@PathVariable String id) {
         return ResponseEntity.ok(userService.getUserById(id));
@@ -57,61 +79,45 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
-    @GetMapping("")
-    public List<User> getAllUsers() {
-        System.out.println("[UserController] getAllUsers endpoint called");
-        return userRepository.findAll();
-    }
-
     @PostMapping("/{id}/follow")
+    @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> followUser(@PathVariable String id, Authentication authentication) {
-        String email = authentication.getName();
-        User currentUser = userRepository.findByEmail(email).orElse(null);
-        User targetUser = userRepository.findById(id).orElse(null);
-        if (currentUser == null || targetUser == null) {
-            return ResponseEntity.badRequest().body("User not found");
-        }
-        if (currentUser.getFollowing() == null) currentUser.setFollowing(new java.util.ArrayList<>());
-        if (targetUser.getFollowers() == null) targetUser.setFollowers(new java.util.ArrayList<>());
-        if (!currentUser.getFollowing().contains(id)) {
-            currentUser.getFollowing().add(id);
-            targetUser.getFollowers().add(currentUser.getId());
-            userRepository.save(currentUser);
-            userRepository.save(targetUser);
-        }
+        followService.follow(authentication.getName(), id);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/{id}/unfollow")
+    @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> unfollowUser(@PathVariable String id, Authentication authentication) {
-        String email = authentication.getName();
-        User currentUser = userRepository.findByEmail(email).orElse(null);
-        User targetUser = userRepository.findById(id).orElse(null);
-        if (currentUser == null || targetUser == null) {
-            return ResponseEntity.badRequest().body("User not found");
-        }
-        if (currentUser.getFollowing() == null) currentUser.setFollowing(new java.util.ArrayList<>());
-        if (targetUser.getFollowers() == null) targetUser.setFollowers(new java.util.ArrayList<>());
-        if (currentUser.getFollowing().contains(id)) {
-            currentUser.getFollowing().remove(id);
-            targetUser.getFollowers().remove(currentUser.getId());
-            userRepository.save(currentUser);
-            userRepository.save(targetUser);
-        }
+        followService.unfollow(authentication.getName(), id);
         return ResponseEntity.ok().build();
     }
 
+    // Pass nextCursor back as cursor for the next page
     @GetMapping("/{id}/followers")
-    public List<User> getFollowers(@PathVariable String id) {
-        User user = userRepository.findById(id).orElse(null);
-        if (user == null || user.getFollowers() == null) return java.util.Collections.emptyList();
-        return userRepository.findAllById(user.getFollowers());
+    public ResponseEntity<CursorPage<UserSummary>> getFollowers(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        return ResponseEntity.ok(markFollowed(followService.followersOf(id, cursor, Math.max(1, Math.min(limit, 100))),
+                authentication));
     }
 
     @GetMapping("/{id}/following")
-    public List<User> getFollowing(@PathVariable String id) {
-        User user = userRepository.findById(id).orElse(null);
-        if (user == null || user.getFollowing() == null) return java.util.Collections.emptyList();
-        return userRepository.findAllById(user.getFollowing());
+    public ResponseEntity<CursorPage<UserSummary>> getFollowing(
+            @PathVariable String id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
+        return ResponseEntity.ok(markFollowed(followService.followingOf(id, cursor, Math.max(1, Math.min(limit, 100))),
+                authentication));
+    }
+
+    private CursorPage<UserSummary> markFollowed(CursorPage<UserSummary> page, Authentication authentication) {
+        if (authentication != null) {
+            followService.markFollowed(authentication.getName(), page.getItems());
+        }
+        return page;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,20 @@
+package com.example.cosmoconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A suggested account with the reasons it was suggested
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FollowSuggestion {
+    private String id;
+    private String fullName;
+    private String imageUrl;
+    private String astronomyLevel;
+    private int mutualFollows;
+    private int sharedInterests;
+}
@@ -0,0 +1,30 @@
+package com.example.cosmoconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaGcReport {
+    private boolean running;
+    private boolean dryRun;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long documentsScanned;
+    private long referencesMarked;
+    private long objectsScanned;
+    private long orphansFound;
+    private long orphanBytes;
+    private long skippedInGracePeriod;
+    private long quarantined;
+    private long quarantinePurged;
+    private List<String> sampleOrphans; // First few orphaned keys, to sanity-check a dry run
+    private String lastError;
+}
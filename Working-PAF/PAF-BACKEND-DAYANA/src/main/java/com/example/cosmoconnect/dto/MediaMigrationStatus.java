@@ -0,0 +1,26 @@
+package com.example.cosmoconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MediaMigrationStatus {
+    private boolean running;
+    private boolean dryRun;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long documentsScanned;
+    private long referencesMigrated;
+    private long bytesMigrated;
+    private long missingFiles;
+    private long conflicts;
+    private long legacyFilesDeleted;
+    private String lastError;
+}
@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Map;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -21,10 +21,21 @@ public class PostDto {
     private String description;
     private String content;
     private List<String> mediaUrls;
+    // Parallel to mediaUrls: a ready-to-use srcset and the smallest image for each entry
+    private List<String> mediaSrcsets;
+    private List<String> thumbnailUrls;
     private String mediaType;
     private String telescopeUsed;
     private String location;
+    // Observation site; send both to set it, or neither. Published rounded to 0.01 degrees.
+    private Double latitude;
+    private Double longitude;
+    // Whether GPS tags in the uploaded media may locate the post; off unless the author opts in
+    private Boolean shareMediaLocation;
+    // On update, drops the observation site (and the media opt-in with it)
+    private boolean clearLocation;
     private String celestialObject;
+    private String celestialObjectId;
     private LocalDateTime observationDateTime;
     private String observationConditions;
     private String authorId;
@@ -37,6 +48,9 @@ public class PostDto {
     private boolean isLiked;
     private boolean isPublic;
     private String coordinates;
+    // coordinates in degrees, when they could be parsed
+    private Double ra;
+    private Double dec;
     private String exposureTime;
     private String equipmentDetails;
     private String processingDetails;
@@ -49,6 +63,15 @@ public class PostDto {
 
     private List<String> removedMedia;
 
+    // Hamming distance between perceptual hashes, set only on similar-image results
+    private Integer similarityDistance;
+
+    // Degrees from the search centre, set only on sky cone-search results
+    private Double skyDistance;
+
+    // Kilometres from the search point, set only on nearby results
+    private Double distanceKm;
+
     @Data
     @Builder
     @NoArgsConstructor
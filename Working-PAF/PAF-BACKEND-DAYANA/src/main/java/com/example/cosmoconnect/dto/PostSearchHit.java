@@ -0,0 +1,19 @@
+package com.example.cosmoconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PostSearchHit {
+    private PostDto post;
+    private double score;
+    // Field name -> HTML-escaped snippet with matched terms wrapped in <mark>
+    private Map<String, String> highlights;
+}
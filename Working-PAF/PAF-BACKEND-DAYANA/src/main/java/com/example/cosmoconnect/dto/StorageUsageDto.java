@@ -0,0 +1,20 @@
+package com.example.cosmoconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorageUsageDto {
+    private String owner;
+    private long bytes;
+    private long files;
+    private Long quotaBytes; // null when unlimited
+    private Map<String, Long> bytesByNamespace;
+}
@@ -0,0 +1,17 @@
+package com.example.cosmoconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingItem {
+    private String key; // catalog id or normalised tag
+    private String name;
+    private String type; // catalog object type; null for tags
+    private long count; // approximate posts in the window, never an undercount
+}
@@ -0,0 +1,26 @@
+package com.example.cosmoconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionDto {
+    private String id;
+    private String filename;
+    private String contentType;
+    private String namespace;   // posts by default
+    private long length;
+    private long offset;
+    private String status;
+    private String storedName;
+    private String mediaReference; // Value to put in PostDto.mediaUrls, e.g. "upload:<id>"
+    private String sha256;         // Optional whole-file checksum when completing
+    private LocalDateTime expiresAt;
+}
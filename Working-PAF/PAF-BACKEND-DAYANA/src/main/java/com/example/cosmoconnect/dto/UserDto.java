@@ -43,6 +43,10 @@ public class UserDto {
     private boolean sharePersonalInfo;
     private Set<String> knownLanguages;
 
+    // Social
+    private long followersCount;
+    private long followingCount;
+
     // Achievements
     private Set<String> certifications;
     private Set<String> observationBadges;
@@ -0,0 +1,20 @@
+package com.example.cosmoconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// What a listing of people needs to show for each user
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSummary {
+    private String id;
+    private String fullName;
+    private String imageUrl;
+    private String astronomyLevel;
+    // Whether the signed-in reader follows this user; null for anonymous readers
+    private Boolean followedByMe;
+}
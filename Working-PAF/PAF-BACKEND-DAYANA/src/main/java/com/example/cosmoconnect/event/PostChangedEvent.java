@@ -0,0 +1,12 @@
+package com.example.cosmoconnect.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published after a post is edited or deleted, for caches keyed on what it used to show
+@Data
+@AllArgsConstructor
+public class PostChangedEvent {
+    private String postId;
+    private String category;
+}
@@ -0,0 +1,19 @@
+package com.example.cosmoconnect.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Published after a new post is saved, carrying what in-memory aggregates need without a reload
+@Data
+@AllArgsConstructor
+public class PostCreatedEvent {
+    private String postId;
+    private String celestialObjectId;
+    private List<String> skillTags;
+    private String category;
+    private boolean publicPost;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.example.cosmoconnect.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Published after a post's likes, comments or visibility change, with the totals as they now stand
+@Data
+@AllArgsConstructor
+public class PostEngagementEvent {
+    private String postId;
+    private int likeCount;
+    private long commentCount;
+    private boolean publicPost;
+    private LocalDateTime createdAt;
+}
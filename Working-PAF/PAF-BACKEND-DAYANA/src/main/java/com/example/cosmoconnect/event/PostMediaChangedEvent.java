@@ -0,0 +1,11 @@
+package com.example.cosmoconnect.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// Published after a post is saved with new or changed media, for background media processing
+@Data
+@AllArgsConstructor
+public class PostMediaChangedEvent {
+    private String postId;
+}
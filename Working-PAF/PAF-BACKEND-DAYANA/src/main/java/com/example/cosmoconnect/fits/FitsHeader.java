@@ -0,0 +1,70 @@
+package com.example.cosmoconnect.fits;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keyword values from the primary header of a FITS file, plus where its data unit starts.
+// String values have their quotes removed; comments after '/' are dropped.
+public class FitsHeader {
+
+    private final Map<String, String> values;
+    private final long dataOffset;
+
+    public FitsHeader(Map<String, String> values, long dataOffset) {
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        this.dataOffset = dataOffset;
+    }
+
+    public Map<String, String> getValues() {
+        return values;
+    }
+
+    public long getDataOffset() {
+        return dataOffset;
+    }
+
+    public String getString(String keyword) {
+        String value = values.get(keyword);
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    public Double getDouble(String keyword) {
+        String value = getString(keyword);
+        if (value == null) {
+            return null;
+        }
+        try {
+            // Fortran-style exponents (1.5D+02) are legal in FITS
+            return Double.parseDouble(value.replace('D', 'E').replace('d', 'e'));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public int getInt(String keyword, int defaultValue) {
+        Double value = getDouble(keyword);
+        return value == null ? defaultValue : value.intValue();
+    }
+
+    public int getBitpix() {
+        return getInt("BITPIX", 0);
+    }
+
+    public int getAxis(int n) {
+        return getInt("NAXIS" + n, 0);
+    }
+
+    // Size of the primary data unit in bytes, excluding padding
+    public long getDataSize() {
+        int naxis = getInt("NAXIS", 0);
+        if (naxis == 0) {
+            return 0;
+        }
+        long count = 1;
+        for (int i = 1; i <= naxis; i++) {
+            count *= getAxis(i);
+        }
+        return count * (Math.abs(getBitpix()) / 8);
+    }
+}
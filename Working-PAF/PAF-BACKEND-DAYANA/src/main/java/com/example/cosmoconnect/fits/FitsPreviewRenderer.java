@@ -0,0 +1,145 @@
+package com.example.cosmoconnect.fits;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+// Renders the first image plane of a FITS file as an 8-bit greyscale preview.
+// The data unit is memory-mapped a window of rows at a time and box-averaged into a grid no
+// larger than maxSize on either side, so memory use depends on the preview size, not the frame.
+public final class FitsPreviewRenderer {
+
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+    private static final int MAX_PERCENTILE_SAMPLES = 1 << 18;
+    // Black and white points as fractions of the pixel distribution, then an asinh stretch
+    // so faint nebulosity stays visible without blowing out stars
+    private static final double LOW_PERCENTILE = 0.0025;
+    private static final double HIGH_PERCENTILE = 0.9985;
+    private static final double STRETCH = 12.0;
+
+    private FitsPreviewRenderer() {
+    }
+
+    public static BufferedImage render(FileChannel channel, FitsHeader header, int maxSize) throws IOException {
+        int bitpix = header.getBitpix();
+        int width = header.getAxis(1);
+        int height = header.getInt("NAXIS", 0) >= 2 ? header.getAxis(2) : 1;
+        if (width <= 0 || height <= 0 || !supported(bitpix)) {
+            throw new IOException("Unsupported FITS image (BITPIX=" + bitpix + ", NAXIS1=" + width + ")");
+        }
+        int bytesPerPixel = Math.abs(bitpix) / 8;
+        long rowBytes = (long) width * bytesPerPixel;
+        if (header.getDataOffset() + rowBytes * height > channel.size()) {
+            throw new IOException("FITS data unit is truncated");
+        }
+
+        double bzero = header.getDouble("BZERO") != null ? header.getDouble("BZERO") : 0;
+        double bscale = header.getDouble("BSCALE") != null ? header.getDouble("BSCALE") : 1;
+        Double blank = bitpix > 0 ? header.getDouble("BLANK") : null;
+
+        int step = Math.max(1, Math.max(ceilDiv(width, maxSize), ceilDiv(height, maxSize)));
+        int outWidth = ceilDiv(width, step);
+        int outHeight = ceilDiv(height, step);
+        float[] cells = new float[outWidth * outHeight];
+        int[] counts = new int[outWidth * outHeight];
+
+        int rowsPerWindow = (int) Math.max(1, Math.min(height, WINDOW_BYTES / rowBytes));
+        for (int firstRow = 0; firstRow < height; firstRow += rowsPerWindow) {
+            int rows = Math.min(rowsPerWindow, height - firstRow);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                    header.getDataOffset() + firstRow * rowBytes, rows * rowBytes);
+            for (int r = 0; r < rows; r++) {
+                int y = firstRow + r;
+                // FITS rows run bottom to top
+                int cellRow = (outHeight - 1 - y / step) * outWidth;
+                for (int x = 0; x < width; x++) {
+                    double raw = read(window, bitpix);
+                    if (Double.isNaN(raw) || (blank != null && raw == blank)) {
+                        continue;
+                    }
+                    int cell = cellRow + x / step;
+                    cells[cell] += (float) (bzero + bscale * raw);
+                    counts[cell]++;
+                }
+            }
+        }
+
+        float[] sample = sample(cells, counts);
+        if (sample.length == 0) {
+            throw new IOException("FITS image has no valid pixels");
+        }
+        Arrays.sort(sample);
+        double low = sample[(int) (LOW_PERCENTILE * (sample.length - 1))];
+        double high = sample[(int) (HIGH_PERCENTILE * (sample.length - 1))];
+        double range = high > low ? high - low : 1;
+        double norm = asinh(STRETCH);
+
+        BufferedImage image = new BufferedImage(outWidth, outHeight, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] pixels = new byte[outWidth];
+        for (int y = 0; y < outHeight; y++) {
+            for (int x = 0; x < outWidth; x++) {
+                int cell = y * outWidth + x;
+                if (counts[cell] == 0) {
+                    pixels[x] = 0;
+                    continue;
+                }
+                double v = Math.min(1, Math.max(0, (cells[cell] / counts[cell] - low) / range));
+                pixels[x] = (byte) Math.round(255 * asinh(v * STRETCH) / norm);
+            }
+            image.getRaster().setDataElements(0, y, outWidth, 1, pixels);
+        }
+        return image;
+    }
+
+    private static boolean supported(int bitpix) {
+        return bitpix == 8 || bitpix == 16 || bitpix == 32 || bitpix == 64 || bitpix == -32 || bitpix == -64;
+    }
+
+    // Values are big-endian, which is the ByteBuffer default; BITPIX 8 is unsigned
+    private static double read(MappedByteBuffer buffer, int bitpix) {
+        switch (bitpix) {
+            case 8:
+                return buffer.get() & 0xFF;
+            case 16:
+                return buffer.getShort();
+            case 32:
+                return buffer.getInt();
+            case 64:
+                return buffer.getLong();
+            case -32:
+                return buffer.getFloat();
+            default:
+                return buffer.getDouble();
+        }
+    }
+
+    // Cell means, thinned evenly to a bounded number for the percentile sort
+    private static float[] sample(float[] cells, int[] counts) {
+        int valid = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                valid++;
+            }
+        }
+        int stride = Math.max(1, ceilDiv(valid, MAX_PERCENTILE_SAMPLES));
+        float[] sample = new float[ceilDiv(valid, stride)];
+        int n = 0;
+        int seen = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (counts[i] > 0 && seen++ % stride == 0 && n < sample.length) {
+                sample[n++] = cells[i] / counts[i];
+            }
+        }
+        return n == sample.length ? sample : Arrays.copyOf(sample, n);
+    }
+
+    private static double asinh(double x) {
+        return Math.log(x + Math.sqrt(x * x + 1));
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.cosmoconnect.fits;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Reads FITS primary headers: 80-character ASCII cards packed into 2880-byte blocks, ending at END.
+// File channels are memory-mapped a few blocks at a time so only the header is ever touched.
+public final class FitsReader {
+
+    public static final int BLOCK_SIZE = 2880;
+    private static final int CARD_SIZE = 80;
+    private static final int BLOCKS_PER_MAP = 16;
+    // Real headers are a handful of blocks; anything longer is not a FITS file we want to parse
+    private static final int MAX_HEADER_BLOCKS = 512;
+
+    private FitsReader() {
+    }
+
+    public static boolean isFitsName(String name) {
+        if (name == null) {
+            return false;
+        }
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".fits") || lower.endsWith(".fit") || lower.endsWith(".fts");
+    }
+
+    public static FitsHeader readHeader(FileChannel channel) throws IOException {
+        long size = channel.size();
+        HeaderParser parser = new HeaderParser();
+        long position = 0;
+        while (!parser.done) {
+            if (position >= size || position >= (long) MAX_HEADER_BLOCKS * BLOCK_SIZE) {
+                throw new IOException("FITS header has no END card");
+            }
+            long length = Math.min((long) BLOCKS_PER_MAP * BLOCK_SIZE, size - position);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            position += parser.accept(buffer);
+        }
+        return parser.toHeader();
+    }
+
+    // For stores without a local file: reads block by block from the start of the object
+    public static FitsHeader readHeader(InputStream in) throws IOException {
+        HeaderParser parser = new HeaderParser();
+        byte[] block = new byte[BLOCK_SIZE];
+        int blocks = 0;
+        while (!parser.done) {
+            if (blocks++ >= MAX_HEADER_BLOCKS || in.readNBytes(block, 0, BLOCK_SIZE) < BLOCK_SIZE) {
+                throw new IOException("FITS header has no END card");
+            }
+            parser.accept(ByteBuffer.wrap(block));
+        }
+        return parser.toHeader();
+    }
+
+    private static final class HeaderParser {
+        private final Map<String, String> values = new LinkedHashMap<>();
+        private final byte[] card = new byte[CARD_SIZE];
+        private long consumed;
+        private int cards;
+        private boolean done;
+
+        // Consumes whole cards from the buffer and returns the bytes used
+        long accept(ByteBuffer buffer) throws IOException {
+            long start = consumed;
+            while (!done && buffer.remaining() >= CARD_SIZE) {
+                buffer.get(card);
+                consumed += CARD_SIZE;
+                parseCard(new String(card, StandardCharsets.US_ASCII));
+            }
+            return consumed - start;
+        }
+
+        private void parseCard(String text) throws IOException {
+            String keyword = text.substring(0, 8).trim();
+            if (cards++ == 0 && (!keyword.equals("SIMPLE") || !"T".equals(valueOf(text)))) {
+                throw new IOException("Not a FITS file");
+            }
+            if (keyword.equals("END")) {
+                done = true;
+                return;
+            }
+            // Only "KEYWORD = value" cards carry values; COMMENT/HISTORY and blanks are skipped
+            if (keyword.isEmpty() || text.charAt(8) != '=' || values.containsKey(keyword)) {
+                return;
+            }
+            values.put(keyword, valueOf(text));
+        }
+
+        FitsHeader toHeader() {
+            long headerBlocks = (consumed + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            return new FitsHeader(values, headerBlocks * BLOCK_SIZE);
+        }
+    }
+
+    static String valueOf(String card) {
+        String field = card.substring(10);
+        int i = 0;
+        while (i < field.length() && field.charAt(i) == ' ') {
+            i++;
+        }
+        if (i < field.length() && field.charAt(i) == '\'') {
+            // Quoted string; a doubled quote is a literal quote
+            StringBuilder value = new StringBuilder();
+            for (int j = i + 1; j < field.length(); j++) {
+                char c = field.charAt(j);
+                if (c == '\'') {
+                    if (j + 1 < field.length() && field.charAt(j + 1) == '\'') {
+                        value.append('\'');
+                        j++;
+                    } else {
+                        break;
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+            return value.toString().stripTrailing();
+        }
+        int slash = field.indexOf('/', i);
+        return (slash < 0 ? field.substring(i) : field.substring(i, slash)).trim();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.cosmoconnect.metadata;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Capture details found in a JPEG's EXIF and XMP segments; anything absent stays null
+@Data
+public class ExifData {
+    private String make;
+    private String model;
+    private String lens;
+    private Double exposureSeconds;
+    private String exposureText; // As the camera wrote it, e.g. "1/250" or "30"
+    private Double fNumber;
+    private Integer iso;
+    private Double focalLength;
+    private LocalDateTime capturedAt;
+    private Double latitude;
+    private Double longitude;
+    private String source; // "EXIF", "XMP" or "EXIF+XMP"
+
+    public boolean isEmpty() {
+        return make == null && model == null && lens == null && exposureSeconds == null && fNumber == null
+                && iso == null && focalLength == null && capturedAt == null && latitude == null;
+    }
+}
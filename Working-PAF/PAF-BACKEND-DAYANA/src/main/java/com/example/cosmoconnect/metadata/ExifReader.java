@@ -0,0 +1,378 @@
+package com.example.cosmoconnect.metadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Walks JPEG marker segments up to the start of scan and parses only APP1 (EXIF and XMP).
+// Pixel data is never read, so cost is a few KB per file regardless of image size.
+public final class ExifReader {
+
+    private static final int SOI = 0xD8;
+    private static final int SOS = 0xDA;
+    private static final int EOI = 0xD9;
+    private static final int APP1 = 0xE1;
+    private static final byte[] EXIF_ID = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] XMP_ID = "http://ns.adobe.com/xap/1.0/\0".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int TAG_MAKE = 0x010F;
+    private static final int TAG_MODEL = 0x0110;
+    private static final int TAG_DATE_TIME = 0x0132;
+    private static final int TAG_EXIF_IFD = 0x8769;
+    private static final int TAG_GPS_IFD = 0x8825;
+    private static final int TAG_EXPOSURE_TIME = 0x829A;
+    private static final int TAG_F_NUMBER = 0x829D;
+    private static final int TAG_ISO = 0x8827;
+    private static final int TAG_DATE_TIME_ORIGINAL = 0x9003;
+    private static final int TAG_FOCAL_LENGTH = 0x920A;
+    private static final int TAG_LENS_MODEL = 0xA434;
+    private static final int TAG_GPS_LATITUDE_REF = 1;
+    private static final int TAG_GPS_LATITUDE = 2;
+    private static final int TAG_GPS_LONGITUDE_REF = 3;
+    private static final int TAG_GPS_LONGITUDE = 4;
+
+    private static final int MAX_IFD_ENTRIES = 512;
+    private static final DateTimeFormatter EXIF_DATE = DateTimeFormatter.ofPattern("yyyy:MM:dd HH:mm:ss");
+    private static final Pattern XMP_PROPERTY = Pattern.compile(
+            "(?:tiff|exif|exifEX|aux|xmp):(\\w+)(?:=\"([^\"]*)\"|>\\s*(?:<rdf:Seq>\\s*<rdf:li>)?([^<]+)<)");
+
+    private ExifReader() {
+    }
+
+    public static boolean isJpegName(String name) {
+        if (name == null) {
+            return false;
+        }
+        String lower = name.toLowerCase();
+        return lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".jpe");
+    }
+
+    // Returns null when the stream isn't a JPEG
+    public static ExifData read(InputStream in) throws IOException {
+        if (in.read() != 0xFF || in.read() != SOI) {
+            return null;
+        }
+        ExifData data = new ExifData();
+        boolean exif = false;
+        boolean xmp = false;
+        while (true) {
+            int marker = nextMarker(in);
+            if (marker < 0 || marker == SOS || marker == EOI) {
+                break;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                continue; // Standalone markers carry no length
+            }
+            int length = (in.read() << 8) | in.read();
+            if (length < 2) {
+                break;
+            }
+            if (marker != APP1) {
+                in.skipNBytes(length - 2);
+                continue;
+            }
+            byte[] segment = in.readNBytes(length - 2);
+            if (segment.length < length - 2) {
+                break;
+            }
+            if (!exif && startsWith(segment, EXIF_ID)) {
+                exif = true;
+                parseTiff(segment, EXIF_ID.length, data);
+            } else if (!xmp && startsWith(segment, XMP_ID)) {
+                xmp = true;
+                parseXmp(new String(segment, XMP_ID.length, segment.length - XMP_ID.length, StandardCharsets.UTF_8), data);
+            }
+        }
+        data.setSource(exif && xmp ? "EXIF+XMP" : exif ? "EXIF" : xmp ? "XMP" : null);
+        return data;
+    }
+
+    private static int nextMarker(InputStream in) throws IOException {
+        int b = in.read();
+        while (b != -1 && b != 0xFF) {
+            b = in.read();
+        }
+        // Any number of 0xFF fill bytes may precede the marker code
+        while (b == 0xFF) {
+            b = in.read();
+        }
+        return b;
+    }
+
+    private static void parseTiff(byte[] segment, int start, ExifData data) {
+        Tiff tiff = new Tiff(segment, start);
+        if (!tiff.valid()) {
+            return;
+        }
+        long exifIfd = 0;
+        long gpsIfd = 0;
+        int ifd0 = (int) tiff.u32(4);
+        int count = tiff.entryCount(ifd0);
+        for (int i = 0; i < count; i++) {
+            int entry = ifd0 + 2 + i * 12;
+            switch (tiff.u16(entry)) {
+                case TAG_MAKE -> data.setMake(tiff.ascii(entry));
+                case TAG_MODEL -> data.setModel(tiff.ascii(entry));
+                case TAG_DATE_TIME -> {
+                    if (data.getCapturedAt() == null) {
+                        data.setCapturedAt(exifDate(tiff.ascii(entry)));
+                    }
+                }
+                case TAG_EXIF_IFD -> exifIfd = tiff.u32(entry + 8);
+                case TAG_GPS_IFD -> gpsIfd = tiff.u32(entry + 8);
+                default -> {
+                }
+            }
+        }
+
+        count = tiff.entryCount((int) exifIfd);
+        for (int i = 0; exifIfd > 0 && i < count; i++) {
+            int entry = (int) exifIfd + 2 + i * 12;
+            switch (tiff.u16(entry)) {
+                case TAG_EXPOSURE_TIME -> {
+                    long[] r = tiff.rational(entry, 0);
+                    if (r != null && r[1] != 0) {
+                        data.setExposureSeconds((double) r[0] / r[1]);
+                        data.setExposureText(exposureText(r[0], r[1]));
+                    }
+                }
+                case TAG_F_NUMBER -> data.setFNumber(tiff.rationalValue(entry, 0));
+                case TAG_ISO -> data.setIso(tiff.u16(entry + 8));
+                case TAG_DATE_TIME_ORIGINAL -> {
+                    LocalDateTime original = exifDate(tiff.ascii(entry));
+                    if (original != null) {
+                        data.setCapturedAt(original);
+                    }
+                }
+                case TAG_FOCAL_LENGTH -> data.setFocalLength(tiff.rationalValue(entry, 0));
+                case TAG_LENS_MODEL -> data.setLens(tiff.ascii(entry));
+                default -> {
+                }
+            }
+        }
+
+        String latRef = null;
+        String lonRef = null;
+        Double lat = null;
+        Double lon = null;
+        count = tiff.entryCount((int) gpsIfd);
+        for (int i = 0; gpsIfd > 0 && i < count; i++) {
+            int entry = (int) gpsIfd + 2 + i * 12;
+            switch (tiff.u16(entry)) {
+                case TAG_GPS_LATITUDE_REF -> latRef = tiff.ascii(entry);
+                case TAG_GPS_LATITUDE -> lat = tiff.degrees(entry);
+                case TAG_GPS_LONGITUDE_REF -> lonRef = tiff.ascii(entry);
+                case TAG_GPS_LONGITUDE -> lon = tiff.degrees(entry);
+                default -> {
+                }
+            }
+        }
+        if (lat != null && lon != null) {
+            data.setLatitude("S".equals(latRef) ? -lat : lat);
+            data.setLongitude("W".equals(lonRef) ? -lon : lon);
+        }
+    }
+
+    // XMP only fills what EXIF didn't have (e.g. files re-exported by editors that drop EXIF)
+    private static void parseXmp(String xml, ExifData data) {
+        Matcher matcher = XMP_PROPERTY.matcher(xml);
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            String value = (matcher.group(2) != null ? matcher.group(2) : matcher.group(3)).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (name) {
+                case "Make" -> {
+                    if (data.getMake() == null) {
+                        data.setMake(value);
+                    }
+                }
+                case "Model" -> {
+                    if (data.getModel() == null) {
+                        data.setModel(value);
+                    }
+                }
+                case "Lens", "LensModel" -> {
+                    if (data.getLens() == null) {
+                        data.setLens(value);
+                    }
+                }
+                case "ExposureTime" -> {
+                    if (data.getExposureSeconds() == null) {
+                        data.setExposureSeconds(fraction(value));
+                        data.setExposureText(data.getExposureSeconds() != null ? value : null);
+                    }
+                }
+                case "FNumber" -> {
+                    if (data.getFNumber() == null) {
+                        data.setFNumber(fraction(value));
+                    }
+                }
+                case "FocalLength" -> {
+                    if (data.getFocalLength() == null) {
+                        data.setFocalLength(fraction(value));
+                    }
+                }
+                case "ISOSpeedRatings", "PhotographicSensitivity" -> {
+                    if (data.getIso() == null && value.matches("\\d{1,7}")) {
+                        data.setIso(Integer.parseInt(value));
+                    }
+                }
+                case "DateTimeOriginal", "CreateDate" -> {
+                    if (data.getCapturedAt() == null) {
+                        data.setCapturedAt(isoDate(value));
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static String exposureText(long numerator, long denominator) {
+        if (numerator >= denominator) {
+            double seconds = (double) numerator / denominator;
+            return seconds == Math.rint(seconds) ? String.valueOf((long) seconds) : String.valueOf(seconds);
+        }
+        return numerator == 1 ? "1/" + denominator : "1/" + Math.round((double) denominator / numerator);
+    }
+
+    private static Double fraction(String value) {
+        try {
+            int slash = value.indexOf('/');
+            if (slash < 0) {
+                return Double.parseDouble(value);
+            }
+            double denominator = Double.parseDouble(value.substring(slash + 1));
+            return denominator == 0 ? null : Double.parseDouble(value.substring(0, slash)) / denominator;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime exifDate(String value) {
+        try {
+            return value == null ? null : LocalDateTime.parse(value.trim(), EXIF_DATE);
+        } catch (DateTimeParseException e) {
+            return null; // Cameras without a clock write "0000:00:00 00:00:00"
+        }
+    }
+
+    private static LocalDateTime isoDate(String value) {
+        try {
+            return OffsetDateTime.parse(value).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Bounds-checked view of a TIFF structure; offsets are relative to the TIFF header
+    private static final class Tiff {
+        private final byte[] bytes;
+        private final int base;
+        private final boolean littleEndian;
+
+        Tiff(byte[] bytes, int base) {
+            this.bytes = bytes;
+            this.base = base;
+            this.littleEndian = bytes.length > base + 1 && bytes[base] == 'I' && bytes[base + 1] == 'I';
+        }
+
+        boolean valid() {
+            return bytes.length >= base + 8 && u16(2) == 42
+                    && (littleEndian || (bytes[base] == 'M' && bytes[base + 1] == 'M'));
+        }
+
+        int entryCount(int offset) {
+            if (offset <= 0 || !inRange(offset, 2)) {
+                return 0;
+            }
+            int count = u16(offset);
+            return count > MAX_IFD_ENTRIES || !inRange(offset + 2, count * 12) ? 0 : count;
+        }
+
+        int u16(int offset) {
+            if (!inRange(offset, 2)) {
+                return -1;
+            }
+            int a = bytes[base + offset] & 0xFF;
+            int b = bytes[base + offset + 1] & 0xFF;
+            return littleEndian ? (b << 8) | a : (a << 8) | b;
+        }
+
+        long u32(int offset) {
+            if (!inRange(offset, 4)) {
+                return 0;
+            }
+            long value = 0;
+            for (int i = 0; i < 4; i++) {
+                int b = bytes[base + offset + (littleEndian ? 3 - i : i)] & 0xFF;
+                value = (value << 8) | b;
+            }
+            return value;
+        }
+
+        String ascii(int entry) {
+            long count = u32(entry + 4);
+            int offset = count <= 4 ? entry + 8 : (int) u32(entry + 8);
+            if (count <= 0 || count > 1024 || !inRange(offset, (int) count)) {
+                return null;
+            }
+            String value = new String(bytes, base + offset, (int) count, StandardCharsets.US_ASCII);
+            int nul = value.indexOf('\0');
+            value = (nul >= 0 ? value.substring(0, nul) : value).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        long[] rational(int entry, int index) {
+            long count = u32(entry + 4);
+            if (index >= count) {
+                return null;
+            }
+            int offset = (int) u32(entry + 8) + index * 8;
+            if (!inRange(offset, 8)) {
+                return null;
+            }
+            return new long[]{u32(offset), u32(offset + 4)};
+        }
+
+        Double rationalValue(int entry, int index) {
+            long[] r = rational(entry, index);
+            return r == null || r[1] == 0 ? null : (double) r[0] / r[1];
+        }
+
+        Double degrees(int entry) {
+            Double d = rationalValue(entry, 0);
+            Double m = rationalValue(entry, 1);
+            Double s = rationalValue(entry, 2);
+            return d == null ? null : d + (m != null ? m / 60 : 0) + (s != null ? s / 3600 : 0);
+        }
+
+        private boolean inRange(int offset, int length) {
+            return offset >= 0 && length >= 0 && (long) base + offset + length <= bytes.length;
+        }
+    }
+}
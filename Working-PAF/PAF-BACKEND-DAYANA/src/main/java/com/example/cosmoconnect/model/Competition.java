@@ -31,6 +31,9 @@ public class Competition {
     private String competition_instructions; // PDF URL
     private String competitionBanner; // Image URL
 
+    // Email of the user who created it; its files count against their storage quota
+    private String createdBy;
+
     public Competition(String _id, String competitionTitle, String competitionCategory, String competitionType,
                        Integer maxTeamSize, String competitionDescription, String problemStatement,
                        LocalDate startDate, LocalDate submissionDeadline, String competitionStatus,
@@ -157,6 +160,14 @@ public class Competition {
         this.competitionBanner = competitionBanner;
     }
 
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
     @Override
     public String toString() {
         return "Competition{" +
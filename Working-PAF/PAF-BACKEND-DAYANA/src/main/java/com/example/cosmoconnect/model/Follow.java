@@ -0,0 +1,32 @@
+package com.example.cosmoconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// One edge of the follow graph. The unique index makes a follow idempotent and serves "who does X
+// follow"; the reverse index serves "who follows X".
+@Document(collection = "follows")
+@CompoundIndexes({
+        @CompoundIndex(name = "follower_followee", def = "{'followerId': 1, 'followeeId': 1}", unique = true),
+        @CompoundIndex(name = "followee_follower", def = "{'followeeId': 1, 'followerId': 1}")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Follow {
+    @Id
+    private String id;
+
+    private String followerId;
+    private String followeeId;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,26 @@
+package com.example.cosmoconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Follower and following totals for one user, maintained with $inc whenever an edge is created or
+// removed. Kept out of the user document, which is saved whole on profile updates and logins.
+@Document(collection = "follow_counts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowCounts {
+    @Id
+    private String id;          // User id
+
+    private long followers;
+    private long following;
+    private LocalDateTime updatedAt;
+}
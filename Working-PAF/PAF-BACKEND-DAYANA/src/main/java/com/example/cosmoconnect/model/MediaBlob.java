@@ -0,0 +1,24 @@
+package com.example.cosmoconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Document(collection = "media_blobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaBlob {
+    @Id
+    private String id;       // SHA-256 of the content, hex encoded
+    private long size;
+    private long refCount;   // Number of stored names currently pointing at this blob
+    private LocalDateTime createdAt;
+    private LocalDateTime lastRetainedAt; // Last time an upload added a reference
+}
@@ -5,6 +5,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -14,6 +18,17 @@ import java.util.List;
 import java.util.Map;
 
 @Document(collection = "posts")
+@CompoundIndexes({
+        @CompoundIndex(name = "observation_camera", def = "{'observationMetadata.cameraModel': 1, 'createdAt': -1}", sparse = true),
+        @CompoundIndex(name = "observation_captured", def = "{'observationMetadata.capturedAt': -1}", sparse = true),
+        @CompoundIndex(name = "observation_exposure", def = "{'observationMetadata.exposureSeconds': 1}", sparse = true),
+        @CompoundIndex(name = "celestial_object_recent", def = "{'celestialObjectId': 1, 'createdAt': -1}", sparse = true),
+        @CompoundIndex(name = "sky_cell", def = "{'skyPosition.cell': 1}", sparse = true),
+        @CompoundIndex(name = "observation_place", def = "{'observationPoint': '2dsphere', 'observationDateTime': -1}"),
+        @CompoundIndex(name = "public_hot", def = "{'isPublic': 1, 'hotScore': -1, '_id': 1}"),
+        @CompoundIndex(name = "public_recent", def = "{'isPublic': 1, 'createdAt': -1}"),
+        @CompoundIndex(name = "public_category_recent", def = "{'isPublic': 1, 'category': 1, 'createdAt': -1}")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -22,14 +37,25 @@ public class Post {
     @Id
     private String id;
     
+    // Text index weights rank a hit in the title above one buried in the body (see /api/search/posts)
+    @TextIndexed(weight = 10)
     private String title;
+    @TextIndexed(weight = 2)
     private String description;
+    @TextIndexed
     private String content; // For text content
     private List<String> mediaUrls; // For images/videos
-    private String mediaType; // "IMAGE" or "VIDEO"
+    // Stored names of the uploads this post holds a storage reference on, released with it. Older
+    // posts have none recorded; their files are left to the media garbage collector.
+    private List<String> ownedMedia;
+    private String mediaType; // "IMAGE", "VIDEO" or "FITS"
     private String telescopeUsed; // Optional field for astronomical equipment
     private String location; // Where the observation was made
+    private GeoJsonPoint observationPoint; // Same place as [longitude, latitude], for nearby queries
+    private boolean shareMediaLocation; // Author opted in to locating the post from media GPS tags
+    @TextIndexed(weight = 8)
     private String celestialObject; // e.g., "Moon", "Mars", "Andromeda Galaxy"
+    private String celestialObjectId; // Catalog id celestialObject resolves to, e.g. "m31"; set on save
     private LocalDateTime observationDateTime;
     private String observationConditions; // Weather conditions, light pollution, etc.
     
@@ -46,19 +72,28 @@ public class Post {
     private List<Comment> comments = new ArrayList<>();
     
     private boolean isPublic; // For private/public posts
+    private Double hotScore; // Time-decayed engagement, written periodically by HotPostService
     
     // Astronomical specific fields
     private String coordinates; // RA and DEC coordinates
+    private SkyPosition skyPosition; // coordinates parsed to degrees on save; absent if unparseable
     private String exposureTime; // For astrophotography
     private String equipmentDetails; // Detailed equipment information
     private String processingDetails; // Post-processing information
 
     // New fields for enhanced post features
     private String category; // AstroCapture, SkyLog, SkillTutorial, Location-based Spotting, Ask Cosmos
+    @TextIndexed(weight = 5)
     private List<String> skillTags;
     private Poll poll;
     private String animationType; // For frontend animation hint
 
+    // Resized copies of each image in mediaUrls, filled in by ImageDerivativeService
+    private List<MediaDerivatives> mediaDerivatives;
+
+    // Capture details read from the first file's EXIF/XMP or FITS header, normalised for filtering
+    private ObservationMetadata observationMetadata;
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -68,4 +103,60 @@ public class Post {
         private List<String> options;
         private Map<String, Integer> votes; // option -> vote count
     }
-} 
\ No newline at end of file
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MediaDerivatives {
+        private String source; // The mediaUrls entry these were generated from
+        private String status; // READY, SKIPPED (not an image) or FAILED
+        private Integer width;
+        private Integer height;
+        private List<Variant> variants; // Smallest first
+        private Long perceptualHash; // 64-bit dHash of the image, for near-duplicate lookups
+
+        @Data
+        @Builder
+        @NoArgsConstructor
+        @AllArgsConstructor
+        public static class Variant {
+            private String label; // thumbnail, medium, large
+            private int width;
+            private int height;
+            private String url;
+            private String storedName;
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SkyPosition {
+        private double ra; // degrees, [0, 360)
+        private double dec; // degrees, [-90, 90]
+        private long cell; // SkyZones cell id, the indexed key for cone searches
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ObservationMetadata {
+        private String source; // EXIF, XMP, EXIF+XMP or FITS
+        private String sourceMedia; // The mediaUrls entry it was read from
+        private String cameraMake;
+        private String cameraModel;
+        private String lens;
+        private String telescope;
+        private String instrument;
+        private Double exposureSeconds;
+        private Double fNumber;
+        private Integer iso;
+        private Double focalLengthMm;
+        private LocalDateTime capturedAt;
+        private Double latitude;
+        private Double longitude;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.cosmoconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Bytes and files stored by one owner in one namespace. Maintained with $inc on every store and
+// release; deduplicated content is charged to each owner that references it.
+@Document(collection = "storage_usage")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageUsage {
+    @Id
+    private String id;          // "<owner>|<namespace>"
+
+    @Indexed
+    private String owner;       // Uploader's email, or "system"/"anonymous"
+
+    private String namespace;   // Namespace directory, e.g. "posts"
+    private long bytes;
+    private long files;
+    private LocalDateTime updatedAt;
+}
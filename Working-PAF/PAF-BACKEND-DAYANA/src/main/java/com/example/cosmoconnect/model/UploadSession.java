@@ -0,0 +1,45 @@
+package com.example.cosmoconnect.model;
+
+import com.example.cosmoconnect.storage.MediaNamespace;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// A resumable upload: chunks are written into a staging file until offset reaches length
+@Document(collection = "upload_sessions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+    @Id
+    private String id;
+
+    @Indexed
+    private String ownerEmail;
+
+    private String filename;
+    private String contentType;
+    private MediaNamespace namespace;
+    private long length;        // Total size declared when the upload was started
+    private long offset;        // Bytes received contiguously from the start
+    private Status status;
+    private String storedName;  // Set once the upload has been completed
+
+    private LocalDateTime createdAt;
+
+    @Indexed
+    private LocalDateTime expiresAt;
+
+    public enum Status {
+        UPLOADING,
+        COMPLETE,
+        CLAIMED     // Being attached to a post; removed once the post is saved, reset to COMPLETE if it is not
+    }
+}
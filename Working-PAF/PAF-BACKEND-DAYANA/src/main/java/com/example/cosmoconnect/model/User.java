@@ -16,8 +16,6 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.ArrayList;
-import java.util.List;
 
 @Data
 @Builder
@@ -38,6 +36,8 @@ public class User implements UserDetails {
 
     private String imageUrl;
 
+    private Long storageQuotaBytes; // Overrides media.quota.default-bytes; 0 means unlimited
+
     private boolean emailVerified;
 
     // Astronomy-specific profile fields
@@ -93,12 +93,12 @@ public class User implements UserDetails {
 
     private String providerId;
 
-    // Social features
-    @Builder.Default
-    private List<String> following = new ArrayList<>(); // Users this user follows
-    
-    @Builder.Default
-    private List<String> followers = new ArrayList<>(); // Users following this user
+    // Social features live in the follows collection (see FollowService)
+
+    // getUsername() is the login (email) for Spring Security; this is the profile handle
+    public String profileUsername() {
+        return username;
+    }
 
     // Profile Completeness
     public int getProfileCompleteness() {
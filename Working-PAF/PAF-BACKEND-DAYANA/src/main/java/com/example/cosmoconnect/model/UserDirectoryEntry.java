@@ -0,0 +1,35 @@
+package com.example.cosmoconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+// A user as the people search sees them: name prefixes (see NameKeys), the summary fields shown in
+// results and the follower count they are ranked by. Rewritten whenever the user's profile is saved;
+// the count moves with follow_counts.
+@Document(collection = "user_directory")
+@CompoundIndexes({
+        @CompoundIndex(name = "keys_followers", def = "{'keys': 1, 'followers': -1, '_id': 1}"),
+        @CompoundIndex(name = "followers", def = "{'followers': -1, '_id': 1}")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDirectoryEntry {
+    @Id
+    private String id;          // User id
+
+    private List<String> keys;
+    private String fullName;
+    private String imageUrl;
+    private String astronomyLevel;
+    private long followers;
+}
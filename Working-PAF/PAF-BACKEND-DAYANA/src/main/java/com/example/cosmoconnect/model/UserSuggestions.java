@@ -0,0 +1,40 @@
+package com.example.cosmoconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Precomputed "who to follow" for one user, best first, rewritten by each FollowSuggestionService
+// run. Keyed by email so serving it takes no user lookup.
+@Document(collection = "user_suggestions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSuggestions {
+    @Id
+    private String id;          // User's email
+
+    private List<Suggestion> suggestions;
+    private LocalDateTime computedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Suggestion {
+        private String userId;
+        private String fullName;
+        private String imageUrl;
+        private String astronomyLevel;
+        private int mutualFollows; // accounts the user follows that follow this one
+        private int sharedInterests; // interests and equipment in common
+        private double score;
+    }
+}
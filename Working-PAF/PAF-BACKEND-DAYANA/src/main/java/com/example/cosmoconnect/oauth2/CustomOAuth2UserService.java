@@ -4,6 +4,7 @@ import com.example.cosmoconnect.exception.OAuth2AuthenticationProcessingExceptio
 import com.example.cosmoconnect.model.AuthProvider;
 import com.example.cosmoconnect.model.User;
 import com.example.cosmoconnect.repository.UserRepository;
+import com.example.cosmoconnect.service.UserDirectoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.AuthenticationException;
@@ -22,6 +23,7 @@ import java.util.Optional;
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
     private final UserRepository userRepository;
+    private final UserDirectoryService userDirectoryService;
 
     @Override
     public OAuth2User loadUser(OAuth2UserRequest oAuth2UserRequest) throws OAuth2AuthenticationException {
@@ -79,12 +81,16 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
                 .roles(Collections.singleton("ROLE_USER"))
                 .build();
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userDirectoryService.index(savedUser);
+        return savedUser;
     }
 
     private User updateExistingUser(User existingUser, OAuth2UserInfo oAuth2UserInfo) {
         existingUser.setFullName(oAuth2UserInfo.getName());
         existingUser.setImageUrl(oAuth2UserInfo.getImageUrl());
-        return userRepository.save(existingUser);
+        User savedUser = userRepository.save(existingUser);
+        userDirectoryService.index(savedUser);
+        return savedUser;
     }
 }
\ No newline at end of file
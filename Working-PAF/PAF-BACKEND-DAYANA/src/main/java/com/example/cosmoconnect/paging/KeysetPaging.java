@@ -0,0 +1,79 @@
+package com.example.cosmoconnect.paging;
+
+import com.example.cosmoconnect.exception.BadRequestException;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Shared pieces of keyset paging. A cursor is the sort key of the last item of the previous page,
+// base64url encoded so clients treat it as opaque; one that doesn't decode is a 400. Scores keep
+// their exact bits so the next page resumes precisely among ties.
+public final class KeysetPaging {
+
+    public record Scored(String id, double score) {
+    }
+
+    public record Counted(String id, long count) {
+    }
+
+    private KeysetPaging() {
+    }
+
+    public static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(double score, String id) {
+        return encode(Long.toHexString(Double.doubleToLongBits(score)) + ":" + id);
+    }
+
+    public static String encode(long count, String id) {
+        return encode(count + ":" + id);
+    }
+
+    // null for the first page
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static Scored decodeScored(String cursor) {
+        String raw = decode(cursor);
+        if (raw == null) {
+            return null;
+        }
+        try {
+            int separator = raw.indexOf(':');
+            return new Scored(raw.substring(separator + 1),
+                    Double.longBitsToDouble(Long.parseUnsignedLong(raw.substring(0, separator), 16)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static Counted decodeCounted(String cursor) {
+        String raw = decode(cursor);
+        if (raw == null) {
+            return null;
+        }
+        try {
+            int separator = raw.indexOf(':');
+            return new Counted(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    // A raw aggregation stage, for operators Spring's builders don't cover (or cover awkwardly)
+    public static AggregationOperation stage(String operator, Object body) {
+        return context -> new Document(operator, body);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.cosmoconnect.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public enum EndpointClass {
+    AUTH,
+    UPLOAD,
+    CHUNK,
+    WRITE,
+    READ;
+
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return READ;
+        }
+
+        // Chunks of a resumable upload are budgeted separately; starting the upload counts as one upload
+        if (path.startsWith("/api/uploads/") && "PUT".equals(method)) {
+            return CHUNK;
+        }
+
+        String contentType = request.getContentType();
+        if ((contentType != null && contentType.startsWith("multipart/"))
+                || path.startsWith("/api/files/upload")
+                || path.equals("/api/uploads")
+                || path.endsWith("/multipart")) {
+            return UPLOAD;
+        }
+        return WRITE;
+    }
+}
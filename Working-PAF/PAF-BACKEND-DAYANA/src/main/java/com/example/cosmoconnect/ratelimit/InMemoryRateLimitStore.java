@@ -0,0 +1,59 @@
+package com.example.cosmoconnect.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "memory", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private static final int STRIPES = 16;
+
+    private final RateLimitProperties properties;
+
+    // Independent stripes keep eviction sweeps and resizes from touching every bucket at once
+    @SuppressWarnings("unchecked")
+    private final ConcurrentHashMap<String, TokenBucket>[] stripes = new ConcurrentHashMap[STRIPES];
+
+    {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    @Override
+    public long tryAcquire(String key, RateLimitProperties.Policy policy) {
+        long now = System.nanoTime();
+        TokenBucket bucket = stripeFor(key).computeIfAbsent(key, k -> new TokenBucket(now));
+        return bucket.tryAcquire(policy.emissionIntervalNanos(), policy.burstToleranceNanos(), now);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        long idleNanos = properties.getIdleEviction().toNanos();
+        int evicted = 0;
+        for (ConcurrentHashMap<String, TokenBucket> stripe : stripes) {
+            int before = stripe.size();
+            stripe.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+            evicted += before - stripe.size();
+        }
+        if (evicted > 0) {
+            log.debug("Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    private ConcurrentHashMap<String, TokenBucket> stripeFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (STRIPES - 1)];
+    }
+}
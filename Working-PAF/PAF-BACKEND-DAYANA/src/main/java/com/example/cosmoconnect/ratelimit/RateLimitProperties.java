@@ -0,0 +1,57 @@
+package com.example.cosmoconnect.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Buckets that have been full for this long are dropped from memory
+    private Duration idleEviction = Duration.ofMinutes(10);
+
+    private Policy auth = new Policy(10, 5);
+    private Policy writes = new Policy(60, 20);
+    private Policy reads = new Policy(600, 100);
+    private Policy uploads = new Policy(20, 5);
+    private Policy chunks = new Policy(600, 60);
+
+    public Policy policyFor(EndpointClass endpointClass) {
+        switch (endpointClass) {
+            case AUTH:
+                return auth;
+            case UPLOAD:
+                return uploads;
+            case CHUNK:
+                return chunks;
+            case WRITE:
+                return writes;
+            default:
+                return reads;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+        private int permitsPerMinute;
+        private int burst;
+
+        public long emissionIntervalNanos() {
+            return 60_000_000_000L / Math.max(1, permitsPerMinute);
+        }
+
+        public long burstToleranceNanos() {
+            return emissionIntervalNanos() * (Math.max(1, burst) - 1);
+        }
+    }
+}
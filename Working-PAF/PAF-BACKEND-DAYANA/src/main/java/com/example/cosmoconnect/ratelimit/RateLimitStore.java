@@ -0,0 +1,11 @@
+package com.example.cosmoconnect.ratelimit;
+
+// Storage for rate limit buckets. The default keeps buckets in local memory;
+// multi-node deployments can provide a shared implementation instead.
+public interface RateLimitStore {
+
+    // Returns 0 when the request is allowed, otherwise the nanos until a permit is available
+    long tryAcquire(String key, RateLimitProperties.Policy policy);
+
+    void evictIdle();
+}
@@ -0,0 +1,34 @@
+package com.example.cosmoconnect.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket in GCRA form: the whole state is one "theoretical arrival time",
+// so acquiring a permit is a single CAS and never takes a lock.
+public class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long nowNanos) {
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    // Returns 0 when a permit was taken, otherwise the nanos to wait before retrying
+    public long tryAcquire(long emissionIntervalNanos, long burstToleranceNanos, long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = Math.max(tat, nowNanos);
+            long backlog = start - nowNanos;
+            if (backlog > burstToleranceNanos) {
+                return backlog - burstToleranceNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return 0L;
+            }
+        }
+    }
+
+    // A bucket is idle once it has been completely refilled for longer than the given period
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - theoreticalArrival.get() > idleNanos;
+    }
+}
@@ -14,4 +14,6 @@ public interface CommentRepository extends MongoRepository<Comment, String> {
     List<Comment> findByAuthorIdOrderByCreatedAtDesc(String authorId);
     
     void deleteByPostId(String postId);
+
+    long countByPostId(String postId);
 } 
\ No newline at end of file
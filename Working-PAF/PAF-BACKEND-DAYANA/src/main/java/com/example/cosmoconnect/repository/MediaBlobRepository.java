@@ -0,0 +1,9 @@
+package com.example.cosmoconnect.repository;
+
+import com.example.cosmoconnect.model.MediaBlob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MediaBlobRepository extends MongoRepository<MediaBlob, String> {
+}
@@ -1,6 +1,7 @@
 package com.example.cosmoconnect.repository;
 
 import com.example.cosmoconnect.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -10,6 +11,7 @@ import java.util.List;
 public interface PostRepository extends MongoRepository<Post, String> {
     List<Post> findByAuthorIdOrderByCreatedAtDesc(String authorId);
     List<Post> findByAuthorIdInOrderByCreatedAtDesc(List<String> authorIds);
-    List<Post> findByCelestialObjectContainingIgnoreCase(String celestialObject);
-    List<Post> findByIsPublicTrueOrderByCreatedAtDesc();
+    List<Post> findByIsPublicTrueOrderByCreatedAtDesc(Pageable pageable);
+    List<Post> findByIsPublicTrueAndCategoryOrderByCreatedAtDesc(String category, Pageable pageable);
+    List<Post> findByCelestialObjectIdAndIsPublicTrueOrderByCreatedAtDesc(String celestialObjectId, Pageable pageable);
 } 
\ No newline at end of file
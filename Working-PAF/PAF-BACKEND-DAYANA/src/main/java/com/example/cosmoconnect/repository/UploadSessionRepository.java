@@ -0,0 +1,15 @@
+package com.example.cosmoconnect.repository;
+
+import com.example.cosmoconnect.model.UploadSession;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends MongoRepository<UploadSession, String> {
+    Optional<UploadSession> findByIdAndOwnerEmail(String id, String ownerEmail);
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime time);
+}
@@ -0,0 +1,121 @@
+package com.example.cosmoconnect.search;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.cosmoconnect.paging.KeysetPaging.stage;
+
+// Backed by the weighted text index declared on Post (title > celestialObject > skillTags >
+// description > content). Mongo keeps that index current on every insert, update and delete,
+// so there is nothing to feed from post events. Ranking is Mongo's textScore, a weighted
+// term-frequency score with length normalisation, which can only be sorted after every match
+// has been scored. So the top hits of a query are ranked once and kept for a short while;
+// following pages slice that ranking, and only cursors past its end go back to Mongo.
+@Component
+@RequiredArgsConstructor
+public class MongoTextPostSearchIndex implements PostSearchIndex {
+
+    private static final Comparator<Hit> ORDER =
+            Comparator.comparingDouble(Hit::score).reversed().thenComparing(Hit::postId);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${posts.search.ranked-hits:1000}")
+    private int rankedHits;
+
+    @Value("${posts.search.ranked-ttl-ms:30000}")
+    private long rankedTtlMs;
+
+    @Value("${posts.search.cached-queries:256}")
+    private int cachedQueries;
+
+    private record RankKey(String query, String viewerId) {
+    }
+
+    // complete when the query matched no more than rankedHits posts
+    private record Ranking(List<Hit> hits, boolean complete, long expiresAt) {
+    }
+
+    // Least recently used queries drop out first
+    private final Map<RankKey, Ranking> rankings = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RankKey, Ranking> eldest) {
+            return size() > cachedQueries;
+        }
+    };
+
+    @Override
+    public List<Hit> search(String query, String viewerId, Hit after, int limit) {
+        String viewer = viewerId != null && ObjectId.isValid(viewerId) ? viewerId : null;
+        Ranking ranking = ranking(new RankKey(query, viewer));
+        List<Hit> hits = ranking.hits();
+        int from = 0;
+        if (after != null) {
+            int found = Collections.binarySearch(hits, after, ORDER);
+            from = found >= 0 ? found + 1 : -found - 1;
+        }
+        if (ranking.complete() || from + limit <= hits.size()) {
+            return new ArrayList<>(hits.subList(from, Math.min(hits.size(), from + limit)));
+        }
+        // Past the cached ranking: let Mongo score and filter the rest
+        return aggregate(query, viewer, after, limit);
+    }
+
+    private Ranking ranking(RankKey key) {
+        long now = System.currentTimeMillis();
+        synchronized (rankings) {
+            Ranking cached = rankings.get(key);
+            if (cached != null && cached.expiresAt() > now) {
+                return cached;
+            }
+        }
+        List<Hit> hits = aggregate(key.query(), key.viewerId(), null, rankedHits + 1);
+        boolean complete = hits.size() <= rankedHits;
+        Ranking ranking = new Ranking(List.copyOf(complete ? hits : hits.subList(0, rankedHits)),
+                complete, now + rankedTtlMs);
+        synchronized (rankings) {
+            rankings.put(key, ranking);
+        }
+        return ranking;
+    }
+
+    private List<Hit> aggregate(String query, String viewerId, Hit after, int limit) {
+        List<Document> visibility = new ArrayList<>();
+        visibility.add(new Document("isPublic", true));
+        if (viewerId != null) {
+            visibility.add(new Document("author.$id", new ObjectId(viewerId)));
+        }
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(stage("$match", new Document("$text", new Document("$search", query))
+                .append("$or", visibility)));
+        stages.add(stage("$project", new Document("score", new Document("$meta", "textScore"))));
+        if (after != null) {
+            Object afterId = ObjectId.isValid(after.postId()) ? new ObjectId(after.postId()) : after.postId();
+            stages.add(stage("$match", new Document("$or", List.of(
+                    new Document("score", new Document("$lt", after.score())),
+                    new Document("score", after.score()).append("_id", new Document("$gt", afterId))))));
+        }
+        stages.add(stage("$sort", new Document("score", -1).append("_id", 1)));
+        stages.add(stage("$limit", limit));
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(stages), "posts", Document.class)
+                .getMappedResults().stream()
+                .map(row -> new Hit(String.valueOf(row.get("_id")), ((Number) row.get("score")).doubleValue()))
+                .collect(Collectors.toList());
+    }
+}
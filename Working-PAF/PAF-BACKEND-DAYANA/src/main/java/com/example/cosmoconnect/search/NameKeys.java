@@ -0,0 +1,66 @@
+package com.example.cosmoconnect.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Edge n-grams for prefix search over people's names. Each word is folded to lower-case ASCII
+// letters and digits, accents and apostrophes dropped ("O'Neil" -> "oneil"), and every leading
+// prefix of it is a key, so finding users with a word starting with "one" is an exact match on one
+// index key. Prefixes stop at MAX_PREFIX characters; longer query words are cut to match.
+public final class NameKeys {
+
+    public static final int MAX_PREFIX = 12;
+
+    private NameKeys() {
+    }
+
+    public static List<String> keysOf(String... texts) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String text : texts) {
+            for (String word : words(text)) {
+                for (int length = 1; length <= Math.min(word.length(), MAX_PREFIX); length++) {
+                    keys.add(word.substring(0, length));
+                }
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    // The keys a query must all match, one per query word
+    public static List<String> queryKeys(String query) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String word : words(query)) {
+            keys.add(word.length() > MAX_PREFIX ? word.substring(0, MAX_PREFIX) : word);
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                word.append(c);
+            } else if (Character.isWhitespace(c) || c == '-' || c == '_' || c == '.' || c == '@') {
+                if (!word.isEmpty()) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                }
+            }
+            // Anything else (accents, apostrophes) is dropped inside the word
+        }
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
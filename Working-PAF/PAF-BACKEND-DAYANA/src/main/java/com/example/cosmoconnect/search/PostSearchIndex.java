@@ -0,0 +1,14 @@
+package com.example.cosmoconnect.search;
+
+import java.util.List;
+
+// Ranked full-text lookup over posts. Implementations return ids only; callers load the posts.
+public interface PostSearchIndex {
+
+    // Hits ordered by score descending, then id ascending, starting strictly after `after`
+    // (null for the first page). Only public posts and posts by viewerId are returned.
+    List<Hit> search(String query, String viewerId, Hit after, int limit);
+
+    record Hit(String postId, double score) {
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.cosmoconnect.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Picks the window of a field with the most query-term hits and marks them. Terms are matched on
+// a crude stem (plural, -ed/-ing and a final e dropped) so "galaxies" in a query marks "galaxy",
+// roughly mirroring the stemming the text index applied when it matched.
+public final class SnippetHighlighter {
+
+    private static final int MIN_STEM = 3;
+
+    private final List<String> stems;
+
+    public SnippetHighlighter(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}-]+")) {
+            // "-term" excludes in the search syntax, so there is nothing of it to highlight
+            if (token.isEmpty() || token.startsWith("-")) {
+                continue;
+            }
+            terms.add(stem(token));
+        }
+        this.stems = new ArrayList<>(terms);
+    }
+
+    public boolean isEmpty() {
+        return stems.isEmpty();
+    }
+
+    // Null when the text has no hits
+    public String highlight(String text, int maxLength) {
+        if (text == null || text.isEmpty() || stems.isEmpty()) {
+            return null;
+        }
+        List<int[]> hits = findHits(text);
+        if (hits.isEmpty()) {
+            return null;
+        }
+
+        // Slide a window over the hits and keep the one covering the most of them
+        int bestStart = 0;
+        int bestCount = 0;
+        int last = 0;
+        for (int first = 0; first < hits.size(); first++) {
+            while (last < hits.size() && hits.get(last)[1] - hits.get(first)[0] <= maxLength) {
+                last++;
+            }
+            if (last - first > bestCount) {
+                bestCount = last - first;
+                bestStart = first;
+            }
+        }
+        int windowStart = Math.max(0, hits.get(bestStart)[0] - maxLength / 4);
+        windowStart = wordStart(text, windowStart);
+        int windowEnd = Math.min(text.length(), windowStart + maxLength);
+
+        StringBuilder snippet = new StringBuilder();
+        if (windowStart > 0) {
+            snippet.append("\u2026");
+        }
+        int position = windowStart;
+        for (int[] hit : hits) {
+            if (hit[0] < windowStart || hit[1] > windowEnd) {
+                continue;
+            }
+            escape(text, position, hit[0], snippet);
+            snippet.append("<mark>");
+            escape(text, hit[0], hit[1], snippet);
+            snippet.append("</mark>");
+            position = hit[1];
+        }
+        escape(text, position, windowEnd, snippet);
+        if (windowEnd < text.length()) {
+            snippet.append("\u2026");
+        }
+        return snippet.toString();
+    }
+
+    private List<int[]> findHits(String text) {
+        List<int[]> hits = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i > start && matches(stem(text.substring(start, i).toLowerCase(Locale.ROOT)))) {
+                hits.add(new int[]{start, i});
+            }
+        }
+        return hits;
+    }
+
+    private boolean matches(String wordStem) {
+        for (String stem : stems) {
+            if (wordStem.equals(stem)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stem(String word) {
+        String stem = word;
+        if (stem.endsWith("ies") && stem.length() - 3 >= MIN_STEM) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && stem.length() - 1 >= MIN_STEM) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        if (stem.endsWith("ing") && stem.length() - 3 >= MIN_STEM) {
+            stem = stem.substring(0, stem.length() - 3);
+        } else if (stem.endsWith("ed") && stem.length() - 2 >= MIN_STEM) {
+            stem = stem.substring(0, stem.length() - 2);
+        }
+        // "image", "imaged" and "imaging" all end up as "imag"
+        if (stem.endsWith("e") && stem.length() - 1 >= MIN_STEM) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static int wordStart(String text, int index) {
+        while (index > 0 && Character.isLetterOrDigit(text.charAt(index - 1))) {
+            index--;
+        }
+        return index;
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder out) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
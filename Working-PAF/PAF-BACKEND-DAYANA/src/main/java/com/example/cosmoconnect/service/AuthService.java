@@ -27,6 +27,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final UserDirectoryService userDirectoryService;
 
     public AuthResponse registerUser(RegistrationRequest registrationRequest) {
         // Check if passwords match
@@ -50,6 +51,7 @@ public class AuthService {
 
         // Save user to database
         User savedUser = userRepository.save(user);
+        userDirectoryService.index(savedUser);
 
         // Skip authentication and generate token directly
         String token = tokenProvider.generateTokenFromEmail(
@@ -0,0 +1,97 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.catalog.CatalogEntry;
+import com.example.cosmoconnect.catalog.CelestialCatalog;
+import com.example.cosmoconnect.model.Post;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Built-in catalog of named celestial objects, loaded once at startup. Posts get the canonical
+// id of whatever their free-text celestialObject names, so per-object listings use an index.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CelestialCatalogService {
+
+    private static final String CATALOG = "catalog/celestial-objects.tsv";
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    private CelestialCatalog catalog;
+
+    @PostConstruct
+    void load() throws IOException {
+        try (InputStream in = new ClassPathResource(CATALOG).getInputStream()) {
+            catalog = CelestialCatalog.load(in);
+        }
+        log.info("Loaded {} catalog objects", catalog.size());
+    }
+
+    public List<CatalogEntry> suggest(String prefix, int limit) {
+        return catalog.suggest(prefix, limit);
+    }
+
+    public Optional<CatalogEntry> get(String id) {
+        return catalog.byId(id);
+    }
+
+    public String canonicalIdOf(String celestialObject) {
+        return catalog.resolve(celestialObject).map(CatalogEntry::id).orElse(null);
+    }
+
+    public void applyCanonicalId(Post post) {
+        post.setCelestialObjectId(canonicalIdOf(post.getCelestialObject()));
+    }
+
+    // Posts written before the catalog existed get their id filled in once, in the background
+    @Async("backfillTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Object lastId = null;
+        int updated = 0;
+        while (true) {
+            Query query = new Query(where("celestialObject").exists(true).and("celestialObjectId").exists(false))
+                    .with(Sort.by("_id")).limit(BACKFILL_BATCH_SIZE);
+            if (lastId != null) {
+                query.addCriteria(where("_id").gt(lastId));
+            }
+            query.fields().include("celestialObject");
+            List<Document> batch = mongoTemplate.find(query, Document.class, "posts");
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Document post : batch) {
+                lastId = post.get("_id");
+                Object name = post.get("celestialObject");
+                String id = name instanceof String text ? canonicalIdOf(text) : null;
+                if (id != null) {
+                    mongoTemplate.updateFirst(new Query(where("_id").is(lastId).and("celestialObjectId").exists(false)),
+                            new Update().set("celestialObjectId", id), Post.class);
+                    updated++;
+                }
+            }
+        }
+        if (updated > 0) {
+            log.info("Linked {} existing posts to catalog objects", updated);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.cosmoconnect.service;
 
 import com.example.cosmoconnect.dto.CommentDto;
+import com.example.cosmoconnect.event.PostEngagementEvent;
 import com.example.cosmoconnect.exception.ResourceNotFoundException;
 import com.example.cosmoconnect.model.Comment;
 import com.example.cosmoconnect.model.Post;
@@ -11,6 +12,7 @@ import com.example.cosmoconnect.repository.UserRepository;
 import com.example.cosmoconnect.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +29,7 @@ public class CommentService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public CommentDto createComment(CommentDto commentDto, String userEmail) {
@@ -61,6 +64,7 @@ public class CommentService {
         Comment savedComment = commentRepository.save(comment);
         log.debug("Saved comment with ID: {} for post: {} by user: {}", 
             savedComment.getId(), post.getId(), author.getEmail());
+        publishEngagement(post);
         
         // Notify post owner if not self-comment
         if (!post.getAuthor().getId().equals(author.getId())) {
@@ -75,6 +79,11 @@ public class CommentService {
         return convertToDto(savedComment, author.getId());
     }
 
+    private void publishEngagement(Post post) {
+        eventPublisher.publishEvent(new PostEngagementEvent(post.getId(), post.getLikes().size(),
+                commentRepository.countByPostId(post.getId()), post.isPublic(), post.getCreatedAt()));
+    }
+
     public List<CommentDto> getPostComments(String postId, String userEmail) {
         log.debug("Getting comments for post: {} and user email: {}", postId, userEmail);
         
@@ -155,6 +164,7 @@ public class CommentService {
 
         commentRepository.delete(comment);
         log.debug("Deleted comment with ID: {}", commentId);
+        postRepository.findById(comment.getPostId()).ifPresent(this::publishEngagement);
     }
 
     @Transactional
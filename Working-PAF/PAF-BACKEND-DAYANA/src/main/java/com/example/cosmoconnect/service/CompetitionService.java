@@ -13,6 +13,7 @@ import java.util.Optional;
 import com.example.cosmoconnect.repository.UserRepository;
 import com.example.cosmoconnect.model.User;
 import com.example.cosmoconnect.service.NotificationService;
+import com.example.cosmoconnect.storage.MediaNamespace;
 
 @Service
 public class CompetitionService {
@@ -22,7 +23,7 @@ public class CompetitionService {
     private CompetitionRepo competitionRepo;
 
     @Autowired
-    private FileStorageService fileStorageService;
+    private MediaStorageService mediaStorageService;
 
     @Autowired
     private NotificationService notificationService;
@@ -92,7 +93,8 @@ public class CompetitionService {
 
     public Competition save(Competition competition, MultipartFile competitionFile) throws IOException {
         if (competitionFile != null && !competitionFile.isEmpty()) {
-            String fileUrl = fileStorageService.storeFile(competitionFile, "competitions");
+            String fileUrl = mediaStorageService.store(competitionFile, MediaNamespace.COMPETITIONS,
+                    StorageUsageService.ownerOfCreator(competition.getCreatedBy()));
             competition.setCompetition_instructions(fileUrl);
         }
         return competitionRepo.save(competition);
@@ -110,7 +112,8 @@ public class CompetitionService {
             }
 
             if (competitionFile != null && !competitionFile.isEmpty()) {
-                String fileUrl = fileStorageService.storeFile(competitionFile, "competitions");
+                String fileUrl = mediaStorageService.store(competitionFile, MediaNamespace.COMPETITIONS,
+                        StorageUsageService.ownerOfCreator(existing.getCreatedBy()));
                 existing.setCompetition_instructions(fileUrl);
             }
 
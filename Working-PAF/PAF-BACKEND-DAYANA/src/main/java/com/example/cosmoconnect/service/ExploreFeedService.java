@@ -0,0 +1,163 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.PostDto;
+import com.example.cosmoconnect.event.PostChangedEvent;
+import com.example.cosmoconnect.event.PostCreatedEvent;
+import com.example.cosmoconnect.event.PostEngagementEvent;
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.model.Post;
+import com.example.cosmoconnect.model.User;
+import com.example.cosmoconnect.repository.PostRepository;
+import com.example.cosmoconnect.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The public explore feed, newest first, optionally within one category. Pages are the same for
+// every reader apart from isLiked, so each (category, page, size) is rendered once into a shared
+// skeleton and cached briefly; a reader gets copies with isLiked filled in from the cached likers.
+// Concurrent misses on one page wait for a single load. Writes drop the pages they affect: a new or
+// changed post every page of its category, a like or comment only the pages that show the post.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExploreFeedService {
+
+    private static final String ALL = "";
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final PostService postService;
+
+    @Value("${posts.explore.ttl-ms:30000}")
+    private long ttlMillis;
+
+    // Deeper pages are read straight from Mongo; few readers get that far
+    @Value("${posts.explore.cached-pages:5}")
+    private int cachedPages;
+
+    // Categories are free text, so the cache is capped rather than trusting the set of keys to stay small
+    @Value("${posts.explore.cached-entries:200}")
+    private int cachedEntries;
+
+    private final Map<PageKey, CachedPage> pages = new ConcurrentHashMap<>();
+
+    private record PageKey(String category, int page, int size) {
+    }
+
+    private record Skeleton(List<PostDto> posts, List<Set<String>> likers, Set<String> postIds) {
+    }
+
+    private record CachedPage(CompletableFuture<Skeleton> skeleton, long expiresAt) {
+    }
+
+    public List<PostDto> getExplorePage(String category, int page, int size, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
+        PageKey key = new PageKey(category == null ? ALL : category.trim(), page, size);
+        Skeleton skeleton = page < cachedPages ? cached(key) : load(key);
+
+        List<PostDto> posts = new ArrayList<>(skeleton.posts().size());
+        for (int i = 0; i < skeleton.posts().size(); i++) {
+            posts.add(skeleton.posts().get(i).toBuilder()
+                    .isLiked(skeleton.likers().get(i).contains(user.getId()))
+                    .build());
+        }
+        return posts;
+    }
+
+    @EventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        if (event.isPublicPost()) {
+            invalidateCategory(event.getCategory());
+        }
+    }
+
+    @EventListener
+    public void onPostChanged(PostChangedEvent event) {
+        invalidateCategory(event.getCategory());
+        invalidatePost(event.getPostId());
+    }
+
+    @EventListener
+    public void onEngagement(PostEngagementEvent event) {
+        invalidatePost(event.getPostId());
+    }
+
+    private Skeleton cached(PageKey key) {
+        long now = System.currentTimeMillis();
+        if (pages.size() >= cachedEntries && !pages.containsKey(key)) {
+            evict(now);
+        }
+        CompletableFuture<Skeleton> mine = new CompletableFuture<>();
+        CachedPage entry = pages.compute(key, (k, existing) ->
+                existing != null && existing.expiresAt() > now ? existing : new CachedPage(mine, now + ttlMillis));
+        if (entry.skeleton() == mine) {
+            try {
+                mine.complete(load(key));
+            } catch (RuntimeException e) {
+                pages.remove(key, entry);
+                mine.completeExceptionally(e);
+            }
+        }
+        try {
+            return entry.skeleton().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private Skeleton load(PageKey key) {
+        PageRequest request = PageRequest.of(key.page(), key.size());
+        List<Post> posts = key.category().isEmpty()
+                ? postRepository.findByIsPublicTrueOrderByCreatedAtDesc(request)
+                : postRepository.findByIsPublicTrueAndCategoryOrderByCreatedAtDesc(key.category(), request);
+        List<PostDto> dtos = new ArrayList<>(posts.size());
+        List<Set<String>> likers = new ArrayList<>(posts.size());
+        Set<String> ids = new HashSet<>();
+        for (Post post : posts) {
+            dtos.add(postService.convertToDto(post, null));
+            likers.add(Set.copyOf(post.getLikes()));
+            ids.add(post.getId());
+        }
+        return new Skeleton(List.copyOf(dtos), List.copyOf(likers), Set.copyOf(ids));
+    }
+
+    // Expired pages first; if the cache is still full, the page closest to expiring, i.e. the oldest
+    private void evict(long now) {
+        pages.values().removeIf(page -> page.expiresAt() <= now);
+        while (!pages.isEmpty() && pages.size() >= cachedEntries) {
+            pages.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().expiresAt()))
+                    .ifPresent(oldest -> pages.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    // The unfiltered feed shows every category, so it goes too
+    private void invalidateCategory(String category) {
+        String changed = category == null ? ALL : category.trim();
+        pages.keySet().removeIf(key -> key.category().equals(ALL) || key.category().equals(changed));
+    }
+
+    private void invalidatePost(String postId) {
+        pages.entrySet().removeIf(entry -> {
+            CompletableFuture<Skeleton> skeleton = entry.getValue().skeleton();
+            // A page still loading may or may not include the change; drop it to be safe
+            return !skeleton.isDone() || skeleton.isCompletedExceptionally()
+                    || skeleton.join().postIds().contains(postId);
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.fits.FitsHeader;
+import com.example.cosmoconnect.fits.FitsPreviewRenderer;
+import com.example.cosmoconnect.fits.FitsReader;
+import com.example.cosmoconnect.model.Post;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import com.example.cosmoconnect.storage.MediaObject;
+import com.example.cosmoconnect.storage.MediaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Optional;
+
+// Raw FITS frames: reads their headers to fill in observation details and renders previews.
+// Files are memory-mapped, never read onto the heap; stores without local files are staged first.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FitsService {
+
+    public static final String MEDIA_TYPE = "FITS";
+
+    private final MediaStorageService mediaStorageService;
+    private final MediaStore mediaStore;
+
+    @Value("${media.staging-dir}")
+    private String stagingDir;
+
+    public Optional<FitsHeader> readHeader(String mediaReference) {
+        String storedName = MediaNamespace.storedNameOf(mediaReference);
+        if (storedName == null || !FitsReader.isFitsName(storedName)) {
+            return Optional.empty();
+        }
+        try {
+            Optional<String> key = mediaStorageService.locate(storedName);
+            if (key.isEmpty()) {
+                return Optional.empty();
+            }
+            Optional<Path> local = mediaStore.localPath(key.get());
+            if (local.isPresent()) {
+                try (FileChannel channel = FileChannel.open(local.get(), StandardOpenOption.READ)) {
+                    return Optional.of(FitsReader.readHeader(channel));
+                }
+            }
+            // The header is at the front, so a remote object only needs its first few blocks
+            Optional<MediaObject> object = mediaStore.stat(key.get());
+            if (object.isEmpty()) {
+                return Optional.empty();
+            }
+            try (InputStream in = mediaStore.open(key.get(), 0, object.get().getSize())) {
+                return Optional.of(FitsReader.readHeader(in));
+            }
+        } catch (IOException e) {
+            log.warn("Could not read FITS header of {}: {}", storedName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // Marks the post FITS when its first file is one, and fills observation fields the author left
+    // empty from the first FITS file's header
+    public void applyHeader(Post post) {
+        if (post.getMediaUrls() == null || post.getMediaUrls().isEmpty()) {
+            return;
+        }
+        if (FitsReader.isFitsName(MediaNamespace.storedNameOf(post.getMediaUrls().get(0)))) {
+            post.setMediaType(MEDIA_TYPE);
+        } else if (MEDIA_TYPE.equals(post.getMediaType())) {
+            post.setMediaType(null); // the FITS frame was replaced
+        }
+        for (String mediaUrl : post.getMediaUrls()) {
+            Optional<FitsHeader> header = readHeader(mediaUrl);
+            if (header.isEmpty()) {
+                continue;
+            }
+            FitsHeader fits = header.get();
+            if (post.getMediaType() == null) {
+                post.setMediaType(MEDIA_TYPE);
+            }
+            if (isBlank(post.getExposureTime())) {
+                post.setExposureTime(exposureOf(fits));
+            }
+            if (isBlank(post.getTelescopeUsed())) {
+                post.setTelescopeUsed(fits.getString("TELESCOP"));
+            }
+            if (isBlank(post.getEquipmentDetails())) {
+                post.setEquipmentDetails(fits.getString("INSTRUME"));
+            }
+            if (isBlank(post.getCoordinates())) {
+                post.setCoordinates(coordinatesOf(fits));
+            }
+            if (post.getObservationDateTime() == null) {
+                post.setObservationDateTime(observationDateOf(fits));
+            }
+            return;
+        }
+    }
+
+    public BufferedImage renderPreview(String storedName, int maxSize) throws IOException {
+        String key = mediaStorageService.locate(storedName)
+                .orElseThrow(() -> new IOException("FITS file not found: " + storedName));
+        Optional<Path> local = mediaStore.localPath(key);
+        if (local.isPresent()) {
+            return render(local.get(), maxSize);
+        }
+
+        Path staging = Paths.get(stagingDir).toAbsolutePath().normalize();
+        Files.createDirectories(staging);
+        Path temp = Files.createTempFile(staging, "fits-", ".part");
+        try {
+            MediaObject object = mediaStore.stat(key)
+                    .orElseThrow(() -> new IOException("FITS file not found: " + storedName));
+            try (InputStream in = mediaStore.open(key, 0, object.getSize())) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return render(temp, maxSize);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private BufferedImage render(Path file, int maxSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return FitsPreviewRenderer.render(channel, FitsReader.readHeader(channel), maxSize);
+        }
+    }
+
+    private String exposureOf(FitsHeader header) {
+        Double seconds = header.getDouble("EXPTIME");
+        if (seconds == null) {
+            seconds = header.getDouble("EXPOSURE");
+        }
+        if (seconds == null) {
+            return null;
+        }
+        return (seconds == Math.rint(seconds) ? String.valueOf(seconds.longValue()) : seconds.toString()) + " s";
+    }
+
+    // Prefers the sexagesimal OBJCTRA/OBJCTDEC strings capture software writes, then RA/DEC in degrees
+    private String coordinatesOf(FitsHeader header) {
+        String ra = header.getString("OBJCTRA");
+        String dec = header.getString("OBJCTDEC");
+        if (ra != null && dec != null) {
+            String[] h = ra.trim().split("[\\s:]+");
+            String[] d = dec.trim().split("[\\s:]+");
+            if (h.length == 3 && d.length == 3) {
+                return h[0] + "h" + h[1] + "m" + h[2] + "s " + d[0] + "\u00b0" + d[1] + "'" + d[2] + "\"";
+            }
+            return ra.trim() + " " + dec.trim();
+        }
+        Double raDegrees = header.getDouble("RA");
+        Double decDegrees = header.getDouble("DEC");
+        if (raDegrees == null || decDegrees == null) {
+            return null;
+        }
+        double hours = ((raDegrees % 360) + 360) % 360 / 15;
+        int raH = (int) hours;
+        int raM = (int) ((hours - raH) * 60);
+        double raS = ((hours - raH) * 60 - raM) * 60;
+        double absDec = Math.abs(decDegrees);
+        int decD = (int) absDec;
+        int decM = (int) ((absDec - decD) * 60);
+        long decS = Math.round(((absDec - decD) * 60 - decM) * 60);
+        if (decS == 60) {
+            decS = 0;
+            decM++;
+        }
+        if (decM == 60) {
+            decM = 0;
+            decD++;
+        }
+        return String.format(Locale.ROOT, "%02dh%02dm%04.1fs %s%02d\u00b0%02d'%02d\"",
+                raH, raM, raS, decDegrees < 0 ? "-" : "+", decD, decM, decS);
+    }
+
+    public LocalDateTime observationDateOf(FitsHeader header) {
+        String value = header.getString("DATE-OBS");
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay();
+            }
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            // Pre-1998 headers use dd/mm/yy, which is too ambiguous to guess at
+            return null;
+        }
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
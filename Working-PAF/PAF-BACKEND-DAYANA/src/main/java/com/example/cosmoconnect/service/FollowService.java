@@ -0,0 +1,246 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.CursorPage;
+import com.example.cosmoconnect.dto.UserSummary;
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.model.Follow;
+import com.example.cosmoconnect.model.FollowCounts;
+import com.example.cosmoconnect.model.User;
+import com.example.cosmoconnect.paging.KeysetPaging;
+import com.example.cosmoconnect.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// The follow graph as one document per edge in "follows". Creating or removing an edge is a single
+// atomic write, and the counters in follow_counts move only when that write actually changed
+// something, so repeated or concurrent follow/unfollow requests cannot double count.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FollowService {
+
+    private static final String FOLLOWS = "follows";
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final UserDirectoryService userDirectoryService;
+    private final FollowSuggestionService followSuggestionService;
+
+    // Users used to carry following/followers arrays. They are no longer mapped, so the next full save
+    // of a user would drop them: move them into edges before the server takes requests, or don't start.
+    @PostConstruct
+    void migrateLegacyArrays() {
+        try {
+            Query query = new Query(new Criteria().orOperator(where("following").exists(true), where("followers").exists(true)))
+                    .limit(BATCH_SIZE);
+            query.fields().include("following").include("followers");
+            int users = 0;
+            int edges = 0;
+            while (true) {
+                List<Document> batch = mongoTemplate.find(query, Document.class, "users");
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Document user : batch) {
+                    String id = String.valueOf(user.get("_id"));
+                    for (String followee : idsIn(user.get("following"))) {
+                        if (!followee.equals(id) && userRepository.existsById(followee) && link(id, followee)) {
+                            edges++;
+                        }
+                    }
+                    for (String follower : idsIn(user.get("followers"))) {
+                        if (!follower.equals(id) && userRepository.existsById(follower) && link(follower, id)) {
+                            edges++;
+                        }
+                    }
+                    mongoTemplate.updateFirst(new Query(where("_id").is(user.get("_id"))),
+                            new Update().unset("following").unset("followers"), "users");
+                    users++;
+                }
+            }
+            if (users > 0) {
+                log.info("Moved the follow lists of {} users into {} follow edges", users, edges);
+            }
+        } catch (RuntimeException e) {
+            // Starting anyway would let the first profile save drop the unmigrated lists for good.
+            // Users already moved had their arrays unset, so the next start resumes where this stopped.
+            throw new IllegalStateException("Could not migrate legacy follow lists", e);
+        }
+    }
+
+    public void follow(String followerEmail, String followeeId) {
+        User follower = userByEmail(followerEmail);
+        if (follower.getId().equals(followeeId)) {
+            throw new BadRequestException("You cannot follow yourself");
+        }
+        if (!userRepository.existsById(followeeId)) {
+            throw new ResourceNotFoundException("User not found with id: " + followeeId);
+        }
+        link(follower.getId(), followeeId);
+        followSuggestionService.dismiss(followerEmail, followeeId);
+    }
+
+    public void unfollow(String followerEmail, String followeeId) {
+        unlink(userByEmail(followerEmail).getId(), followeeId);
+    }
+
+    public List<String> followingIdsOf(String userId) {
+        Query query = new Query(where("followerId").is(userId));
+        query.fields().include("followeeId");
+        List<String> ids = new ArrayList<>();
+        mongoTemplate.find(query, Follow.class).forEach(follow -> ids.add(follow.getFolloweeId()));
+        return ids;
+    }
+
+    public CursorPage<UserSummary> followersOf(String userId, String cursor, int limit) {
+        return page("followeeId", userId, "followerId", cursor, limit);
+    }
+
+    public CursorPage<UserSummary> followingOf(String userId, String cursor, int limit) {
+        return page("followerId", userId, "followeeId", cursor, limit);
+    }
+
+    // Fills in followedByMe for one page of users with a single lookup of the viewer's edges to them
+    public void markFollowed(String viewerEmail, List<UserSummary> users) {
+        User viewer = userRepository.findByEmail(viewerEmail).orElse(null);
+        if (viewer == null || users.isEmpty()) {
+            return;
+        }
+        List<String> ids = users.stream().map(UserSummary::getId).toList();
+        Query query = new Query(where("followerId").is(viewer.getId()).and("followeeId").in(ids));
+        query.fields().include("followeeId");
+        Set<String> followed = new HashSet<>();
+        mongoTemplate.find(query, Follow.class).forEach(follow -> followed.add(follow.getFolloweeId()));
+        users.forEach(user -> user.setFollowedByMe(followed.contains(user.getId())));
+    }
+
+    public FollowCounts countsOf(String userId) {
+        FollowCounts counts = mongoTemplate.findById(userId, FollowCounts.class);
+        return counts != null ? counts : FollowCounts.builder().id(userId).build();
+    }
+
+    // Drops every edge touching a deleted user, so the other side's counters stay right
+    public void removeAllFor(String userId) {
+        Query query = new Query(new Criteria().orOperator(where("followerId").is(userId), where("followeeId").is(userId)))
+                .limit(BATCH_SIZE);
+        while (true) {
+            List<Follow> batch = mongoTemplate.find(query, Follow.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            batch.forEach(follow -> unlink(follow.getFollowerId(), follow.getFolloweeId()));
+        }
+        mongoTemplate.remove(new Query(where("_id").is(userId)), FollowCounts.class);
+    }
+
+    // Walks one user's edges in order of the other end's id, which both compound indexes cover, so a
+    // page costs limit + 1 index entries plus one lookup of limit users however many edges there are
+    private CursorPage<UserSummary> page(String ownerField, String userId, String listedField, String cursor, int limit) {
+        Criteria criteria = where(ownerField).is(userId);
+        String after = KeysetPaging.decode(cursor);
+        if (after != null) {
+            criteria.and(listedField).gt(after);
+        }
+        Query query = new Query(criteria).with(Sort.by(listedField)).limit(limit + 1);
+        query.fields().include(listedField).exclude("_id");
+        List<String> ids = new ArrayList<>();
+        for (Document follow : mongoTemplate.find(query, Document.class, FOLLOWS)) {
+            ids.add(follow.getString(listedField));
+        }
+        boolean more = ids.size() > limit;
+        if (more) {
+            ids = ids.subList(0, limit);
+        }
+        return CursorPage.<UserSummary>builder()
+                .items(summaries(ids))
+                .nextCursor(more ? KeysetPaging.encode(ids.get(ids.size() - 1)) : null)
+                .build();
+    }
+
+    private List<UserSummary> summaries(List<String> ids) {
+        Query query = new Query(where("_id").in(ids));
+        query.fields().include("fullName").include("imageUrl").include("astronomyLevel");
+        Map<String, UserSummary> byId = new HashMap<>();
+        for (User user : mongoTemplate.find(query, User.class)) {
+            byId.put(user.getId(), UserSummary.builder()
+                    .id(user.getId())
+                    .fullName(user.getFullName())
+                    .imageUrl(user.getImageUrl())
+                    .astronomyLevel(user.getAstronomyLevel())
+                    .build());
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    // True when this call created the edge
+    private boolean link(String followerId, String followeeId) {
+        try {
+            if (mongoTemplate.upsert(edge(followerId, followeeId),
+                    new Update().setOnInsert("createdAt", LocalDateTime.now()), Follow.class).getUpsertedId() == null) {
+                return false;
+            }
+        } catch (DuplicateKeyException e) {
+            return false; // a concurrent request inserted it first
+        }
+        adjust(followerId, "following", 1);
+        adjust(followeeId, "followers", 1);
+        userDirectoryService.adjustFollowers(followeeId, 1);
+        return true;
+    }
+
+    private void unlink(String followerId, String followeeId) {
+        if (mongoTemplate.remove(edge(followerId, followeeId), Follow.class).getDeletedCount() > 0) {
+            adjust(followerId, "following", -1);
+            adjust(followeeId, "followers", -1);
+            userDirectoryService.adjustFollowers(followeeId, -1);
+        }
+    }
+
+    private void adjust(String userId, String counter, long delta) {
+        mongoTemplate.upsert(new Query(where("_id").is(userId)),
+                new Update().inc(counter, delta).set("updatedAt", LocalDateTime.now()), FollowCounts.class);
+    }
+
+    private User userByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    }
+
+    private static Query edge(String followerId, String followeeId) {
+        return new Query(where("followerId").is(followerId).and("followeeId").is(followeeId));
+    }
+
+    private static List<String> idsIn(Object value) {
+        List<String> ids = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object id : list) {
+                if (id != null) {
+                    ids.add(String.valueOf(id));
+                }
+            }
+        }
+        return ids;
+    }
+}
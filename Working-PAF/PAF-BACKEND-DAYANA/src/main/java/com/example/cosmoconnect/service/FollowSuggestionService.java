@@ -0,0 +1,224 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.FollowSuggestion;
+import com.example.cosmoconnect.model.UserSuggestions;
+import com.example.cosmoconnect.social.SuggestionGraph;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// "Who to follow". A nightly run loads every user's interests and equipment and the whole follow
+// graph into a SuggestionGraph, scores friends-of-friends and interest overlap for each user, and
+// writes the best few to user_suggestions. Serving them is one read by email.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FollowSuggestionService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${users.suggestions.per-user:20}")
+    private int perUser;
+
+    // How many mutual follows a perfect interest match is worth
+    @Value("${users.suggestions.interest-weight:3.0}")
+    private double interestWeight;
+
+    // Interests shared by more users than this are ignored when comparing two users
+    @Value("${users.suggestions.max-interest-users:5000}")
+    private int maxInterestUsers;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public List<FollowSuggestion> suggestionsFor(String email) {
+        UserSuggestions stored = mongoTemplate.findById(email, UserSuggestions.class);
+        if (stored == null || stored.getSuggestions() == null) {
+            return List.of();
+        }
+        return stored.getSuggestions().stream()
+                .map(suggestion -> FollowSuggestion.builder()
+                        .id(suggestion.getUserId())
+                        .fullName(suggestion.getFullName())
+                        .imageUrl(suggestion.getImageUrl())
+                        .astronomyLevel(suggestion.getAstronomyLevel())
+                        .mutualFollows(suggestion.getMutualFollows())
+                        .sharedInterests(suggestion.getSharedInterests())
+                        .build())
+                .toList();
+    }
+
+    // Following someone takes them off the list until the next run
+    public void dismiss(String email, String userId) {
+        mongoTemplate.updateFirst(new Query(where("_id").is(email)),
+                new Update().pull("suggestions", new Document("userId", userId)), UserSuggestions.class);
+    }
+
+    public void remove(String email) {
+        mongoTemplate.remove(new Query(where("_id").is(email)), UserSuggestions.class);
+    }
+
+    // A fresh install should not wait for the first nightly run
+    @Async("backfillTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialRun() {
+        if (mongoTemplate.estimatedCount(UserSuggestions.class) == 0) {
+            scheduledRun();
+        }
+    }
+
+    @Scheduled(cron = "${users.suggestions.cron:0 0 5 * * *}")
+    public void scheduledRun() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            recompute();
+        } catch (RuntimeException e) {
+            log.error("Follow suggestions run failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void recompute() {
+        long started = System.currentTimeMillis();
+        Map<String, Integer> indexById = new HashMap<>();
+        List<Document> users = new ArrayList<>();
+        List<int[]> interests = new ArrayList<>();
+        Map<String, Integer> termIds = new HashMap<>();
+        scan("users", List.of("email", "fullName", "imageUrl", "astronomyLevel", "astronomyInterests", "observationEquipment"), user -> {
+            if (user.getString("email") == null) {
+                return;
+            }
+            indexById.put(String.valueOf(user.get("_id")), users.size());
+            users.add(user);
+            // Interests and equipment are compared as one set; the prefix keeps a telescope from matching a topic
+            Set<Integer> terms = new LinkedHashSet<>();
+            addTerms(terms, termIds, "i:", user.get("astronomyInterests"));
+            addTerms(terms, termIds, "e:", user.get("observationEquipment"));
+            interests.add(terms.stream().mapToInt(Integer::intValue).toArray());
+        });
+
+        EdgeList edges = new EdgeList();
+        scan("follows", List.of("followerId", "followeeId"), follow -> {
+            Integer follower = indexById.get(follow.getString("followerId"));
+            Integer followee = indexById.get(follow.getString("followeeId"));
+            if (follower != null && followee != null && !follower.equals(followee)) {
+                edges.add(follower, followee);
+            }
+        });
+
+        SuggestionGraph graph = new SuggestionGraph(users.size(), Arrays.copyOf(edges.followers, edges.size),
+                Arrays.copyOf(edges.followees, edges.size), interests.toArray(new int[0][]), interestWeight, maxInterestUsers);
+        // Millisecond precision, as stored, so the clean-up below does not catch this run's own writes
+        LocalDateTime computedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserSuggestions.class);
+        int pending = 0;
+        for (int u = 0; u < graph.size(); u++) {
+            List<UserSuggestions.Suggestion> suggestions = new ArrayList<>();
+            for (SuggestionGraph.Suggestion suggestion : graph.suggestionsFor(u, perUser)) {
+                Document user = users.get(suggestion.user());
+                suggestions.add(UserSuggestions.Suggestion.builder()
+                        .userId(String.valueOf(user.get("_id")))
+                        .fullName(user.getString("fullName"))
+                        .imageUrl(user.getString("imageUrl"))
+                        .astronomyLevel(user.getString("astronomyLevel"))
+                        .mutualFollows(suggestion.mutualFollows())
+                        .sharedInterests(suggestion.sharedInterests())
+                        .score(suggestion.score())
+                        .build());
+            }
+            bulk.upsert(new Query(where("_id").is(users.get(u).getString("email"))),
+                    new Update().set("suggestions", suggestions).set("computedAt", computedAt));
+            if (++pending == BATCH_SIZE) {
+                bulk.execute();
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserSuggestions.class);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+        }
+        // Lists of users deleted since the last run
+        mongoTemplate.remove(new Query(where("computedAt").lt(computedAt)), UserSuggestions.class);
+        log.info("Follow suggestions computed for {} users over {} follows in {} ms",
+                users.size(), edges.size, System.currentTimeMillis() - started);
+    }
+
+    private static void addTerms(Set<Integer> terms, Map<String, Integer> termIds, String prefix, Object values) {
+        if (values instanceof Collection<?> collection) {
+            for (Object value : collection) {
+                if (value != null && !value.toString().isBlank()) {
+                    String term = prefix + value.toString().trim().toLowerCase(Locale.ROOT);
+                    terms.add(termIds.computeIfAbsent(term, key -> termIds.size()));
+                }
+            }
+        }
+    }
+
+    // Pages through a collection by _id so the scan holds no cursor open between batches
+    private void scan(String collection, List<String> fields, Consumer<Document> visitor) {
+        Object lastId = null;
+        while (true) {
+            Query query = new Query().with(Sort.by("_id")).limit(BATCH_SIZE);
+            if (lastId != null) {
+                query.addCriteria(where("_id").gt(lastId));
+            }
+            fields.forEach(field -> query.fields().include(field));
+            List<Document> batch = mongoTemplate.find(query, Document.class, collection);
+            if (batch.isEmpty()) {
+                return;
+            }
+            for (Document document : batch) {
+                lastId = document.get("_id");
+                visitor.accept(document);
+            }
+        }
+    }
+
+    // Growable pair of int columns, one row per follow
+    private static final class EdgeList {
+        private int[] followers = new int[1024];
+        private int[] followees = new int[1024];
+        private int size;
+
+        private void add(int follower, int followee) {
+            if (size == followers.length) {
+                followers = Arrays.copyOf(followers, size * 2);
+                followees = Arrays.copyOf(followees, size * 2);
+            }
+            followers[size] = follower;
+            followees[size] = followee;
+            size++;
+        }
+    }
+}
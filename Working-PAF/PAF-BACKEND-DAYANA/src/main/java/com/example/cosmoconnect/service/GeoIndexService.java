@@ -0,0 +1,152 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.model.Post;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Where posts were observed from, as a GeoJSON point on the observation_place index. The point comes
+// from the client (geocoded or device location) or, when the author opts in, the GPS tags of the
+// uploaded file. Only a rounded copy of it is ever published.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GeoIndexService {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    // 0.01 degrees is about a kilometre: close enough for nearby search, too coarse to find a house
+    private static final double PUBLISHED_PRECISION = 100;
+
+    private final MongoTemplate mongoTemplate;
+
+    // Null when either half is missing or out of range
+    public static GeoJsonPoint pointOf(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null || latitude.isNaN() || longitude.isNaN()
+                || latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            return null;
+        }
+        return new GeoJsonPoint(longitude, latitude);
+    }
+
+    // Client-supplied location: both halves or neither, and a bad pair is the caller's mistake
+    public void applyPoint(Post post, Double latitude, Double longitude) {
+        if (latitude == null && longitude == null) {
+            return;
+        }
+        GeoJsonPoint point = pointOf(latitude, longitude);
+        if (point == null) {
+            throw new BadRequestException("latitude must be in [-90, 90] and longitude in [-180, 180], and both are required");
+        }
+        post.setObservationPoint(point);
+    }
+
+    // Media GPS tags locate a post only while its author opts in and the tagged file is still on it;
+    // otherwise a point that came from them is withdrawn, but never one the author set
+    public void applyMediaLocation(Post post) {
+        Post.ObservationMetadata metadata = post.getObservationMetadata();
+        GeoJsonPoint fromMedia = metadata != null ? pointOf(metadata.getLatitude(), metadata.getLongitude()) : null;
+        if (fromMedia == null) {
+            return;
+        }
+        boolean onPost = post.getMediaUrls() != null && post.getMediaUrls().contains(metadata.getSourceMedia());
+        if (post.isShareMediaLocation() && onPost) {
+            if (post.getObservationPoint() == null) {
+                post.setObservationPoint(fromMedia);
+            }
+        } else if (fromMedia.equals(post.getObservationPoint())) {
+            post.setObservationPoint(null);
+        }
+    }
+
+    public static double published(double degrees) {
+        return Math.round(degrees * PUBLISHED_PRECISION) / PUBLISHED_PRECISION;
+    }
+
+    // Visible posts observed within km of a point, nearest first. The time window is part of the
+    // same compound index, so recent local sightings never scan the whole collection.
+    public List<Post> near(GeoJsonPoint center, double km, LocalDateTime since, String viewerId, int limit) {
+        Criteria criteria = where("observationPoint").nearSphere(center).maxDistance(km * 1000);
+        if (since != null) {
+            criteria.and("observationDateTime").gte(since);
+        }
+        List<Criteria> visibility = new ArrayList<>();
+        visibility.add(where("isPublic").is(true));
+        if (viewerId != null && ObjectId.isValid(viewerId)) {
+            visibility.add(where("author.$id").is(new ObjectId(viewerId)));
+        }
+        criteria.orOperator(visibility);
+        return mongoTemplate.find(new Query(criteria).limit(limit), Post.class);
+    }
+
+    // Great-circle distance in kilometres (haversine)
+    public static double distanceKm(Point from, Point to) {
+        double phi1 = Math.toRadians(from.getY());
+        double phi2 = Math.toRadians(to.getY());
+        double sinLatHalf = Math.sin((phi2 - phi1) / 2);
+        double sinLonHalf = Math.sin(Math.toRadians(to.getX() - from.getX()) / 2);
+        double a = sinLatHalf * sinLatHalf + Math.cos(phi1) * Math.cos(phi2) * sinLonHalf * sinLonHalf;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Posts used to be located from their photos' GPS tags without asking. Points that came from there
+    // are withdrawn, once, in the background, from posts whose authors haven't opted in.
+    @Async("backfillTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void withdrawMediaPoints() {
+        Object lastId = null;
+        int withdrawn = 0;
+        while (true) {
+            Query query = new Query(where("observationMetadata.latitude").exists(true).and("observationPoint").exists(true)
+                    .and("shareMediaLocation").ne(true))
+                    .with(Sort.by("_id")).limit(BACKFILL_BATCH_SIZE);
+            if (lastId != null) {
+                query.addCriteria(where("_id").gt(lastId));
+            }
+            query.fields().include("observationMetadata.latitude").include("observationMetadata.longitude")
+                    .include("observationPoint");
+            List<Document> batch = mongoTemplate.find(query, Document.class, "posts");
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Document post : batch) {
+                lastId = post.get("_id");
+                Document metadata = post.get("observationMetadata", Document.class);
+                GeoJsonPoint fromMedia = pointOf(asDouble(metadata.get("latitude")), asDouble(metadata.get("longitude")));
+                List<?> coordinates = post.get("observationPoint", Document.class).get("coordinates", List.class);
+                if (fromMedia != null && coordinates != null && coordinates.size() == 2
+                        && fromMedia.equals(pointOf(asDouble(coordinates.get(1)), asDouble(coordinates.get(0))))) {
+                    mongoTemplate.updateFirst(new Query(where("_id").is(lastId).and("shareMediaLocation").ne(true)),
+                            new Update().unset("observationPoint"), Post.class);
+                    withdrawn++;
+                }
+            }
+        }
+        if (withdrawn > 0) {
+            log.info("Withdrew media GPS locations from {} posts whose authors had not opted in", withdrawn);
+        }
+    }
+
+    private static Double asDouble(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.CursorPage;
+import com.example.cosmoconnect.event.PostCreatedEvent;
+import com.example.cosmoconnect.event.PostEngagementEvent;
+import com.example.cosmoconnect.model.Post;
+import com.example.cosmoconnect.paging.KeysetPaging;
+import com.example.cosmoconnect.trending.HotRanking;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.cosmoconnect.paging.KeysetPaging.stage;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Keeps the hot ranking of public posts. Everything scoring at least as well as a post with no
+// engagement created horizon-hours ago (the floor) lives in memory and is updated from like,
+// comment and visibility events. Changed scores are written to posts.hotScore every minute, which
+// lets a restart find old-but-still-hot posts by index, and lets pages past the in-memory part
+// continue from Mongo in the same order.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HotPostService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${posts.hot.half-life-hours:12}")
+    private double halfLifeHours;
+
+    @Value("${posts.hot.horizon-hours:72}")
+    private long horizonHours;
+
+    private final HotRanking ranking = new HotRanking();
+    private final Map<String, Double> pendingScores = new ConcurrentHashMap<>();
+    private volatile double floor;
+
+    @PostConstruct
+    void warmUp() {
+        floor = currentFloor();
+        try {
+            long started = System.nanoTime();
+            // Raw aggregation stages bypass Spring's date conversion, so compare against a Date
+            Date horizon = Date.from(Instant.now().minusSeconds(horizonHours * 3600));
+            Criteria candidates = where("isPublic").is(true)
+                    .orOperator(where("hotScore").gte(floor), where("createdAt").gte(horizon));
+            int loaded = rescore(candidates, true);
+            log.info("Hot ranking warmed up with {} posts in {} ms", loaded, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Could not warm up the hot ranking, starting empty: {}", e.getMessage());
+        }
+    }
+
+    // Older posts get a stored score once, so deep pages can reach them through the index
+    @Async("backfillTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int scored = rescore(where("hotScore").exists(false), false);
+        if (scored > 0) {
+            log.info("Scored {} existing posts for the hot ranking", scored);
+        }
+    }
+
+    @EventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        update(event.getPostId(), 0, 0, event.isPublicPost(), event.getCreatedAt());
+    }
+
+    @EventListener
+    public void onEngagement(PostEngagementEvent event) {
+        update(event.getPostId(), event.getLikeCount(), event.getCommentCount(), event.isPublicPost(), event.getCreatedAt());
+    }
+
+    public void remove(String postId) {
+        ranking.remove(postId);
+        pendingScores.remove(postId);
+    }
+
+    // Post ids in hot order. The cursor is the last entry of the previous page, as in search.
+    public CursorPage<String> page(String cursor, int limit) {
+        KeysetPaging.Scored position = KeysetPaging.decodeScored(cursor);
+        HotRanking.Entry after = position != null ? new HotRanking.Entry(position.id(), position.score()) : null;
+        double currentFloor = floor;
+        List<HotRanking.Entry> entries = new ArrayList<>(limit + 1);
+        if (after == null || after.score() >= currentFloor) {
+            entries.addAll(ranking.page(after, limit + 1));
+        }
+        if (entries.size() <= limit) {
+            // Ran past what memory holds: the rest, all below the floor, come from the hotScore index
+            HotRanking.Entry last = entries.isEmpty() ? after : entries.get(entries.size() - 1);
+            entries.addAll(stored(last, currentFloor, limit + 1 - entries.size()));
+        }
+        boolean more = entries.size() > limit;
+        if (more) {
+            entries = entries.subList(0, limit);
+        }
+        HotRanking.Entry next = more ? entries.get(entries.size() - 1) : null;
+        return CursorPage.<String>builder()
+                .items(entries.stream().map(HotRanking.Entry::postId).toList())
+                .nextCursor(next != null ? KeysetPaging.encode(next.score(), next.postId()) : null)
+                .build();
+    }
+
+    // Persists changed scores, then lets posts that decayed below the moving floor leave memory
+    @Scheduled(fixedDelayString = "${posts.hot.flush-interval-ms:60000}")
+    @PreDestroy
+    public void flush() {
+        writePending();
+        double next = currentFloor();
+        int pruned = ranking.pruneBelow(next);
+        floor = next;
+        if (pruned > 0) {
+            log.debug("Hot ranking: {} posts decayed out, {} remain", pruned, ranking.size());
+        }
+    }
+
+    private synchronized void writePending() {
+        if (!pendingScores.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+            List<Map.Entry<String, Double>> written = new ArrayList<>();
+            for (Map.Entry<String, Double> pending : pendingScores.entrySet()) {
+                bulk.updateOne(new Query(where("_id").is(pending.getKey())), new Update().set("hotScore", pending.getValue()));
+                written.add(Map.entry(pending.getKey(), pending.getValue()));
+            }
+            bulk.execute();
+            // A score that changed again meanwhile stays pending for the next run
+            written.forEach(entry -> pendingScores.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private void update(String postId, int likes, long comments, boolean publicPost, LocalDateTime createdAt) {
+        double score = HotRanking.score(likes, comments, epochSecond(createdAt), halfLifeHours);
+        if (publicPost && score >= floor) {
+            ranking.put(postId, score);
+        } else {
+            ranking.remove(postId);
+        }
+        pendingScores.put(postId, score);
+    }
+
+    // Recomputes scores from likes and comment counts for posts matching criteria. Into memory when
+    // warming up, otherwise only queued for persistence.
+    private int rescore(Criteria criteria, boolean intoMemory) {
+        Object lastId = null;
+        int count = 0;
+        while (true) {
+            List<AggregationOperation> stages = new ArrayList<>();
+            Document match = new Query(criteria).getQueryObject();
+            if (lastId != null) {
+                match = new Document("$and", List.of(match, new Document("_id", new Document("$gt", lastId))));
+            }
+            stages.add(stage("$match", match));
+            stages.add(stage("$sort", new Document("_id", 1)));
+            stages.add(stage("$limit", BATCH_SIZE));
+            stages.add(stage("$project", new Document("createdAt", 1).append("isPublic", 1).append("hotScore", 1)
+                    .append("likeCount", new Document("$size", new Document("$ifNull", List.of("$likes", List.of()))))));
+            List<Document> batch = mongoTemplate.aggregate(Aggregation.newAggregation(stages), "posts", Document.class)
+                    .getMappedResults();
+            if (batch.isEmpty()) {
+                return count;
+            }
+            Map<String, Long> comments = commentCounts(batch.stream().map(post -> String.valueOf(post.get("_id"))).toList());
+            for (Document post : batch) {
+                lastId = post.get("_id");
+                String id = String.valueOf(lastId);
+                Date createdAt = post.getDate("createdAt");
+                double score = HotRanking.score(((Number) post.get("likeCount")).intValue(), comments.getOrDefault(id, 0L),
+                        createdAt != null ? createdAt.toInstant().getEpochSecond() : 0, halfLifeHours);
+                if (intoMemory && Boolean.TRUE.equals(post.getBoolean("isPublic")) && score >= floor) {
+                    ranking.put(id, score);
+                }
+                Object stored = post.get("hotScore");
+                if (!(stored instanceof Number number) || number.doubleValue() != score) {
+                    pendingScores.put(id, score);
+                }
+                count++;
+            }
+            if (!intoMemory) {
+                writePending(); // a full backfill must not queue the whole collection
+            }
+        }
+    }
+
+    private Map<String, Long> commentCounts(List<String> postIds) {
+        List<AggregationOperation> stages = List.of(
+                stage("$match", new Document("postId", new Document("$in", postIds))),
+                stage("$group", new Document("_id", "$postId").append("count", new Document("$sum", 1))));
+        Map<String, Long> counts = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(Aggregation.newAggregation(stages), "comments", Document.class)
+                .getMappedResults()) {
+            counts.put(String.valueOf(row.get("_id")), ((Number) row.get("count")).longValue());
+        }
+        return counts;
+    }
+
+    private List<HotRanking.Entry> stored(HotRanking.Entry after, double below, int limit) {
+        Criteria criteria = where("isPublic").is(true);
+        if (after == null || after.score() >= below) {
+            criteria.and("hotScore").lt(below);
+        } else {
+            Object afterId = ObjectId.isValid(after.postId()) ? new ObjectId(after.postId()) : after.postId();
+            criteria.orOperator(where("hotScore").lt(after.score()),
+                    where("hotScore").is(after.score()).and("_id").gt(afterId));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.desc("hotScore"), Sort.Order.asc("_id")))
+                .limit(limit);
+        query.fields().include("hotScore");
+        List<HotRanking.Entry> entries = new ArrayList<>();
+        for (Document post : mongoTemplate.find(query, Document.class, "posts")) {
+            if (ranking.scoreOf(String.valueOf(post.get("_id"))) != null) {
+                continue; // rose above the floor since its score was last written
+            }
+            entries.add(new HotRanking.Entry(String.valueOf(post.get("_id")), ((Number) post.get("hotScore")).doubleValue()));
+        }
+        return entries;
+    }
+
+    private double currentFloor() {
+        return HotRanking.score(0, 0, Instant.now().getEpochSecond() - horizonHours * 3600, halfLifeHours);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return (time != null ? time : LocalDateTime.now()).atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.event.PostMediaChangedEvent;
+import com.example.cosmoconnect.fits.FitsReader;
+import com.example.cosmoconnect.model.Post;
+import com.example.cosmoconnect.similarity.PerceptualHash;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import com.example.cosmoconnect.storage.MediaObject;
+import com.example.cosmoconnect.storage.MediaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Generates thumbnail/medium/large copies of post images in the background so feeds don't have to
+// download full-resolution astrophotos, plus a perceptual hash of each image for near-duplicate
+// lookups. Results are recorded in Post.mediaDerivatives.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageDerivativeService {
+
+    public static final String READY = "READY";
+    public static final String SKIPPED = "SKIPPED";
+    public static final String FAILED = "FAILED";
+
+    private static final String[] LABELS = {"thumbnail", "medium", "large"};
+    private static final int[] WIDTHS = {320, 800, 1600};
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final Set<String> NON_IMAGE_EXTENSIONS = Set.of(
+            "mp4", "mov", "webm", "mkv", "avi", "m4v", "pdf");
+
+    private static final int BACKFILL_BATCH_SIZE = 200;
+    private static final int LOCK_STRIPES = 32;
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStorageService mediaStorageService;
+    private final MediaStore mediaStore;
+    private final FitsService fitsService;
+    private final SimilarImageService similarImageService;
+
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+    private final Object[] locks = createLocks();
+
+    @Async("mediaTaskExecutor")
+    @EventListener
+    public void onPostMediaChanged(PostMediaChangedEvent event) {
+        generate(event.getPostId());
+    }
+
+    // Admin-triggered pass over posts whose manifest is missing entries or perceptual hashes, e.g.
+    // posts saved before derivatives existed. Runs one post at a time; a second request while one is
+    // running is ignored.
+    @Async("backfillTaskExecutor")
+    public void backfill() {
+        if (!backfilling.compareAndSet(false, true)) {
+            log.info("Derivative backfill already running");
+            return;
+        }
+        try {
+            Object lastId = null;
+            int generated = 0;
+            while (true) {
+                Query query = new Query(where("mediaUrls.0").exists(true))
+                        .with(Sort.by("_id")).limit(BACKFILL_BATCH_SIZE);
+                if (lastId != null) {
+                    query.addCriteria(where("_id").gt(lastId));
+                }
+                query.fields().include("mediaUrls").include("mediaDerivatives");
+                List<Post> batch = mongoTemplate.find(query, Post.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Post post : batch) {
+                    lastId = ObjectId.isValid(post.getId()) ? new ObjectId(post.getId()) : post.getId();
+                    if (isIncomplete(post)) {
+                        generate(post.getId());
+                        generated++;
+                    }
+                }
+            }
+            log.info("Derivative backfill regenerated {} posts", generated);
+        } finally {
+            backfilling.set(false);
+        }
+    }
+
+    public void generate(String postId) {
+        synchronized (locks[Math.floorMod(postId.hashCode(), LOCK_STRIPES)]) {
+            Post post = mongoTemplate.findById(postId, Post.class);
+            if (post == null) {
+                return;
+            }
+            // Derivatives count against the author's storage, like the originals
+            String owner = post.getAuthor() != null ? post.getAuthor().getEmail() : StorageUsageService.SYSTEM_OWNER;
+            List<String> mediaUrls = post.getMediaUrls() != null ? post.getMediaUrls() : List.of();
+            List<Post.MediaDerivatives> previous = post.getMediaDerivatives() != null ? post.getMediaDerivatives() : List.of();
+            Map<String, Post.MediaDerivatives> bySource = previous.stream()
+                    .collect(Collectors.toMap(Post.MediaDerivatives::getSource, Function.identity(), (a, b) -> a));
+
+            List<Post.MediaDerivatives> manifest = new ArrayList<>();
+            Set<String> kept = new HashSet<>();
+            for (String mediaUrl : mediaUrls) {
+                Post.MediaDerivatives existing = bySource.get(mediaUrl);
+                if (existing != null && !FAILED.equals(existing.getStatus())) {
+                    manifest.add(needsHash(existing) ? withHash(existing) : existing);
+                    kept.add(mediaUrl);
+                } else if (kept.add(mediaUrl)) {
+                    manifest.add(derive(mediaUrl, owner));
+                }
+            }
+
+            mongoTemplate.updateFirst(new Query(where("_id").is(postId)),
+                    new Update().set("mediaDerivatives", manifest), Post.class);
+            similarImageService.index(postId, manifest);
+
+            // Media removed from the post no longer needs its resized copies
+            for (Post.MediaDerivatives old : previous) {
+                if (!kept.contains(old.getSource()) || bySource.get(old.getSource()) != old) {
+                    release(old, owner);
+                }
+            }
+        }
+    }
+
+    private Post.MediaDerivatives derive(String mediaUrl, String owner) {
+        String storedName = MediaNamespace.storedNameOf(mediaUrl);
+        if (storedName == null || NON_IMAGE_EXTENSIONS.contains(extensionOf(storedName))) {
+            return Post.MediaDerivatives.builder().source(mediaUrl).status(SKIPPED).build();
+        }
+
+        try {
+            boolean fits = FitsReader.isFitsName(storedName);
+            int[] size = new int[2];
+            BufferedImage image;
+            if (fits) {
+                // Browsers can't show FITS, so the stretched preview stands in for the original
+                image = fitsService.renderPreview(storedName, WIDTHS[WIDTHS.length - 1]);
+                size[0] = image.getWidth();
+                size[1] = image.getHeight();
+            } else {
+                Optional<String> key = mediaStorageService.locate(storedName);
+                Optional<MediaObject> object = key.isPresent() ? mediaStore.stat(key.get()) : Optional.empty();
+                if (object.isEmpty()) {
+                    return Post.MediaDerivatives.builder().source(mediaUrl).status(FAILED).build();
+                }
+                try (InputStream in = mediaStore.open(key.get(), 0, object.get().getSize())) {
+                    image = decode(in, size);
+                }
+            }
+            if (image == null) {
+                return Post.MediaDerivatives.builder().source(mediaUrl).status(SKIPPED).build();
+            }
+
+            boolean alpha = image.getColorModel().hasAlpha();
+            List<Post.MediaDerivatives.Variant> variants = new ArrayList<>();
+            for (int i = 0; i < WIDTHS.length; i++) {
+                // Never upscale: a small original is served as-is
+                if (WIDTHS[i] >= size[0]) {
+                    break;
+                }
+                int height = Math.max(1, Math.round((float) size[1] * WIDTHS[i] / size[0]));
+                variants.add(storeVariant(LABELS[i], scale(image, WIDTHS[i], height, alpha), WIDTHS[i], height, alpha, owner));
+            }
+            if (fits) {
+                variants.add(storeVariant("preview", image, size[0], size[1], false, owner));
+            }
+            log.debug("Generated {} derivatives for {}", variants.size(), mediaUrl);
+            return Post.MediaDerivatives.builder()
+                    .source(mediaUrl)
+                    .status(READY)
+                    .width(size[0])
+                    .height(size[1])
+                    .variants(variants)
+                    .perceptualHash(PerceptualHash.dHash(image))
+                    .build();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate derivatives for {}", mediaUrl, e);
+            return Post.MediaDerivatives.builder().source(mediaUrl).status(FAILED).build();
+        }
+    }
+
+    private static boolean isIncomplete(Post post) {
+        List<Post.MediaDerivatives> manifest = post.getMediaDerivatives();
+        Set<String> covered = manifest == null ? Set.of()
+                : manifest.stream().map(Post.MediaDerivatives::getSource).collect(Collectors.toSet());
+        // Manifests written before perceptual hashing get their hash filled in
+        boolean unhashed = manifest != null && manifest.stream().anyMatch(ImageDerivativeService::needsHash);
+        return !covered.containsAll(post.getMediaUrls()) || unhashed;
+    }
+
+    private static boolean needsHash(Post.MediaDerivatives derivatives) {
+        return READY.equals(derivatives.getStatus()) && derivatives.getPerceptualHash() == null;
+    }
+
+    // Hashes the smallest stored copy; dHash works on a 9x8 grid, so the thumbnail is plenty
+    private Post.MediaDerivatives withHash(Post.MediaDerivatives derivatives) {
+        List<Post.MediaDerivatives.Variant> variants = derivatives.getVariants();
+        String storedName = variants != null && !variants.isEmpty()
+                ? variants.get(0).getStoredName()
+                : MediaNamespace.storedNameOf(derivatives.getSource());
+        try {
+            Optional<String> key = storedName != null ? mediaStorageService.locate(storedName) : Optional.empty();
+            Optional<MediaObject> object = key.isPresent() ? mediaStore.stat(key.get()) : Optional.empty();
+            if (object.isEmpty()) {
+                return derivatives;
+            }
+            try (InputStream in = mediaStore.open(key.get(), 0, object.get().getSize())) {
+                Long hash = PerceptualHash.hash(in);
+                if (hash != null) {
+                    derivatives.setPerceptualHash(hash);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not hash {}", derivatives.getSource(), e);
+        }
+        return derivatives;
+    }
+
+    private Post.MediaDerivatives.Variant storeVariant(String label, BufferedImage image, int width, int height,
+                                                        boolean alpha, String owner) throws IOException {
+        byte[] encoded = alpha ? encodePng(image) : encodeJpeg(image);
+        String variantName = mediaStorageService.store(new ByteArrayInputStream(encoded),
+                label + (alpha ? ".png" : ".jpg"), MediaNamespace.POSTS, owner);
+        return Post.MediaDerivatives.Variant.builder()
+                .label(label)
+                .width(width)
+                .height(height)
+                .url(MediaNamespace.POSTS.fileUrl(variantName))
+                .storedName(variantName)
+                .build();
+    }
+
+    // Decodes the first image, subsampling very large originals while reading so a 60MP frame
+    // doesn't have to be held in memory at full resolution. size receives the original dimensions.
+    private BufferedImage decode(InputStream in, int[] size) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                size[0] = reader.getWidth(0);
+                size[1] = reader.getHeight(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, size[0] / (WIDTHS[WIDTHS.length - 1] * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves repeatedly before the final step; a single bilinear pass from a large original aliases badly
+    private BufferedImage scale(BufferedImage source, int width, int height, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int w = source.getWidth();
+        int h = source.getHeight();
+        do {
+            w = Math.max(width, w / 2);
+            h = Math.max(height, h / 2);
+            BufferedImage next = new BufferedImage(w, h, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = next;
+        } while (w != width || h != height);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private void release(Post.MediaDerivatives derivatives, String owner) {
+        if (derivatives.getVariants() == null) {
+            return;
+        }
+        for (Post.MediaDerivatives.Variant variant : derivatives.getVariants()) {
+            try {
+                mediaStorageService.release(variant.getStoredName(), owner);
+            } catch (RuntimeException e) {
+                log.warn("Could not release derivative {}", variant.getStoredName(), e);
+            }
+        }
+    }
+
+    private static String extensionOf(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static Object[] createLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+}
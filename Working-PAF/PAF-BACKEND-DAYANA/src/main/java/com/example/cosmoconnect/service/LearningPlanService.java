@@ -5,9 +5,8 @@ import com.example.cosmoconnect.repository.LearningPlanRepository;
 import com.example.cosmoconnect.repository.UserRepository;
 import com.example.cosmoconnect.model.User;
 import com.example.cosmoconnect.service.NotificationService;
+import com.example.cosmoconnect.storage.MediaNamespace;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -22,7 +21,7 @@ public class LearningPlanService {
     private LearningPlanRepository repo;
 
     @Autowired
-    private FileStorageService fileStorageService;
+    private MediaStorageService mediaStorageService;
 
     @Autowired
     private NotificationService notificationService;
@@ -32,8 +31,9 @@ public class LearningPlanService {
 
     public LearningPlan save(LearningPlan plan, MultipartFile learningMaterial) throws IOException {
         if (learningMaterial != null && !learningMaterial.isEmpty()) {
-            String fileUrl = fileStorageService.storeFile(learningMaterial, "");
-            plan.setLearningMaterials(List.of("/api/v1/learningplan/uploads/" + fileUrl));
+            String fileUrl = mediaStorageService.store(learningMaterial, MediaNamespace.LEARNING_PLANS,
+                    StorageUsageService.ownerOfCreator(plan.getCreatedBy()));
+            plan.setLearningMaterials(List.of("/api/v1/learningplan/uploads/" + MediaNamespace.LEARNING_PLANS.relative(fileUrl)));
         }
         LearningPlan saved = repo.save(plan);
         // Notify all users when a new learning plan is created
@@ -62,8 +62,9 @@ public class LearningPlanService {
             }
 
             if (learningMaterial != null && !learningMaterial.isEmpty()) {
-                String fileUrl = fileStorageService.storeFile(learningMaterial, "");
-                existing.setLearningMaterials(List.of("/api/v1/learningplan/uploads/" + fileUrl));
+                String fileUrl = mediaStorageService.store(learningMaterial, MediaNamespace.LEARNING_PLANS,
+                        StorageUsageService.ownerOfCreator(existing.getCreatedBy()));
+                existing.setLearningMaterials(List.of("/api/v1/learningplan/uploads/" + MediaNamespace.LEARNING_PLANS.relative(fileUrl)));
             }
 
             return repo.save(existing);
@@ -95,8 +96,4 @@ public class LearningPlanService {
     public void delete(String id) {
         repo.deleteById(id);
     }
-
-    public ResponseEntity<Resource> loadFile(String filename) {
-        return fileStorageService.loadFile(filename);
-    }
 }
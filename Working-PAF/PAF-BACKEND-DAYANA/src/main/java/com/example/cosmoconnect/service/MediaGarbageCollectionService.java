@@ -0,0 +1,351 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.MediaGcReport;
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.storage.KeyFingerprintSet;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import com.example.cosmoconnect.storage.MediaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Mark-and-sweep over media storage. Mark streams every media reference held by posts, users,
+// competitions, learning plans and pending uploads into a fingerprint set; sweep walks the store
+// and moves anything unmarked and older than the grace period under quarantine/<date>/, where it
+// is deleted for good after the retention period. Runs in one background thread, throttled.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaGarbageCollectionService {
+
+    private static final String QUARANTINE_PREFIX = "quarantine/";
+    // Staging and quarantine areas are managed elsewhere and never swept
+    private static final List<String> SKIPPED_PREFIXES = List.of(QUARANTINE_PREFIX, "tmp/");
+    private static final int SAMPLE_SIZE = 100;
+
+    // URL prefixes that have been written into documents, mapped to the namespace they serve
+    private static final List<UrlPrefix> URL_PREFIXES = List.of(
+            new UrlPrefix("/api/posts/files/", MediaNamespace.POSTS),
+            new UrlPrefix("/api/competitions/files/", MediaNamespace.COMPETITIONS),
+            new UrlPrefix("/api/v1/competitions/files/", MediaNamespace.COMPETITIONS),
+            new UrlPrefix("/api/learningplans/files/", MediaNamespace.LEARNING_PLANS),
+            new UrlPrefix("/api/v1/learningplan/uploads/", MediaNamespace.LEARNING_PLANS),
+            new UrlPrefix("/api/files/", null)
+    );
+
+    private static final List<Source> SOURCES = List.of(
+            new Source("posts", "mediaUrls"),
+            new Source("posts", "mediaDerivatives"),
+            new Source("competitions", "competitionBanner"),
+            new Source("competitions", "competition_instructions"),
+            new Source("learningplan", "learningMaterials"),
+            new Source("users", "imageUrl"),
+            new Source("upload_sessions", "storedName")
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStorageService mediaStorageService;
+    private final MediaStore mediaStore;
+
+    @Value("${media.gc.enabled:true}")
+    private boolean scheduledEnabled;
+
+    @Value("${media.gc.grace-period:72h}")
+    private Duration gracePeriod;
+
+    @Value("${media.gc.quarantine-retention:30d}")
+    private Duration quarantineRetention;
+
+    @Value("${media.gc.batch-size:500}")
+    private int batchSize;
+
+    @Value("${media.gc.objects-per-second:500}")
+    private double objectsPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicLong documentsScanned = new AtomicLong();
+    private final AtomicLong referencesMarked = new AtomicLong();
+    private final AtomicLong objectsScanned = new AtomicLong();
+    private final AtomicLong orphansFound = new AtomicLong();
+    private final AtomicLong orphanBytes = new AtomicLong();
+    private final AtomicLong skippedInGracePeriod = new AtomicLong();
+    private final AtomicLong quarantined = new AtomicLong();
+    private final AtomicLong quarantinePurged = new AtomicLong();
+    private final List<String> sampleOrphans = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean dryRun;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private long nextObjectAt;
+
+    @Scheduled(cron = "${media.gc.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!scheduledEnabled || running.get()) {
+            return;
+        }
+        start(false);
+    }
+
+    public MediaGcReport start(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("Media garbage collection is already running");
+        }
+        this.dryRun = dryRun;
+        cancelled.set(false);
+        documentsScanned.set(0);
+        referencesMarked.set(0);
+        objectsScanned.set(0);
+        orphansFound.set(0);
+        orphanBytes.set(0);
+        skippedInGracePeriod.set(0);
+        quarantined.set(0);
+        quarantinePurged.set(0);
+        sampleOrphans.clear();
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+
+        Thread worker = new Thread(this::run, "media-gc");
+        worker.setDaemon(true);
+        worker.start();
+        return report();
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public MediaGcReport report() {
+        List<String> sample;
+        synchronized (sampleOrphans) {
+            sample = new ArrayList<>(sampleOrphans);
+        }
+        return MediaGcReport.builder()
+                .running(running.get())
+                .dryRun(dryRun)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .documentsScanned(documentsScanned.get())
+                .referencesMarked(referencesMarked.get())
+                .objectsScanned(objectsScanned.get())
+                .orphansFound(orphansFound.get())
+                .orphanBytes(orphanBytes.get())
+                .skippedInGracePeriod(skippedInGracePeriod.get())
+                .quarantined(quarantined.get())
+                .quarantinePurged(quarantinePurged.get())
+                .sampleOrphans(sample)
+                .lastError(lastError)
+                .build();
+    }
+
+    private void run() {
+        try {
+            log.info("Media garbage collection started (dryRun={})", dryRun);
+            KeyFingerprintSet marked = mark();
+            if (!cancelled.get()) {
+                sweep(marked);
+            }
+            if (!dryRun && !cancelled.get()) {
+                purgeQuarantine();
+            }
+            log.info("Media garbage collection finished: {}", report());
+        } catch (IOException | RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("Media garbage collection failed", e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private KeyFingerprintSet mark() {
+        KeyFingerprintSet marked = new KeyFingerprintSet(1 << 16);
+        for (Source source : SOURCES) {
+            Object lastId = null;
+            while (!cancelled.get()) {
+                Query query = new Query(where(source.field()).exists(true)).with(Sort.by("_id")).limit(batchSize);
+                if (lastId != null) {
+                    query.addCriteria(where("_id").gt(lastId));
+                }
+                query.fields().include(source.field());
+                List<Document> batch = mongoTemplate.find(query, Document.class, source.collection());
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Document document : batch) {
+                    lastId = document.get("_id");
+                    documentsScanned.incrementAndGet();
+                    markValue(document.get(source.field()), marked);
+                }
+            }
+        }
+        return marked;
+    }
+
+    // Walks strings, lists and sub-documents (derivative manifests) for anything that looks like media
+    private void markValue(Object value, KeyFingerprintSet marked) {
+        if (value instanceof String reference) {
+            markReference(reference, marked);
+        } else if (value instanceof List<?> list) {
+            for (Object item : list) {
+                markValue(item, marked);
+            }
+        } else if (value instanceof Document document) {
+            for (Object item : document.values()) {
+                markValue(item, marked);
+            }
+        }
+    }
+
+    // Marks every key the reference could resolve to, including the legacy upload-root fallback.
+    // Over-marking only keeps a file longer; under-marking would lose one.
+    private void markReference(String reference, KeyFingerprintSet marked) {
+        if (reference.isBlank() || (reference.startsWith("http") && !reference.contains("/api/"))) {
+            return;
+        }
+        String rest = reference;
+        MediaNamespace namespace = null;
+        for (UrlPrefix prefix : URL_PREFIXES) {
+            int index = reference.indexOf(prefix.path());
+            if (index >= 0) {
+                rest = reference.substring(index + prefix.path().length());
+                namespace = prefix.namespace();
+                break;
+            }
+        }
+        int query = rest.indexOf('?');
+        if (query >= 0) {
+            rest = rest.substring(0, query);
+        }
+        String filename = rest.substring(rest.lastIndexOf('/') + 1);
+
+        mark(rest, marked);
+        mark(filename, marked);
+        if (namespace != null) {
+            mark(namespace.qualify(rest), marked);
+        } else {
+            for (MediaNamespace candidate : MediaNamespace.values()) {
+                mark(candidate.qualify(filename), marked);
+            }
+        }
+    }
+
+    private void mark(String storedName, KeyFingerprintSet marked) {
+        try {
+            marked.add(mediaStorageService.keyFor(storedName));
+            referencesMarked.incrementAndGet();
+        } catch (RuntimeException e) {
+            // Not a valid stored name (e.g. blank or escaping the store root); nothing to keep
+        }
+    }
+
+    private void sweep(KeyFingerprintSet marked) throws IOException {
+        long cutoff = System.currentTimeMillis() - gracePeriod.toMillis();
+        // Blobs an upload deduplicated against after this point may be referenced by a document the mark missed
+        LocalDateTime referencedBefore = startedAt.minus(gracePeriod);
+        String quarantineDir = QUARANTINE_PREFIX + LocalDate.now() + "/";
+        try {
+            mediaStore.list("", object -> {
+                if (cancelled.get()) {
+                    throw new CancelledException();
+                }
+                objectsScanned.incrementAndGet();
+                String key = object.getKey();
+                if (skipped(key) || marked.contains(key)) {
+                    return;
+                }
+                // Only candidates are throttled; they are the ones that cost store round trips
+                throttle();
+                if (object.getLastModified() > cutoff) {
+                    skippedInGracePeriod.incrementAndGet();
+                    return;
+                }
+                orphansFound.incrementAndGet();
+                orphanBytes.addAndGet(object.getSize());
+                if (sampleOrphans.size() < SAMPLE_SIZE) {
+                    sampleOrphans.add(key);
+                }
+                if (!dryRun && mediaStorageService.quarantine(key, quarantineDir + key, referencedBefore)) {
+                    quarantined.incrementAndGet();
+                }
+            });
+        } catch (CancelledException e) {
+            log.info("Media garbage collection cancelled during sweep");
+        }
+    }
+
+    private void purgeQuarantine() throws IOException {
+        LocalDate oldestKept = LocalDate.now().minusDays(Math.max(1, quarantineRetention.toDays()));
+        mediaStore.list(QUARANTINE_PREFIX, object -> {
+            String rest = object.getKey().substring(QUARANTINE_PREFIX.length());
+            int slash = rest.indexOf('/');
+            if (slash < 0) {
+                return;
+            }
+            try {
+                if (LocalDate.parse(rest.substring(0, slash)).isBefore(oldestKept)) {
+                    mediaStore.delete(object.getKey());
+                    quarantinePurged.incrementAndGet();
+                }
+            } catch (DateTimeParseException e) {
+                log.debug("Ignoring unexpected quarantine entry {}", object.getKey());
+            }
+        });
+    }
+
+    private boolean skipped(String key) {
+        for (String prefix : SKIPPED_PREFIXES) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void throttle() {
+        if (objectsPerSecond <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (nextObjectAt > now) {
+            long wait = nextObjectAt - now;
+            try {
+                Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancelledException();
+            }
+        }
+        nextObjectAt = Math.max(nextObjectAt, now) + (long) (1_000_000_000L / objectsPerSecond);
+    }
+
+    private record UrlPrefix(String path, MediaNamespace namespace) {
+    }
+
+    private record Source(String collection, String field) {
+    }
+
+    // Unwinds a store listing from inside the visitor
+    private static class CancelledException extends RuntimeException {
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.MediaMigrationStatus;
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import com.example.cosmoconnect.storage.MediaObject;
+import com.example.cosmoconnect.storage.MediaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Moves media stored under the old flat layout (posts/<uuid>.jpg, competitions/..., files in the
+// upload root) into content-addressed blobs and rewrites the documents that point at them.
+// Runs online in one background thread, a batch of documents at a time, throttled per file.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaMigrationService {
+
+    // URL prefixes that have been written into documents, mapped to the namespace they serve
+    private static final List<UrlPrefix> URL_PREFIXES = List.of(
+            new UrlPrefix("/api/posts/files/", MediaNamespace.POSTS),
+            new UrlPrefix("/api/competitions/files/", MediaNamespace.COMPETITIONS),
+            new UrlPrefix("/api/v1/competitions/files/", MediaNamespace.COMPETITIONS),
+            new UrlPrefix("/api/learningplans/files/", MediaNamespace.LEARNING_PLANS),
+            new UrlPrefix("/api/v1/learningplan/uploads/", MediaNamespace.LEARNING_PLANS),
+            new UrlPrefix("/api/files/", null)
+    );
+
+    private static final List<Target> TARGETS = List.of(
+            new Target("posts", "mediaUrls", true, MediaNamespace.POSTS),
+            new Target("competitions", "competitionBanner", false, MediaNamespace.COMPETITIONS),
+            new Target("competitions", "competition_instructions", false, MediaNamespace.COMPETITIONS),
+            new Target("learningplan", "learningMaterials", true, MediaNamespace.LEARNING_PLANS),
+            new Target("users", "imageUrl", false, MediaNamespace.PROFILE_PHOTOS)
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStorageService mediaStorageService;
+    private final MediaStore mediaStore;
+
+    @Value("${media.migration.batch-size:200}")
+    private int batchSize;
+
+    @Value("${media.migration.files-per-second:20}")
+    private double filesPerSecond;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicLong documentsScanned = new AtomicLong();
+    private final AtomicLong referencesMigrated = new AtomicLong();
+    private final AtomicLong bytesMigrated = new AtomicLong();
+    private final AtomicLong missingFiles = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong legacyFilesDeleted = new AtomicLong();
+    private volatile boolean dryRun;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private long nextFileAt;
+
+    public MediaMigrationStatus start(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("A media migration is already running");
+        }
+        this.dryRun = dryRun;
+        cancelled.set(false);
+        documentsScanned.set(0);
+        referencesMigrated.set(0);
+        bytesMigrated.set(0);
+        missingFiles.set(0);
+        conflicts.set(0);
+        legacyFilesDeleted.set(0);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+
+        Thread worker = new Thread(this::run, "media-migration");
+        worker.setDaemon(true);
+        worker.start();
+        return status();
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public MediaMigrationStatus status() {
+        return MediaMigrationStatus.builder()
+                .running(running.get())
+                .dryRun(dryRun)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .documentsScanned(documentsScanned.get())
+                .referencesMigrated(referencesMigrated.get())
+                .bytesMigrated(bytesMigrated.get())
+                .missingFiles(missingFiles.get())
+                .conflicts(conflicts.get())
+                .legacyFilesDeleted(legacyFilesDeleted.get())
+                .lastError(lastError)
+                .build();
+    }
+
+    private void run() {
+        try {
+            log.info("Media migration started (dryRun={})", dryRun);
+            for (Target target : TARGETS) {
+                migrate(target);
+            }
+            log.info("Media migration finished: {}", status());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("Media migration failed", e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void migrate(Target target) throws InterruptedException {
+        Object lastId = null;
+        while (!cancelled.get()) {
+            Query query = new Query(where(target.field()).exists(true)).with(Sort.by("_id")).limit(batchSize);
+            if (lastId != null) {
+                query.addCriteria(where("_id").gt(lastId));
+            }
+            query.fields().include(target.field());
+            StorageUsageService.OWNER_FIELDS.get(target.collection()).forEach(field -> query.fields().include(field));
+            List<Document> batch = mongoTemplate.find(query, Document.class, target.collection());
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            // Everything below lives for one batch only: author emails looked up for it, and the legacy
+            // files it moved (key -> file name) or had to keep
+            Map<String, String> authorEmails = new HashMap<>();
+            Map<String, String> migratedKeys = new HashMap<>();
+            Set<String> retainedKeys = new HashSet<>();
+            for (Document document : batch) {
+                lastId = document.get("_id");
+                documentsScanned.incrementAndGet();
+                // Charged to the same owner the nightly reconciliation would pick, not to the migration thread
+                String owner = StorageUsageService.ownerOf(target.collection(), document,
+                        userId -> authorEmails.computeIfAbsent(userId, this::emailOf));
+                Object value = document.get(target.field());
+                if (target.array() && value instanceof List<?> references) {
+                    for (Object reference : references) {
+                        if (reference instanceof String ref) {
+                            migrateReference(target, lastId, owner, ref, migratedKeys, retainedKeys);
+                        }
+                    }
+                } else if (!target.array() && value instanceof String ref) {
+                    migrateReference(target, lastId, owner, ref, migratedKeys, retainedKeys);
+                }
+            }
+            deleteUnreferenced(migratedKeys, retainedKeys);
+        }
+    }
+
+    private void migrateReference(Target target, Object id, String owner, String reference,
+                                  Map<String, String> migratedKeys, Set<String> retainedKeys) throws InterruptedException {
+        LegacyReference legacy = parse(reference, target.namespace());
+        if (legacy == null) {
+            return;
+        }
+
+        String key;
+        Optional<MediaObject> object;
+        try {
+            Optional<String> located = mediaStorageService.locate(legacy.storedName());
+            if (located.isEmpty()) {
+                missingFiles.incrementAndGet();
+                return;
+            }
+            key = located.get();
+            object = mediaStore.stat(key);
+        } catch (IOException | RuntimeException e) {
+            missingFiles.incrementAndGet();
+            log.debug("Skipping unreadable media reference {}", reference, e);
+            return;
+        }
+        if (object.isEmpty()) {
+            missingFiles.incrementAndGet();
+            return;
+        }
+        if (dryRun) {
+            referencesMigrated.incrementAndGet();
+            bytesMigrated.addAndGet(object.get().getSize());
+            return;
+        }
+
+        throttle();
+        String newName;
+        try (InputStream in = mediaStore.open(key, 0, object.get().getSize())) {
+            newName = mediaStorageService.store(in, legacy.storedName(), legacy.namespace(), owner);
+        } catch (IOException e) {
+            lastError = e.getMessage();
+            retainedKeys.add(key);
+            log.warn("Could not migrate {}", reference, e);
+            return;
+        }
+
+        String rewritten = legacy.rewrite(newName);
+        Query query = new Query(where("_id").is(id).and(target.field()).is(reference));
+        Update update = new Update().set(target.array() ? target.field() + ".$" : target.field(), rewritten);
+        if (mongoTemplate.updateFirst(query, update, target.collection()).getMatchedCount() == 0) {
+            // The document changed underneath us; keep the old file and drop the new reference
+            conflicts.incrementAndGet();
+            retainedKeys.add(key);
+            mediaStorageService.release(newName, owner);
+            return;
+        }
+        migratedKeys.put(key, fileNameOf(legacy.storedName()));
+        referencesMigrated.incrementAndGet();
+        bytesMigrated.addAndGet(object.get().getSize());
+    }
+
+    // Deletes the legacy files a batch moved, unless some document still points at one: a reference
+    // that failed to migrate, or one later in the scan. Every URL form a legacy file was written under
+    // ends in its file name, so that is what is matched; a shared name keeps the file, which is safe.
+    // A file kept here is deleted by the batch that rewrites its last reference.
+    private void deleteUnreferenced(Map<String, String> migratedKeys, Set<String> retainedKeys) {
+        migratedKeys.keySet().removeAll(retainedKeys);
+        if (dryRun || migratedKeys.isEmpty()) {
+            return;
+        }
+        List<Pattern> patterns = migratedKeys.values().stream().distinct()
+                .map(name -> Pattern.compile("(^|/)" + Pattern.quote(name) + "$"))
+                .toList();
+        Set<String> stillReferenced = new HashSet<>();
+        for (Target target : TARGETS) {
+            Query query = new Query(where(target.field()).in(patterns));
+            query.fields().include(target.field());
+            for (Document document : mongoTemplate.find(query, Document.class, target.collection())) {
+                Object value = document.get(target.field());
+                for (Object reference : value instanceof List<?> references ? references : Collections.singletonList(value)) {
+                    if (reference instanceof String ref) {
+                        stillReferenced.add(fileNameOf(ref));
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, String> migrated : migratedKeys.entrySet()) {
+            if (stillReferenced.contains(migrated.getValue())) {
+                continue;
+            }
+            try {
+                mediaStore.delete(migrated.getKey());
+                legacyFilesDeleted.incrementAndGet();
+            } catch (IOException e) {
+                log.warn("Could not delete migrated file {}", migrated.getKey(), e);
+            }
+        }
+    }
+
+    private static String fileNameOf(String reference) {
+        return reference.substring(reference.lastIndexOf('/') + 1);
+    }
+
+    private String emailOf(String userId) {
+        Query query = new Query(where("_id").is(userId));
+        query.fields().include("email");
+        Document user = mongoTemplate.findOne(query, Document.class, "users");
+        return user != null ? user.getString("email") : null;
+    }
+
+    // Returns null for references that are already content-addressed or not ours (e.g. OAuth avatars)
+    private LegacyReference parse(String reference, MediaNamespace defaultNamespace) {
+        String head = "";
+        String rest = reference;
+        for (UrlPrefix prefix : URL_PREFIXES) {
+            int index = reference.indexOf(prefix.path());
+            if (index >= 0) {
+                head = reference.substring(0, index + prefix.path().length());
+                rest = reference.substring(head.length());
+                if (prefix.namespace() != null) {
+                    return legacy(head, rest, prefix.namespace(), false);
+                }
+                break;
+            }
+        }
+        if (rest.isBlank() || rest.startsWith("http") || mediaStorageService.isContentName(rest)) {
+            return null;
+        }
+
+        int slash = rest.indexOf('/');
+        if (slash > 0) {
+            String directory = rest.substring(0, slash);
+            for (MediaNamespace namespace : MediaNamespace.values()) {
+                if (namespace.getDirectory().equals(directory)) {
+                    return legacy(head, rest, namespace, true);
+                }
+            }
+        }
+        return legacy(head, rest, defaultNamespace, false);
+    }
+
+    private LegacyReference legacy(String head, String rest, MediaNamespace namespace, boolean qualified) {
+        String storedName = namespace.qualify(rest);
+        if (mediaStorageService.isContentName(storedName)) {
+            return null;
+        }
+        return new LegacyReference(head, namespace, storedName, qualified);
+    }
+
+    private void throttle() throws InterruptedException {
+        if (filesPerSecond <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (nextFileAt > now) {
+            long wait = nextFileAt - now;
+            Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+        }
+        nextFileAt = Math.max(nextFileAt, now) + (long) (1_000_000_000L / filesPerSecond);
+    }
+
+    private record UrlPrefix(String path, MediaNamespace namespace) {
+    }
+
+    private record Target(String collection, String field, boolean array, MediaNamespace namespace) {
+    }
+
+    // head is any URL prefix in front of the file name; qualified means the namespace directory
+    // is part of the reference itself (posts/<file>) rather than implied by the URL or field
+    private record LegacyReference(String head, MediaNamespace namespace, String storedName, boolean qualified) {
+        String rewrite(String newName) {
+            return head + (qualified ? newName : namespace.relative(newName));
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.storage.MediaObject;
+import com.example.cosmoconnect.storage.MediaStore;
+import com.example.cosmoconnect.storage.MediaTypes;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaServingService {
+
+    // Stored media names are UUIDs or content hashes, so a given URL never changes content
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int MAX_CACHED_TYPES = 10_000;
+
+    private final MediaStorageService mediaStorageService;
+    private final MediaStore mediaStore;
+
+    private final Map<String, String> contentTypeCache = new ConcurrentHashMap<>();
+
+    @Value("${media.sendfile-threshold-bytes:49152}")
+    private long sendfileThreshold;
+
+    public void serve(String name, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // name is the logical stored name; the bytes may live under a content-addressed blob key
+        String key = mediaStorageService.locatePublished(name)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found: " + name));
+        MediaObject object = mediaStore.stat(key)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found: " + name));
+        // Content names share one blob across extensions, so the name must agree with the bytes
+        String contentType = contentTypeOf(key);
+        if (!MediaTypes.nameMatches(name, contentType)) {
+            throw new ResourceNotFoundException("File not found: " + name);
+        }
+
+        long size = object.getSize();
+        long lastModified = object.getLastModified();
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        String filename = Path.of(name).getFileName().toString().replaceAll("[\"\\p{Cntrl}]", "_");
+        response.setContentType(contentType);
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                (MediaTypes.isInline(contentType) ? "inline" : "attachment") + "; filename=\"" + filename + "\"");
+
+        long start = 0;
+        long end = size - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && ifRangeAllows(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+        }
+
+        long length = end - start + 1;
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        Optional<Path> localFile = mediaStore.localPath(key);
+        if (localFile.isPresent()) {
+            transfer(localFile.get(), start, length, request, response);
+        } else {
+            try (InputStream in = mediaStore.open(key, start, length)) {
+                in.transferTo(response.getOutputStream());
+            }
+        }
+    }
+
+    private void transfer(Path file, long start, long length, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        // Let Tomcat hand the file to the kernel (sendfile) once the servlet returns
+        if (length >= sendfileThreshold && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    // Keyed by store key: every name of a content-addressed blob shares the bytes, and so the type
+    private String contentTypeOf(String key) {
+        String cached = contentTypeCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        byte[] header = new byte[MediaTypes.HEADER_BYTES];
+        int read;
+        try (InputStream in = mediaStore.open(key, 0, header.length)) {
+            read = in.readNBytes(header, 0, header.length);
+        } catch (IOException e) {
+            // Not cached, so the next request tries again
+            log.warn("Could not sniff content type of {}", key, e);
+            return MediaTypes.OCTET_STREAM;
+        }
+        String contentType = MediaTypes.sniff(header, read);
+        if (contentTypeCache.size() >= MAX_CACHED_TYPES) {
+            contentTypeCache.clear();
+        }
+        contentTypeCache.put(key, contentType);
+        return contentType;
+    }
+
+    private boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean ifRangeAllows(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        String value = ifRange.trim();
+        if (value.startsWith("\"")) {
+            return value.equals(etag);
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)
+                    .toInstant().toEpochMilli() / 1000 == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    // Returns {start, end} for one satisfiable range, an empty array to serve the whole file
+    // (missing, malformed or multi-range headers) and null when the range cannot be satisfied
+    private long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.model.MediaBlob;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import com.example.cosmoconnect.storage.MediaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Content-addressed media storage on top of the configured MediaStore. Uploads are hashed while
+// they are written to a local staging file and then stored once under sha256/ab/cd/<hash>, so
+// identical uploads share one blob. Callers get names like posts/<hash>.jpg; the extension is kept
+// for readers, and serving checks it against the blob's bytes.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaStorageService {
+
+    private static final Pattern CONTENT_NAME = Pattern.compile("^(?:[a-z-]+/)?([0-9a-f]{64})(\\.[a-z0-9]{1,10})?$");
+    private static final Pattern BLOB_KEY = Pattern.compile("^sha256/[0-9a-f]{2}/[0-9a-f]{2}/([0-9a-f]{64})$");
+    private static final Pattern EXTENSION = Pattern.compile("^\\.[a-z0-9]{1,10}$");
+    private static final int LOCK_STRIPES = 64;
+    // Store areas that only the server itself reads: staging and partial uploads, quarantined
+    // files and raw blobs (served only through their content names)
+    private static final List<String> PRIVATE_PREFIXES = List.of("tmp/", "quarantine/", "sha256/");
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStore mediaStore;
+    private final StorageUsageService storageUsageService;
+
+    // Serialises retain/release of the same blob so a delete can't race a concurrent upload
+    private final Object[] locks = createLocks();
+
+    @Value("${media.staging-dir}")
+    private String stagingDir;
+
+    public String store(MultipartFile file, MediaNamespace namespace) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getOriginalFilename(), namespace);
+        }
+    }
+
+    public String store(MultipartFile file, MediaNamespace namespace, String owner) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getOriginalFilename(), namespace, owner);
+        }
+    }
+
+    public String store(InputStream in, String originalFilename, MediaNamespace namespace) throws IOException {
+        return store(in, originalFilename, namespace, storageUsageService.currentOwner());
+    }
+
+    // owner is charged for the bytes, even when the content deduplicates against an existing blob
+    public String store(InputStream in, String originalFilename, MediaNamespace namespace, String owner)
+            throws IOException {
+        Path staging = Paths.get(stagingDir).toAbsolutePath().normalize();
+        Files.createDirectories(staging);
+        Path temp = Files.createTempFile(staging, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (DigestInputStream hashing = new DigestInputStream(in, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = hashing.transferTo(out);
+            }
+            return storeFile(temp, HexFormat.of().formatHex(digest.digest()), originalFilename, namespace, owner);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // For a file already staged on local disk whose SHA-256 the caller computed while receiving it.
+    // The local store hard-links it into place, so nothing is copied; the caller still owns the file.
+    public String storeFile(Path file, String sha256, String originalFilename, MediaNamespace namespace, String owner)
+            throws IOException {
+        long size = Files.size(file);
+        link(file, sha256, size);
+        storageUsageService.record(owner, namespace, size, 1);
+        return contentName(namespace, sha256, extensionOf(originalFilename));
+    }
+
+    // Maps a stored name to the key its bytes live under in the MediaStore
+    public String keyFor(String name) {
+        Matcher matcher = CONTENT_NAME.matcher(name);
+        if (matcher.matches()) {
+            return blobKey(matcher.group(1));
+        }
+        // Names written before content addressing are plain paths under the store root
+        if (name.isBlank() || name.startsWith("/") || name.contains("\\") || List.of(name.split("/")).contains("..")) {
+            throw new ResourceNotFoundException("File not found: " + name);
+        }
+        return name;
+    }
+
+    // Finds where a stored name's bytes actually are. Older learning plan materials were written
+    // to the upload root while their URLs point into learningplans/, so flat names fall back to the root.
+    public Optional<String> locate(String name) throws IOException {
+        String key = keyFor(name);
+        if (isContentName(name) || mediaStore.exists(key)) {
+            return Optional.of(key);
+        }
+        int slash = key.lastIndexOf('/');
+        if (slash > 0 && mediaStore.exists(key.substring(slash + 1))) {
+            return Optional.of(key.substring(slash + 1));
+        }
+        return Optional.empty();
+    }
+
+    // Like locate, for names requested from outside: only published names resolve, never a path
+    // into the store's private areas, and only in canonical form (no empty, "." or ".." segments)
+    public Optional<String> locatePublished(String name) throws IOException {
+        if (!isPublishedName(name)) {
+            return Optional.empty();
+        }
+        return locate(name);
+    }
+
+    public boolean isPublishedName(String name) {
+        if (name == null || name.isBlank() || name.contains("\\")) {
+            return false;
+        }
+        for (String segment : name.split("/", -1)) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..")) {
+                return false;
+            }
+        }
+        String lower = name.toLowerCase(Locale.ROOT);
+        return PRIVATE_PREFIXES.stream().noneMatch(lower::startsWith);
+    }
+
+    // Drops one reference to the named file; the blob itself is removed once nothing points at it
+    public void release(String name) {
+        release(name, storageUsageService.currentOwner());
+    }
+
+    public void release(String name, String owner) {
+        MediaNamespace namespace = MediaNamespace.ofStoredName(name);
+        Matcher matcher = CONTENT_NAME.matcher(name);
+        if (!matcher.matches()) {
+            // Legacy files carry no reference count and may be linked from other documents, so they
+            // are never deleted here; the collector removes them once nothing references them
+            try {
+                mediaStore.stat(keyFor(name))
+                        .ifPresent(o -> storageUsageService.record(owner, namespace, -o.getSize(), -1));
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not read file " + name, ex);
+            }
+            return;
+        }
+
+        String hash = matcher.group(1);
+        synchronized (lockFor(hash)) {
+            MediaBlob blob = mongoTemplate.findAndModify(
+                    new Query(where("_id").is(hash)),
+                    new Update().inc("refCount", -1),
+                    FindAndModifyOptions.options().returnNew(true),
+                    MediaBlob.class);
+            if (blob != null) {
+                storageUsageService.record(owner, namespace, -blob.getSize(), -1);
+            }
+            if (blob == null || blob.getRefCount() > 0) {
+                return;
+            }
+            mongoTemplate.remove(new Query(where("_id").is(hash).and("refCount").lte(0)), MediaBlob.class);
+            try {
+                mediaStore.delete(blobKey(hash));
+                log.debug("Deleted unreferenced blob {}", hash);
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not delete file " + name, ex);
+            }
+        }
+    }
+
+    // Moves an unreferenced object out of the live tree for the garbage collector. Blobs that gained
+    // a reference after referencedBefore (an upload deduplicated against them mid-sweep) are kept.
+    public boolean quarantine(String key, String quarantineKey, LocalDateTime referencedBefore) throws IOException {
+        Matcher matcher = BLOB_KEY.matcher(key);
+        if (!matcher.matches()) {
+            mediaStore.move(key, quarantineKey);
+            return true;
+        }
+
+        String hash = matcher.group(1);
+        synchronized (lockFor(hash)) {
+            MediaBlob blob = mongoTemplate.findById(hash, MediaBlob.class);
+            if (blob != null && blob.getLastRetainedAt() != null && blob.getLastRetainedAt().isAfter(referencedBefore)) {
+                return false;
+            }
+            mongoTemplate.remove(new Query(where("_id").is(hash)), MediaBlob.class);
+            mediaStore.move(key, quarantineKey);
+            return true;
+        }
+    }
+
+    public boolean isContentName(String name) {
+        return name != null && CONTENT_NAME.matcher(name).matches();
+    }
+
+    // SHA-256 hex of a content-addressed name, or null for legacy names
+    public String hashOf(String name) {
+        Matcher matcher = CONTENT_NAME.matcher(name);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    private void link(Path temp, String hash, long size) throws IOException {
+        String key = blobKey(hash);
+        synchronized (lockFor(hash)) {
+            if (mediaStore.exists(key)) {
+                log.debug("Deduplicated upload against existing blob {}", hash);
+            } else {
+                mediaStore.putFile(key, temp);
+            }
+            // Counted only once the bytes are stored; a failed write leaves no reference behind
+            mongoTemplate.upsert(
+                    new Query(where("_id").is(hash)),
+                    new Update().inc("refCount", 1)
+                            .set("lastRetainedAt", LocalDateTime.now())
+                            .setOnInsert("size", size)
+                            .setOnInsert("createdAt", LocalDateTime.now()),
+                    MediaBlob.class);
+        }
+    }
+
+    private String blobKey(String hash) {
+        return "sha256/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private String contentName(MediaNamespace namespace, String hash, String extension) {
+        return namespace.qualify(hash + extension);
+    }
+
+    private String extensionOf(String originalFilename) {
+        if (originalFilename == null || originalFilename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.')).toLowerCase();
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    private static Object[] createLocks() {
+        Object[] locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.event.PostMediaChangedEvent;
+import com.example.cosmoconnect.fits.FitsHeader;
+import com.example.cosmoconnect.fits.FitsReader;
+import com.example.cosmoconnect.metadata.ExifData;
+import com.example.cosmoconnect.metadata.ExifReader;
+import com.example.cosmoconnect.model.Post;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import com.example.cosmoconnect.storage.MediaObject;
+import com.example.cosmoconnect.storage.MediaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Reads capture details from uploaded media after a post is saved and fills in observation
+// fields the author left empty. Only metadata segments are read; pixels are never decoded.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ObservationMetadataService {
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStorageService mediaStorageService;
+    private final MediaStore mediaStore;
+    private final FitsService fitsService;
+
+    @Async("mediaTaskExecutor")
+    @EventListener
+    public void onPostMediaChanged(PostMediaChangedEvent event) {
+        extract(event.getPostId());
+    }
+
+    public void extract(String postId) {
+        Post post = mongoTemplate.findById(postId, Post.class);
+        if (post == null || post.getMediaUrls() == null) {
+            return;
+        }
+        Post.ObservationMetadata existing = post.getObservationMetadata();
+        if (existing != null && post.getMediaUrls().contains(existing.getSourceMedia())) {
+            return;
+        }
+
+        Post.ObservationMetadata metadata = null;
+        for (String mediaUrl : post.getMediaUrls()) {
+            metadata = read(mediaUrl);
+            if (metadata != null) {
+                break;
+            }
+        }
+
+        Query byId = new Query(where("_id").is(postId));
+        if (metadata == null) {
+            if (existing != null) {
+                mongoTemplate.updateFirst(byId, new Update().unset("observationMetadata"), Post.class);
+            }
+            return;
+        }
+        mongoTemplate.updateFirst(byId, new Update().set("observationMetadata", metadata), Post.class);
+
+        // Each field is only written while still empty, so edits made meanwhile are never overwritten
+        fillIfEmpty(postId, "exposureTime", exposureOf(metadata));
+        fillIfEmpty(postId, "equipmentDetails", equipmentOf(metadata));
+        fillIfEmpty(postId, "telescopeUsed", metadata.getTelescope());
+        GeoJsonPoint point = GeoIndexService.pointOf(metadata.getLatitude(), metadata.getLongitude());
+        if (point != null) {
+            // Only for authors who opted in; a photo's GPS tags are often the observer's home
+            mongoTemplate.updateFirst(new Query(where("_id").is(postId).and("observationPoint").is(null)
+                            .and("shareMediaLocation").is(true)),
+                    new Update().set("observationPoint", point), Post.class);
+        }
+        if (metadata.getCapturedAt() != null) {
+            mongoTemplate.updateFirst(new Query(where("_id").is(postId).and("observationDateTime").is(null)),
+                    new Update().set("observationDateTime", metadata.getCapturedAt()), Post.class);
+        }
+        log.debug("Extracted {} metadata for post {}", metadata.getSource(), postId);
+    }
+
+    private Post.ObservationMetadata read(String mediaUrl) {
+        String storedName = MediaNamespace.storedNameOf(mediaUrl);
+        if (storedName == null) {
+            return null;
+        }
+        if (FitsReader.isFitsName(storedName)) {
+            return fitsService.readHeader(mediaUrl).map(header -> fromFits(header, mediaUrl)).orElse(null);
+        }
+        if (!ExifReader.isJpegName(storedName)) {
+            return null;
+        }
+        try {
+            Optional<String> key = mediaStorageService.locate(storedName);
+            Optional<MediaObject> object = key.isPresent() ? mediaStore.stat(key.get()) : Optional.empty();
+            if (object.isEmpty()) {
+                return null;
+            }
+            ExifData exif;
+            try (InputStream in = new BufferedInputStream(mediaStore.open(key.get(), 0, object.get().getSize()))) {
+                exif = ExifReader.read(in);
+            }
+            return exif == null || exif.isEmpty() ? null : fromExif(exif, mediaUrl);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read metadata of {}: {}", mediaUrl, e.getMessage());
+            return null;
+        }
+    }
+
+    private Post.ObservationMetadata fromExif(ExifData exif, String mediaUrl) {
+        return Post.ObservationMetadata.builder()
+                .source(exif.getSource())
+                .sourceMedia(mediaUrl)
+                .cameraMake(exif.getMake())
+                .cameraModel(exif.getModel())
+                .lens(exif.getLens())
+                .exposureSeconds(exif.getExposureSeconds())
+                .fNumber(exif.getFNumber())
+                .iso(exif.getIso())
+                .focalLengthMm(exif.getFocalLength())
+                .capturedAt(exif.getCapturedAt())
+                .latitude(exif.getLatitude())
+                .longitude(exif.getLongitude())
+                .build();
+    }
+
+    private Post.ObservationMetadata fromFits(FitsHeader header, String mediaUrl) {
+        Double exposure = header.getDouble("EXPTIME") != null ? header.getDouble("EXPTIME") : header.getDouble("EXPOSURE");
+        Double iso = header.getDouble("ISOSPEED");
+        return Post.ObservationMetadata.builder()
+                .source(FitsService.MEDIA_TYPE)
+                .sourceMedia(mediaUrl)
+                .telescope(header.getString("TELESCOP"))
+                .instrument(header.getString("INSTRUME"))
+                .exposureSeconds(exposure)
+                .iso(iso != null ? iso.intValue() : null)
+                .focalLengthMm(header.getDouble("FOCALLEN"))
+                .capturedAt(fitsService.observationDateOf(header))
+                .latitude(header.getDouble("SITELAT"))
+                .longitude(header.getDouble("SITELONG"))
+                .build();
+    }
+
+    private void fillIfEmpty(String postId, String field, String value) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        Query query = new Query(new Criteria().andOperator(
+                where("_id").is(postId),
+                new Criteria().orOperator(where(field).is(null), where(field).is(""))));
+        mongoTemplate.updateFirst(query, new Update().set(field, value), Post.class);
+    }
+
+    private String exposureOf(Post.ObservationMetadata metadata) {
+        Double seconds = metadata.getExposureSeconds();
+        if (seconds == null || seconds <= 0) {
+            return null;
+        }
+        String exposure;
+        if (seconds >= 1) {
+            exposure = seconds == Math.rint(seconds) ? String.valueOf(seconds.longValue()) : String.valueOf(seconds);
+        } else {
+            exposure = "1/" + Math.round(1 / seconds);
+        }
+        List<String> settings = new ArrayList<>();
+        settings.add(exposure + " s");
+        if (metadata.getFNumber() != null) {
+            settings.add("f/" + trim(metadata.getFNumber()));
+        }
+        if (metadata.getIso() != null) {
+            settings.add("ISO " + metadata.getIso());
+        }
+        return String.join(", ", settings);
+    }
+
+    private String equipmentOf(Post.ObservationMetadata metadata) {
+        List<String> parts = new ArrayList<>();
+        String camera = metadata.getCameraModel();
+        // Models usually repeat the make ("Canon EOS Ra"), but not always ("ILCE-7SM3")
+        if (camera != null && metadata.getCameraMake() != null
+                && !camera.toLowerCase().startsWith(metadata.getCameraMake().toLowerCase())) {
+            camera = metadata.getCameraMake() + " " + camera;
+        }
+        if (camera == null) {
+            camera = metadata.getCameraMake();
+        }
+        if (camera != null) {
+            parts.add(camera);
+        }
+        if (metadata.getLens() != null) {
+            parts.add(metadata.getLens());
+        } else if (metadata.getFocalLengthMm() != null) {
+            parts.add(trim(metadata.getFocalLengthMm()) + "mm");
+        }
+        if (metadata.getInstrument() != null) {
+            parts.add(metadata.getInstrument());
+        }
+        return parts.isEmpty() ? null : String.join(", ", parts);
+    }
+
+    private String trim(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(Math.round(value * 10) / 10.0);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.CursorPage;
+import com.example.cosmoconnect.dto.PostDto;
+import com.example.cosmoconnect.dto.PostSearchHit;
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.model.Post;
+import com.example.cosmoconnect.model.User;
+import com.example.cosmoconnect.paging.KeysetPaging;
+import com.example.cosmoconnect.repository.PostRepository;
+import com.example.cosmoconnect.repository.UserRepository;
+import com.example.cosmoconnect.search.PostSearchIndex;
+import com.example.cosmoconnect.search.SnippetHighlighter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PostSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int SNIPPET_LENGTH = 160;
+
+    private final PostSearchIndex postSearchIndex;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final PostService postService;
+
+    public CursorPage<PostSearchHit> search(String query, String cursor, int limit, String userEmail) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("q is required");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("q must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
+
+        long started = System.nanoTime();
+        // One extra hit tells us whether there is a next page without a count query
+        List<PostSearchIndex.Hit> hits = postSearchIndex.search(query.trim(), user.getId(), after(cursor), limit + 1);
+        boolean more = hits.size() > limit;
+        if (more) {
+            hits = hits.subList(0, limit);
+        }
+
+        Map<String, Post> posts = new HashMap<>();
+        postRepository.findAllById(hits.stream().map(PostSearchIndex.Hit::postId).toList())
+                .forEach(post -> posts.put(post.getId(), post));
+
+        SnippetHighlighter highlighter = new SnippetHighlighter(query);
+        List<PostSearchHit> items = new ArrayList<>(hits.size());
+        for (PostSearchIndex.Hit hit : hits) {
+            Post post = posts.get(hit.postId());
+            if (post == null) {
+                continue; // deleted between the index lookup and the load
+            }
+            if (!post.isPublic() && !post.getAuthor().getId().equals(user.getId())) {
+                continue; // made private since the cached ranking was built
+            }
+            PostDto dto = postService.convertToDto(post, user.getId());
+            items.add(PostSearchHit.builder()
+                    .post(dto)
+                    .score(hit.score())
+                    .highlights(highlights(post, highlighter))
+                    .build());
+        }
+        log.debug("Search '{}' returned {} hits in {} ms", query, items.size(), (System.nanoTime() - started) / 1_000_000);
+
+        PostSearchIndex.Hit last = more ? hits.get(hits.size() - 1) : null;
+        return CursorPage.<PostSearchHit>builder()
+                .items(items)
+                .nextCursor(last != null ? KeysetPaging.encode(last.score(), last.postId()) : null)
+                .build();
+    }
+
+    private Map<String, String> highlights(Post post, SnippetHighlighter highlighter) {
+        Map<String, String> highlights = new LinkedHashMap<>();
+        putIfMatched(highlights, "title", highlighter.highlight(post.getTitle(), SNIPPET_LENGTH));
+        putIfMatched(highlights, "celestialObject", highlighter.highlight(post.getCelestialObject(), SNIPPET_LENGTH));
+        putIfMatched(highlights, "description", highlighter.highlight(post.getDescription(), SNIPPET_LENGTH));
+        putIfMatched(highlights, "content", highlighter.highlight(post.getContent(), SNIPPET_LENGTH));
+        if (post.getSkillTags() != null) {
+            putIfMatched(highlights, "skillTags", highlighter.highlight(String.join(", ", post.getSkillTags()), SNIPPET_LENGTH));
+        }
+        return highlights;
+    }
+
+    private static void putIfMatched(Map<String, String> highlights, String field, String snippet) {
+        if (snippet != null) {
+            highlights.put(field, snippet);
+        }
+    }
+
+    // The cursor is the last hit of the previous page
+    private static PostSearchIndex.Hit after(String cursor) {
+        KeysetPaging.Scored last = KeysetPaging.decodeScored(cursor);
+        return last != null ? new PostSearchIndex.Hit(last.id(), last.score()) : null;
+    }
+}
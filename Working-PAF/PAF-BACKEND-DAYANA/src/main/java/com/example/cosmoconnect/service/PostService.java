@@ -1,35 +1,99 @@
 package com.example.cosmoconnect.service;
 
 import com.example.cosmoconnect.dto.PostDto;
+import com.example.cosmoconnect.dto.CursorPage;
+import com.example.cosmoconnect.event.PostChangedEvent;
+import com.example.cosmoconnect.event.PostCreatedEvent;
+import com.example.cosmoconnect.event.PostEngagementEvent;
+import com.example.cosmoconnect.event.PostMediaChangedEvent;
+import com.example.cosmoconnect.exception.BadRequestException;
 import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.fits.FitsReader;
 import com.example.cosmoconnect.model.Post;
+import com.example.cosmoconnect.model.UploadSession;
 import com.example.cosmoconnect.model.User;
+import com.example.cosmoconnect.repository.CommentRepository;
 import com.example.cosmoconnect.repository.PostRepository;
 import com.example.cosmoconnect.repository.UserRepository;
+import com.example.cosmoconnect.similarity.PerceptualHash;
+import com.example.cosmoconnect.sky.CoordinateParser;
+import com.example.cosmoconnect.sky.SkyCoordinate;
+import com.example.cosmoconnect.storage.MediaNamespace;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PostService {
 
+    private static final Set<String> SEPARATELY_WRITTEN =
+            Set.of("mediaDerivatives", "observationMetadata", "hotScore", "likes", "comments");
+
     private final PostRepository postRepository;
     private final UserRepository userRepository;
-    private final FileStorageService fileStorageService;
+    private final MediaStorageService mediaStorageService;
     private final NotificationService notificationService;
+    private final ResumableUploadService resumableUploadService;
+    private final FitsService fitsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SimilarImageService similarImageService;
+    private final CelestialCatalogService celestialCatalogService;
+    private final SkyIndexService skyIndexService;
+    private final GeoIndexService geoIndexService;
+    private final HotPostService hotPostService;
+    private final CommentRepository commentRepository;
+    private final FollowService followService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${media.similarity.max-distance:12}")
+    private int similarMaxDistance;
+
+    @Value("${media.similarity.duplicate-distance:10}")
+    private int duplicateDistance;
+
+    @Value("${posts.sky.max-radius:10}")
+    private double skyMaxRadius;
+
+    @Value("${posts.nearby.max-km:500}")
+    private double nearbyMaxKm;
 
-    @Transactional
     public PostDto createPost(PostDto postDto, String userEmail) {
+        return createPost(postDto, List.of(), userEmail);
+    }
+
+    // uploaded holds the stored names of files sent with the request; the post takes over their references
+    @Transactional
+    public PostDto createPost(PostDto postDto, List<String> uploaded, String userEmail) {
         log.debug("Creating post for user with email: {}", userEmail);
         
         User author = userRepository.findByEmail(userEmail)
@@ -41,10 +105,10 @@ public class PostService {
                 .title(postDto.getTitle())
                 .description(postDto.getDescription())
                 .content(postDto.getContent())
-                .mediaUrls(postDto.getMediaUrls())
                 .mediaType(postDto.getMediaType())
                 .telescopeUsed(postDto.getTelescopeUsed())
                 .location(postDto.getLocation())
+                .shareMediaLocation(Boolean.TRUE.equals(postDto.getShareMediaLocation()))
                 .celestialObject(postDto.getCelestialObject())
                 .observationDateTime(postDto.getObservationDateTime())
                 .observationConditions(postDto.getObservationConditions())
@@ -66,85 +130,177 @@ public class PostService {
                 .animationType(postDto.getAnimationType())
                 .build();
 
-        Post savedPost = postRepository.save(post);
+        List<String> claimedUploads = new ArrayList<>();
+        Post savedPost;
+        try {
+            List<String> owned = new ArrayList<>();
+            post.setMediaUrls(linkMedia(postDto.getMediaUrls(), List.of(), uploaded, userEmail, claimedUploads, owned));
+            post.setOwnedMedia(owned);
+            fitsService.applyHeader(post);
+            celestialCatalogService.applyCanonicalId(post);
+            skyIndexService.applyPosition(post);
+            geoIndexService.applyPoint(post, postDto.getLatitude(), postDto.getLongitude());
+            savedPost = postRepository.save(post);
+        } catch (RuntimeException e) {
+            // Hand the uploads back so the client can retry with the same references
+            resumableUploadService.releaseClaims(claimedUploads);
+            throw e;
+        }
+        resumableUploadService.confirmClaims(claimedUploads);
         log.debug("Saved post with ID: {}", savedPost.getId());
+        publishMediaChanged(savedPost);
+        publishCreated(savedPost);
         
         return convertToDto(savedPost, author.getId());
     }
 
-    @Transactional
-    public PostDto createPostWithMedia(PostDto postDto, MultipartFile[] media, String userEmail) {
-        log.debug("Creating post with media for user: {}", userEmail);
-        log.debug("Post DTO: {}", postDto);
-        log.debug("Media files: {}", media != null ? media.length : 0);
-        
-        User author = userRepository.findByEmail(userEmail)
+    public PostDto getPost(String postId, String userEmail) {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+                
+        User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
-        log.debug("Found author: {}", author.getEmail());
-
-        List<String> mediaUrls = new ArrayList<>();
-        String mediaType = null;
-        if (media != null && media.length > 0) {
-            try {
-                for (MultipartFile file : media) {
-                    String fileName = fileStorageService.storeFile(file, "posts");
-                    mediaUrls.add(fileName);
-                }
-                // Determine media type based on first file
-                String contentType = media[0].getContentType();
-                if (contentType != null && contentType.startsWith("video")) {
-                    mediaType = "VIDEO";
-                } else {
-                    mediaType = "IMAGE";
+                
+        return convertToDto(post, user.getId());
+    }
+
+    // Posts whose images are perceptually close to this post's, closest first
+    public List<PostDto> getSimilarPosts(String postId, String userEmail, Integer maxDistance, int limit) {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
+
+        long[] hashes = similarImageService.hashesOf(post.getId());
+        int distance = maxDistance != null ? Math.max(0, Math.min(maxDistance, 32)) : similarMaxDistance;
+        return visibleMatches(similarImageService.findSimilar(hashes, distance, post.getId()), user, limit);
+    }
+
+    // Lets the client warn before posting an image that is already up, by the user or publicly
+    public List<PostDto> findDuplicates(MultipartFile media, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
+        Long hash;
+        try (InputStream in = media.getInputStream()) {
+            hash = PerceptualHash.hash(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read media: " + e.getMessage(), e);
+        }
+        if (hash == null) {
+            return List.of();
+        }
+        return visibleMatches(similarImageService.findSimilar(new long[]{hash}, duplicateDistance, null), user, 10);
+    }
+
+    // The first limit matches the user may see, closest first. Posts are loaded a chunk at a time
+    // down the ranking, so private posts near the top cannot push visible ones out of the result.
+    private List<PostDto> visibleMatches(Map<String, Integer> distances, User user, int limit) {
+        List<String> ranked = new ArrayList<>(distances.keySet());
+        List<PostDto> results = new ArrayList<>();
+        int chunk = Math.max(limit * 2, 20);
+        for (int from = 0; from < ranked.size() && results.size() < limit; from += chunk) {
+            List<String> ids = ranked.subList(from, Math.min(ranked.size(), from + chunk));
+            Map<String, Post> posts = new HashMap<>();
+            postRepository.findAllById(ids).forEach(post -> posts.put(post.getId(), post));
+            for (String id : ids) {
+                Post post = posts.get(id);
+                if (post != null && (post.isPublic() || post.getAuthor().getId().equals(user.getId()))) {
+                    PostDto dto = convertToDto(post, user.getId());
+                    dto.setSimilarityDistance(distances.get(id));
+                    results.add(dto);
+                    if (results.size() == limit) {
+                        break;
+                    }
                 }
-            } catch (IOException e) {
-                log.error("Error storing media files: {}", e.getMessage(), e);
-                throw new RuntimeException("Failed to store media files: " + e.getMessage());
             }
         }
+        return results;
+    }
 
-        Post post = Post.builder()
-                .title(postDto.getTitle())
-                .description(postDto.getDescription())
-                .content(postDto.getContent())
-                .mediaUrls(mediaUrls)
-                .mediaType(mediaType)
-                .telescopeUsed(postDto.getTelescopeUsed())
-                .location(postDto.getLocation())
-                .celestialObject(postDto.getCelestialObject())
-                .observationDateTime(postDto.getObservationDateTime())
-                .observationConditions(postDto.getObservationConditions())
-                .author(author)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .isPublic(postDto.isPublic())
-                .coordinates(postDto.getCoordinates())
-                .exposureTime(postDto.getExposureTime())
-                .equipmentDetails(postDto.getEquipmentDetails())
-                .processingDetails(postDto.getProcessingDetails())
-                .category(postDto.getCategory())
-                .skillTags(postDto.getSkillTags())
-                .poll(postDto.getPoll() != null ? Post.Poll.builder()
-                        .question(postDto.getPoll().getQuestion())
-                        .options(postDto.getPoll().getOptions())
-                        .votes(postDto.getPoll().getVotes())
-                        .build() : null)
-                .animationType(postDto.getAnimationType())
-                .build();
+    // Public posts about one catalog object, newest first
+    public List<PostDto> getPostsForObject(String celestialObjectId, int page, int size, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
+        return postRepository.findByCelestialObjectIdAndIsPublicTrueOrderByCreatedAtDesc(
+                        celestialObjectId, PageRequest.of(page, size))
+                .stream()
+                .map(post -> convertToDto(post, user.getId()))
+                .collect(Collectors.toList());
+    }
 
-        Post savedPost = postRepository.save(post);
-        log.debug("Saved post with ID: {} (with media)", savedPost.getId());
-        return convertToDto(savedPost, author.getId());
+    // Posts observed within radius degrees of a point, nearest first. The centre is either ra/dec in
+    // degrees or free text in any format post coordinates accept, e.g. "05h35m17s -05d23m28s".
+    public List<PostDto> getPostsInCone(Double ra, Double dec, String at, double radius, int limit, String userEmail) {
+        SkyCoordinate center;
+        if (at != null && !at.isBlank()) {
+            center = CoordinateParser.parse(at)
+                    .orElseThrow(() -> new BadRequestException("Unrecognised coordinates: " + at));
+        } else if (ra != null && dec != null) {
+            if (ra < 0 || ra >= 360 || dec < -90 || dec > 90) {
+                throw new BadRequestException("ra must be in [0, 360) and dec in [-90, 90]");
+            }
+            center = new SkyCoordinate(ra, dec);
+        } else {
+            throw new BadRequestException("Either ra and dec, or at, is required");
+        }
+        if (!(radius > 0) || radius > skyMaxRadius) {
+            throw new BadRequestException("radius must be greater than 0 and at most " + skyMaxRadius + " degrees");
+        }
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
+
+        Map<String, Double> distances = skyIndexService.coneSearch(center, radius, user.getId(), limit);
+        Map<String, Post> posts = new HashMap<>();
+        postRepository.findAllById(distances.keySet()).forEach(post -> posts.put(post.getId(), post));
+        List<PostDto> results = new ArrayList<>(distances.size());
+        distances.forEach((id, distance) -> {
+            Post post = posts.get(id);
+            if (post != null) {
+                PostDto dto = convertToDto(post, user.getId());
+                dto.setSkyDistance(distance);
+                results.add(dto);
+            }
+        });
+        return results;
     }
 
-    public PostDto getPost(String postId, String userEmail) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-                
+    // Posts observed within km of a point, nearest first, optionally only those observed since a
+    // time: an ISO date or date-time, or a duration back from now such as PT6H
+    public List<PostDto> getNearbyPosts(double latitude, double longitude, double km, String since, int limit,
+                                        String userEmail) {
+        GeoJsonPoint center = GeoIndexService.pointOf(latitude, longitude);
+        if (center == null) {
+            throw new BadRequestException("lat must be in [-90, 90] and lon in [-180, 180]");
+        }
+        if (!(km > 0) || km > nearbyMaxKm) {
+            throw new BadRequestException("km must be greater than 0 and at most " + nearbyMaxKm);
+        }
+        LocalDateTime from = sinceOf(since);
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
-                
-        return convertToDto(post, user.getId());
+
+        return geoIndexService.near(center, km, from, user.getId(), limit).stream()
+                .map(post -> {
+                    PostDto dto = convertToDto(post, user.getId());
+                    // From the published point, so distances can't be combined to recover the exact one
+                    dto.setDistanceKm(GeoIndexService.distanceKm(center, new Point(dto.getLongitude(), dto.getLatitude())));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static LocalDateTime sinceOf(String since) {
+        if (since == null || since.isBlank()) {
+            return null;
+        }
+        try {
+            if (since.startsWith("P") || since.startsWith("p")) {
+                return LocalDateTime.now().minus(Duration.parse(since));
+            }
+            return since.length() == 10 ? LocalDate.parse(since).atStartOfDay() : LocalDateTime.parse(since);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("since must be an ISO date, date-time or duration such as PT6H");
+        }
     }
 
     public List<PostDto> getUserPosts(String userId) {
@@ -162,7 +318,7 @@ public class PostService {
         
         log.debug("Found user: {} with ID: {}", user.getEmail(), user.getId());
         
-        List<String> followingIds = user.getFollowing();
+        List<String> followingIds = followService.followingIdsOf(user.getId());
         followingIds.add(user.getId()); // Include user's own posts
         
         log.debug("Looking for posts from users: {}", followingIds);
@@ -186,8 +342,13 @@ public class PostService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional
     public PostDto updatePost(String postId, PostDto postDto, String userEmail) {
+        return updatePost(postId, postDto, List.of(), userEmail);
+    }
+
+    // Without mediaUrls the post keeps its media minus removedMedia, plus anything uploaded
+    @Transactional
+    public PostDto updatePost(String postId, PostDto postDto, List<String> uploaded, String userEmail) {
         log.debug("Updating post {} for user {}", postId, userEmail);
         
         Post post = postRepository.findById(postId)
@@ -199,6 +360,7 @@ public class PostService {
         if (!post.getAuthor().getId().equals(user.getId())) {
             throw new RuntimeException("Not authorized to update this post");
         }
+        String previousCategory = post.getCategory();
 
         // Only update fields that are provided in the request
         if (postDto.getTitle() != null) {
@@ -210,9 +372,6 @@ public class PostService {
         if (postDto.getContent() != null) {
             post.setContent(postDto.getContent());
         }
-        if (postDto.getMediaUrls() != null) {
-            post.setMediaUrls(postDto.getMediaUrls());
-        }
         if (postDto.getMediaType() != null) {
             post.setMediaType(postDto.getMediaType());
         }
@@ -222,8 +381,17 @@ public class PostService {
         if (postDto.getLocation() != null) {
             post.setLocation(postDto.getLocation());
         }
+        if (postDto.getShareMediaLocation() != null) {
+            post.setShareMediaLocation(postDto.getShareMediaLocation());
+        }
+        if (postDto.isClearLocation()) {
+            post.setObservationPoint(null);
+            post.setShareMediaLocation(false);
+        }
+        geoIndexService.applyPoint(post, postDto.getLatitude(), postDto.getLongitude());
         if (postDto.getCelestialObject() != null) {
             post.setCelestialObject(postDto.getCelestialObject());
+            celestialCatalogService.applyCanonicalId(post);
         }
         if (postDto.getObservationDateTime() != null) {
             post.setObservationDateTime(postDto.getObservationDateTime());
@@ -233,6 +401,7 @@ public class PostService {
         }
         if (postDto.getCoordinates() != null) {
             post.setCoordinates(postDto.getCoordinates());
+            skyIndexService.applyPosition(post);
         }
         if (postDto.getExposureTime() != null) {
             post.setExposureTime(postDto.getExposureTime());
@@ -259,10 +428,43 @@ public class PostService {
 
         // Always update these fields
         post.setUpdatedAt(LocalDateTime.now());
+        boolean visibilityChanged = post.isPublic() != postDto.isPublic();
         post.setPublic(postDto.isPublic()); // Boolean primitive is always present
 
-        log.debug("Saving updated post with ID: {}", post.getId());
-        Post updatedPost = postRepository.save(post);
+        // Uploads are claimed last, right before the save, so a failed save can hand them back
+        List<String> previousMedia = post.getMediaUrls() != null ? new ArrayList<>(post.getMediaUrls()) : List.of();
+        List<String> claimedUploads = new ArrayList<>();
+        List<String> unlinked = List.of();
+        Post updatedPost;
+        try {
+            List<String> requested = postDto.getMediaUrls();
+            if (requested == null && (!uploaded.isEmpty()
+                    || (postDto.getRemovedMedia() != null && !postDto.getRemovedMedia().isEmpty()))) {
+                requested = withoutRemoved(previousMedia, postDto.getRemovedMedia());
+            }
+            List<String> owned = post.getOwnedMedia() != null ? new ArrayList<>(post.getOwnedMedia()) : new ArrayList<>();
+            List<String> media = linkMedia(requested, previousMedia, uploaded, userEmail, claimedUploads, owned);
+            if (media != null) {
+                post.setMediaUrls(media);
+                unlinked = unlinkOwnedMedia(previousMedia, media, owned);
+                post.setOwnedMedia(owned);
+                fitsService.applyHeader(post);
+                skyIndexService.applyPosition(post);
+            }
+            geoIndexService.applyMediaLocation(post);
+            log.debug("Saving updated post with ID: {}", post.getId());
+            updatedPost = saveEdits(post);
+        } catch (RuntimeException e) {
+            resumableUploadService.releaseClaims(claimedUploads);
+            throw e;
+        }
+        resumableUploadService.confirmClaims(claimedUploads);
+        if (visibilityChanged) {
+            publishEngagement(updatedPost);
+        }
+        unlinked.forEach(storedName -> releaseMediaReference(storedName, userEmail));
+        publishMediaChanged(updatedPost);
+        publishChanged(updatedPost, previousCategory);
         
         return convertToDto(updatedPost, user.getId());
     }
@@ -280,6 +482,21 @@ public class PostService {
         }
 
         postRepository.delete(post);
+        similarImageService.remove(post.getId());
+        hotPostService.remove(post.getId());
+        publishChanged(post, post.getCategory());
+        releaseMedia(post);
+    }
+
+    // Used when an account is deleted, so its posts and their files don't outlive it
+    public void deletePostsByAuthor(String authorId) {
+        for (Post post : postRepository.findByAuthorIdOrderByCreatedAtDesc(authorId)) {
+            postRepository.delete(post);
+            similarImageService.remove(post.getId());
+            hotPostService.remove(post.getId());
+            publishChanged(post, post.getCategory());
+            releaseMedia(post);
+        }
     }
 
     @Transactional
@@ -291,9 +508,13 @@ public class PostService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
 
         String userIdStr = user.getId().toString();
-        if (!post.getLikes().contains(userIdStr)) {
-            post.getLikes().add(userIdStr);
-            postRepository.save(post);
+        Post liked = mongoTemplate.findAndModify(
+                new Query(where("_id").is(post.getId()).and("likes").ne(userIdStr)),
+                new Update().addToSet("likes", userIdStr),
+                FindAndModifyOptions.options().returnNew(true),
+                Post.class);
+        if (liked != null) {
+            publishEngagement(liked);
             // Notify post owner if not self-like
             if (!post.getAuthor().getId().equals(user.getId())) {
                 notificationService.createNotification(
@@ -315,106 +536,56 @@ public class PostService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
 
         String userIdStr = user.getId().toString();
-        post.getLikes().remove(userIdStr);
-        postRepository.save(post);
-    }
-
-    @Transactional
-    public PostDto updatePostWithMedia(String postId, PostDto postDto, MultipartFile[] media, String userEmail) {
-        log.debug("Updating post with media for user: {}", userEmail);
-
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new ResourceNotFoundException("Post not found"));
-
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
-
-        if (!post.getAuthor().getId().equals(user.getId())) {
-            throw new RuntimeException("Not authorized to update this post");
+        Post unliked = mongoTemplate.findAndModify(
+                new Query(where("_id").is(post.getId()).and("likes").is(userIdStr)),
+                new Update().pull("likes", userIdStr),
+                FindAndModifyOptions.options().returnNew(true),
+                Post.class);
+        if (unliked != null) {
+            publishEngagement(unliked);
         }
+    }
 
-        // Handle new media files
-        List<String> mediaUrls = post.getMediaUrls() != null ? new ArrayList<>(post.getMediaUrls()) : new ArrayList<>();
-        String mediaType = post.getMediaType();
-
-        if (media != null && media.length > 0) {
-            try {
-                for (MultipartFile file : media) {
-                    String fileName = fileStorageService.storeFile(file, "posts");
-                    mediaUrls.add(fileName);
-                }
-                // Determine media type based on first file
-                String contentType = media[0].getContentType();
-                if (contentType != null && contentType.startsWith("video")) {
-                    mediaType = "VIDEO";
-                } else {
-                    mediaType = "IMAGE";
-                }
-            } catch (IOException e) {
-                log.error("Error storing media files: {}", e.getMessage(), e);
-                throw new RuntimeException("Failed to store media files: " + e.getMessage());
+    // Writes an edited post back field by field, leaving out the fields other writers keep current with
+    // targeted updates (derivative manifest, media metadata, hot score, likes). A whole-document save
+    // would put back whatever they held when the post was loaded.
+    private Post saveEdits(Post post) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(post, document);
+        Update update = new Update();
+        for (MongoPersistentProperty property
+                : mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Post.class)) {
+            String field = property.getFieldName();
+            if (property.isIdProperty() || SEPARATELY_WRITTEN.contains(field)) {
+                continue;
             }
-        }
-
-        // Remove media URLs if specified
-        if (postDto.getRemovedMedia() != null && !postDto.getRemovedMedia().isEmpty()) {
-            mediaUrls.removeAll(postDto.getRemovedMedia());
-            // Optionally: delete files from storage as well
-            for (String fileName : postDto.getRemovedMedia()) {
-                try {
-                    fileStorageService.deleteFile(fileName);
-                } catch (Exception e) {
-                    log.warn("Failed to delete file: {}", fileName, e);
-                }
+            if (document.containsKey(field)) {
+                update.set(field, document.get(field));
+            } else {
+                update.unset(field);
             }
         }
-
-        // Update fields from postDto
-        if (postDto.getTitle() != null) post.setTitle(postDto.getTitle());
-        if (postDto.getDescription() != null) post.setDescription(postDto.getDescription());
-        if (postDto.getContent() != null) post.setContent(postDto.getContent());
-        if (mediaUrls != null) post.setMediaUrls(mediaUrls);
-        if (mediaType != null) post.setMediaType(mediaType);
-        if (postDto.getTelescopeUsed() != null) post.setTelescopeUsed(postDto.getTelescopeUsed());
-        if (postDto.getLocation() != null) post.setLocation(postDto.getLocation());
-        if (postDto.getCelestialObject() != null) post.setCelestialObject(postDto.getCelestialObject());
-        if (postDto.getObservationDateTime() != null) post.setObservationDateTime(postDto.getObservationDateTime());
-        if (postDto.getObservationConditions() != null) post.setObservationConditions(postDto.getObservationConditions());
-        if (postDto.getCoordinates() != null) post.setCoordinates(postDto.getCoordinates());
-        if (postDto.getExposureTime() != null) post.setExposureTime(postDto.getExposureTime());
-        if (postDto.getEquipmentDetails() != null) post.setEquipmentDetails(postDto.getEquipmentDetails());
-        if (postDto.getProcessingDetails() != null) post.setProcessingDetails(postDto.getProcessingDetails());
-        if (postDto.getCategory() != null) post.setCategory(postDto.getCategory());
-        if (postDto.getSkillTags() != null) post.setSkillTags(postDto.getSkillTags());
-        if (postDto.getAnimationType() != null) post.setAnimationType(postDto.getAnimationType());
-        if (postDto.getPoll() != null) {
-            post.setPoll(Post.Poll.builder()
-                .question(postDto.getPoll().getQuestion())
-                .options(postDto.getPoll().getOptions())
-                .votes(postDto.getPoll().getVotes())
-                .build());
-        } else {
-            post.setPoll(null);
-        }
-        post.setUpdatedAt(LocalDateTime.now());
-        post.setPublic(postDto.isPublic());
-
-        Post updatedPost = postRepository.save(post);
-        log.debug("Saved updated post with ID: {} (with media)", updatedPost.getId());
-        return convertToDto(updatedPost, user.getId());
+        mongoTemplate.updateFirst(new Query(where("_id").is(post.getId())), update, Post.class);
+        return post;
     }
 
-    private PostDto convertToDto(Post post, String currentUserId) {
+    PostDto convertToDto(Post post, String currentUserId) {
         PostDto dto = new PostDto();
         dto.setId(post.getId());
         dto.setTitle(post.getTitle());
         dto.setDescription(post.getDescription());
         dto.setContent(post.getContent());
         dto.setMediaUrls(post.getMediaUrls());
+        applyDerivatives(dto, post);
         dto.setMediaType(post.getMediaType());
         dto.setTelescopeUsed(post.getTelescopeUsed());
         dto.setLocation(post.getLocation());
+        if (post.getObservationPoint() != null) {
+            dto.setLatitude(GeoIndexService.published(post.getObservationPoint().getY()));
+            dto.setLongitude(GeoIndexService.published(post.getObservationPoint().getX()));
+        }
         dto.setCelestialObject(post.getCelestialObject());
+        dto.setCelestialObjectId(post.getCelestialObjectId());
         dto.setObservationDateTime(post.getObservationDateTime());
         dto.setObservationConditions(post.getObservationConditions());
         dto.setAuthorId(post.getAuthor().getId());
@@ -427,6 +598,10 @@ public class PostService {
         dto.setLiked(post.getLikes().contains(currentUserId));
         dto.setPublic(post.isPublic());
         dto.setCoordinates(post.getCoordinates());
+        if (post.getSkyPosition() != null) {
+            dto.setRa(post.getSkyPosition().getRa());
+            dto.setDec(post.getSkyPosition().getDec());
+        }
         dto.setExposureTime(post.getExposureTime());
         dto.setEquipmentDetails(post.getEquipmentDetails());
         dto.setProcessingDetails(post.getProcessingDetails());
@@ -449,18 +624,183 @@ public class PostService {
         return dto;
     }
 
-    // Add a new method to get all public posts
-    public List<PostDto> getAllPublicPosts(String userEmail) {
-        log.debug("Fetching all public posts for user email: {}", userEmail);
-        
+    // Resized images are generated in the background; until they exist every size falls back to the original
+    private void applyDerivatives(PostDto dto, Post post) {
+        List<String> mediaUrls = post.getMediaUrls();
+        if (mediaUrls == null || mediaUrls.isEmpty()) {
+            return;
+        }
+        Map<String, Post.MediaDerivatives> bySource = new HashMap<>();
+        if (post.getMediaDerivatives() != null) {
+            for (Post.MediaDerivatives derivatives : post.getMediaDerivatives()) {
+                bySource.putIfAbsent(derivatives.getSource(), derivatives);
+            }
+        }
+
+        List<String> srcsets = new ArrayList<>(mediaUrls.size());
+        List<String> thumbnails = new ArrayList<>(mediaUrls.size());
+        for (String mediaUrl : mediaUrls) {
+            String originalUrl = toFileUrl(mediaUrl);
+            Post.MediaDerivatives derivatives = bySource.get(mediaUrl);
+            List<Post.MediaDerivatives.Variant> variants = derivatives != null ? derivatives.getVariants() : null;
+            if (variants == null || variants.isEmpty()) {
+                srcsets.add(originalUrl);
+                thumbnails.add(originalUrl);
+                continue;
+            }
+            StringBuilder srcset = new StringBuilder();
+            for (Post.MediaDerivatives.Variant variant : variants) {
+                srcset.append(variant.getUrl()).append(' ').append(variant.getWidth()).append("w, ");
+            }
+            if (FitsReader.isFitsName(mediaUrl)) {
+                // The FITS original isn't displayable; its preview is already the last variant
+                srcset.setLength(srcset.length() - 2);
+            } else {
+                srcset.append(originalUrl).append(' ').append(derivatives.getWidth()).append('w');
+            }
+            srcsets.add(srcset.toString());
+            thumbnails.add(variants.get(0).getUrl());
+        }
+        dto.setMediaSrcsets(srcsets);
+        dto.setThumbnailUrls(thumbnails);
+    }
+
+    private String toFileUrl(String mediaUrl) {
+        if (mediaUrl.startsWith("/") || mediaUrl.startsWith("http")) {
+            return mediaUrl;
+        }
+        return MediaNamespace.POSTS.fileUrl(mediaUrl);
+    }
+
+    // Stored names of owned files the post no longer shows; they leave owned and are released once
+    // the post is saved. Files the post never owned are only unlinked.
+    private static List<String> unlinkOwnedMedia(List<String> before, List<String> after, List<String> owned) {
+        List<String> removed = new ArrayList<>(before);
+        after.forEach(removed::remove);
+        List<String> unlinked = new ArrayList<>();
+        for (String mediaUrl : removed) {
+            String storedName = MediaNamespace.storedNameOf(mediaUrl);
+            if (storedName != null && owned.remove(storedName)) {
+                unlinked.add(storedName);
+            }
+        }
+        return unlinked;
+    }
+
+    // removedMedia entries may be full URLs or just the file name, as the edit form sends them
+    private static List<String> withoutRemoved(List<String> mediaUrls, List<String> removedMedia) {
+        if (removedMedia == null || removedMedia.isEmpty()) {
+            return new ArrayList<>(mediaUrls);
+        }
+        List<String> kept = new ArrayList<>(mediaUrls.size());
+        for (String mediaUrl : mediaUrls) {
+            String fileName = mediaUrl.substring(mediaUrl.lastIndexOf('/') + 1);
+            if (!removedMedia.contains(mediaUrl) && !removedMedia.contains(fileName)) {
+                kept.add(mediaUrl);
+            }
+        }
+        return kept;
+    }
+
+    // Only uploads the post owns are released; anything else it shows belongs to someone else
+    private void releaseMedia(Post post) {
+        String owner = post.getAuthor().getEmail();
+        if (post.getOwnedMedia() != null) {
+            post.getOwnedMedia().forEach(storedName -> releaseMediaReference(storedName, owner));
+        }
+        if (post.getMediaDerivatives() != null) {
+            for (Post.MediaDerivatives derivatives : post.getMediaDerivatives()) {
+                if (derivatives.getVariants() != null) {
+                    derivatives.getVariants().forEach(variant -> releaseMediaReference(variant.getStoredName(), owner));
+                }
+            }
+        }
+    }
+
+    // Failures are left for the media garbage collector rather than failing the request
+    private void releaseMediaReference(String mediaUrl, String owner) {
+        String storedName = MediaNamespace.storedNameOf(mediaUrl);
+        if (storedName == null) {
+            return;
+        }
+        try {
+            mediaStorageService.release(storedName, owner);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release media {}", mediaUrl, e);
+        }
+    }
+
+    private void publishMediaChanged(Post post) {
+        boolean hasDerivatives = post.getMediaDerivatives() != null && !post.getMediaDerivatives().isEmpty();
+        if ((post.getMediaUrls() != null && !post.getMediaUrls().isEmpty()) || hasDerivatives) {
+            eventPublisher.publishEvent(new PostMediaChangedEvent(post.getId()));
+        }
+    }
+
+    private void publishEngagement(Post post) {
+        eventPublisher.publishEvent(new PostEngagementEvent(post.getId(), post.getLikes().size(),
+                commentRepository.countByPostId(post.getId()), post.isPublic(), post.getCreatedAt()));
+    }
+
+    private void publishCreated(Post post) {
+        eventPublisher.publishEvent(new PostCreatedEvent(post.getId(), post.getCelestialObjectId(),
+                post.getSkillTags(), post.getCategory(), post.isPublic(), post.getCreatedAt()));
+    }
+
+    // Moving a post between categories changes both listings
+    private void publishChanged(Post post, String previousCategory) {
+        eventPublisher.publishEvent(new PostChangedEvent(post.getId(), post.getCategory()));
+        if (previousCategory != null && !previousCategory.equals(post.getCategory())) {
+            eventPublisher.publishEvent(new PostChangedEvent(post.getId(), previousCategory));
+        }
+    }
+
+    // Public posts by time-decayed likes and comments; pass nextCursor back for the next page
+    public CursorPage<PostDto> getTrendingPosts(String cursor, int limit, String userEmail) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
-        
-        List<Post> posts = postRepository.findByIsPublicTrueOrderByCreatedAtDesc();
-        log.debug("Found {} public posts", posts.size());
-        
-        return posts.stream()
-                .map(post -> convertToDto(post, user.getId()))
-                .collect(Collectors.toList());
+        CursorPage<String> ids = hotPostService.page(cursor, limit);
+        Map<String, Post> posts = new HashMap<>();
+        postRepository.findAllById(ids.getItems()).forEach(post -> posts.put(post.getId(), post));
+        List<PostDto> items = new ArrayList<>(ids.getItems().size());
+        for (String id : ids.getItems()) {
+            Post post = posts.get(id);
+            if (post != null && post.isPublic()) {
+                items.add(convertToDto(post, user.getId()));
+            }
+        }
+        return CursorPage.<PostDto>builder().items(items).nextCursor(ids.getNextCursor()).build();
+    }
+
+    // The post's media list: the requested references, with "upload:<id>" ones claimed, then the
+    // files uploaded with the request. Apart from the caller's own uploads only media the post
+    // already shows (current) is accepted, so nobody can attach someone else's file and release it
+    // later. Each upload's reference passes to the post and is noted in owned.
+    private List<String> linkMedia(List<String> requested, List<String> current, List<String> uploaded,
+                                   String userEmail, List<String> claimedUploads, List<String> owned) {
+        if (requested == null && uploaded.isEmpty()) {
+            return null;
+        }
+        List<String> linked = new ArrayList<>();
+        if (requested != null) {
+            for (String mediaUrl : requested) {
+                if (ResumableUploadService.isReference(mediaUrl)) {
+                    UploadSession upload = resumableUploadService.claim(mediaUrl, userEmail);
+                    claimedUploads.add(upload.getId());
+                    linked.add(upload.getNamespace().fileUrl(upload.getStoredName()));
+                    owned.add(upload.getStoredName());
+                } else if (current.contains(mediaUrl)) {
+                    linked.add(mediaUrl);
+                } else {
+                    throw new BadRequestException("Media must be uploaded with the post or as an upload reference: "
+                            + mediaUrl);
+                }
+            }
+        }
+        for (String storedName : uploaded) {
+            linked.add(MediaNamespace.POSTS.fileUrl(storedName));
+            owned.add(storedName);
+        }
+        return linked;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,424 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.UploadSessionDto;
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.exception.ConflictException;
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.model.UploadSession;
+import com.example.cosmoconnect.repository.UploadSessionRepository;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// tus-style resumable uploads: start a session, PUT chunks at the current offset, then complete.
+// Chunks go straight to a staging file with positional writes, so a dropped connection only
+// loses the chunk in flight and no request thread is held for more than one chunk. The SHA-256 of
+// the file is kept up to date as chunks arrive, so completion links the staging file into the store
+// under that hash instead of reading the whole upload again.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadService {
+
+    public static final String REFERENCE_PREFIX = "upload:";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MediaStorageService mediaStorageService;
+    private final StorageUsageService storageUsageService;
+
+    @Value("${media.staging-dir}")
+    private String stagingDir;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${media.upload.max-size-bytes:4294967296}")
+    private long maxUploadBytes;
+
+    @Value("${media.upload.max-chunk-bytes:33554432}")
+    private long maxChunkBytes;
+
+    @Value("${media.upload.session-ttl:24h}")
+    private Duration sessionTtl;
+
+    // SHA-256 of bytes [0, hashed) of each session's part file. Held in memory only: after a restart,
+    // or for a session started on another instance, completion hashes the part file instead.
+    private final Map<String, RunningHash> runningHashes = new ConcurrentHashMap<>();
+
+    private static final class RunningHash {
+        private MessageDigest digest = sha256();
+        private long hashed;
+    }
+
+    // The local store serves everything under file.upload-dir, half-written .part files included
+    @PostConstruct
+    void checkStagingDir() {
+        Path uploads = Paths.get(uploadDir).toAbsolutePath().normalize();
+        if (partFile("session").startsWith(uploads)) {
+            throw new IllegalStateException("media.staging-dir must be outside file.upload-dir (" + uploads + ")");
+        }
+    }
+
+    public UploadSessionDto start(UploadSessionDto request, String ownerEmail) throws IOException {
+        if (request.getFilename() == null || request.getFilename().isBlank()) {
+            throw new BadRequestException("filename is required");
+        }
+        if (request.getLength() <= 0 || request.getLength() > maxUploadBytes) {
+            throw new BadRequestException("length must be between 1 and " + maxUploadBytes + " bytes");
+        }
+        // The declared length is known up front, so quota is checked before any chunk is accepted
+        storageUsageService.checkQuota(ownerEmail, request.getLength());
+
+        UploadSession session = uploadSessionRepository.save(UploadSession.builder()
+                .ownerEmail(ownerEmail)
+                .filename(request.getFilename())
+                .contentType(request.getContentType())
+                .namespace(namespaceOf(request.getNamespace()))
+                .length(request.getLength())
+                .offset(0)
+                .status(UploadSession.Status.UPLOADING)
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plus(sessionTtl))
+                .build());
+        Files.createDirectories(partFile(session.getId()).getParent());
+        Files.createFile(partFile(session.getId()));
+        runningHashes.put(session.getId(), new RunningHash());
+        return toDto(session);
+    }
+
+    public UploadSessionDto get(String id, String ownerEmail) {
+        return toDto(load(id, ownerEmail));
+    }
+
+    // Writes one chunk at offset and returns the new offset. Re-sending bytes below the current
+    // offset is allowed (the response to an earlier chunk may have been lost); gaps are not.
+    public long writeChunk(String id, String ownerEmail, long offset, long contentLength, String checksum,
+                           InputStream body) throws IOException {
+        UploadSession session = load(id, ownerEmail);
+        if (session.getStatus() != UploadSession.Status.UPLOADING) {
+            throw new BadRequestException("Upload " + id + " is already complete");
+        }
+        if (offset < 0 || offset > session.getOffset()) {
+            throw new ConflictException("Upload offset is " + session.getOffset() + ", not " + offset);
+        }
+        long limit = Math.min(maxChunkBytes, session.getLength() - offset);
+        if (contentLength > limit) {
+            throw new BadRequestException("Chunk of " + contentLength + " bytes exceeds the allowed " + limit);
+        }
+
+        MessageDigest digest = checksum != null ? checksumDigest(checksum) : null;
+        byte[] expected = checksum != null ? expectedChecksum(checksum) : null;
+        // The running hash advances on a copy, kept only once this chunk is accepted
+        RunningHash running = runningHashes.get(id);
+        long hashedFrom = -1;
+        MessageDigest pending = null;
+        if (running != null) {
+            synchronized (running) {
+                if (running.hashed >= offset) {
+                    hashedFrom = running.hashed;
+                    pending = copyOf(running.digest);
+                } else {
+                    runningHashes.remove(id);
+                }
+            }
+        }
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(partFile(id), StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (written + read > limit) {
+                    throw new BadRequestException("Chunk exceeds the allowed " + limit + " bytes");
+                }
+                if (digest != null) {
+                    digest.update(buffer, 0, read);
+                }
+                long position = offset + written;
+                if (pending != null && position + read > hashedFrom) {
+                    int skip = (int) Math.max(0, hashedFrom - position);
+                    pending.update(buffer, skip, read - skip);
+                }
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    position += channel.write(chunk, position);
+                }
+                written += read;
+            }
+        }
+
+        if (digest != null && !MessageDigest.isEqual(digest.digest(), expected)) {
+            // The bytes stay in the file but the offset does not move, so the client just re-sends
+            throw new BadRequestException("Chunk checksum mismatch");
+        }
+
+        UploadSession updated = mongoTemplate.findAndModify(
+                new Query(where("_id").is(id).and("status").is(UploadSession.Status.UPLOADING)),
+                new Update().max("offset", offset + written).set("expiresAt", LocalDateTime.now().plus(sessionTtl)),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (updated == null) {
+            throw new BadRequestException("Upload " + id + " is already complete");
+        }
+        if (pending != null && offset + written > hashedFrom) {
+            synchronized (running) {
+                // A concurrent chunk for the same range may have got there first
+                if (running.hashed == hashedFrom) {
+                    running.digest = pending;
+                    running.hashed = offset + written;
+                }
+            }
+        }
+        return updated.getOffset();
+    }
+
+    public UploadSessionDto complete(String id, String ownerEmail, String sha256) throws IOException {
+        UploadSession session = load(id, ownerEmail);
+        if (session.getStatus() != UploadSession.Status.UPLOADING) {
+            return toDto(session);
+        }
+        if (session.getOffset() != session.getLength()) {
+            throw new BadRequestException("Upload incomplete: " + session.getOffset() + " of " + session.getLength() + " bytes received");
+        }
+
+        Path part = partFile(id);
+        String hash = runningHashOf(id, session.getLength());
+        if (hash == null) {
+            hash = hashOf(part);
+        }
+        if (sha256 != null && !sha256.isBlank() && !sha256.equalsIgnoreCase(hash)) {
+            throw new BadRequestException("Upload checksum mismatch");
+        }
+        String storedName = mediaStorageService.storeFile(part, hash, session.getFilename(),
+                session.getNamespace(), ownerEmail);
+
+        UploadSession completed = mongoTemplate.findAndModify(
+                new Query(where("_id").is(id).and("status").is(UploadSession.Status.UPLOADING)),
+                new Update().set("status", UploadSession.Status.COMPLETE)
+                        .set("storedName", storedName)
+                        .set("expiresAt", LocalDateTime.now().plus(sessionTtl)),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (completed == null) {
+            // Completed concurrently by a retried request; keep the first result
+            mediaStorageService.release(storedName, ownerEmail);
+            return toDto(load(id, ownerEmail));
+        }
+        runningHashes.remove(id);
+        Files.deleteIfExists(part);
+        return toDto(completed);
+    }
+
+    public void abort(String id, String ownerEmail) throws IOException {
+        UploadSession session = load(id, ownerEmail);
+        if (session.getStatus() == UploadSession.Status.CLAIMED) {
+            throw new ConflictException("Upload " + id + " is being attached to a post");
+        }
+        discard(session);
+    }
+
+    // Reserves the completed upload behind an "upload:<id>" reference for a post that is about to be
+    // saved. The session stays (as CLAIMED) until confirmClaims or releaseClaims settles it, so a failed
+    // save can hand the upload back instead of leaving the blob with nobody referencing it.
+    public UploadSession claim(String reference, String ownerEmail) {
+        String id = reference.substring(REFERENCE_PREFIX.length());
+        UploadSession session = mongoTemplate.findAndModify(
+                new Query(where("_id").is(id)
+                        .and("ownerEmail").is(ownerEmail)
+                        .and("status").is(UploadSession.Status.COMPLETE)),
+                new Update().set("status", UploadSession.Status.CLAIMED),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (session == null) {
+            throw new BadRequestException("Upload " + id + " not found or not complete");
+        }
+        return session;
+    }
+
+    // The post holding these uploads was saved; its reference now owns the blobs
+    public void confirmClaims(List<String> ids) {
+        if (!ids.isEmpty()) {
+            mongoTemplate.remove(new Query(where("_id").in(ids).and("status").is(UploadSession.Status.CLAIMED)),
+                    UploadSession.class);
+        }
+    }
+
+    // The post was not saved; the uploads can be attached again
+    public void releaseClaims(List<String> ids) {
+        if (!ids.isEmpty()) {
+            mongoTemplate.updateMulti(new Query(where("_id").in(ids).and("status").is(UploadSession.Status.CLAIMED)),
+                    new Update().set("status", UploadSession.Status.COMPLETE), UploadSession.class);
+        }
+    }
+
+    public static boolean isReference(String value) {
+        return value != null && value.startsWith(REFERENCE_PREFIX);
+    }
+
+    @Scheduled(fixedDelayString = "${media.upload.cleanup-interval-ms:3600000}")
+    public void removeExpiredSessions() {
+        List<UploadSession> expired = uploadSessionRepository.findByExpiresAtBefore(LocalDateTime.now());
+        for (UploadSession session : expired) {
+            try {
+                discard(session);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not remove expired upload {}", session.getId(), e);
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Removed {} expired uploads", expired.size());
+        }
+    }
+
+    private void discard(UploadSession session) throws IOException {
+        UploadSession removed = mongoTemplate.findAndRemove(
+                new Query(where("_id").is(session.getId())), UploadSession.class);
+        runningHashes.remove(session.getId());
+        Files.deleteIfExists(partFile(session.getId()));
+        if (removed == null || removed.getStoredName() == null) {
+            return;
+        }
+        // Completed but never attached to a post: drop the reference taken on completion. A claim left
+        // behind by a crash mid-save may or may not have reached its post, so look before releasing.
+        boolean attached = removed.getStatus() == UploadSession.Status.CLAIMED && mongoTemplate.exists(
+                new Query(where("mediaUrls").is(removed.getNamespace().fileUrl(removed.getStoredName()))), "posts");
+        if (removed.getStatus() != UploadSession.Status.UPLOADING && !attached) {
+            mediaStorageService.release(removed.getStoredName(), removed.getOwnerEmail());
+        }
+    }
+
+    private UploadSession load(String id, String ownerEmail) {
+        return uploadSessionRepository.findByIdAndOwnerEmail(id, ownerEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found with id: " + id));
+    }
+
+    private Path partFile(String id) {
+        return Paths.get(stagingDir, "resumable", id + ".part").toAbsolutePath().normalize();
+    }
+
+    // Null unless the running hash covers the whole file
+    private String runningHashOf(String id, long length) {
+        RunningHash running = runningHashes.get(id);
+        if (running == null) {
+            return null;
+        }
+        synchronized (running) {
+            return running.hashed == length ? HexFormat.of().formatHex(copyOf(running.digest).digest()) : null;
+        }
+    }
+
+    private static String hashOf(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest copyOf(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MediaNamespace namespaceOf(String namespace) {
+        if (namespace == null || namespace.isBlank()) {
+            return MediaNamespace.POSTS;
+        }
+        for (MediaNamespace candidate : MediaNamespace.values()) {
+            if (candidate.getDirectory().equals(namespace) || candidate.name().equalsIgnoreCase(namespace)) {
+                return candidate;
+            }
+        }
+        throw new BadRequestException("Unknown namespace: " + namespace);
+    }
+
+    // Upload-Checksum header in the tus format: "<algorithm> <base64 digest>"
+    private MessageDigest checksumDigest(String checksum) {
+        String algorithm = checksum.trim().split(" ", 2)[0].toLowerCase(Locale.ROOT);
+        try {
+            switch (algorithm) {
+                case "sha256":
+                    return MessageDigest.getInstance("SHA-256");
+                case "sha1":
+                    return MessageDigest.getInstance("SHA-1");
+                case "md5":
+                    return MessageDigest.getInstance("MD5");
+                default:
+                    throw new BadRequestException("Unsupported checksum algorithm: " + algorithm);
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] expectedChecksum(String checksum) {
+        String[] parts = checksum.trim().split(" ", 2);
+        if (parts.length != 2) {
+            throw new BadRequestException("Malformed Upload-Checksum header");
+        }
+        try {
+            return Base64.getDecoder().decode(parts[1].trim());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Malformed Upload-Checksum header");
+        }
+    }
+
+    private UploadSessionDto toDto(UploadSession session) {
+        return UploadSessionDto.builder()
+                .id(session.getId())
+                .filename(session.getFilename())
+                .contentType(session.getContentType())
+                .namespace(session.getNamespace() != null ? session.getNamespace().getDirectory() : null)
+                .length(session.getLength())
+                .offset(session.getOffset())
+                .status(session.getStatus() != null ? session.getStatus().name() : null)
+                .storedName(session.getStoredName())
+                .mediaReference(REFERENCE_PREFIX + session.getId())
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
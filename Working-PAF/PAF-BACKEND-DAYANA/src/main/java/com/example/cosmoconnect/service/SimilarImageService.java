@@ -0,0 +1,190 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.model.Post;
+import com.example.cosmoconnect.similarity.BkTree;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// In-memory BK-tree of the perceptual hashes in Post.mediaDerivatives, keyed to post ids.
+// A BK-tree can't delete, so replaced or deleted entries stay in the tree and are filtered out
+// against the live per-post hashes; the tree is rebuilt from those once stale entries pile up.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SimilarImageService {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MIN_STALE_BEFORE_REBUILD = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, long[]> hashesByPost = new HashMap<>();
+    private BkTree<String> tree = new BkTree<>();
+    private int staleEntries;
+
+    @Async("backfillTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        long started = System.currentTimeMillis();
+        Object lastId = null;
+        int posts = 0;
+        while (true) {
+            Query query = new Query(where("mediaDerivatives.perceptualHash").exists(true))
+                    .with(Sort.by("_id")).limit(BATCH_SIZE);
+            if (lastId != null) {
+                query.addCriteria(where("_id").gt(lastId));
+            }
+            query.fields().include("mediaDerivatives.perceptualHash");
+            List<Document> batch = mongoTemplate.find(query, Document.class, "posts");
+            if (batch.isEmpty()) {
+                break;
+            }
+            lock.writeLock().lock();
+            try {
+                for (Document post : batch) {
+                    lastId = post.get("_id");
+                    String postId = String.valueOf(lastId);
+                    // A post indexed by the derivative pipeline while this ran is already newer
+                    if (!hashesByPost.containsKey(postId)) {
+                        long[] hashes = hashesOf(post.getList("mediaDerivatives", Document.class));
+                        if (hashes.length > 0) {
+                            put(postId, hashes);
+                            posts++;
+                        }
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Loaded perceptual hashes for {} posts in {} ms", posts, System.currentTimeMillis() - started);
+    }
+
+    public void index(String postId, List<Post.MediaDerivatives> manifest) {
+        long[] hashes = manifest == null ? new long[0] : manifest.stream()
+                .map(Post.MediaDerivatives::getPerceptualHash)
+                .filter(Objects::nonNull)
+                .distinct()
+                .mapToLong(Long::longValue)
+                .toArray();
+        lock.writeLock().lock();
+        try {
+            long[] previous = hashesByPost.remove(postId);
+            if (previous != null) {
+                staleEntries += previous.length;
+            }
+            if (hashes.length > 0) {
+                put(postId, hashes);
+            }
+            rebuildIfStale();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String postId) {
+        index(postId, null);
+    }
+
+    public long[] hashesOf(String postId) {
+        lock.readLock().lock();
+        try {
+            long[] hashes = hashesByPost.get(postId);
+            return hashes != null ? hashes.clone() : new long[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Post id -> smallest distance from any of the given hashes to any of that post's images, every
+    // match within maxDistance, closest first. excludePostId keeps a post from matching itself. Callers
+    // filter by visibility before taking their page, so nothing is cut here.
+    public Map<String, Integer> findSimilar(long[] hashes, int maxDistance, String excludePostId) {
+        Map<String, Integer> best = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (long hash : hashes) {
+                for (BkTree.Match<String> match : tree.search(hash, maxDistance)) {
+                    String postId = match.value();
+                    if (postId.equals(excludePostId) || !isLive(postId, match.hash())) {
+                        continue;
+                    }
+                    best.merge(postId, match.distance(), Math::min);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Map<String, Integer> ranked = new LinkedHashMap<>();
+        best.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(entry -> ranked.put(entry.getKey(), entry.getValue()));
+        return ranked;
+    }
+
+    private boolean isLive(String postId, long hash) {
+        long[] live = hashesByPost.get(postId);
+        if (live == null) {
+            return false;
+        }
+        for (long candidate : live) {
+            if (candidate == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void put(String postId, long[] hashes) {
+        hashesByPost.put(postId, hashes);
+        for (long hash : hashes) {
+            tree.add(hash, postId);
+        }
+    }
+
+    private void rebuildIfStale() {
+        if (staleEntries < Math.max(MIN_STALE_BEFORE_REBUILD, tree.size() / 2)) {
+            return;
+        }
+        BkTree<String> rebuilt = new BkTree<>();
+        hashesByPost.forEach((postId, hashes) -> {
+            for (long hash : hashes) {
+                rebuilt.add(hash, postId);
+            }
+        });
+        log.debug("Rebuilt perceptual hash index: {} entries, {} stale dropped", rebuilt.size(), staleEntries);
+        tree = rebuilt;
+        staleEntries = 0;
+    }
+
+    private static long[] hashesOf(List<Document> manifest) {
+        if (manifest == null) {
+            return new long[0];
+        }
+        return manifest.stream()
+                .map(entry -> entry.get("perceptualHash"))
+                .filter(Number.class::isInstance)
+                .mapToLong(value -> ((Number) value).longValue())
+                .distinct()
+                .toArray();
+    }
+}
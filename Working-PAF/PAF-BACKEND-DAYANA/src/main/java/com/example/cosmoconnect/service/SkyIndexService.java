@@ -0,0 +1,153 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.model.Post;
+import com.example.cosmoconnect.sky.CoordinateParser;
+import com.example.cosmoconnect.sky.SkyCoordinate;
+import com.example.cosmoconnect.sky.SkyZones;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Keeps Post.skyPosition in step with the free-text coordinates and answers cone searches. A cone
+// becomes a handful of skyPosition.cell range predicates served by the sky_cell index; the few
+// candidates in boundary cells are then filtered by exact angular distance.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SkyIndexService {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    // One arcsecond; crowded cones stop narrowing here
+    private static final double MIN_RADIUS = 1.0 / 3600;
+
+    private final MongoTemplate mongoTemplate;
+
+    // Bounds the work per query; a cone holding more is narrowed before sorting by distance
+    @Value("${posts.sky.max-candidates:5000}")
+    private int maxCandidates;
+
+    public void applyPosition(Post post) {
+        post.setSkyPosition(positionOf(post.getCoordinates()));
+    }
+
+    public static Post.SkyPosition positionOf(String coordinates) {
+        return CoordinateParser.parse(coordinates)
+                .map(c -> new Post.SkyPosition(c.ra(), c.dec(), SkyZones.cellOf(c.ra(), c.dec())))
+                .orElse(null);
+    }
+
+    // Ids of the visible posts within radius degrees of (ra, dec), nearest first, with their distance.
+    // A cone holding more than maxCandidates posts is searched again at a quarter of the radius until
+    // it fits: every post inside the smaller cone is nearer than any outside it, so once that cone
+    // holds limit matches they are exactly the nearest limit, and otherwise the nearest few.
+    public Map<String, Double> coneSearch(SkyCoordinate center, double radius, String viewerId, int limit) {
+        long started = System.nanoTime();
+        List<Document> visibility = new ArrayList<>();
+        visibility.add(new Document("isPublic", true));
+        if (viewerId != null && ObjectId.isValid(viewerId)) {
+            visibility.add(new Document("author.$id", new ObjectId(viewerId)));
+        }
+        double searched = radius;
+        int queries = 0;
+        while (true) {
+            List<Document> candidates = candidates(center, searched, visibility);
+            queries++;
+            boolean capped = candidates.size() > maxCandidates;
+            if (capped && searched / 4 >= MIN_RADIUS) {
+                searched /= 4;
+                continue;
+            }
+            List<Map.Entry<String, Double>> matches = new ArrayList<>();
+            for (Document candidate : capped ? candidates.subList(0, maxCandidates) : candidates) {
+                Document position = candidate.get("skyPosition", Document.class);
+                double distance = SkyZones.separation(center.ra(), center.dec(),
+                        ((Number) position.get("ra")).doubleValue(), ((Number) position.get("dec")).doubleValue());
+                if (distance <= searched) {
+                    matches.add(Map.entry(String.valueOf(candidate.get("_id")), distance));
+                }
+            }
+            matches.sort(Map.Entry.comparingByValue());
+            Map<String, Double> nearest = new LinkedHashMap<>();
+            for (Map.Entry<String, Double> match : matches.subList(0, Math.min(limit, matches.size()))) {
+                nearest.put(match.getKey(), match.getValue());
+            }
+            if (capped) {
+                log.warn("Cone search at {} still had over {} candidates at r={}; results may not be the nearest",
+                        center, maxCandidates, searched);
+            } else if (searched < radius && matches.size() < limit) {
+                log.warn("Cone search at {} r={} narrowed to r={} and found only {} of {} results",
+                        center, radius, searched, matches.size(), limit);
+            }
+            log.debug("Cone search in {} queries: {} candidates, {} matches within r={} in {} ms", queries,
+                    candidates.size(), matches.size(), searched, (System.nanoTime() - started) / 1_000_000);
+            return nearest;
+        }
+    }
+
+    // Sky positions of the visible posts in the cells covering the cone, one more than maxCandidates
+    // at most so an overfull cone can be told apart from one that just fits
+    private List<Document> candidates(SkyCoordinate center, double radius, List<Document> visibility) {
+        List<Document> ranges = new ArrayList<>();
+        for (long[] range : SkyZones.coverCone(center.ra(), center.dec(), radius)) {
+            ranges.add(new Document("skyPosition.cell", range[0] == range[1]
+                    ? range[0]
+                    : new Document("$gte", range[0]).append("$lte", range[1])));
+        }
+        Query query = new BasicQuery(new Document("$and", List.of(
+                new Document("$or", ranges), new Document("$or", visibility))))
+                .limit(maxCandidates + 1);
+        query.fields().include("skyPosition");
+        return mongoTemplate.find(query, Document.class, "posts");
+    }
+
+    // Posts written before coordinates were parsed get their position filled in once, in the background
+    @Async("backfillTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Object lastId = null;
+        int updated = 0;
+        while (true) {
+            Query query = new Query(where("coordinates").exists(true).and("skyPosition").exists(false))
+                    .with(Sort.by("_id")).limit(BACKFILL_BATCH_SIZE);
+            if (lastId != null) {
+                query.addCriteria(where("_id").gt(lastId));
+            }
+            query.fields().include("coordinates");
+            List<Document> batch = mongoTemplate.find(query, Document.class, "posts");
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Document post : batch) {
+                lastId = post.get("_id");
+                Object coordinates = post.get("coordinates");
+                Post.SkyPosition position = coordinates instanceof String text ? positionOf(text) : null;
+                if (position != null) {
+                    mongoTemplate.updateFirst(new Query(where("_id").is(lastId).and("skyPosition").exists(false)),
+                            new Update().set("skyPosition", position), Post.class);
+                    updated++;
+                }
+            }
+        }
+        if (updated > 0) {
+            log.info("Indexed sky positions for {} existing posts", updated);
+        }
+    }
+}
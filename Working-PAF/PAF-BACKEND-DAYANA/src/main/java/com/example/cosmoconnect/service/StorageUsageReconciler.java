@@ -0,0 +1,224 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.model.MediaBlob;
+import com.example.cosmoconnect.model.UploadSession;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import com.example.cosmoconnect.storage.MediaObject;
+import com.example.cosmoconnect.storage.MediaStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Recomputes the storage usage counters from the documents that own media and overwrites any that
+// drifted (crashes between store and save, files deleted by hand, counters from before accounting).
+// Charges follow the same rules as the live counters: post media and derivatives to the author,
+// profile photos to the user, learning materials to the plan's creator, competitions to "system".
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StorageUsageReconciler {
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStorageService mediaStorageService;
+    private final MediaStore mediaStore;
+    private final StorageUsageService storageUsageService;
+
+    @Value("${media.quota.reconcile-batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "${media.quota.reconcile-cron:0 0 4 * * *}")
+    public void scheduledRun() {
+        if (running.get()) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Storage usage reconciliation failed", e);
+        }
+    }
+
+    public Map<String, Long> reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("Storage usage reconciliation is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            Map<String, String> emailsById = userEmails();
+            List<String[]> references = new ArrayList<>();
+            BiConsumer<String, Object> collect = (owner, value) -> collectNames(owner, value, references);
+
+            scan("posts", List.of("mediaUrls", "mediaDerivatives"), post -> {
+                String owner = StorageUsageService.ownerOf("posts", post, emailsById::get);
+                collect.accept(owner, post.get("mediaUrls"));
+                collect.accept(owner, post.get("mediaDerivatives"));
+            });
+            scan("users", List.of("imageUrl"), user -> {
+                Object imageUrl = user.get("imageUrl");
+                if (imageUrl instanceof String url && !url.startsWith("http")) {
+                    collect.accept(StorageUsageService.ownerOf("users", user, emailsById::get), url);
+                }
+            });
+            scan("learningplan", List.of("learningMaterials"), plan -> collect.accept(
+                    StorageUsageService.ownerOf("learningplan", plan, emailsById::get), plan.get("learningMaterials")));
+            scan("competitions", List.of("competitionBanner", "competition_instructions"), competition -> {
+                String owner = StorageUsageService.ownerOf("competitions", competition, emailsById::get);
+                collect.accept(owner, competition.get("competitionBanner"));
+                collect.accept(owner, competition.get("competition_instructions"));
+            });
+            // Completed uploads not yet attached to a post are still charged to their uploader
+            for (UploadSession session : mongoTemplate.find(
+                    new Query(where("status").is(UploadSession.Status.COMPLETE)), UploadSession.class)) {
+                collect.accept(session.getOwnerEmail(), session.getStoredName());
+            }
+
+            Map<String, long[]> totals = total(references);
+            int corrected = storageUsageService.replaceAll(totals);
+
+            Map<String, Long> summary = new LinkedHashMap<>();
+            summary.put("references", (long) references.size());
+            summary.put("counters", (long) totals.size());
+            summary.put("corrected", (long) corrected);
+            summary.put("durationMs", System.currentTimeMillis() - started);
+            log.info("Storage usage reconciled: {}", summary);
+            return summary;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, String> userEmails() {
+        Map<String, String> emailsById = new HashMap<>();
+        scan("users", List.of("email"), user -> {
+            if (user.getString("email") != null) {
+                emailsById.put(String.valueOf(user.get("_id")), user.getString("email"));
+            }
+        });
+        return emailsById;
+    }
+
+    // Pages through a collection by _id so the scan holds no cursor open between batches; the fields
+    // the owner rule needs are always included
+    private void scan(String collection, List<String> fields, Consumer<Document> visitor) {
+        Object lastId = null;
+        while (true) {
+            Query query = new Query().with(Sort.by("_id")).limit(batchSize);
+            if (lastId != null) {
+                query.addCriteria(where("_id").gt(lastId));
+            }
+            fields.forEach(field -> query.fields().include(field));
+            StorageUsageService.OWNER_FIELDS.getOrDefault(collection, List.of()).forEach(field -> query.fields().include(field));
+            List<Document> batch = mongoTemplate.find(query, Document.class, collection);
+            if (batch.isEmpty()) {
+                return;
+            }
+            for (Document document : batch) {
+                lastId = document.get("_id");
+                visitor.accept(document);
+            }
+        }
+    }
+
+    // Collects {owner, storedName} for every media reference in strings, lists and derivative manifests.
+    // Derivative manifests hold both the URL and the stored name of each variant, so only storedName counts there.
+    private void collectNames(String owner, Object value, List<String[]> references) {
+        if (owner == null || value == null) {
+            return;
+        }
+        if (value instanceof String reference) {
+            String storedName = MediaNamespace.storedNameOf(reference);
+            if (storedName == null && !reference.isBlank() && !reference.contains("/") && !reference.startsWith("http")) {
+                storedName = reference; // flat legacy name in the upload root
+            }
+            if (storedName != null) {
+                references.add(new String[]{owner, storedName});
+            }
+        } else if (value instanceof List<?> list) {
+            for (Object item : list) {
+                collectNames(owner, item, references);
+            }
+        } else if (value instanceof Document document) {
+            if (document.get("storedName") instanceof String storedName) {
+                references.add(new String[]{owner, storedName});
+            }
+            Object variants = document.get("variants");
+            if (variants != null) {
+                collectNames(owner, variants, references);
+            }
+        }
+    }
+
+    private Map<String, long[]> total(List<String[]> references) {
+        Map<String, Long> sizes = sizesOf(references);
+        Map<String, long[]> totals = new HashMap<>();
+        for (String[] reference : references) {
+            Long size = sizes.get(reference[1]);
+            if (size == null) {
+                continue; // the file is gone; the garbage collector reports dangling references
+            }
+            String id = StorageUsageService.idOf(reference[0],
+                    StorageUsageService.namespaceKey(MediaNamespace.ofStoredName(reference[1])));
+            long[] total = totals.computeIfAbsent(id, key -> new long[2]);
+            total[0] += size;
+            total[1]++;
+        }
+        return totals;
+    }
+
+    // Content-addressed names are sized from media_blobs in batches; legacy names need a stat each
+    private Map<String, Long> sizesOf(List<String[]> references) {
+        Map<String, Long> sizes = new HashMap<>();
+        Map<String, List<String>> namesByHash = new HashMap<>();
+        for (String[] reference : references) {
+            String name = reference[1];
+            if (sizes.containsKey(name)) {
+                continue;
+            }
+            String hash = mediaStorageService.hashOf(name);
+            if (hash != null) {
+                namesByHash.computeIfAbsent(hash, key -> new ArrayList<>()).add(name);
+                continue;
+            }
+            try {
+                Optional<String> key = mediaStorageService.locate(name);
+                Optional<MediaObject> object = key.isPresent() ? mediaStore.stat(key.get()) : Optional.empty();
+                object.ifPresent(o -> sizes.put(name, o.getSize()));
+            } catch (IOException | RuntimeException e) {
+                log.debug("Could not size {}", name, e);
+            }
+        }
+
+        List<String> hashes = new ArrayList<>(namesByHash.keySet());
+        for (int from = 0; from < hashes.size(); from += batchSize) {
+            List<String> chunk = hashes.subList(from, Math.min(hashes.size(), from + batchSize));
+            for (MediaBlob blob : mongoTemplate.find(new Query(where("_id").in(chunk)), MediaBlob.class)) {
+                for (String name : namesByHash.get(blob.getId())) {
+                    sizes.put(name, blob.getSize());
+                }
+            }
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.StorageUsageDto;
+import com.example.cosmoconnect.exception.PayloadTooLargeException;
+import com.example.cosmoconnect.model.StorageUsage;
+import com.example.cosmoconnect.model.User;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import com.mongodb.DBRef;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Per-owner, per-namespace storage counters and quota checks
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StorageUsageService {
+
+    public static final String SYSTEM_OWNER = "system";
+    public static final String ANONYMOUS_OWNER = "anonymous";
+    // Fields ownerOf reads, per collection that holds media references
+    public static final Map<String, List<String>> OWNER_FIELDS = Map.of(
+            "posts", List.of("author"),
+            "users", List.of("email"),
+            "learningplan", List.of("createdBy"),
+            "competitions", List.of("createdBy"));
+    private static final String ROOT_NAMESPACE = "root";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${media.quota.default-bytes:2147483648}")
+    private long defaultQuotaBytes;
+
+    // Whoever is making the current request; background work with no request is charged to "system"
+    public String currentOwner() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return SYSTEM_OWNER;
+        }
+        if (!authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return ANONYMOUS_OWNER;
+        }
+        return authentication.getName();
+    }
+
+    // Who a stored document's media is charged to, for work that runs outside the request that stored it.
+    // document needs the OWNER_FIELDS of its collection; emailOfUserId resolves post authors.
+    public static String ownerOf(String collection, Document document, Function<String, String> emailOfUserId) {
+        return switch (collection) {
+            case "posts" -> Optional.ofNullable(authorIdOf(document.get("author")))
+                    .map(emailOfUserId)
+                    .orElse(SYSTEM_OWNER);
+            case "users" -> Optional.ofNullable(document.getString("email")).orElse(SYSTEM_OWNER);
+            case "learningplan", "competitions" -> ownerOfCreator(document.getString("createdBy"));
+            default -> SYSTEM_OWNER;
+        };
+    }
+
+    // Learning plans and competitions are charged to whoever created them, both when their files are
+    // uploaded and when usage is recomputed; older ones with no creator recorded belong to the system
+    public static String ownerOfCreator(String createdBy) {
+        return createdBy != null && !createdBy.isBlank() ? createdBy : SYSTEM_OWNER;
+    }
+
+    // author is stored as a DBRef; with the raw Document mapping it comes back as com.mongodb.DBRef
+    private static String authorIdOf(Object author) {
+        if (author instanceof DBRef ref) {
+            return String.valueOf(ref.getId());
+        }
+        if (author instanceof Document document) {
+            return String.valueOf(document.get("$id"));
+        }
+        return null;
+    }
+
+    public void record(String owner, MediaNamespace namespace, long bytes, long files) {
+        String namespaceName = namespaceKey(namespace);
+        try {
+            mongoTemplate.upsert(
+                    new Query(where("_id").is(idOf(owner, namespaceName))),
+                    new Update().inc("bytes", bytes)
+                            .inc("files", files)
+                            .set("updatedAt", LocalDateTime.now())
+                            .setOnInsert("owner", owner)
+                            .setOnInsert("namespace", namespaceName),
+                    StorageUsage.class);
+        } catch (RuntimeException e) {
+            // Counters must never fail an upload; the nightly reconciliation repairs them
+            log.warn("Could not record storage usage for {}", owner, e);
+        }
+    }
+
+    public long bytesUsedBy(String owner) {
+        return usageOf(owner).getBytes();
+    }
+
+    public StorageUsageDto usageOf(String owner) {
+        List<StorageUsage> rows = mongoTemplate.find(new Query(where("owner").is(owner)), StorageUsage.class);
+        Map<String, Long> byNamespace = new LinkedHashMap<>();
+        long bytes = 0;
+        long files = 0;
+        for (StorageUsage row : rows) {
+            byNamespace.put(row.getNamespace(), row.getBytes());
+            bytes += row.getBytes();
+            files += row.getFiles();
+        }
+        long quota = quotaFor(owner);
+        return StorageUsageDto.builder()
+                .owner(owner)
+                .bytes(bytes)
+                .files(files)
+                .quotaBytes(quota > 0 ? quota : null)
+                .bytesByNamespace(byNamespace)
+                .build();
+    }
+
+    // 0 or less means unlimited
+    public long quotaFor(String owner) {
+        if (SYSTEM_OWNER.equals(owner)) {
+            return 0;
+        }
+        Query query = new Query(where("email").is(owner));
+        query.fields().include("storageQuotaBytes");
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user != null && user.getStorageQuotaBytes() != null) {
+            return user.getStorageQuotaBytes();
+        }
+        return defaultQuotaBytes;
+    }
+
+    // Throws before any of the upload is read when incomingBytes would take the owner over quota.
+    // incomingBytes may be negative when unknown; then only owners already at their quota are refused.
+    public void checkQuota(String owner, long incomingBytes) {
+        long quota = quotaFor(owner);
+        if (quota <= 0) {
+            return;
+        }
+        long used = bytesUsedBy(owner);
+        if (used + Math.max(0, incomingBytes) > quota || used >= quota) {
+            throw new PayloadTooLargeException("Storage quota exceeded: " + used + " of " + quota
+                    + " bytes used, upload needs " + Math.max(0, incomingBytes));
+        }
+    }
+
+    public List<StorageUsageDto> topConsumers(int limit, MediaNamespace namespace) {
+        Aggregation aggregation = namespace == null
+                ? Aggregation.newAggregation(
+                        Aggregation.group("owner").sum("bytes").as("bytes").sum("files").as("files"),
+                        Aggregation.sort(Sort.Direction.DESC, "bytes"),
+                        Aggregation.limit(limit))
+                : Aggregation.newAggregation(
+                        Aggregation.match(where("namespace").is(namespace.getDirectory())),
+                        Aggregation.group("owner").sum("bytes").as("bytes").sum("files").as("files"),
+                        Aggregation.sort(Sort.Direction.DESC, "bytes"),
+                        Aggregation.limit(limit));
+        List<Document> rows = mongoTemplate.aggregate(aggregation, StorageUsage.class, Document.class).getMappedResults();
+        return rows.stream()
+                .map(row -> StorageUsageDto.builder()
+                        .owner(row.getString("_id"))
+                        .bytes(((Number) row.get("bytes")).longValue())
+                        .files(((Number) row.get("files")).longValue())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Overwrites the counters with freshly computed totals; owners missing from totals drop to zero
+    public int replaceAll(Map<String, long[]> totals) {
+        int corrected = 0;
+        Map<String, StorageUsage> current = mongoTemplate.findAll(StorageUsage.class).stream()
+                .collect(Collectors.toMap(StorageUsage::getId, usage -> usage));
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            StorageUsage existing = current.remove(entry.getKey());
+            long[] total = entry.getValue();
+            if (existing != null && existing.getBytes() == total[0] && existing.getFiles() == total[1]) {
+                continue;
+            }
+            int separator = entry.getKey().lastIndexOf('|');
+            mongoTemplate.upsert(new Query(where("_id").is(entry.getKey())),
+                    new Update().set("bytes", total[0])
+                            .set("files", total[1])
+                            .set("updatedAt", LocalDateTime.now())
+                            .setOnInsert("owner", entry.getKey().substring(0, separator))
+                            .setOnInsert("namespace", entry.getKey().substring(separator + 1)),
+                    StorageUsage.class);
+            corrected++;
+        }
+        for (StorageUsage stale : current.values()) {
+            mongoTemplate.remove(new Query(where("_id").is(stale.getId())), StorageUsage.class);
+            corrected++;
+        }
+        return corrected;
+    }
+
+    public static String idOf(String owner, String namespace) {
+        return owner + "|" + namespace;
+    }
+
+    public static String namespaceKey(MediaNamespace namespace) {
+        return namespace != null ? namespace.getDirectory() : ROOT_NAMESPACE;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.exception.BadRequestException;
+import com.example.cosmoconnect.exception.PayloadTooLargeException;
+import com.example.cosmoconnect.storage.MediaNamespace;
+import com.example.cosmoconnect.storage.MultipartStreamParser;
+import com.example.cosmoconnect.storage.SizeLimitInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads a multipart request body directly and stores each file part while it arrives. The container
+// never spools the parts to its own temp files (spring.servlet.multipart.resolve-lazily=true), so a
+// file is written to disk once, hashed and size-checked on the way.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StreamingIngestService {
+
+    private static final int MAX_FIELD_BYTES = 1024 * 1024;
+
+    private final MediaStorageService mediaStorageService;
+
+    @Value("${media.stream.max-file-size:200MB}")
+    private DataSize maxFileSize;
+
+    @Value("${media.stream.max-request-size:200MB}")
+    private DataSize maxRequestSize;
+
+    public IngestResult ingest(HttpServletRequest request, MediaNamespace namespace) throws IOException {
+        String boundary = MultipartStreamParser.boundaryOf(request.getContentType());
+        if (boundary == null) {
+            throw new BadRequestException("Expected a multipart/form-data request");
+        }
+        // Reject up front when the client already told us the body is too big
+        if (request.getContentLengthLong() > maxRequestSize.toBytes()) {
+            throw new PayloadTooLargeException("Request exceeds the limit of " + maxRequestSize.toBytes() + " bytes");
+        }
+
+        InputStream body = new SizeLimitInputStream(request.getInputStream(), maxRequestSize.toBytes(), "Request");
+        MultipartStreamParser parser = new MultipartStreamParser(body, boundary);
+        IngestResult result = new IngestResult(new LinkedHashMap<>(), new ArrayList<>());
+        try {
+            MultipartStreamParser.Part part;
+            while ((part = parser.next()) != null) {
+                if (part.isFile()) {
+                    if (part.getFilename().isEmpty()) {
+                        continue; // file input left empty
+                    }
+                    InputStream content = new SizeLimitInputStream(part.getInputStream(), maxFileSize.toBytes(),
+                            "File " + part.getFilename());
+                    String storedName = mediaStorageService.store(content, part.getFilename(), namespace);
+                    result.getFiles().add(new StoredFile(part.getName(), part.getFilename(), part.getContentType(), storedName));
+                } else if (part.getName() != null) {
+                    byte[] value = new SizeLimitInputStream(part.getInputStream(), MAX_FIELD_BYTES,
+                            "Field " + part.getName()).readAllBytes();
+                    result.getFields().put(part.getName(), new String(value, StandardCharsets.UTF_8));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            discard(result);
+            throw e;
+        }
+        log.debug("Streamed {} files and {} fields", result.getFiles().size(), result.getFields().size());
+        return result;
+    }
+
+    // Releases the stored files when the request they came with fails later on
+    public void discard(IngestResult result) {
+        for (StoredFile file : result.getFiles()) {
+            try {
+                mediaStorageService.release(file.getStoredName());
+            } catch (RuntimeException e) {
+                log.warn("Could not release streamed file {}", file.getStoredName(), e);
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class IngestResult {
+        private Map<String, String> fields;
+        private List<StoredFile> files;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class StoredFile {
+        private String fieldName;
+        private String originalFilename;
+        private String contentType;
+        private String storedName;
+    }
+}
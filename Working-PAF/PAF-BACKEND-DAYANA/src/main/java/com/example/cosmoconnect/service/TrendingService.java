@@ -0,0 +1,213 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.catalog.CatalogEntry;
+import com.example.cosmoconnect.dto.TrendingItem;
+import com.example.cosmoconnect.event.PostCreatedEvent;
+import com.example.cosmoconnect.trending.SlidingWindowHeavyHitters;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// "What's everyone observing": approximate top catalog objects and skill tags across public posts
+// from the last few hours, kept in memory and fed by post creation. State is snapshotted to Mongo
+// every few minutes and on shutdown; at startup the snapshot is restored and only posts newer than
+// it are replayed.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrendingService {
+
+    private static final String SNAPSHOTS = "trending_snapshots";
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1024;
+    private static final int CANDIDATES_PER_HOUR = 64;
+    private static final int REPLAY_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final CelestialCatalogService celestialCatalogService;
+
+    @Value("${trending.window-hours:24}")
+    private int windowHours;
+
+    private SlidingWindowHeavyHitters objects;
+    private SlidingWindowHeavyHitters tags;
+
+    @PostConstruct
+    void warmUp() {
+        objects = new SlidingWindowHeavyHitters(windowHours, CANDIDATES_PER_HOUR, DEPTH, WIDTH);
+        tags = new SlidingWindowHeavyHitters(windowHours, CANDIDATES_PER_HOUR, DEPTH, WIDTH);
+        try {
+            long now = currentHour();
+            Date objectsSaved = restore("objects", objects, now);
+            Date tagsSaved = restore("tags", tags, now);
+            // Both are written by the same snapshot run; without both, start clean and replay the whole window
+            Date savedAt = null;
+            if (objectsSaved == null || tagsSaved == null) {
+                objects.restore(List.of(), now);
+                tags.restore(List.of(), now);
+            } else {
+                savedAt = objectsSaved.before(tagsSaved) ? objectsSaved : tagsSaved;
+            }
+            replaySince(savedAt, now);
+        } catch (RuntimeException e) {
+            log.warn("Could not warm up trending counts, starting empty: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onPostCreated(PostCreatedEvent event) {
+        if (event.isPublicPost()) {
+            record(event.getCelestialObjectId(), event.getSkillTags(), hourOf(event.getCreatedAt()));
+        }
+    }
+
+    public List<TrendingItem> topObjects(int limit) {
+        List<TrendingItem> items = new ArrayList<>();
+        for (SlidingWindowHeavyHitters.Count count : objects.top(limit, currentHour())) {
+            Optional<CatalogEntry> entry = celestialCatalogService.get(count.key());
+            items.add(TrendingItem.builder()
+                    .key(count.key())
+                    .name(entry.map(CatalogEntry::name).orElse(count.key()))
+                    .type(entry.map(CatalogEntry::type).orElse(null))
+                    .count(count.count())
+                    .build());
+        }
+        return items;
+    }
+
+    public List<TrendingItem> topTags(int limit) {
+        List<TrendingItem> items = new ArrayList<>();
+        for (SlidingWindowHeavyHitters.Count count : tags.top(limit, currentHour())) {
+            items.add(TrendingItem.builder().key(count.key()).name(count.key()).count(count.count()).build());
+        }
+        return items;
+    }
+
+    @Scheduled(fixedDelayString = "${trending.snapshot-interval-ms:300000}")
+    @PreDestroy
+    public void snapshot() {
+        save("objects", objects);
+        save("tags", tags);
+    }
+
+    private void record(String celestialObjectId, List<String> skillTags, long hour) {
+        if (celestialObjectId != null) {
+            objects.add(celestialObjectId, hour);
+        }
+        if (skillTags != null) {
+            skillTags.stream().map(TrendingService::normalizeTag).filter(tag -> !tag.isEmpty()).distinct()
+                    .forEach(tag -> tags.add(tag, hour));
+        }
+    }
+
+    private void replaySince(Date savedAt, long now) {
+        LocalDateTime windowStart = LocalDateTime.ofInstant(Instant.ofEpochSecond((now - windowHours + 1) * 3600),
+                ZoneId.systemDefault());
+        LocalDateTime from = windowStart;
+        if (savedAt != null) {
+            LocalDateTime saved = LocalDateTime.ofInstant(savedAt.toInstant(), ZoneId.systemDefault());
+            from = saved.isAfter(windowStart) ? saved : windowStart;
+        }
+        Object lastId = null;
+        int replayed = 0;
+        while (true) {
+            Query query = new Query(where("createdAt").gt(from).and("isPublic").is(true))
+                    .with(Sort.by("_id")).limit(REPLAY_BATCH_SIZE);
+            if (lastId != null) {
+                query.addCriteria(where("_id").gt(lastId));
+            }
+            query.fields().include("celestialObjectId").include("skillTags").include("createdAt");
+            List<Document> batch = mongoTemplate.find(query, Document.class, "posts");
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Document post : batch) {
+                lastId = post.get("_id");
+                Date createdAt = post.getDate("createdAt");
+                @SuppressWarnings("unchecked")
+                List<String> skillTags = (List<String>) post.get("skillTags", List.class);
+                record(post.getString("celestialObjectId"), skillTags, createdAt.toInstant().getEpochSecond() / 3600);
+                replayed++;
+            }
+        }
+        log.info("Trending counts warmed up ({} posts replayed{})", replayed, savedAt != null ? " after snapshot" : "");
+    }
+
+    private Date restore(String name, SlidingWindowHeavyHitters window, long now) {
+        Document snapshot = mongoTemplate.findById(name, Document.class, SNAPSHOTS);
+        if (snapshot == null || snapshot.getInteger("depth", 0) != DEPTH || snapshot.getInteger("width", 0) != WIDTH) {
+            return null;
+        }
+        List<SlidingWindowHeavyHitters.BucketState> states = new ArrayList<>();
+        for (Document bucket : snapshot.getList("buckets", Document.class)) {
+            int[] counts = new int[DEPTH * WIDTH];
+            Object stored = bucket.get("counts");
+            byte[] bytes = stored instanceof Binary binary ? binary.getData() : (byte[]) stored;
+            ByteBuffer.wrap(bytes).asIntBuffer().get(counts);
+            Map<String, Integer> candidates = new HashMap<>();
+            for (Document candidate : bucket.getList("candidates", Document.class)) {
+                candidates.put(candidate.getString("key"), candidate.getInteger("count"));
+            }
+            states.add(new SlidingWindowHeavyHitters.BucketState(bucket.getLong("hour"), counts, candidates));
+        }
+        window.restore(states, now);
+        return snapshot.getDate("savedAt");
+    }
+
+    private void save(String name, SlidingWindowHeavyHitters window) {
+        Date savedAt = new Date();
+        List<Document> buckets = new ArrayList<>();
+        for (SlidingWindowHeavyHitters.BucketState state : window.snapshot()) {
+            ByteBuffer counts = ByteBuffer.allocate(state.counts().length * Integer.BYTES);
+            counts.asIntBuffer().put(state.counts());
+            List<Document> candidates = new ArrayList<>();
+            // Stored as a list: tags may contain dots, which Mongo field names should not
+            state.candidates().forEach((key, count) -> candidates.add(new Document("key", key).append("count", count)));
+            buckets.add(new Document("hour", state.hour())
+                    .append("counts", new Binary(counts.array()))
+                    .append("candidates", candidates));
+        }
+        mongoTemplate.save(new Document("_id", name)
+                .append("savedAt", savedAt)
+                .append("depth", DEPTH)
+                .append("width", WIDTH)
+                .append("buckets", buckets), SNAPSHOTS);
+    }
+
+    private static String normalizeTag(String tag) {
+        return tag == null ? "" : tag.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static long hourOf(LocalDateTime time) {
+        LocalDateTime at = time != null ? time : LocalDateTime.now();
+        return at.atZone(ZoneId.systemDefault()).toEpochSecond() / 3600;
+    }
+
+    private static long currentHour() {
+        return Instant.now().getEpochSecond() / 3600;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.cosmoconnect.service;
+
+import com.example.cosmoconnect.dto.CursorPage;
+import com.example.cosmoconnect.dto.UserSummary;
+import com.example.cosmoconnect.model.FollowCounts;
+import com.example.cosmoconnect.model.User;
+import com.example.cosmoconnect.model.UserDirectoryEntry;
+import com.example.cosmoconnect.paging.KeysetPaging;
+import com.example.cosmoconnect.search.NameKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// People search over user_directory. A query matches users having a name or username word that
+// starts with each query word, most followed first; both the match and the order come from the
+// keys_followers index, so a page reads limit + 1 entries whatever the number of users.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDirectoryService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    // A blank query lists everyone, most followed first
+    public CursorPage<UserSummary> search(String query, String cursor, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        List<String> keys = NameKeys.queryKeys(query);
+        if (!keys.isEmpty()) {
+            criteria.add(where("keys").all(keys));
+        }
+        // The cursor is the last result of the previous page: follower count and user id
+        KeysetPaging.Counted after = KeysetPaging.decodeCounted(cursor);
+        if (after != null) {
+            criteria.add(new Criteria().orOperator(
+                    where("followers").lt(after.count()),
+                    where("followers").is(after.count()).and("_id").gt(after.id())));
+        }
+        Query search = new Query(criteria.isEmpty() ? new Criteria() : new Criteria().andOperator(criteria))
+                .with(Sort.by(Sort.Order.desc("followers"), Sort.Order.asc("_id")))
+                .limit(limit + 1);
+        search.fields().exclude("keys");
+        List<UserDirectoryEntry> entries = mongoTemplate.find(search, UserDirectoryEntry.class);
+        boolean more = entries.size() > limit;
+        if (more) {
+            entries = entries.subList(0, limit);
+        }
+        UserDirectoryEntry last = more ? entries.get(entries.size() - 1) : null;
+        return CursorPage.<UserSummary>builder()
+                .items(entries.stream().map(entry -> UserSummary.builder()
+                        .id(entry.getId())
+                        .fullName(entry.getFullName())
+                        .imageUrl(entry.getImageUrl())
+                        .astronomyLevel(entry.getAstronomyLevel())
+                        .build()).toList())
+                .nextCursor(last != null ? KeysetPaging.encode(last.getFollowers(), last.getId()) : null)
+                .build();
+    }
+
+    // Called after every save of a user; the follower count is only seeded here, FollowService moves it
+    public void index(User user) {
+        FollowCounts counts = mongoTemplate.findById(user.getId(), FollowCounts.class);
+        mongoTemplate.upsert(new Query(where("_id").is(user.getId())),
+                new Update().set("keys", NameKeys.keysOf(user.getFullName(), user.profileUsername()))
+                        .set("fullName", user.getFullName())
+                        .set("imageUrl", user.getImageUrl())
+                        .set("astronomyLevel", user.getAstronomyLevel())
+                        .setOnInsert("followers", counts != null ? counts.getFollowers() : 0L),
+                UserDirectoryEntry.class);
+    }
+
+    public void adjustFollowers(String userId, long delta) {
+        mongoTemplate.updateFirst(new Query(where("_id").is(userId)), new Update().inc("followers", delta),
+                UserDirectoryEntry.class);
+    }
+
+    public void remove(String userId) {
+        mongoTemplate.remove(new Query(where("_id").is(userId)), UserDirectoryEntry.class);
+    }
+
+    // Lists users who signed up before the directory existed
+    @Async("backfillTaskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        String lastId = null;
+        int indexed = 0;
+        while (true) {
+            Query query = new Query().with(Sort.by("_id")).limit(BATCH_SIZE);
+            if (lastId != null) {
+                query.addCriteria(where("_id").gt(lastId));
+            }
+            query.fields().include("fullName").include("username").include("imageUrl").include("astronomyLevel");
+            List<User> batch = mongoTemplate.find(query, User.class);
+            if (batch.isEmpty()) {
+                break;
+            }
+            Query listed = new Query(where("_id").in(batch.stream().map(User::getId).toList()).and("keys").exists(true));
+            listed.fields().include("_id");
+            Set<String> present = new HashSet<>();
+            mongoTemplate.find(listed, UserDirectoryEntry.class).forEach(entry -> present.add(entry.getId()));
+            for (User user : batch) {
+                lastId = user.getId();
+                if (!present.contains(user.getId())) {
+                    index(user);
+                    indexed++;
+                }
+            }
+        }
+        if (indexed > 0) {
+            log.info("Added {} existing users to the people search directory", indexed);
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.example.cosmoconnect.service;
 
 import com.example.cosmoconnect.dto.UserDto;
 import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.example.cosmoconnect.model.FollowCounts;
 import com.example.cosmoconnect.model.User;
 import com.example.cosmoconnect.repository.UserRepository;
+import com.example.cosmoconnect.storage.MediaNamespace;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -11,13 +13,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
-    private final FileStorageService fileStorageService;
+    private final MediaStorageService mediaStorageService;
+    private final PostService postService;
+    private final FollowService followService;
+    private final UserDirectoryService userDirectoryService;
+    private final FollowSuggestionService followSuggestionService;
 
     public UserDto getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -54,6 +61,7 @@ public class UserService {
         user.setKnownLanguages(userDto.getKnownLanguages());
 
         User updatedUser = userRepository.save(user);
+        userDirectoryService.index(updatedUser);
         return mapToUserDto(updatedUser);
     }
 
@@ -64,14 +72,18 @@ public class UserService {
         try {
             // Delete old photo if exists and is a local file
             if (user.getImageUrl() != null && !user.getImageUrl().startsWith("http")) {
-                fileStorageService.deleteFile(user.getImageUrl());
+                mediaStorageService.release(user.getImageUrl(), user.getEmail());
             }
 
             // Store new photo
-            String fileName = fileStorageService.storeFile(photo, "profile-photos");
+            String fileName;
+            try (InputStream in = photo.getInputStream()) {
+                fileName = mediaStorageService.store(in, photo.getOriginalFilename(), MediaNamespace.PROFILE_PHOTOS, user.getEmail());
+            }
             user.setImageUrl(fileName);
 
             User updatedUser = userRepository.save(user);
+            userDirectoryService.index(updatedUser);
             return mapToUserDto(updatedUser);
         } catch (IOException e) {
             throw new RuntimeException("Failed to update profile photo: " + e.getMessage(), e);
@@ -84,14 +96,20 @@ public class UserService {
 
         // Delete profile photo if exists and is a local file
         if (user.getImageUrl() != null && !user.getImageUrl().startsWith("http")) {
-            fileStorageService.deleteFile(user.getImageUrl());
+            mediaStorageService.release(user.getImageUrl(), user.getEmail());
         }
 
+        postService.deletePostsByAuthor(user.getId());
+        followService.removeAllFor(user.getId());
+        userDirectoryService.remove(user.getId());
+        followSuggestionService.remove(user.getEmail());
+
         // Delete user from database
         userRepository.delete(user);
     }
 
     private UserDto mapToUserDto(User user) {
+        FollowCounts followCounts = followService.countsOf(user.getId());
         return UserDto.builder()
                 .id(user.getId())
                 .fullName(user.getFullName())
@@ -111,6 +129,8 @@ public class UserService {
                 .biography(user.getBiography())
                 .sharePersonalInfo(user.isSharePersonalInfo())
                 .knownLanguages(user.getKnownLanguages())
+                .followersCount(followCounts.getFollowers())
+                .followingCount(followCounts.getFollowing())
                 .certifications(user.getCertifications())
                 .observationBadges(user.getObservationBadges())
                 .accountCreated(user.getAccountCreated())
@@ -0,0 +1,108 @@
+package com.example.cosmoconnect.similarity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+// Burkhard-Keller tree over 64-bit hashes with Hamming distance. Each child edge is labelled with
+// its distance to the parent, and the triangle inequality lets a radius-r search skip every edge
+// outside [d - r, d + r], so lookups touch a small fraction of the tree for small r.
+// Not thread-safe; callers guard it. Values with an identical hash share a node.
+public class BkTree<T> {
+
+    private Node<T> root;
+    private int size;
+
+    public void add(long hash, T value) {
+        size++;
+        if (root == null) {
+            root = new Node<>(hash, value);
+            return;
+        }
+        Node<T> node = root;
+        while (true) {
+            int distance = PerceptualHash.distance(hash, node.hash);
+            if (distance == 0) {
+                node.values.add(value);
+                return;
+            }
+            Node<T> child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node<>(hash, value));
+                return;
+            }
+            node = child;
+        }
+    }
+
+    public List<Match<T>> search(long hash, int maxDistance) {
+        List<Match<T>> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+        Deque<Node<T>> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node<T> node = pending.pop();
+            int distance = PerceptualHash.distance(hash, node.hash);
+            if (distance <= maxDistance) {
+                for (T value : node.values) {
+                    matches.add(new Match<>(node.hash, value, distance));
+                }
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                if (Math.abs(node.childDistances[i] - distance) <= maxDistance) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public record Match<T>(long hash, T value, int distance) {
+    }
+
+    // Children are kept in small parallel arrays; most nodes have only a handful of distinct distances
+    private static final class Node<T> {
+        private final long hash;
+        private final List<T> values = new ArrayList<>(1);
+        private byte[] childDistances = new byte[0];
+        private Node<T>[] children = newArray(0);
+        private int childCount;
+
+        private Node(long hash, T value) {
+            this.hash = hash;
+            values.add(value);
+        }
+
+        private Node<T> child(int distance) {
+            for (int i = 0; i < childCount; i++) {
+                if (childDistances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private void addChild(int distance, Node<T> child) {
+            if (childCount == children.length) {
+                int capacity = Math.max(2, childCount * 2);
+                childDistances = Arrays.copyOf(childDistances, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            childDistances[childCount] = (byte) distance;
+            children[childCount++] = child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Node<T>[] newArray(int length) {
+            return (Node<T>[]) new Node[length];
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.cosmoconnect.similarity;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+// 64-bit difference hash (dHash): the image is box-averaged down to 9x8 grey cells and each bit
+// records whether a cell is darker than its right-hand neighbour. Re-encoding, resizing, small
+// crops and mild tone changes move only a few bits, so near-duplicates sit at a small Hamming distance.
+public final class PerceptualHash {
+
+    private static final int COLUMNS = 9;
+    private static final int ROWS = 8;
+    // Decoding below this width starts to lose the structure the 9x8 grid is built from
+    private static final int DECODE_WIDTH = 256;
+
+    private PerceptualHash() {
+    }
+
+    public static long dHash(BufferedImage image) {
+        double[] cells = shrink(image);
+        long hash = 0;
+        for (int y = 0; y < ROWS; y++) {
+            for (int x = 0; x < COLUMNS - 1; x++) {
+                hash <<= 1;
+                if (cells[y * COLUMNS + x] < cells[y * COLUMNS + x + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    // Decodes just enough of an image to hash it; null when the stream is not a readable image
+    public static Long hash(InputStream in) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, reader.getWidth(0) / DECODE_WIDTH);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return dHash(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Averages every source pixel into the cell it falls in, so no detail is skipped the way a
+    // nearest-neighbour scale would
+    private static double[] shrink(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] sums = new double[COLUMNS * ROWS];
+        int[] counts = new int[COLUMNS * ROWS];
+        int[] row = new int[width];
+        int[] cellOfColumn = new int[width];
+        for (int x = 0; x < width; x++) {
+            cellOfColumn[x] = (int) ((long) x * COLUMNS / width);
+        }
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int base = (int) ((long) y * ROWS / height) * COLUMNS;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                double luma = 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                sums[base + cellOfColumn[x]] += luma;
+                counts[base + cellOfColumn[x]]++;
+            }
+        }
+        for (int i = 0; i < sums.length; i++) {
+            sums[i] = counts[i] > 0 ? sums[i] / counts[i] : 0;
+        }
+        return sums;
+    }
+}
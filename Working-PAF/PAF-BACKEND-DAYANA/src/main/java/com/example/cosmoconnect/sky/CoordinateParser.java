@@ -0,0 +1,140 @@
+package com.example.cosmoconnect.sky;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Reads the free-text RA/Dec people type into posts. Accepts sexagesimal with unit marks
+// ("05h35m17.3s -05d23m28s", "00h42m44.3s +41 16' 09\""), colon or space separated
+// ("05:35:17.3 -05:23:28") and decimal degrees ("83.82 -5.39"), with optional RA/Dec labels.
+// A lone RA number without an h is taken as degrees; several RA numbers are hours, minutes, seconds.
+public final class CoordinateParser {
+
+    private static final Pattern LABELS = Pattern.compile("(?i)\\b(?:r\\.?a\\.?|decl?\\.?|j2000(?:\\.0)?|icrs)(?![a-z])\\s*:?|[=,;\u03b1\u03b4]");
+    private static final Pattern TOKEN = Pattern.compile(
+            "\\s*([+\\-\u2212]?)(\\d+(?:\\.\\d*)?|\\.\\d+)\\s*(''|[hHmMsSdD\u00b0\u00ba'\u2032\"\u2033:])?");
+
+    private enum Unit { NONE, HOURS, DEGREES, MINUTES, SECONDS }
+
+    private record Token(char sign, double value, Unit unit) {
+    }
+
+    private CoordinateParser() {
+    }
+
+    public static Optional<SkyCoordinate> parse(String text) {
+        if (text == null || text.isBlank()) {
+            return Optional.empty();
+        }
+        List<Token> tokens = tokenize(LABELS.matcher(text).replaceAll(" ").trim());
+        if (tokens == null || tokens.size() < 2 || tokens.size() > 6) {
+            return Optional.empty();
+        }
+        int split = decStart(tokens);
+        if (split < 1 || split > 3 || tokens.size() - split > 3) {
+            return Optional.empty();
+        }
+        List<Token> raTokens = tokens.subList(0, split);
+        List<Token> decTokens = tokens.subList(split, tokens.size());
+
+        Token first = raTokens.get(0);
+        if (first.sign() == '-' || first.unit() == Unit.MINUTES || first.unit() == Unit.SECONDS) {
+            return Optional.empty();
+        }
+        boolean raInDegrees = first.unit() == Unit.DEGREES || (raTokens.size() == 1 && first.unit() != Unit.HOURS);
+        Double ra = sexagesimal(raTokens);
+        Double dec = sexagesimal(decTokens);
+        if (ra == null || dec == null || decTokens.get(0).unit() == Unit.HOURS) {
+            return Optional.empty();
+        }
+        if (!raInDegrees) {
+            if (ra >= 24) {
+                return Optional.empty();
+            }
+            ra *= 15;
+        }
+        if (ra >= 360) {
+            return Optional.empty();
+        }
+        // The sign belongs to the whole declination, including "-00 30 00"
+        if (decTokens.get(0).sign() == '-') {
+            dec = -dec;
+        }
+        if (dec < -90 || dec > 90) {
+            return Optional.empty();
+        }
+        return Optional.of(new SkyCoordinate(ra, dec));
+    }
+
+    // Returns null when anything other than numbers, units and separators is left over
+    private static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(text);
+        int position = 0;
+        while (position < text.length()) {
+            if (!matcher.find(position) || matcher.start() != position) {
+                return null;
+            }
+            String sign = matcher.group(1);
+            tokens.add(new Token(sign.isEmpty() ? 0 : sign.equals("+") ? '+' : '-',
+                    Double.parseDouble(matcher.group(2)), unitOf(matcher.group(3))));
+            position = matcher.end();
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+        return tokens;
+    }
+
+    private static Unit unitOf(String mark) {
+        if (mark == null || mark.equals(":")) {
+            return Unit.NONE;
+        }
+        return switch (mark) {
+            case "h", "H" -> Unit.HOURS;
+            case "d", "D", "\u00b0", "\u00ba" -> Unit.DEGREES;
+            case "m", "M", "'", "\u2032" -> Unit.MINUTES;
+            default -> Unit.SECONDS;
+        };
+    }
+
+    // Dec starts at the first explicit sign after the RA, else the first degree mark, else right
+    // after an h/m/s group, else halfway
+    private static int decStart(List<Token> tokens) {
+        for (int i = 1; i < tokens.size(); i++) {
+            if (tokens.get(i).sign() != 0) {
+                return i;
+            }
+        }
+        for (int i = 1; i < tokens.size(); i++) {
+            if (tokens.get(i).unit() == Unit.DEGREES) {
+                return i;
+            }
+        }
+        if (tokens.get(0).unit() == Unit.HOURS) {
+            int i = 1;
+            while (i < tokens.size() && i < 3 && (tokens.get(i).unit() == Unit.MINUTES || tokens.get(i).unit() == Unit.SECONDS)) {
+                i++;
+            }
+            return i;
+        }
+        return tokens.size() % 2 == 0 ? tokens.size() / 2 : -1;
+    }
+
+    // Folds [whole, minutes, seconds] into one value; later parts must be unsigned and below 60
+    private static Double sexagesimal(List<Token> parts) {
+        double value = parts.get(0).value();
+        double scale = 1;
+        for (int i = 1; i < parts.size(); i++) {
+            Token part = parts.get(i);
+            if (part.sign() != 0 || part.value() >= 60 || part.unit() == Unit.HOURS || part.unit() == Unit.DEGREES) {
+                return null;
+            }
+            scale /= 60;
+            value += part.value() * scale;
+        }
+        return value;
+    }
+}
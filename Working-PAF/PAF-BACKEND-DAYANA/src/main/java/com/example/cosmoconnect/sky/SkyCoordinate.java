@@ -0,0 +1,5 @@
+package com.example.cosmoconnect.sky;
+
+// A position on the sky in degrees: ra in [0, 360), dec in [-90, 90]
+public record SkyCoordinate(double ra, double dec) {
+}
@@ -0,0 +1,105 @@
+package com.example.cosmoconnect.sky;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Tessellates the sky into declination zones of ZONE_HEIGHT degrees, each cut into RA cells whose
+// count shrinks with cos(dec) so cells stay roughly equal in area. Cell ids run RA-first within a
+// zone and zone by zone, so any RA interval in one zone is one contiguous id range and a cone
+// becomes a few range predicates on a single indexed number, followed by an exact distance check.
+public final class SkyZones {
+
+    public static final double ZONE_HEIGHT = 0.5;
+
+    private static final int ZONES = (int) Math.round(180 / ZONE_HEIGHT);
+    private static final int[] CELLS_IN_ZONE = new int[ZONES];
+    private static final long[] ZONE_OFFSET = new long[ZONES + 1];
+
+    static {
+        for (int zone = 0; zone < ZONES; zone++) {
+            double center = -90 + (zone + 0.5) * ZONE_HEIGHT;
+            CELLS_IN_ZONE[zone] = Math.max(1, (int) Math.ceil(360 / ZONE_HEIGHT * Math.cos(Math.toRadians(center))));
+            ZONE_OFFSET[zone + 1] = ZONE_OFFSET[zone] + CELLS_IN_ZONE[zone];
+        }
+    }
+
+    private SkyZones() {
+    }
+
+    public static long cellOf(double ra, double dec) {
+        int zone = zoneOf(dec);
+        int cells = CELLS_IN_ZONE[zone];
+        int index = Math.min(cells - 1, (int) (normalizeRa(ra) / 360 * cells));
+        return ZONE_OFFSET[zone] + index;
+    }
+
+    // Inclusive [from, to] cell id ranges that together cover every point within radius degrees
+    // of (ra, dec). Adjacent ranges are merged, so a cap over a pole is a single range.
+    public static List<long[]> coverCone(double ra, double dec, double radius) {
+        double minDec = Math.max(-90, dec - radius);
+        double maxDec = Math.min(90, dec + radius);
+        double halfWidth = raHalfWidth(dec, radius);
+        List<long[]> ranges = new ArrayList<>();
+        for (int zone = zoneOf(minDec); zone <= zoneOf(maxDec); zone++) {
+            int cells = CELLS_IN_ZONE[zone];
+            long offset = ZONE_OFFSET[zone];
+            if (halfWidth >= 180) {
+                add(ranges, offset, offset + cells - 1);
+                continue;
+            }
+            double from = normalizeRa(ra - halfWidth);
+            double to = normalizeRa(ra + halfWidth);
+            int first = Math.min(cells - 1, (int) (from / 360 * cells));
+            int last = Math.min(cells - 1, (int) (to / 360 * cells));
+            if (from <= to) {
+                add(ranges, offset + first, offset + last);
+            } else {
+                // Wraps through RA 0: the low end is emitted first to keep ranges ordered
+                add(ranges, offset, offset + last);
+                add(ranges, offset + first, offset + cells - 1);
+            }
+        }
+        return ranges;
+    }
+
+    // Great-circle distance in degrees (haversine, stable for small separations)
+    public static double separation(double ra1, double dec1, double ra2, double dec2) {
+        double phi1 = Math.toRadians(dec1);
+        double phi2 = Math.toRadians(dec2);
+        double sinDecHalf = Math.sin((phi2 - phi1) / 2);
+        double sinRaHalf = Math.sin(Math.toRadians(ra2 - ra1) / 2);
+        double a = sinDecHalf * sinDecHalf + Math.cos(phi1) * Math.cos(phi2) * sinRaHalf * sinRaHalf;
+        return Math.toDegrees(2 * Math.asin(Math.min(1, Math.sqrt(a))));
+    }
+
+    public static double normalizeRa(double ra) {
+        double normalized = ra % 360;
+        return normalized < 0 ? normalized + 360 : normalized;
+    }
+
+    // Widest RA extent of the cone, asin(sin r / cos dec) (Gray et al., zones algorithm); a cone
+    // touching a pole covers every RA
+    private static double raHalfWidth(double dec, double radius) {
+        if (Math.abs(dec) + radius >= 90) {
+            return 180;
+        }
+        double ratio = Math.sin(Math.toRadians(radius)) / Math.cos(Math.toRadians(dec));
+        // Padded slightly so floating-point error never drops a point on the boundary
+        return ratio >= 1 ? 180 : Math.toDegrees(Math.asin(ratio)) + 1e-9;
+    }
+
+    private static int zoneOf(double dec) {
+        return Math.max(0, Math.min(ZONES - 1, (int) Math.floor((dec + 90) / ZONE_HEIGHT)));
+    }
+
+    private static void add(List<long[]> ranges, long from, long to) {
+        if (!ranges.isEmpty()) {
+            long[] previous = ranges.get(ranges.size() - 1);
+            if (previous[1] + 1 >= from) {
+                previous[1] = Math.max(previous[1], to);
+                return;
+            }
+        }
+        ranges.add(new long[]{from, to});
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.cosmoconnect.social;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// The follow graph and users' interests as flat int arrays, for scoring "who to follow" over every
+// user in one batch. Users are 0..n-1. Follows are kept in compressed rows: the accounts user u
+// follows are following[followingStart[u] .. followingStart[u + 1]), sorted so "already follows"
+// is a binary search. Interests (any int ids) are inverted the same way into users per interest.
+//
+// A candidate w for u scores   mutualFollows + interestWeight * jaccard(interests(u), interests(w))
+// where mutualFollows counts the accounts u follows that follow w. Both parts are gathered by
+// walking rows into per-user scratch counters, so one user costs the edges two hops out plus the
+// postings of its interests, never a pass over all users. Not thread-safe: the scratch is shared.
+public final class SuggestionGraph {
+
+    public record Suggestion(int user, int mutualFollows, int sharedInterests, double score) {
+    }
+
+    private static final Comparator<Suggestion> ORDER =
+            Comparator.comparingDouble(Suggestion::score).thenComparing(Suggestion::user, Comparator.reverseOrder());
+
+    private final int users;
+    private final int[] followingStart;
+    private final int[] following;
+    private final int[] interestCount;
+    private final int[] interestStart;
+    private final int[] interested;
+    private final int[][] interests;
+    private final double interestWeight;
+    private final int maxPostings;
+
+    private final int[] mutual;
+    private final int[] shared;
+    private final int[] touched;
+
+    // followers[i] follows followees[i]; interests[u] holds u's distinct interest ids. Interests held
+    // by more than maxPostings users say little about a pair and are skipped when scoring.
+    public SuggestionGraph(int users, int[] followers, int[] followees, int[][] interests,
+                           double interestWeight, int maxPostings) {
+        this.users = users;
+        this.interests = interests;
+        this.interestWeight = interestWeight;
+        this.maxPostings = maxPostings;
+
+        followingStart = new int[users + 1];
+        for (int follower : followers) {
+            followingStart[follower + 1]++;
+        }
+        for (int u = 0; u < users; u++) {
+            followingStart[u + 1] += followingStart[u];
+        }
+        following = new int[followers.length];
+        int[] next = Arrays.copyOf(followingStart, users);
+        for (int i = 0; i < followers.length; i++) {
+            following[next[followers[i]]++] = followees[i];
+        }
+        for (int u = 0; u < users; u++) {
+            Arrays.sort(following, followingStart[u], followingStart[u + 1]);
+        }
+
+        int terms = 0;
+        interestCount = new int[users];
+        for (int u = 0; u < users; u++) {
+            interestCount[u] = interests[u].length;
+            for (int term : interests[u]) {
+                terms = Math.max(terms, term + 1);
+            }
+        }
+        interestStart = new int[terms + 1];
+        for (int[] held : interests) {
+            for (int term : held) {
+                interestStart[term + 1]++;
+            }
+        }
+        for (int t = 0; t < terms; t++) {
+            interestStart[t + 1] += interestStart[t];
+        }
+        interested = new int[interestStart[terms]];
+        int[] nextPosting = Arrays.copyOf(interestStart, terms);
+        for (int u = 0; u < users; u++) {
+            for (int term : interests[u]) {
+                interested[nextPosting[term]++] = u;
+            }
+        }
+
+        mutual = new int[users];
+        shared = new int[users];
+        touched = new int[users];
+    }
+
+    public int size() {
+        return users;
+    }
+
+    public boolean follows(int user, int other) {
+        return Arrays.binarySearch(following, followingStart[user], followingStart[user + 1], other) >= 0;
+    }
+
+    // Best candidates for user, highest score first (ties to the lower index)
+    public List<Suggestion> suggestionsFor(int user, int limit) {
+        int touchedCount = 0;
+        for (int i = followingStart[user]; i < followingStart[user + 1]; i++) {
+            int friend = following[i];
+            for (int j = followingStart[friend]; j < followingStart[friend + 1]; j++) {
+                int candidate = following[j];
+                if (mutual[candidate] == 0 && shared[candidate] == 0) {
+                    touched[touchedCount++] = candidate;
+                }
+                mutual[candidate]++;
+            }
+        }
+        for (int term : interests[user]) {
+            if (interestStart[term + 1] - interestStart[term] > maxPostings) {
+                continue;
+            }
+            for (int i = interestStart[term]; i < interestStart[term + 1]; i++) {
+                int candidate = interested[i];
+                if (mutual[candidate] == 0 && shared[candidate] == 0) {
+                    touched[touchedCount++] = candidate;
+                }
+                shared[candidate]++;
+            }
+        }
+
+        PriorityQueue<Suggestion> best = new PriorityQueue<>(limit + 1, ORDER);
+        for (int i = 0; i < touchedCount; i++) {
+            int candidate = touched[i];
+            if (candidate != user && !follows(user, candidate)) {
+                int common = shared[candidate];
+                double jaccard = common == 0 ? 0
+                        : (double) common / (interestCount[user] + interestCount[candidate] - common);
+                best.add(new Suggestion(candidate, mutual[candidate], common, mutual[candidate] + interestWeight * jaccard));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            mutual[candidate] = 0;
+            shared[candidate] = 0;
+        }
+        List<Suggestion> ranked = new ArrayList<>(best);
+        ranked.sort(ORDER.reversed());
+        return ranked;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.cosmoconnect.storage;
+
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.gridfs.GridFsCriteria.whereFilename;
+
+// Keeps media in Mongo GridFS (bucket from spring.data.mongodb.gridfs.bucket), using the key as file name
+@Component
+@ConditionalOnProperty(name = "media.store.type", havingValue = "gridfs")
+@RequiredArgsConstructor
+public class GridFsMediaStore implements MediaStore {
+
+    private final GridFsTemplate gridFsTemplate;
+
+    @Override
+    public void put(String key, InputStream content, long size) throws IOException {
+        // GridFS has no in-place overwrite; write the new revision first so readers never see a gap
+        Object previousId = find(key).map(GridFSFile::getId).orElse(null);
+        gridFsTemplate.store(content, key);
+        if (previousId != null) {
+            gridFsTemplate.delete(Query.query(where("_id").is(previousId)));
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        GridFSFile file = find(key).orElseThrow(() -> new ResourceNotFoundException("File not found: " + key));
+        InputStream in = gridFsTemplate.getResource(file).getInputStream();
+        // The download stream skips whole chunks without fetching them
+        in.skipNBytes(offset);
+        return new RangeInputStream(in, length);
+    }
+
+    @Override
+    public Optional<MediaObject> stat(String key) {
+        return find(key).map(file -> new MediaObject(key, file.getLength(), file.getUploadDate().getTime()));
+    }
+
+    @Override
+    public void delete(String key) {
+        gridFsTemplate.delete(Query.query(whereFilename().is(key)));
+    }
+
+    @Override
+    public void list(String prefix, MediaVisitor visitor) throws IOException {
+        Query query = Query.query(whereFilename().regex("^" + Pattern.quote(prefix)));
+        for (GridFSFile file : gridFsTemplate.find(query)) {
+            visitor.visit(new MediaObject(file.getFilename(), file.getLength(), file.getUploadDate().getTime()));
+        }
+    }
+
+    private Optional<GridFSFile> find(String key) {
+        Query query = Query.query(whereFilename().is(key)).with(Sort.by(Sort.Direction.DESC, "uploadDate"));
+        return Optional.ofNullable(gridFsTemplate.findOne(query));
+    }
+}
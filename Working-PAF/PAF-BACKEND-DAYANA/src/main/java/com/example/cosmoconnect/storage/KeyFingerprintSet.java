@@ -0,0 +1,90 @@
+package com.example.cosmoconnect.storage;
+
+import java.nio.charset.StandardCharsets;
+
+// Set of 64-bit fingerprints of media keys in a flat open-addressing long[] (8 bytes per entry
+// at most 50% load), so marking millions of references costs megabytes rather than String sets.
+// A fingerprint collision can only make an unreferenced key look referenced, never the reverse.
+public class KeyFingerprintSet {
+
+    private static final long EMPTY = 0;
+    private static final int HEX_FINGERPRINT_LENGTH = 16;
+
+    private long[] slots;
+    private int size;
+
+    public KeyFingerprintSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        slots = new long[capacity];
+    }
+
+    public void add(String key) {
+        if (size * 2 >= slots.length) {
+            grow();
+        }
+        if (insert(slots, fingerprint(key))) {
+            size++;
+        }
+    }
+
+    public boolean contains(String key) {
+        long fingerprint = fingerprint(key);
+        int mask = slots.length - 1;
+        for (int i = mix(fingerprint) & mask; ; i = (i + 1) & mask) {
+            if (slots[i] == fingerprint) {
+                return true;
+            }
+            if (slots[i] == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Content-addressed keys end in a SHA-256, whose first 64 bits are already a good fingerprint
+    static long fingerprint(String key) {
+        int slash = key.lastIndexOf('/');
+        if (key.startsWith("sha256/") && key.length() - slash - 1 == 64) {
+            long value = Long.parseUnsignedLong(key.substring(slash + 1, slash + 1 + HEX_FINGERPRINT_LENGTH), 16);
+            return value == EMPTY ? 1 : value;
+        }
+        // FNV-1a over the UTF-8 bytes
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static boolean insert(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        for (int i = mix(fingerprint) & mask; ; i = (i + 1) & mask) {
+            if (table[i] == fingerprint) {
+                return false;
+            }
+            if (table[i] == EMPTY) {
+                table[i] = fingerprint;
+                return true;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] old = slots;
+        slots = new long[old.length * 2];
+        for (long fingerprint : old) {
+            if (fingerprint != EMPTY) {
+                insert(slots, fingerprint);
+            }
+        }
+    }
+
+    private static int mix(long fingerprint) {
+        long h = fingerprint * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
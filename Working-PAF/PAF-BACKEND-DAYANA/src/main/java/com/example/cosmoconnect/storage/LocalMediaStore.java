@@ -0,0 +1,143 @@
+package com.example.cosmoconnect.storage;
+
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "media.store.type", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class LocalMediaStore implements MediaStore {
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Override
+    public void put(String key, InputStream content, long size) throws IOException {
+        Path target = pathFor(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".put-", ".part");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void putFile(String key, Path source) throws IOException {
+        Path target = pathFor(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, source);
+        } catch (FileAlreadyExistsException e) {
+            log.debug("Media {} already stored", key);
+        } catch (UnsupportedOperationException | IOException e) {
+            // No hard links (or a different file system): fall back to a full copy
+            try (InputStream in = Files.newInputStream(source)) {
+                put(key, in, Files.size(source));
+            }
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(pathFor(key), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File not found: " + key);
+        }
+        channel.position(offset);
+        return new RangeInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public Optional<MediaObject> stat(String key) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(pathFor(key), BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            return Optional.of(new MediaObject(key, attributes.size(), attributes.lastModifiedTime().toMillis()));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(pathFor(key));
+    }
+
+    @Override
+    public void list(String prefix, MediaVisitor visitor) throws IOException {
+        Path base = Paths.get(uploadDir).toAbsolutePath().normalize();
+        if (!Files.isDirectory(base)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(base)) {
+            Iterator<Path> iterator = files.iterator();
+            while (iterator.hasNext()) {
+                Path file = iterator.next();
+                String key = base.relativize(file).toString().replace(File.separatorChar, '/');
+                if (!key.startsWith(prefix)) {
+                    continue;
+                }
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue; // Removed since the directory was read
+                }
+                if (attributes.isRegularFile()) {
+                    visitor.visit(new MediaObject(key, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void move(String from, String to) throws IOException {
+        Path target = pathFor(to);
+        Files.createDirectories(target.getParent());
+        Files.move(pathFor(from), target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(pathFor(key));
+    }
+
+    private Path pathFor(String key) {
+        Path base = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path file = base.resolve(key).normalize();
+        if (!file.startsWith(base) || file.equals(base)) {
+            throw new ResourceNotFoundException("File not found: " + key);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.cosmoconnect.storage;
+
+// Logical areas media is stored under. Stored names are "<directory>/<file>".
+public enum MediaNamespace {
+    POSTS("posts", "/api/posts/files/"),
+    COMPETITIONS("competitions", "/api/competitions/files/"),
+    LEARNING_PLANS("learningplans", "/api/learningplans/files/"),
+    PROFILE_PHOTOS("profile-photos", "/api/files/profile-photos/"),
+    UPLOADS("uploads", "/api/files/uploads/");
+
+    private final String directory;
+    private final String urlPrefix;
+
+    MediaNamespace(String directory, String urlPrefix) {
+        this.directory = directory;
+        this.urlPrefix = urlPrefix;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public String fileUrl(String storedName) {
+        return urlPrefix + relative(storedName);
+    }
+
+    // Maps a media reference kept on a document (file URL or stored name) back to its stored name
+    public static String storedNameOf(String reference) {
+        if (reference == null) {
+            return null;
+        }
+        for (MediaNamespace namespace : values()) {
+            int index = reference.indexOf(namespace.urlPrefix);
+            if (index >= 0) {
+                return namespace.qualify(reference.substring(index + namespace.urlPrefix.length()));
+            }
+            if (reference.startsWith(namespace.directory + "/")) {
+                return reference;
+            }
+        }
+        return null;
+    }
+
+    // The namespace a stored name lives in, or null for flat names in the upload root
+    public static MediaNamespace ofStoredName(String storedName) {
+        int slash = storedName == null ? -1 : storedName.indexOf('/');
+        if (slash <= 0) {
+            return null;
+        }
+        String directory = storedName.substring(0, slash);
+        for (MediaNamespace namespace : values()) {
+            if (namespace.directory.equals(directory)) {
+                return namespace;
+            }
+        }
+        return null;
+    }
+
+    public String qualify(String filename) {
+        return filename.startsWith(directory + "/") ? filename : directory + "/" + filename;
+    }
+
+    // Strips the namespace from a stored name, e.g. for URLs like /api/posts/files/<file>
+    public String relative(String storedName) {
+        return storedName.startsWith(directory + "/") ? storedName.substring(directory.length() + 1) : storedName;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.cosmoconnect.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class MediaObject {
+    private String key;
+    private long size;
+    private long lastModified; // epoch millis
+}
@@ -0,0 +1,56 @@
+package com.example.cosmoconnect.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+// Backend that holds media bytes under opaque keys (sha256/ab/cd/<hash> blobs, or older flat names).
+// The active implementation is picked with media.store.type = local | gridfs | s3.
+public interface MediaStore {
+
+    // Streams size bytes from content into key, replacing anything already stored there
+    void put(String key, InputStream content, long size) throws IOException;
+
+    // Stores a finished local file; backends on the same disk can link or move instead of copying
+    default void putFile(String key, Path source) throws IOException {
+        try (InputStream in = Files.newInputStream(source)) {
+            put(key, in, Files.size(source));
+        }
+    }
+
+    // Returns a stream positioned at offset that yields at most length bytes
+    InputStream open(String key, long offset, long length) throws IOException;
+
+    Optional<MediaObject> stat(String key) throws IOException;
+
+    default boolean exists(String key) throws IOException {
+        return stat(key).isPresent();
+    }
+
+    void delete(String key) throws IOException;
+
+    // Visits every object whose key starts with prefix ("" for all of them), in no particular order
+    void list(String prefix, MediaVisitor visitor) throws IOException;
+
+    // Moves an object to another key; backends that can rename do so instead of copying
+    default void move(String from, String to) throws IOException {
+        MediaObject object = stat(from).orElseThrow(() -> new NoSuchFileException(from));
+        try (InputStream in = open(from, 0, object.getSize())) {
+            put(to, in, object.getSize());
+        }
+        delete(from);
+    }
+
+    // Only local stores have a file the servlet container can sendfile directly
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @FunctionalInterface
+    interface MediaVisitor {
+        void visit(MediaObject object) throws IOException;
+    }
+}
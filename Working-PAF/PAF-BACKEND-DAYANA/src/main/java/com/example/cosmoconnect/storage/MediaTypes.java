@@ -0,0 +1,96 @@
+package com.example.cosmoconnect.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// What the server says stored bytes are. The type is read from the bytes, never taken from the name
+// a client asked for, and only formats a browser won't run as a page are shown inline; anything else
+// is a download.
+public final class MediaTypes {
+
+    public static final String OCTET_STREAM = "application/octet-stream";
+    // Enough of the file to recognise every format below
+    public static final int HEADER_BYTES = 12;
+
+    private static final Map<String, String> BY_EXTENSION = Map.ofEntries(
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("png", "image/png"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("mp4", "video/mp4"),
+            Map.entry("m4v", "video/mp4"),
+            Map.entry("mov", "video/mp4"),
+            Map.entry("webm", "video/webm"),
+            Map.entry("mkv", "video/webm"),
+            Map.entry("pdf", "application/pdf"),
+            Map.entry("fits", "application/fits"),
+            Map.entry("fit", "application/fits"),
+            Map.entry("fts", "application/fits"));
+
+    private static final Set<String> INLINE = Set.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "video/mp4", "video/webm", "application/pdf");
+
+    private MediaTypes() {
+    }
+
+    // From the first HEADER_BYTES bytes of a file (fewer if it is shorter)
+    public static String sniff(byte[] header, int read) {
+        if (read >= 3 && (header[0] & 0xFF) == 0xFF && (header[1] & 0xFF) == 0xD8 && (header[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (read >= 8 && (header[0] & 0xFF) == 0x89 && header[1] == 'P' && header[2] == 'N' && header[3] == 'G') {
+            return "image/png";
+        }
+        if (read >= 6 && header[0] == 'G' && header[1] == 'I' && header[2] == 'F') {
+            return "image/gif";
+        }
+        if (read >= 12 && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        if (read >= 5 && header[0] == '%' && header[1] == 'P' && header[2] == 'D' && header[3] == 'F') {
+            return "application/pdf";
+        }
+        // ISO base media (MP4, QuickTime); browsers play both as video/mp4
+        if (read >= 8 && header[4] == 'f' && header[5] == 't' && header[6] == 'y' && header[7] == 'p') {
+            return "video/mp4";
+        }
+        // EBML (WebM, Matroska)
+        if (read >= 4 && (header[0] & 0xFF) == 0x1A && (header[1] & 0xFF) == 0x45
+                && (header[2] & 0xFF) == 0xDF && (header[3] & 0xFF) == 0xA3) {
+            return "video/webm";
+        }
+        if (read >= 6 && new String(header, 0, 6, StandardCharsets.US_ASCII).equals("SIMPLE")) {
+            return "application/fits";
+        }
+        return OCTET_STREAM;
+    }
+
+    // Null when the extension is missing or not one the server recognises
+    public static String forName(String name) {
+        String extension = extensionOf(name);
+        return extension != null ? BY_EXTENSION.get(extension) : null;
+    }
+
+    // A name with an extension may only be served as bytes of the type that extension claims; one
+    // without is served as whatever its bytes are. Unrecognised bytes are sent as an octet-stream
+    // download whatever they are called.
+    public static boolean nameMatches(String name, String sniffed) {
+        return OCTET_STREAM.equals(sniffed) || extensionOf(name) == null || sniffed.equals(forName(name));
+    }
+
+    public static boolean isInline(String contentType) {
+        return INLINE.contains(contentType);
+    }
+
+    private static String extensionOf(String name) {
+        int dot = name != null ? name.lastIndexOf('.') : -1;
+        if (dot < 0 || dot < name.lastIndexOf('/')) {
+            return null;
+        }
+        return name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
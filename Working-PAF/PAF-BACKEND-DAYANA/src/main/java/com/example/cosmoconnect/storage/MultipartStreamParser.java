@@ -0,0 +1,271 @@
+package com.example.cosmoconnect.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Minimal multipart/form-data reader (RFC 7578) that hands out each part as a stream straight off
+// the request body. Nothing is buffered beyond one read buffer, so a file part can be hashed and
+// stored while it is still arriving instead of being spooled to a container temp file first.
+public class MultipartStreamParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean eof;
+    private boolean finished;
+    private PartInputStream current;
+
+    public MultipartStreamParser(InputStream in, String boundary) {
+        if (boundary == null || boundary.isEmpty() || boundary.length() > 70) {
+            throw new IllegalArgumentException("Invalid multipart boundary");
+        }
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        // Pretend the body starts with CRLF so the first boundary looks like every other one
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        limit = 2;
+    }
+
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return null;
+        }
+        for (String param : contentType.split(";")) {
+            String trimmed = param.trim();
+            if (trimmed.toLowerCase(Locale.ROOT).startsWith("boundary=")) {
+                String value = trimmed.substring("boundary=".length());
+                return value.startsWith("\"") && value.endsWith("\"") && value.length() > 1
+                        ? value.substring(1, value.length() - 1) : value;
+            }
+        }
+        return null;
+    }
+
+    // Returns the next part, or null after the closing boundary. Unread data of the previous
+    // part is skipped.
+    public Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (current == null) {
+            // Discard the preamble before the first boundary
+            current = new PartInputStream();
+        }
+        current.skipToEnd();
+
+        // After the delimiter comes either "--" (end of body) or optional whitespace and CRLF
+        if (!ensure(2)) {
+            throw new IOException("Unexpected end of multipart stream");
+        }
+        if (buffer[pos] == '-' && buffer[pos + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        while (ensure(1) && (buffer[pos] == ' ' || buffer[pos] == '\t')) {
+            pos++;
+        }
+        if (!ensure(2) || buffer[pos] != '\r' || buffer[pos + 1] != '\n') {
+            throw new IOException("Malformed multipart boundary line");
+        }
+        pos += 2;
+
+        Map<String, String> headers = readHeaders();
+        current = new PartInputStream();
+        return new Part(headers, current);
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int total = 0;
+        while (true) {
+            if (!ensure(1)) {
+                throw new IOException("Unexpected end of multipart headers");
+            }
+            byte b = buffer[pos++];
+            if (++total > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart part headers too large");
+            }
+            if (b != '\n') {
+                line.write(b);
+                continue;
+            }
+            String text = line.toString(StandardCharsets.UTF_8);
+            line.reset();
+            if (text.endsWith("\r")) {
+                text = text.substring(0, text.length() - 1);
+            }
+            if (text.isEmpty()) {
+                return headers;
+            }
+            int colon = text.indexOf(':');
+            if (colon > 0) {
+                headers.put(text.substring(0, colon).trim().toLowerCase(Locale.ROOT), text.substring(colon + 1).trim());
+            }
+        }
+    }
+
+    // Makes sure at least n unread bytes are buffered; false if the stream ends first
+    private boolean ensure(int n) throws IOException {
+        while (limit - pos < n) {
+            if (eof) {
+                return false;
+            }
+            fill();
+        }
+        return true;
+    }
+
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read == -1) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private int indexOfDelimiter() {
+        byte first = delimiter[0];
+        int last = limit - delimiter.length;
+        outer:
+        for (int i = pos; i <= last; i++) {
+            if (buffer[i] != first) {
+                continue;
+            }
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    public static class Part {
+        private final Map<String, String> headers;
+        private final InputStream body;
+        private final String name;
+        private final String filename;
+
+        Part(Map<String, String> headers, InputStream body) {
+            this.headers = headers;
+            this.body = body;
+            String disposition = headers.getOrDefault("content-disposition", "");
+            this.name = dispositionParam(disposition, "name");
+            this.filename = dispositionParam(disposition, "filename");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // Null for plain form fields
+        public String getFilename() {
+            return filename;
+        }
+
+        public String getContentType() {
+            return headers.get("content-type");
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        public boolean isFile() {
+            return filename != null;
+        }
+
+        public InputStream getInputStream() {
+            return body;
+        }
+
+        private static String dispositionParam(String disposition, String param) {
+            for (String segment : disposition.split(";")) {
+                String trimmed = segment.trim();
+                int eq = trimmed.indexOf('=');
+                if (eq <= 0 || !trimmed.substring(0, eq).trim().equalsIgnoreCase(param)) {
+                    continue;
+                }
+                String value = trimmed.substring(eq + 1).trim();
+                if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                // Browsers may send the full client path on some platforms
+                if (param.equals("filename")) {
+                    value = value.substring(Math.max(value.lastIndexOf('/'), value.lastIndexOf('\\')) + 1);
+                }
+                return value;
+            }
+            return null;
+        }
+    }
+
+    // Reads one part's body, stopping at the next delimiter
+    private class PartInputStream extends InputStream {
+
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (done || current != this) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                int index = indexOfDelimiter();
+                if (index == pos) {
+                    pos += delimiter.length;
+                    done = true;
+                    return -1;
+                }
+                // Bytes that can't be the start of a delimiter are safe to hand out
+                int available = index >= 0 ? index - pos : limit - pos - (delimiter.length - 1);
+                if (available > 0) {
+                    int n = Math.min(len, available);
+                    System.arraycopy(buffer, pos, b, off, n);
+                    pos += n;
+                    return n;
+                }
+                if (eof) {
+                    throw new IOException("Unexpected end of multipart stream");
+                }
+                fill();
+            }
+        }
+
+        void skipToEnd() throws IOException {
+            byte[] scratch = new byte[8192];
+            while (read(scratch, 0, scratch.length) != -1) {
+                // discard
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.cosmoconnect.storage;
+
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+
+// S3 or any S3-compatible server (MinIO etc. via media.store.s3.endpoint with path-style access)
+@Component
+@ConditionalOnProperty(name = "media.store.type", havingValue = "s3")
+@Slf4j
+public class S3MediaStore implements MediaStore {
+
+    @Value("${media.store.s3.endpoint:}")
+    private String endpoint;
+
+    @Value("${media.store.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${media.store.s3.bucket}")
+    private String bucket;
+
+    @Value("${media.store.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${media.store.s3.secret-key:}")
+    private String secretKey;
+
+    @Value("${media.store.s3.path-style:true}")
+    private boolean pathStyle;
+
+    private S3Client client;
+
+    @PostConstruct
+    public void init() {
+        AwsCredentialsProvider credentials = accessKey.isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        client = builder.build();
+
+        try {
+            client.headBucket(b -> b.bucket(bucket));
+        } catch (NoSuchBucketException e) {
+            log.info("Creating media bucket {}", bucket);
+            client.createBucket(b -> b.bucket(bucket));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        client.close();
+    }
+
+    @Override
+    public void put(String key, InputStream content, long size) {
+        client.putObject(b -> b.bucket(bucket).key(key).contentLength(size),
+                RequestBody.fromInputStream(content, size));
+    }
+
+    @Override
+    public void putFile(String key, Path source) {
+        client.putObject(b -> b.bucket(bucket).key(key), RequestBody.fromFile(source));
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) {
+        // "bytes=0--1" is not a range; an empty read needs no request at all
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .range("bytes=" + offset + "-" + (offset + length - 1))
+                .build();
+        try {
+            return client.getObject(request);
+        } catch (NoSuchKeyException e) {
+            throw new ResourceNotFoundException("File not found: " + key);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                throw new ResourceNotFoundException("File not found: " + key);
+            }
+            // 416: the range starts at or past the end, e.g. sniffing the head of an empty object
+            if (e.statusCode() == 416) {
+                return InputStream.nullInputStream();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<MediaObject> stat(String key) {
+        try {
+            HeadObjectResponse head = client.headObject(b -> b.bucket(bucket).key(key));
+            return Optional.of(new MediaObject(key, head.contentLength(), head.lastModified().toEpochMilli()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        client.deleteObject(b -> b.bucket(bucket).key(key));
+    }
+
+    @Override
+    public void list(String prefix, MediaVisitor visitor) throws IOException {
+        // The paginator fetches the next page of up to 1000 keys only when the previous one is used up
+        for (S3Object object : client.listObjectsV2Paginator(b -> b.bucket(bucket).prefix(prefix)).contents()) {
+            visitor.visit(new MediaObject(object.key(), object.size(), object.lastModified().toEpochMilli()));
+        }
+    }
+
+    @Override
+    public void move(String from, String to) {
+        client.copyObject(b -> b.sourceBucket(bucket).sourceKey(from).destinationBucket(bucket).destinationKey(to));
+        client.deleteObject(b -> b.bucket(bucket).key(from));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.cosmoconnect.storage;
+
+import com.example.cosmoconnect.exception.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Fails as soon as more than maxBytes have been read, so oversized uploads are cut off mid-stream
+public class SizeLimitInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private final String description;
+    private long count;
+
+    public SizeLimitInputStream(InputStream in, long maxBytes, String description) {
+        super(in);
+        this.maxBytes = maxBytes;
+        this.description = description;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            advance(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    private void advance(long bytes) {
+        count += bytes;
+        if (count > maxBytes) {
+            throw new PayloadTooLargeException(description + " exceeds the limit of " + maxBytes + " bytes");
+        }
+    }
+}
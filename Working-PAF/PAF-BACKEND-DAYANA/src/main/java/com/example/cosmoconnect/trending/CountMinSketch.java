@@ -0,0 +1,93 @@
+package com.example.cosmoconnect.trending;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Fixed-size frequency table: depth rows of width counters, each key hashed once per row. An
+// estimate is the smallest of its counters, so it never undercounts and overcounts by at most
+// about total / width with probability 1 - 2^-depth. Memory is independent of the number of keys.
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final int[] counts; // row-major, depth * width
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counts = new int[depth * width];
+    }
+
+    private CountMinSketch(int depth, int width, int[] counts) {
+        this.depth = depth;
+        this.width = width;
+        this.counts = counts;
+    }
+
+    public static CountMinSketch of(int depth, int width, int[] counts) {
+        if (counts.length != depth * width) {
+            throw new IllegalArgumentException("Expected " + depth * width + " counters, got " + counts.length);
+        }
+        return new CountMinSketch(depth, width, counts.clone());
+    }
+
+    // Adds count to key and returns its new estimate
+    public int add(String key, int count) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + Math.floorMod(h1 + row * h2, width);
+            counts[index] += count;
+            estimate = Math.min(estimate, counts[index]);
+        }
+        return estimate;
+    }
+
+    public int estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row * width + Math.floorMod(h1 + row * h2, width)]);
+        }
+        return estimate;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int[] counts() {
+        return counts.clone();
+    }
+
+    // 64-bit FNV-1a with a murmur finaliser; the halves drive double hashing across rows
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        // An odd step visits distinct columns in every row when width is a power of two
+        return hash | (1L << 32);
+    }
+}
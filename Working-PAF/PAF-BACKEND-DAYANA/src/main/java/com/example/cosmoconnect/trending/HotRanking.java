@@ -0,0 +1,88 @@
+package com.example.cosmoconnect.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Posts ordered by hot score, highest first, in a concurrent skip list. The score is engagement
+// decayed exponentially with age, written in log form so it no longer depends on the current time:
+//
+//   ln(1 + likes + 2 * comments) + createdAt * ln 2 / halfLife
+//
+// Ranking by engagement * 2^(-age / halfLife) ranks identically, since "now" is the same for every
+// post. Scores therefore only change on engagement, and the order never needs re-sorting as time
+// passes: an update is one remove and one insert, and a page is a walk from the cursor.
+public final class HotRanking {
+
+    public record Entry(String postId, double score) {
+    }
+
+    // Highest score first; ids break ties so paging is stable
+    public static final Comparator<Entry> ORDER =
+            Comparator.comparingDouble(Entry::score).reversed().thenComparing(Entry::postId);
+
+    private final ConcurrentSkipListSet<Entry> order = new ConcurrentSkipListSet<>(ORDER);
+    private final ConcurrentHashMap<String, Entry> byId = new ConcurrentHashMap<>();
+
+    public static double score(int likes, long comments, long createdEpochSecond, double halfLifeHours) {
+        return Math.log(1 + likes + 2.0 * comments) + createdEpochSecond * Math.log(2) / (halfLifeHours * 3600);
+    }
+
+    public void put(String postId, double score) {
+        byId.compute(postId, (id, previous) -> {
+            if (previous != null) {
+                order.remove(previous);
+            }
+            Entry entry = new Entry(id, score);
+            order.add(entry);
+            return entry;
+        });
+    }
+
+    public void remove(String postId) {
+        byId.computeIfPresent(postId, (id, previous) -> {
+            order.remove(previous);
+            return null;
+        });
+    }
+
+    public Double scoreOf(String postId) {
+        Entry entry = byId.get(postId);
+        return entry != null ? entry.score() : null;
+    }
+
+    // Up to limit entries ranked after the given one (from the top when null)
+    public List<Entry> page(Entry after, int limit) {
+        NavigableSet<Entry> view = after == null ? order : order.tailSet(after, false);
+        List<Entry> page = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Entry> iterator = view.iterator();
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    // Drops every entry scoring below floor, walking up from the bottom; returns how many went
+    public int pruneBelow(double floor) {
+        int removed = 0;
+        Iterator<Entry> iterator = order.descendingIterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.score() >= floor) {
+                break;
+            }
+            byId.remove(entry.postId(), entry);
+            iterator.remove();
+            removed++;
+        }
+        return removed;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.cosmoconnect.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Approximate most-frequent keys over the last N hours. Each hour has its own count-min sketch and a
+// small set of candidate keys (the heaviest seen that hour), kept in a ring so the oldest hour is
+// dropped by clearing one bucket. The window's top keys are the union of the candidates, scored by
+// summing their sketch estimates over the live hours; the ranking is cached until the next add or
+// hour change, so reads between posts cost a list copy.
+public final class SlidingWindowHeavyHitters {
+
+    public record Count(String key, long count) {
+    }
+
+    // One hour as persisted: its counters and candidate keys with their estimates
+    public record BucketState(long hour, int[] counts, Map<String, Integer> candidates) {
+    }
+
+    private final int depth;
+    private final int width;
+    private final int candidatesPerHour;
+    private final Bucket[] buckets;
+
+    private List<Count> ranking;
+    private long rankedHour = Long.MIN_VALUE;
+
+    public SlidingWindowHeavyHitters(int hours, int candidatesPerHour, int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.candidatesPerHour = candidatesPerHour;
+        this.buckets = new Bucket[hours];
+        for (int i = 0; i < hours; i++) {
+            buckets[i] = new Bucket(new CountMinSketch(depth, width));
+        }
+    }
+
+    public int hours() {
+        return buckets.length;
+    }
+
+    // Counts one occurrence of key in the given hour (epoch hours); hours already out of the ring are ignored
+    public synchronized void add(String key, long hour) {
+        Bucket bucket = bucketFor(hour);
+        if (bucket == null) {
+            return;
+        }
+        int estimate = bucket.sketch.add(key, 1);
+        bucket.offer(key, estimate, candidatesPerHour);
+        ranking = null;
+    }
+
+    public synchronized List<Count> top(int limit, long nowHour) {
+        if (ranking == null || rankedHour != nowHour) {
+            ranking = rank(nowHour);
+            rankedHour = nowHour;
+        }
+        return List.copyOf(ranking.subList(0, Math.min(limit, ranking.size())));
+    }
+
+    public synchronized List<BucketState> snapshot() {
+        List<BucketState> states = new ArrayList<>();
+        for (Bucket bucket : buckets) {
+            if (bucket.hour != Long.MIN_VALUE) {
+                states.add(new BucketState(bucket.hour, bucket.sketch.counts(), new HashMap<>(bucket.candidates)));
+            }
+        }
+        return states;
+    }
+
+    // Replaces current contents with a snapshot, skipping hours that have since left the window
+    public synchronized void restore(List<BucketState> states, long nowHour) {
+        for (Bucket bucket : buckets) {
+            bucket.reset(Long.MIN_VALUE);
+        }
+        for (BucketState state : states) {
+            if (state.hour() <= nowHour - buckets.length || state.hour() > nowHour
+                    || state.counts().length != depth * width) {
+                continue;
+            }
+            Bucket bucket = buckets[slot(state.hour())];
+            if (bucket.hour >= state.hour()) {
+                continue;
+            }
+            bucket.hour = state.hour();
+            bucket.sketch = CountMinSketch.of(depth, width, state.counts());
+            bucket.candidates.clear();
+            bucket.candidates.putAll(state.candidates());
+        }
+        ranking = null;
+    }
+
+    private Bucket bucketFor(long hour) {
+        Bucket bucket = buckets[slot(hour)];
+        if (bucket.hour == hour) {
+            return bucket;
+        }
+        if (bucket.hour > hour) {
+            return null; // the slot already belongs to a newer hour
+        }
+        bucket.reset(hour);
+        return bucket;
+    }
+
+    private List<Count> rank(long nowHour) {
+        List<Bucket> live = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+        for (Bucket bucket : buckets) {
+            if (bucket.hour > nowHour - buckets.length && bucket.hour <= nowHour) {
+                live.add(bucket);
+                keys.addAll(bucket.candidates.keySet());
+            }
+        }
+        List<Count> counts = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            long total = 0;
+            for (Bucket bucket : live) {
+                total += bucket.sketch.estimate(key);
+            }
+            counts.add(new Count(key, total));
+        }
+        counts.sort(Comparator.comparingLong(Count::count).reversed().thenComparing(Count::key));
+        return counts;
+    }
+
+    private int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) buckets.length);
+    }
+
+    private static final class Bucket {
+        private long hour = Long.MIN_VALUE;
+        private CountMinSketch sketch;
+        private final Map<String, Integer> candidates = new HashMap<>();
+
+        private Bucket(CountMinSketch sketch) {
+            this.sketch = sketch;
+        }
+
+        private void reset(long newHour) {
+            hour = newHour;
+            sketch.clear();
+            candidates.clear();
+        }
+
+        // Keeps the heaviest keys of the hour; a newcomer displaces the lightest once it outweighs it
+        private void offer(String key, int estimate, int capacity) {
+            if (candidates.containsKey(key) || candidates.size() < capacity) {
+                candidates.put(key, estimate);
+                return;
+            }
+            String lightest = null;
+            int lightestCount = Integer.MAX_VALUE;
+            for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+                if (candidate.getValue() < lightestCount) {
+                    lightest = candidate.getKey();
+                    lightestCount = candidate.getValue();
+                }
+            }
+            if (estimate > lightestCount) {
+                candidates.remove(lightest);
+                candidates.put(key, estimate);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.cosmoconnect.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CelestialCatalogTest {
+
+    private CelestialCatalog catalog;
+
+    @BeforeEach
+    void loadBundledCatalog() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/catalog/celestial-objects.tsv")) {
+            catalog = CelestialCatalog.load(in);
+        }
+    }
+
+    @Test
+    void resolvesNamesAliasesAndSpellings() {
+        assertEquals("m31", idOf("Andromeda Galaxy"));
+        assertEquals("m31", idOf("M 31"));
+        assertEquals("m31", idOf("messier-031"));
+        assertEquals("m31", idOf("NGC 224"));
+        assertEquals("m31", idOf("ngc0224"));
+        assertEquals("moon", idOf("the moon"));
+        assertEquals("moon", idOf("LUNA"));
+    }
+
+    @Test
+    void resolvesOneOfSeveralParts() {
+        assertEquals("m31", idOf("My first try (M31)"));
+        assertEquals("m42", idOf("M42 / Orion"));
+    }
+
+    @Test
+    void unlistedNgcAndIcNumbersStillGroup() {
+        assertEquals("ngc7331", idOf("NGC 7331"));
+        assertEquals("NGC 7331", catalog.resolve("ngc7331").orElseThrow().name());
+        assertEquals("ic1396", catalog.byId("ic1396").orElseThrow().id());
+        assertFalse(catalog.resolve("NGC 9999").isPresent());
+        assertFalse(catalog.resolve("IC 0").isPresent());
+        assertFalse(catalog.resolve("my backyard").isPresent());
+        assertFalse(catalog.resolve("  ").isPresent());
+    }
+
+    @Test
+    void suggestsMostPopularFirst() {
+        List<CatalogEntry> suggestions = catalog.suggest("m", 5);
+
+        assertEquals(5, suggestions.size());
+        assertEquals("moon", suggestions.get(0).id());
+        assertEquals("mars", suggestions.get(1).id());
+        assertTrue(catalog.suggest("andro", 10).stream().anyMatch(entry -> entry.id().equals("m31")));
+        assertEquals("ngc7331", catalog.suggest("NGC 7331", 3).get(0).id());
+        assertTrue(catalog.suggest("", 5).isEmpty());
+        assertTrue(catalog.suggest("zzzz", 5).isEmpty());
+    }
+
+    @Test
+    void normalisesToLettersAndDigits() {
+        assertEquals("m31", CelestialCatalog.normalize("M-31"));
+        assertEquals("barnardsloop", CelestialCatalog.normalize("Barnard's Loop"));
+        assertEquals("cafe", CelestialCatalog.normalize("Caf\u00e9"));
+    }
+
+    @Test
+    void rejectsMalformedLines() {
+        byte[] bad = "m31\tAndromeda\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> CelestialCatalog.load(new ByteArrayInputStream(bad)));
+    }
+
+    private String idOf(String text) {
+        return catalog.resolve(text).map(CatalogEntry::id).orElse(null);
+    }
+}
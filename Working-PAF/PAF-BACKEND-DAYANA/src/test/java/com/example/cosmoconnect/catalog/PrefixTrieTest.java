@@ -0,0 +1,84 @@
+package com.example.cosmoconnect.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrefixTrieTest {
+
+    @Test
+    void emptyTrieHasOnlyTheRoot() {
+        PrefixTrie trie = PrefixTrie.builder(5).build();
+
+        assertEquals(1, trie.nodeCount());
+        assertArrayEquals(new int[0], trie.get("m31"));
+        assertArrayEquals(new int[0], trie.prefix(""));
+    }
+
+    @Test
+    void keepsTheLowestValuesBelowEachPrefix() {
+        PrefixTrie trie = PrefixTrie.builder(3)
+                .add("m31", 4)
+                .add("m33", 9)
+                .add("m3", 7)
+                .add("m3", 7)
+                .add("m42", 1)
+                .add("moon", 0)
+                .add("m31", 2)
+                .build();
+
+        assertArrayEquals(new int[]{2, 4}, trie.get("m31"));
+        assertArrayEquals(new int[]{7}, trie.get("m3"));
+        assertArrayEquals(new int[0], trie.get("m"));
+        assertArrayEquals(new int[]{2, 4, 7}, trie.prefix("m3"));
+        assertArrayEquals(new int[]{0, 1, 2}, trie.prefix("m"));
+        assertArrayEquals(new int[]{0, 1, 2}, trie.prefix(""));
+        assertArrayEquals(new int[0], trie.prefix("m5"));
+    }
+
+    // Random keys over a small alphabet share long prefixes; every prefix is checked against a scan
+    @Test
+    void matchesABruteForceScan() {
+        Random random = new Random(3);
+        int topSize = 8;
+        Map<String, TreeSet<Integer>> keys = new TreeMap<>();
+        PrefixTrie.Builder builder = PrefixTrie.builder(topSize);
+        for (int i = 0; i < 3_000; i++) {
+            StringBuilder key = new StringBuilder();
+            for (int length = 1 + random.nextInt(6); length > 0; length--) {
+                key.append("abcd12".charAt(random.nextInt(6)));
+            }
+            int value = random.nextInt(1_000);
+            builder.add(key.toString(), value);
+            keys.computeIfAbsent(key.toString(), k -> new TreeSet<>()).add(value);
+        }
+        PrefixTrie trie = builder.build();
+
+        List<String> prefixes = new ArrayList<>(List.of(""));
+        for (String key : keys.keySet()) {
+            for (int end = 1; end <= key.length(); end++) {
+                prefixes.add(key.substring(0, end));
+            }
+        }
+        for (String prefix : prefixes) {
+            TreeSet<Integer> below = new TreeSet<>();
+            keys.forEach((key, values) -> {
+                if (key.startsWith(prefix)) {
+                    below.addAll(values);
+                }
+            });
+            int[] expected = below.stream().limit(topSize).mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(expected, trie.prefix(prefix));
+            int[] exact = keys.getOrDefault(prefix, new TreeSet<>()).stream().mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(exact, trie.get(prefix));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.cosmoconnect.fits;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FitsReaderTest {
+
+    @Test
+    void readsPrimaryHeaderValues() throws IOException {
+        byte[] file = fits(
+                "SIMPLE  =                    T / conforms to FITS standard",
+                "BITPIX  =                   16",
+                "NAXIS   =                    2",
+                "NAXIS1  =                  640",
+                "NAXIS2  =                  480",
+                "OBJECT  = 'M 42    '           / Orion Nebula",
+                "OBSERVER= 'O''Brien'",
+                "EXPTIME =              1.2D+02",
+                "COMMENT   taken from the back garden",
+                "OBJECT  = 'ignored duplicate'",
+                "END");
+
+        FitsHeader header = FitsReader.readHeader(new ByteArrayInputStream(file));
+
+        assertEquals("M 42", header.getString("OBJECT"));
+        assertEquals("O'Brien", header.getString("OBSERVER"));
+        assertEquals(120.0, header.getDouble("EXPTIME"), 1e-9);
+        assertEquals(16, header.getBitpix());
+        assertEquals(640, header.getAxis(1));
+        assertEquals(640L * 480 * 2, header.getDataSize());
+        assertEquals(FitsReader.BLOCK_SIZE, header.getDataOffset());
+        assertFalse(header.getValues().containsKey("COMMENT"));
+        assertNull(header.getString("TELESCOP"));
+    }
+
+    // 40 cards fill more than one block, so the data starts after two
+    @Test
+    void headersSpanningBlocksReadTheSameFromFilesAndStreams() throws IOException {
+        String[] cards = new String[41];
+        cards[0] = "SIMPLE  =                    T";
+        for (int i = 1; i < 40; i++) {
+            cards[i] = String.format("KEY%-5d= %20d", i, i);
+        }
+        cards[40] = "END";
+        byte[] file = fits(cards);
+
+        Path path = Files.createTempFile("header", ".fits");
+        try {
+            Files.write(path, file);
+            FitsHeader fromFile;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                fromFile = FitsReader.readHeader(channel);
+            }
+            FitsHeader fromStream = FitsReader.readHeader(new ByteArrayInputStream(file));
+
+            assertEquals(2L * FitsReader.BLOCK_SIZE, fromFile.getDataOffset());
+            assertEquals(fromFile.getValues(), fromStream.getValues());
+            assertEquals("39", fromFile.getString("KEY39"));
+            assertEquals(0, fromFile.getDataSize());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotFits() {
+        byte[] notSimple = fits("SIMPLE  =                    F", "END");
+        byte[] png = new byte[FitsReader.BLOCK_SIZE];
+        png[1] = 'P';
+
+        assertThrows(IOException.class, () -> FitsReader.readHeader(new ByteArrayInputStream(notSimple)));
+        assertThrows(IOException.class, () -> FitsReader.readHeader(new ByteArrayInputStream(png)));
+    }
+
+    @Test
+    void rejectsHeadersWithoutEnd() {
+        byte[] truncated = fits("SIMPLE  =                    T", "BITPIX  =                    8");
+
+        assertThrows(IOException.class, () -> FitsReader.readHeader(new ByteArrayInputStream(truncated)));
+    }
+
+    @Test
+    void recognisesFitsNames() {
+        assertTrue(FitsReader.isFitsName("m31.FITS"));
+        assertTrue(FitsReader.isFitsName("light_001.fit"));
+        assertTrue(FitsReader.isFitsName("flat.fts"));
+        assertFalse(FitsReader.isFitsName("m31.fits.png"));
+        assertFalse(FitsReader.isFitsName(null));
+    }
+
+    @Test
+    void parsesCardValues() {
+        assertEquals("T", FitsReader.valueOf(card("SIMPLE  =                    T / comment")));
+        assertEquals("a/b", FitsReader.valueOf(card("PATH    = 'a/b' / slash inside quotes")));
+        assertEquals("", FitsReader.valueOf(card("EMPTY   = ''")));
+    }
+
+    // Pads each card to 80 characters and the header to whole 2880-byte blocks
+    private static byte[] fits(String... cards) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String card : cards) {
+            out.writeBytes(card(card).getBytes(StandardCharsets.US_ASCII));
+        }
+        while (out.size() % FitsReader.BLOCK_SIZE != 0) {
+            out.write(' ');
+        }
+        return out.toByteArray();
+    }
+
+    private static String card(String text) {
+        return String.format("%-80s", text);
+    }
+}
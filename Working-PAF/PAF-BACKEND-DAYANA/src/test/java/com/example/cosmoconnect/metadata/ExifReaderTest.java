@@ -0,0 +1,207 @@
+package com.example.cosmoconnect.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExifReaderTest {
+
+    private static final int ASCII = 2;
+    private static final int SHORT = 3;
+    private static final int LONG = 4;
+    private static final int RATIONAL = 5;
+
+    @Test
+    void readsCameraSettingsAndLocation() throws IOException {
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+            ExifData data = ExifReader.read(new ByteArrayInputStream(jpeg(app1(exif(order)))));
+
+            assertEquals("Canon", data.getMake());
+            assertEquals("Canon EOS Ra", data.getModel());
+            assertEquals(1.0 / 250, data.getExposureSeconds(), 1e-12);
+            assertEquals("1/250", data.getExposureText());
+            assertEquals(2.8, data.getFNumber(), 1e-12);
+            assertEquals(1600, data.getIso());
+            assertEquals(LocalDateTime.of(2024, 3, 9, 21, 14, 5), data.getCapturedAt());
+            assertEquals(-(33 + 52 / 60.0 + 30 / 3600.0), data.getLatitude(), 1e-9);
+            assertEquals(-(70 + 24 / 60.0), data.getLongitude(), 1e-9);
+            assertEquals("EXIF", data.getSource());
+        }
+    }
+
+    @Test
+    void xmpOnlyFillsWhatExifLacks() throws IOException {
+        String xmp = "http://ns.adobe.com/xap/1.0/\0<x:xmpmeta><rdf:Description tiff:Make=\"Nikon\""
+                + " aux:Lens=\"Samyang 135mm f/2\" exif:FNumber=\"20/10\"><exif:ISOSpeedRatings><rdf:Seq><rdf:li>800"
+                + "</rdf:li></rdf:Seq></exif:ISOSpeedRatings><exif:ExposureTime>30/1</exif:ExposureTime>"
+                + "</rdf:Description></x:xmpmeta>";
+        ExifData data = ExifReader.read(new ByteArrayInputStream(
+                jpeg(app1(exif(ByteOrder.BIG_ENDIAN)), app1(xmp.getBytes(StandardCharsets.UTF_8)))));
+
+        assertEquals("Canon", data.getMake());
+        assertEquals("Samyang 135mm f/2", data.getLens());
+        assertEquals(2.8, data.getFNumber(), 1e-12);
+        assertEquals(1600, data.getIso());
+        assertEquals("EXIF+XMP", data.getSource());
+
+        ExifData xmpOnly = ExifReader.read(new ByteArrayInputStream(jpeg(app1(xmp.getBytes(StandardCharsets.UTF_8)))));
+        assertEquals("Nikon", xmpOnly.getMake());
+        assertEquals(800, xmpOnly.getIso());
+        assertEquals(30.0, xmpOnly.getExposureSeconds(), 1e-12);
+        assertEquals("XMP", xmpOnly.getSource());
+    }
+
+    @Test
+    void stopsAtStartOfScan() throws IOException {
+        byte[] scan = {(byte) 0xFF, (byte) 0xDA, 0, 2};
+        byte[] file = concat(jpeg(), scan, app1(exif(ByteOrder.BIG_ENDIAN)));
+
+        ExifData data = ExifReader.read(new ByteArrayInputStream(file));
+        assertNotNull(data);
+        assertTrue(data.isEmpty());
+        assertNull(data.getSource());
+    }
+
+    @Test
+    void ignoresNonJpegsAndDamagedSegments() throws IOException {
+        assertNull(ExifReader.read(new ByteArrayInputStream("\u0089PNG".getBytes(StandardCharsets.ISO_8859_1))));
+
+        // IFD offsets pointing past the segment must not throw
+        byte[] broken = exif(ByteOrder.BIG_ENDIAN);
+        broken[4 + 6] = 0x7F;
+        ExifData data = ExifReader.read(new ByteArrayInputStream(jpeg(app1(broken))));
+        assertTrue(data.isEmpty());
+
+        byte[] truncated = jpeg(app1(exif(ByteOrder.BIG_ENDIAN)));
+        ExifData partial = ExifReader.read(new ByteArrayInputStream(truncated, 0, truncated.length - 40));
+        assertTrue(partial.isEmpty());
+    }
+
+    @Test
+    void recognisesJpegNames() {
+        assertTrue(ExifReader.isJpegName("IMG_0001.JPG"));
+        assertTrue(ExifReader.isJpegName("m42.jpeg"));
+        assertFalse(ExifReader.isJpegName("m42.png"));
+        assertFalse(ExifReader.isJpegName(null));
+    }
+
+    // "Exif\0\0" followed by a TIFF structure with IFD0, an EXIF IFD and a GPS IFD
+    private static byte[] exif(ByteOrder order) {
+        int ifd0 = 8;
+        int exifIfd = ifd0 + ifdSize(4);
+        int gpsIfd = exifIfd + ifdSize(4);
+        Tiff tiff = new Tiff(order, gpsIfd + ifdSize(4));
+        tiff.ifd(ifd0, 4);
+        tiff.ascii(0x010F, "Canon");
+        tiff.ascii(0x0110, "Canon EOS Ra");
+        tiff.entry(0x8769, LONG, 1, exifIfd);
+        tiff.entry(0x8825, LONG, 1, gpsIfd);
+        tiff.ifd(exifIfd, 4);
+        tiff.rationals(0x829A, 1, 250);
+        tiff.rationals(0x829D, 28, 10);
+        tiff.entry(0x8827, SHORT, 1, 1600);
+        tiff.ascii(0x9003, "2024:03:09 21:14:05");
+        tiff.ifd(gpsIfd, 4);
+        tiff.ascii(1, "S");
+        tiff.rationals(2, 33, 1, 52, 1, 30, 1);
+        tiff.ascii(3, "W");
+        tiff.rationals(4, 70, 1, 24, 1, 0, 1);
+        return concat("Exif\0\0".getBytes(StandardCharsets.US_ASCII), tiff.bytes());
+    }
+
+    private static int ifdSize(int entries) {
+        return 2 + entries * 12 + 4;
+    }
+
+    private static byte[] app1(byte[] payload) {
+        int length = payload.length + 2;
+        return concat(new byte[]{(byte) 0xFF, (byte) 0xE1, (byte) (length >> 8), (byte) length}, payload);
+    }
+
+    private static byte[] jpeg(byte[]... segments) {
+        byte[] app0 = {(byte) 0xFF, (byte) 0xE0, 0, 4, 0, 0};
+        return concat(new byte[]{(byte) 0xFF, (byte) 0xD8}, app0, concat(segments));
+    }
+
+    private static byte[] concat(byte[]... chunks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            out.writeBytes(chunk);
+        }
+        return out.toByteArray();
+    }
+
+    // Lays out IFDs at fixed offsets, with values that don't fit in an entry appended after dataStart
+    private static final class Tiff {
+        private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        private int entry;
+        private int data;
+
+        Tiff(ByteOrder order, int dataStart) {
+            buffer.order(order);
+            buffer.put(order == ByteOrder.BIG_ENDIAN ? new byte[]{'M', 'M'} : new byte[]{'I', 'I'});
+            buffer.putShort(2, (short) 42);
+            buffer.putInt(4, 8);
+            data = dataStart;
+        }
+
+        void ifd(int offset, int entries) {
+            buffer.putShort(offset, (short) entries);
+            buffer.putInt(offset + 2 + entries * 12, 0);
+            entry = offset + 2;
+        }
+
+        void entry(int tag, int type, int count, int value) {
+            buffer.putShort(entry, (short) tag);
+            buffer.putShort(entry + 2, (short) type);
+            buffer.putInt(entry + 4, count);
+            if (type == SHORT) {
+                buffer.putShort(entry + 8, (short) value);
+            } else {
+                buffer.putInt(entry + 8, value);
+            }
+            entry += 12;
+        }
+
+        void ascii(int tag, String value) {
+            byte[] bytes = (value + "\0").getBytes(StandardCharsets.US_ASCII);
+            if (bytes.length <= 4) {
+                buffer.putShort(entry, (short) tag);
+                buffer.putShort(entry + 2, (short) ASCII);
+                buffer.putInt(entry + 4, bytes.length);
+                buffer.put(entry + 8, bytes);
+                entry += 12;
+                return;
+            }
+            entry(tag, ASCII, bytes.length, data);
+            buffer.put(data, bytes);
+            data += bytes.length;
+        }
+
+        void rationals(int tag, int... parts) {
+            entry(tag, RATIONAL, parts.length / 2, data);
+            for (int part : parts) {
+                buffer.putInt(data, part);
+                data += 4;
+            }
+        }
+
+        byte[] bytes() {
+            byte[] bytes = new byte[data];
+            buffer.get(0, bytes);
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.cosmoconnect.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    // 10 permits a second with a burst of 5
+    private static final long INTERVAL = SECOND / 10;
+    private static final long TOLERANCE = 4 * INTERVAL;
+
+    @Test
+    void allowsABurstThenAsksToWait() {
+        TokenBucket bucket = new TokenBucket(0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(INTERVAL, TOLERANCE, 0), "permit " + i);
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(INTERVAL, TOLERANCE, 0));
+        // A refused request takes nothing
+        assertEquals(INTERVAL, bucket.tryAcquire(INTERVAL, TOLERANCE, 0));
+    }
+
+    @Test
+    void refillsAtTheEmissionRate() {
+        TokenBucket bucket = new TokenBucket(0);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(INTERVAL, TOLERANCE, 0);
+        }
+
+        long now = INTERVAL / 2;
+        assertEquals(INTERVAL / 2, bucket.tryAcquire(INTERVAL, TOLERANCE, now));
+        assertEquals(0, bucket.tryAcquire(INTERVAL, TOLERANCE, INTERVAL));
+        assertTrue(bucket.tryAcquire(INTERVAL, TOLERANCE, INTERVAL) > 0);
+    }
+
+    @Test
+    void sustainedRateMatchesTheInterval() {
+        TokenBucket bucket = new TokenBucket(0);
+        int granted = 0;
+        // Ask every millisecond for ten seconds
+        for (long now = 0; now < 10 * SECOND; now += TimeUnit.MILLISECONDS.toNanos(1)) {
+            if (bucket.tryAcquire(INTERVAL, TOLERANCE, now) == 0) {
+                granted++;
+            }
+        }
+        assertEquals(100 + 4, granted);
+    }
+
+    @Test
+    void idleBucketsCanBeDropped() {
+        TokenBucket bucket = new TokenBucket(0);
+        bucket.tryAcquire(INTERVAL, TOLERANCE, 0);
+
+        assertFalse(bucket.isIdle(INTERVAL, SECOND));
+        assertTrue(bucket.isIdle(INTERVAL + SECOND + 1, SECOND));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryAcquire(INTERVAL, TOLERANCE, 0) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(5, granted.get());
+    }
+}
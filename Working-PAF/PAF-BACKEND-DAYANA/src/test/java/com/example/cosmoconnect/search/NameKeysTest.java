@@ -0,0 +1,45 @@
+package com.example.cosmoconnect.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameKeysTest {
+
+    @Test
+    void everyPrefixOfEveryWordIsAKey() {
+        assertEquals(List.of("a", "ad", "ada", "l", "lo", "lov", "love", "lovel", "lovela", "lovelac",
+                "lovelace"), NameKeys.keysOf("Ada Lovelace"));
+    }
+
+    @Test
+    void foldsAccentsCaseAndApostrophes() {
+        assertEquals(List.of("oneil"), NameKeys.queryKeys("O'Neil"));
+        assertEquals(List.of("jose", "nunez"), NameKeys.queryKeys("Jos\u00e9 N\u00fa\u00f1ez"));
+        assertTrue(NameKeys.keysOf("Jos\u00e9").contains("jose"));
+        // Separators split words, so an email's local part and domain are both searchable
+        assertEquals(List.of("star", "gazer", "example", "com"), NameKeys.queryKeys("star_gazer@example.com"));
+    }
+
+    @Test
+    void longWordsAreCutToTheLongestKey() {
+        String word = "supercalifragilistic";
+        List<String> keys = NameKeys.keysOf(word);
+
+        assertEquals(NameKeys.MAX_PREFIX, keys.size());
+        assertEquals(word.substring(0, NameKeys.MAX_PREFIX), keys.get(keys.size() - 1));
+        // The query for the whole word still matches the stored key
+        assertTrue(keys.containsAll(NameKeys.queryKeys(word)));
+    }
+
+    @Test
+    void duplicatesAndEmptyInputCollapse() {
+        assertEquals(List.of("m", "ma", "mar", "mars"), NameKeys.keysOf("Mars", "mars", null));
+        assertEquals(List.of("mars"), NameKeys.queryKeys("mars MARS  -- "));
+        assertTrue(NameKeys.queryKeys("  '' ").isEmpty());
+        assertTrue(NameKeys.keysOf((String) null).isEmpty());
+    }
+}
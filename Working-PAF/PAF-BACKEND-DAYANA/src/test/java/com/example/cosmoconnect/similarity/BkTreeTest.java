@@ -0,0 +1,75 @@
+package com.example.cosmoconnect.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BkTreeTest {
+
+    @Test
+    void emptyTreeFindsNothing() {
+        BkTree<String> tree = new BkTree<>();
+
+        assertTrue(tree.search(0L, 64).isEmpty());
+        assertEquals(0, tree.size());
+    }
+
+    @Test
+    void identicalHashesShareANode() {
+        BkTree<String> tree = new BkTree<>();
+        tree.add(0b1011L, "a");
+        tree.add(0b1011L, "b");
+        tree.add(0b1000L, "c");
+
+        assertEquals(3, tree.size());
+        List<BkTree.Match<String>> exact = tree.search(0b1011L, 0);
+        assertEquals(List.of("a", "b"), exact.stream().map(BkTree.Match::value).sorted().toList());
+        List<BkTree.Match<String>> near = tree.search(0b1011L, 2);
+        assertEquals(3, near.size());
+        assertEquals(2, near.stream().filter(match -> match.value().equals("c")).findFirst().orElseThrow().distance());
+    }
+
+    // Clustered hashes, like near-duplicate images, against a linear scan for every radius in use
+    @Test
+    void searchMatchesALinearScan() {
+        Random random = new Random(11);
+        List<Long> hashes = new ArrayList<>();
+        BkTree<Integer> tree = new BkTree<>();
+        long[] centres = new long[40];
+        for (int i = 0; i < centres.length; i++) {
+            centres[i] = random.nextLong();
+        }
+        for (int i = 0; i < 5_000; i++) {
+            long hash = centres[random.nextInt(centres.length)];
+            for (int flips = random.nextInt(12); flips > 0; flips--) {
+                hash ^= 1L << random.nextInt(64);
+            }
+            hashes.add(hash);
+            tree.add(hash, i);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            long probe = query % 2 == 0 ? hashes.get(random.nextInt(hashes.size())) : random.nextLong();
+            for (int radius : new int[]{0, 4, 10, 16}) {
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < hashes.size(); i++) {
+                    if (PerceptualHash.distance(probe, hashes.get(i)) <= radius) {
+                        expected.add(i);
+                    }
+                }
+                List<BkTree.Match<Integer>> matches = new ArrayList<>(tree.search(probe, radius));
+                matches.sort(Comparator.comparing(BkTree.Match::value));
+                assertEquals(expected, matches.stream().map(BkTree.Match::value).toList());
+                for (BkTree.Match<Integer> match : matches) {
+                    assertEquals(PerceptualHash.distance(probe, match.hash()), match.distance());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.cosmoconnect.similarity;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PerceptualHashTest {
+
+    @Test
+    void distanceCountsDifferingBits() {
+        assertEquals(0, PerceptualHash.distance(0x1234L, 0x1234L));
+        assertEquals(64, PerceptualHash.distance(0L, -1L));
+        assertEquals(2, PerceptualHash.distance(0b1010L, 0b0110L));
+    }
+
+    // Brightness rising to the right sets every bit; falling clears them all
+    @Test
+    void hashesFollowHorizontalGradients() {
+        assertEquals(-1L, PerceptualHash.dHash(gradient(90, 80, true)));
+        assertEquals(0L, PerceptualHash.dHash(gradient(90, 80, false)));
+    }
+
+    @Test
+    void resizedAndReencodedCopiesStayClose() throws IOException {
+        BufferedImage original = scene(640, 480, 3);
+        long hash = PerceptualHash.dHash(original);
+
+        BufferedImage smaller = resize(original, 200, 150);
+        assertTrue(PerceptualHash.distance(hash, PerceptualHash.dHash(smaller)) <= 6);
+        Long fromJpeg = PerceptualHash.hash(new ByteArrayInputStream(encode(original, "jpg")));
+        assertTrue(PerceptualHash.distance(hash, fromJpeg) <= 6);
+        // Lossless, but decoded at half size
+        Long fromPng = PerceptualHash.hash(new ByteArrayInputStream(encode(original, "png")));
+        assertTrue(PerceptualHash.distance(hash, fromPng) <= 4);
+
+        long other = PerceptualHash.dHash(scene(640, 480, 99));
+        assertTrue(PerceptualHash.distance(hash, other) > 12);
+    }
+
+    // Wide images are decoded subsampled; the hash must still match the full decode closely
+    @Test
+    void subsampledDecodeKeepsTheHash() throws IOException {
+        BufferedImage wide = scene(2048, 1024, 5);
+
+        Long decoded = PerceptualHash.hash(new ByteArrayInputStream(encode(wide, "png")));
+        assertTrue(PerceptualHash.distance(PerceptualHash.dHash(wide), decoded) <= 4);
+    }
+
+    @Test
+    void unreadableStreamsHaveNoHash() throws IOException {
+        assertNull(PerceptualHash.hash(new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static BufferedImage gradient(int width, int height, boolean rising) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            int grey = rising ? x * 255 / width : 255 - x * 255 / width;
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, new Color(grey, grey, grey).getRGB());
+            }
+        }
+        return image;
+    }
+
+    // Random bright blobs on a dark sky
+    private static BufferedImage scene(int width, int height, long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, width, height);
+        for (int i = 0; i < 12; i++) {
+            int size = width / 8 + random.nextInt(width / 4);
+            g.setColor(new Color(80 + random.nextInt(175), 80 + random.nextInt(175), 80 + random.nextInt(175)));
+            g.fillOval(random.nextInt(width), random.nextInt(height), size, size);
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, width, height, null);
+        g.dispose();
+        return resized;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
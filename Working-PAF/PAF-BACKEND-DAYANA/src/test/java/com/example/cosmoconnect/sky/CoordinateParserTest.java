@@ -0,0 +1,68 @@
+package com.example.cosmoconnect.sky;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class CoordinateParserTest {
+
+    private static final double EPSILON = 1e-6;
+
+    // M42: RA 05h35m17.3s = 83.822083 deg, Dec -05d23m28s = -5.391111 deg
+    private static final double M42_RA = 83.822083;
+    private static final double M42_DEC = -5.391111;
+
+    @Test
+    void readsSexagesimalWithUnitMarks() {
+        assertAt("05h35m17.3s -05d23m28s", M42_RA, M42_DEC);
+        assertAt("RA 5h 35m 17.3s, Dec -5\u00b0 23' 28\"", M42_RA, M42_DEC);
+        assertAt("00h42m44.3s +41 16' 09\"", 10.684583, 41.269167);
+        assertAt("\u03b1 05h35m17.3s \u03b4 \u221205\u00b023\u203228\u2033", M42_RA, M42_DEC);
+    }
+
+    @Test
+    void readsColonAndSpaceSeparatedValues() {
+        assertAt("05:35:17.3 -05:23:28", M42_RA, M42_DEC);
+        assertAt("J2000 05 35 17.3 -05 23 28", M42_RA, M42_DEC);
+        assertAt("RA: 00:42:44.3 Dec: 41:16:09", 10.684583, 41.269167);
+    }
+
+    @Test
+    void readsDecimalDegrees() {
+        assertAt("83.82 -5.39", 83.82, -5.39);
+        assertAt("ra=10.6847, dec=41.2692", 10.6847, 41.2692);
+        assertAt("83.82d -5.39d", 83.82, -5.39);
+    }
+
+    // The sign belongs to the whole declination, not just the degrees
+    @Test
+    void keepsTheSignOfSmallDeclinations() {
+        assertAt("12 00 00 -00 30 00", 180.0, -0.5);
+        assertAt("12h00m00s -00d30m00s", 180.0, -0.5);
+    }
+
+    @Test
+    void rejectsTextThatIsNotACoordinate() {
+        assertInvalid(null);
+        assertInvalid("");
+        assertInvalid("near the Orion belt");
+        assertInvalid("83.82");
+        assertInvalid("25h00m00s +10d00m00s");
+        assertInvalid("360.5 10");
+        assertInvalid("10 95");
+        assertInvalid("05h61m00s +10d00m00s");
+        assertInvalid("-10 20");
+        assertInvalid("1 2 3 4 5 6 7");
+    }
+
+    private static void assertAt(String text, double ra, double dec) {
+        SkyCoordinate coordinate = CoordinateParser.parse(text).orElseThrow(() -> new AssertionError("unparsed: " + text));
+        assertEquals(ra, coordinate.ra(), EPSILON, text);
+        assertEquals(dec, coordinate.dec(), EPSILON, text);
+    }
+
+    private static void assertInvalid(String text) {
+        assertFalse(CoordinateParser.parse(text).isPresent(), String.valueOf(text));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cosmoconnect.sky;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkyZonesTest {
+
+    @Test
+    void separationMatchesKnownAngles() {
+        assertEquals(0, SkyZones.separation(10, 20, 10, 20), 1e-12);
+        assertEquals(90, SkyZones.separation(0, 0, 90, 0), 1e-9);
+        assertEquals(180, SkyZones.separation(0, 90, 0, -90), 1e-9);
+        // Across RA 0 and at high declination
+        assertEquals(2, SkyZones.separation(359, 0, 1, 0), 1e-9);
+        assertEquals(1, SkyZones.separation(0, 89.5, 180, 89.5), 1e-9);
+        assertEquals(1.0 / 3600, SkyZones.separation(83.8, -5.39, 83.8, -5.39 + 1.0 / 3600), 1e-12);
+    }
+
+    @Test
+    void normalizesRightAscension() {
+        assertEquals(350, SkyZones.normalizeRa(-10), 1e-12);
+        assertEquals(0, SkyZones.normalizeRa(360), 1e-12);
+        assertEquals(1, SkyZones.normalizeRa(721), 1e-12);
+    }
+
+    @Test
+    void poleCapsAreOneRange() {
+        List<long[]> north = SkyZones.coverCone(0, 89.9, 0.5);
+        List<long[]> south = SkyZones.coverCone(123, -89.8, 1);
+
+        assertEquals(1, north.size());
+        assertEquals(1, south.size());
+        assertEquals(0, south.get(0)[0]);
+        assertTrue(north.get(0)[0] <= SkyZones.cellOf(200, 89.95) && SkyZones.cellOf(200, 89.95) <= north.get(0)[1]);
+    }
+
+    // Every point inside a cone must fall in one of its ranges, whatever the position: near the
+    // poles, across RA 0, tiny and large radii
+    @Test
+    void coverContainsEveryPointInTheCone() {
+        Random random = new Random(5);
+        for (int cone = 0; cone < 2_000; cone++) {
+            double ra = cone % 10 == 0 ? random.nextDouble() * 2 : random.nextDouble() * 360;
+            double dec = cone % 7 == 0 ? 88 + random.nextDouble() * 2 : -90 + random.nextDouble() * 180;
+            double radius = cone % 3 == 0 ? random.nextDouble() * 0.1 : random.nextDouble() * 10;
+            List<long[]> ranges = SkyZones.coverCone(ra, dec, radius);
+            assertOrderedAndDisjoint(ranges);
+
+            for (int point = 0; point < 50; point++) {
+                // Points spread around and just inside the edge of the cone
+                double bearing = random.nextDouble() * 2 * Math.PI;
+                double distance = radius * Math.sqrt(random.nextDouble()) * 0.999999;
+                double[] target = offset(ra, dec, bearing, distance);
+                assertTrue(SkyZones.separation(ra, dec, target[0], target[1]) <= radius);
+                long cell = SkyZones.cellOf(target[0], target[1]);
+                assertTrue(covers(ranges, cell),
+                        "cone " + ra + "," + dec + " r=" + radius + " misses " + target[0] + "," + target[1]);
+            }
+        }
+    }
+
+    private static void assertOrderedAndDisjoint(List<long[]> ranges) {
+        for (int i = 0; i < ranges.size(); i++) {
+            assertTrue(ranges.get(i)[0] <= ranges.get(i)[1]);
+            if (i > 0) {
+                assertTrue(ranges.get(i - 1)[1] + 1 < ranges.get(i)[0]);
+            }
+        }
+    }
+
+    private static boolean covers(List<long[]> ranges, long cell) {
+        return ranges.stream().anyMatch(range -> range[0] <= cell && cell <= range[1]);
+    }
+
+    // Destination point along a great circle, degrees in and out
+    private static double[] offset(double ra, double dec, double bearing, double distance) {
+        double phi = Math.toRadians(dec);
+        double delta = Math.toRadians(distance);
+        double targetPhi = Math.asin(Math.sin(phi) * Math.cos(delta) + Math.cos(phi) * Math.sin(delta) * Math.cos(bearing));
+        double lambda = Math.toRadians(ra) + Math.atan2(Math.sin(bearing) * Math.sin(delta) * Math.cos(phi),
+                Math.cos(delta) - Math.sin(phi) * Math.sin(targetPhi));
+        return new double[]{SkyZones.normalizeRa(Math.toDegrees(lambda)), Math.toDegrees(targetPhi)};
+    }
+}
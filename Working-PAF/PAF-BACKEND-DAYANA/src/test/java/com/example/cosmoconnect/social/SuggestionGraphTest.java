@@ -0,0 +1,138 @@
+package com.example.cosmoconnect.social;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionGraphTest {
+
+    private static final double INTEREST_WEIGHT = 3.0;
+
+    @Test
+    void scoresMutualFollowsAndSharedInterests() {
+        // 0 follows 1 and 2, who both follow 3; 2 also follows 4. 0 and 4 share an interest.
+        int[] followers = {0, 0, 1, 2, 2};
+        int[] followees = {1, 2, 3, 3, 4};
+        int[][] interests = {{7}, {}, {}, {}, {7, 8}};
+        SuggestionGraph graph = new SuggestionGraph(5, followers, followees, interests, INTEREST_WEIGHT, 100);
+
+        List<SuggestionGraph.Suggestion> suggestions = graph.suggestionsFor(0, 10);
+
+        assertEquals(List.of(
+                new SuggestionGraph.Suggestion(4, 1, 1, 1 + INTEREST_WEIGHT / 2),
+                new SuggestionGraph.Suggestion(3, 2, 0, 2)), suggestions);
+        assertTrue(graph.follows(0, 2));
+        assertFalse(graph.follows(2, 0));
+        // Nobody new is reachable from 3
+        assertTrue(graph.suggestionsFor(3, 10).isEmpty());
+    }
+
+    // Random small graphs checked against scoring every pair directly, including interests too
+    // common to count and limits that cut the ranking short
+    @Test
+    void matchesBruteForceOnRandomGraphs() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            int users = 2 + random.nextInt(40);
+            Set<Long> edges = new HashSet<>();
+            int edgeCount = random.nextInt(users * 4);
+            for (int i = 0; i < edgeCount; i++) {
+                int from = random.nextInt(users);
+                int to = random.nextInt(users);
+                if (from != to) {
+                    edges.add(edge(from, to));
+                }
+            }
+            int[] followers = new int[edges.size()];
+            int[] followees = new int[edges.size()];
+            int k = 0;
+            for (long edge : edges) {
+                followers[k] = (int) (edge / 1000);
+                followees[k] = (int) (edge % 1000);
+                k++;
+            }
+            int[][] interests = new int[users][];
+            int[] postings = new int[6];
+            for (int u = 0; u < users; u++) {
+                Set<Integer> held = new TreeSet<>();
+                int count = random.nextInt(4);
+                for (int i = 0; i < count; i++) {
+                    held.add(random.nextInt(6));
+                }
+                interests[u] = held.stream().mapToInt(Integer::intValue).toArray();
+                for (int term : interests[u]) {
+                    postings[term]++;
+                }
+            }
+            int maxPostings = random.nextBoolean() ? 1000 : 3;
+            SuggestionGraph graph = new SuggestionGraph(users, followers, followees, interests,
+                    INTEREST_WEIGHT, maxPostings);
+
+            for (int u = 0; u < users; u++) {
+                int limit = 1 + random.nextInt(5);
+                List<SuggestionGraph.Suggestion> expected =
+                        bruteForce(u, users, edges, interests, postings, maxPostings, limit);
+                List<SuggestionGraph.Suggestion> actual = graph.suggestionsFor(u, limit);
+
+                assertEquals(expected.size(), actual.size(), "trial " + trial + " user " + u);
+                for (int i = 0; i < expected.size(); i++) {
+                    SuggestionGraph.Suggestion want = expected.get(i);
+                    SuggestionGraph.Suggestion got = actual.get(i);
+                    assertEquals(want.user(), got.user(), "trial " + trial + " user " + u);
+                    assertEquals(want.mutualFollows(), got.mutualFollows());
+                    assertEquals(want.sharedInterests(), got.sharedInterests());
+                    assertEquals(want.score(), got.score(), 1e-9);
+                }
+            }
+        }
+    }
+
+    private static List<SuggestionGraph.Suggestion> bruteForce(int u, int users, Set<Long> edges, int[][] interests,
+                                                               int[] postings, int maxPostings, int limit) {
+        List<SuggestionGraph.Suggestion> all = new ArrayList<>();
+        for (int w = 0; w < users; w++) {
+            if (w == u || edges.contains(edge(u, w))) {
+                continue;
+            }
+            int mutual = 0;
+            for (int v = 0; v < users; v++) {
+                if (edges.contains(edge(u, v)) && edges.contains(edge(v, w))) {
+                    mutual++;
+                }
+            }
+            int shared = 0;
+            for (int term : interests[u]) {
+                if (postings[term] <= maxPostings) {
+                    for (int other : interests[w]) {
+                        if (term == other) {
+                            shared++;
+                        }
+                    }
+                }
+            }
+            if (mutual == 0 && shared == 0) {
+                continue;
+            }
+            double jaccard = shared == 0 ? 0
+                    : (double) shared / (interests[u].length + interests[w].length - shared);
+            all.add(new SuggestionGraph.Suggestion(w, mutual, shared, mutual + INTEREST_WEIGHT * jaccard));
+        }
+        all.sort(Comparator.comparingDouble(SuggestionGraph.Suggestion::score).reversed()
+                .thenComparingInt(SuggestionGraph.Suggestion::user));
+        return all.subList(0, Math.min(limit, all.size()));
+    }
+
+    private static long edge(int from, int to) {
+        return (long) from * 1000 + to;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.cosmoconnect.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyFingerprintSetTest {
+
+    @Test
+    void containsWhatWasAdded() {
+        KeyFingerprintSet set = new KeyFingerprintSet(4);
+        set.add("posts/legacy-photo.jpg");
+        set.add(blobKey("ab", 1));
+        set.add("posts/legacy-photo.jpg");
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains("posts/legacy-photo.jpg"));
+        assertTrue(set.contains(blobKey("ab", 1)));
+        assertFalse(set.contains("posts/other.jpg"));
+        assertFalse(set.contains(blobKey("ab", 2)));
+    }
+
+    // Starting far too small forces several rehashes; nothing added may be lost on the way
+    @Test
+    void growsWithoutLosingKeys() {
+        KeyFingerprintSet set = new KeyFingerprintSet(1);
+        Random random = new Random(7);
+        Set<String> added = new HashSet<>();
+        for (int i = 0; i < 50_000; i++) {
+            String key = i % 2 == 0 ? blobKey(random) : "competitions/" + random.nextLong() + ".png";
+            set.add(key);
+            added.add(key);
+        }
+
+        assertEquals(added.size(), set.size());
+        for (String key : added) {
+            assertTrue(set.contains(key), key);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 50_000; i++) {
+            if (set.contains(blobKey(random))) {
+                falsePositives++;
+            }
+        }
+        assertEquals(0, falsePositives);
+    }
+
+    @Test
+    void blobKeysUseTheirHashPrefix() {
+        String key = "sha256/12/34/" + "1234abcd00000000" + "f".repeat(48);
+
+        assertEquals(0x1234abcd00000000L, KeyFingerprintSet.fingerprint(key));
+        // Too short to be a SHA-256, so hashed like any other name
+        assertNotEquals(0x1234abcdL, KeyFingerprintSet.fingerprint("sha256/12/34/1234abcd"));
+    }
+
+    // 0 marks an empty slot, so a key whose fingerprint would be 0 must still be found
+    @Test
+    void zeroFingerprintIsRemapped() {
+        String zero = "sha256/00/00/" + "0".repeat(64);
+        KeyFingerprintSet set = new KeyFingerprintSet(16);
+
+        assertNotEquals(0L, KeyFingerprintSet.fingerprint(zero));
+        assertFalse(set.contains(zero));
+        set.add(zero);
+        assertTrue(set.contains(zero));
+    }
+
+    private static String blobKey(String suffix, int n) {
+        String hash = String.format("%016x", n) + suffix.repeat(24);
+        return "sha256/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    private static String blobKey(Random random) {
+        byte[] digest = new byte[32];
+        random.nextBytes(digest);
+        String hash = HexFormat.of().formatHex(digest);
+        return "sha256/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+}
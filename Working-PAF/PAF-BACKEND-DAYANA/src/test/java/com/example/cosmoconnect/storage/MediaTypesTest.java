@@ -0,0 +1,59 @@
+package com.example.cosmoconnect.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MediaTypesTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F', 0, 1};
+    private static final byte[] MP4 = {0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'q', 't', ' ', ' '};
+    private static final byte[] WEBM = {0x1A, 0x45, (byte) 0xDF, (byte) 0xA3, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    @Test
+    void sniffsFromTheBytes() {
+        assertEquals("image/jpeg", sniff(JPEG));
+        assertEquals("video/mp4", sniff(MP4));
+        assertEquals("video/webm", sniff(WEBM));
+        assertEquals("image/webp", sniff("RIFF\0\0\0\0WEBP".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("application/fits", sniff("SIMPLE  =   ".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(MediaTypes.OCTET_STREAM, sniff("<html><body>".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(MediaTypes.OCTET_STREAM, MediaTypes.sniff(JPEG, 2));
+    }
+
+    // The same blob is reachable under any extension, so the requested one must agree with the bytes
+    @Test
+    void namesMustAgreeWithTheBytes() {
+        String hash = "a".repeat(64);
+
+        assertTrue(MediaTypes.nameMatches("posts/" + hash + ".jpg", "image/jpeg"));
+        assertTrue(MediaTypes.nameMatches("posts/" + hash + ".JPEG", "image/jpeg"));
+        assertTrue(MediaTypes.nameMatches("posts/" + hash + ".mov", "video/mp4"));
+        assertTrue(MediaTypes.nameMatches("posts/" + hash, "image/jpeg"));
+        assertFalse(MediaTypes.nameMatches("posts/" + hash + ".html", "image/jpeg"));
+        assertFalse(MediaTypes.nameMatches("posts/" + hash + ".svg", "image/png"));
+        assertFalse(MediaTypes.nameMatches("posts/" + hash + ".png", "image/jpeg"));
+        // Unrecognised bytes only ever go out as a download
+        assertTrue(MediaTypes.nameMatches("learningplans/notes.docx", MediaTypes.OCTET_STREAM));
+        assertNull(MediaTypes.forName("uploads.v2/readme"));
+    }
+
+    @Test
+    void onlyInertFormatsAreInline() {
+        assertTrue(MediaTypes.isInline("image/png"));
+        assertTrue(MediaTypes.isInline("video/webm"));
+        assertFalse(MediaTypes.isInline("image/svg+xml"));
+        assertFalse(MediaTypes.isInline("text/html"));
+        assertFalse(MediaTypes.isInline("application/fits"));
+        assertFalse(MediaTypes.isInline(MediaTypes.OCTET_STREAM));
+    }
+
+    private static String sniff(byte[] header) {
+        return MediaTypes.sniff(header, header.length);
+    }
+}
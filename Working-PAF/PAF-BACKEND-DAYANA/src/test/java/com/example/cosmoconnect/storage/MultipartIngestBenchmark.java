@@ -0,0 +1,169 @@
+package com.example.cosmoconnect.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Random;
+
+// Compares the spooled multipart path (container temp file, then copy into staging) with
+// MultipartStreamParser writing straight into staging. Not a unit test; run it by hand:
+//   java -cp target/classes:target/test-classes com.example.cosmoconnect.storage.MultipartIngestBenchmark [sizeMb] [runs]
+public class MultipartIngestBenchmark {
+
+    private static final String BOUNDARY = "----CosmoConnectBenchmarkBoundary";
+
+    public static void main(String[] args) throws Exception {
+        int sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path workDir = Files.createTempDirectory("ingest-bench");
+        Path body = workDir.resolve("request.body");
+        writeRequestBody(body, sizeMb * 1024L * 1024L);
+        System.out.printf("Request body: %d MB, %d runs%n", Files.size(body) / (1024 * 1024), runs);
+
+        Result spooled = new Result();
+        Result streamed = new Result();
+        for (int i = 0; i < runs + 1; i++) {
+            boolean warmup = i == 0;
+            run(() -> spooled(body, workDir), warmup ? new Result() : spooled);
+            run(() -> streamed(body, workDir), warmup ? new Result() : streamed);
+        }
+
+        report("spooled (temp file + copy)", spooled, runs);
+        report("streamed (parser -> staging)", streamed, runs);
+        deleteRecursively(workDir);
+    }
+
+    // What a MultipartFile upload costs: the container writes the part to its temp dir, then
+    // MediaStorageService reads it back and writes it again into staging while hashing
+    private static long spooled(Path body, Path workDir) throws IOException {
+        long written = 0;
+        try (InputStream in = Files.newInputStream(body)) {
+            MultipartStreamParser parser = new MultipartStreamParser(in, BOUNDARY);
+            MultipartStreamParser.Part part;
+            while ((part = parser.next()) != null) {
+                if (!part.isFile()) {
+                    continue;
+                }
+                Path containerTemp = Files.createTempFile(workDir, "part-", ".tmp");
+                written += copy(part.getInputStream(), containerTemp);
+                try (InputStream spooledPart = Files.newInputStream(containerTemp)) {
+                    written += hashInto(spooledPart, workDir);
+                }
+                Files.delete(containerTemp);
+            }
+        }
+        return written;
+    }
+
+    private static long streamed(Path body, Path workDir) throws IOException {
+        long written = 0;
+        try (InputStream in = Files.newInputStream(body)) {
+            MultipartStreamParser parser = new MultipartStreamParser(in, BOUNDARY);
+            MultipartStreamParser.Part part;
+            while ((part = parser.next()) != null) {
+                if (part.isFile()) {
+                    written += hashInto(part.getInputStream(), workDir);
+                }
+            }
+        }
+        return written;
+    }
+
+    // Mirrors MediaStorageService.store: SHA-256 while writing a staging file
+    private static long hashInto(InputStream in, Path workDir) throws IOException {
+        Path staging = Files.createTempFile(workDir, "upload-", ".part");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long written = copy(new DigestInputStream(in, digest), staging);
+            digest.digest();
+            return written;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    private static long copy(InputStream in, Path target) throws IOException {
+        try (CountingOutputStream out = new CountingOutputStream(Files.newOutputStream(target))) {
+            in.transferTo(out);
+            out.flush();
+            return out.count;
+        }
+    }
+
+    private static void writeRequestBody(Path body, long fileBytes) throws IOException {
+        Random random = new Random(42);
+        byte[] chunk = new byte[1024 * 1024];
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(body))) {
+            out.write(("--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"post\"\r\n\r\n"
+                    + "{\"title\":\"Orion Nebula\"}\r\n").getBytes(StandardCharsets.UTF_8));
+            out.write(("--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"media\"; filename=\"m42.mp4\"\r\n"
+                    + "Content-Type: video/mp4\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            for (long remaining = fileBytes; remaining > 0; remaining -= chunk.length) {
+                random.nextBytes(chunk);
+                out.write(chunk, 0, (int) Math.min(chunk.length, remaining));
+            }
+            out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void run(IngestPath path, Result result) throws IOException {
+        long start = System.nanoTime();
+        long written = path.ingest();
+        result.nanos += System.nanoTime() - start;
+        result.bytesWritten += written;
+    }
+
+    private static void report(String label, Result result, int runs) {
+        System.out.printf("%-30s %8.1f ms/request %10.1f MB written/request%n",
+                label, result.nanos / 1e6 / runs, result.bytesWritten / (1024.0 * 1024.0) / runs);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (var paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private interface IngestPath {
+        long ingest() throws IOException;
+    }
+
+    private static class Result {
+        long nanos;
+        long bytesWritten;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
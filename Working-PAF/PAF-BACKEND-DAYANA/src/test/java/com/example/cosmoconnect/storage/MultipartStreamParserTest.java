@@ -0,0 +1,165 @@
+package com.example.cosmoconnect.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultipartStreamParserTest {
+
+    private static final String BOUNDARY = "----TestBoundary7MA4YWxkTrZu0gW";
+
+    @Test
+    void readsFieldsAndFiles() throws IOException {
+        byte[] body = body(
+                field("title", "Orion"),
+                file("media", "C:\\Users\\me\\m42.jpg", "image/jpeg", "jpeg bytes".getBytes(StandardCharsets.UTF_8)));
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(body), BOUNDARY);
+
+        MultipartStreamParser.Part title = parser.next();
+        assertEquals("title", title.getName());
+        assertFalse(title.isFile());
+        assertEquals("Orion", text(title.getInputStream()));
+
+        MultipartStreamParser.Part media = parser.next();
+        assertEquals("media", media.getName());
+        assertTrue(media.isFile());
+        assertEquals("m42.jpg", media.getFilename());
+        assertEquals("image/jpeg", media.getContentType());
+        assertEquals("jpeg bytes", text(media.getInputStream()));
+
+        assertNull(parser.next());
+        assertNull(parser.next());
+    }
+
+    @Test
+    void skipsUnreadPartsAndThePreamble() throws IOException {
+        byte[] parts = body(field("a", "first"), field("b", "second"));
+        byte[] body = concat("ignored preamble\r\n".getBytes(StandardCharsets.ISO_8859_1), parts);
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(body), BOUNDARY);
+
+        assertEquals("a", parser.next().getName());
+        MultipartStreamParser.Part second = parser.next();
+        assertEquals("b", second.getName());
+        assertEquals("second", text(second.getInputStream()));
+        assertNull(parser.next());
+    }
+
+    // Large random payloads cross the read buffer many times, with a delimiter prefix planted
+    // inside the data and a source that hands out odd-sized reads
+    @Test
+    void streamsLargeBinaryPartsIntact() throws IOException {
+        Random random = new Random(42);
+        byte[] data = new byte[300_000];
+        random.nextBytes(data);
+        byte[] trap = ("\r\n--" + BOUNDARY.substring(0, 10)).getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(trap, 0, data, 65_530, trap.length);
+        byte[] body = body(file("media", "big.fits", "application/fits", data), field("after", "tail"));
+
+        MultipartStreamParser parser = new MultipartStreamParser(new TrickleInputStream(body, 7_001), BOUNDARY);
+        MultipartStreamParser.Part media = parser.next();
+        assertArrayEquals(data, media.getInputStream().readAllBytes());
+        assertEquals("tail", text(parser.next().getInputStream()));
+        assertNull(parser.next());
+    }
+
+    @Test
+    void emptyPartsAreEmptyStreams() throws IOException {
+        byte[] body = body(file("media", "empty.bin", null, new byte[0]));
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(body), BOUNDARY);
+
+        MultipartStreamParser.Part part = parser.next();
+        assertNull(part.getContentType());
+        assertEquals(-1, part.getInputStream().read());
+        assertNull(parser.next());
+    }
+
+    @Test
+    void rejectsTruncatedBodies() throws IOException {
+        byte[] body = body(file("media", "cut.jpg", "image/jpeg", new byte[1000]));
+        byte[] truncated = new byte[body.length - 60];
+        System.arraycopy(body, 0, truncated, 0, truncated.length);
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(truncated), BOUNDARY);
+
+        MultipartStreamParser.Part part = parser.next();
+        assertThrows(IOException.class, () -> part.getInputStream().readAllBytes());
+    }
+
+    @Test
+    void rejectsOversizedHeaders() {
+        String headers = "--" + BOUNDARY + "\r\nX-Padding: " + "x".repeat(20_000) + "\r\n\r\n";
+        MultipartStreamParser parser = new MultipartStreamParser(
+                new ByteArrayInputStream(headers.getBytes(StandardCharsets.ISO_8859_1)), BOUNDARY);
+
+        assertThrows(IOException.class, parser::next);
+    }
+
+    @Test
+    void parsesBoundaryFromContentType() {
+        assertEquals("abc", MultipartStreamParser.boundaryOf("multipart/form-data; boundary=abc"));
+        assertEquals("a b", MultipartStreamParser.boundaryOf("Multipart/Form-Data; charset=utf-8; BOUNDARY=\"a b\""));
+        assertNull(MultipartStreamParser.boundaryOf("application/json"));
+        assertNull(MultipartStreamParser.boundaryOf(null));
+        assertThrows(IllegalArgumentException.class, () -> new MultipartStreamParser(InputStream.nullInputStream(), ""));
+        assertThrows(IllegalArgumentException.class,
+                () -> new MultipartStreamParser(InputStream.nullInputStream(), "b".repeat(71)));
+    }
+
+    private static byte[] field(String name, String value) {
+        return part("Content-Disposition: form-data; name=\"" + name + "\"\r\n",
+                value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] file(String name, String filename, String contentType, byte[] data) {
+        String headers = "Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename + "\"\r\n"
+                + (contentType != null ? "Content-Type: " + contentType + "\r\n" : "");
+        return part(headers, data);
+    }
+
+    private static byte[] part(String headers, byte[] data) {
+        return concat(("--" + BOUNDARY + "\r\n" + headers + "\r\n").getBytes(StandardCharsets.UTF_8), data,
+                "\r\n".getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] body(byte[]... parts) {
+        return concat(concat(parts), ("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static byte[] concat(byte[]... chunks) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            out.writeBytes(chunk);
+        }
+        return out.toByteArray();
+    }
+
+    private static String text(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    // Hands out at most maxRead bytes per call, like a slow network
+    private static class TrickleInputStream extends ByteArrayInputStream {
+        private final int maxRead;
+
+        TrickleInputStream(byte[] data, int maxRead) {
+            super(data);
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, maxRead));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.cosmoconnect.storage;
+
+import com.example.cosmoconnect.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs S3MediaStore against a real MinIO server; skipped where Docker is not available
+@Testcontainers(disabledWithoutDocker = true)
+class S3MediaStoreTest {
+
+    @Container
+    static final MinIOContainer MINIO = new MinIOContainer("minio/minio:RELEASE.2024-10-13T13-34-11Z");
+
+    private static S3MediaStore store;
+
+    @BeforeAll
+    static void startStore() {
+        store = new S3MediaStore();
+        ReflectionTestUtils.setField(store, "endpoint", MINIO.getS3URL());
+        ReflectionTestUtils.setField(store, "region", "us-east-1");
+        ReflectionTestUtils.setField(store, "bucket", "media-test");
+        ReflectionTestUtils.setField(store, "accessKey", MINIO.getUserName());
+        ReflectionTestUtils.setField(store, "secretKey", MINIO.getPassword());
+        ReflectionTestUtils.setField(store, "pathStyle", true);
+        store.init();
+    }
+
+    @AfterAll
+    static void stopStore() {
+        store.close();
+    }
+
+    @Test
+    void storesAndStatsAnObject() throws IOException {
+        put("sha256/aa/bb/object", "hello, media");
+
+        MediaObject object = store.stat("sha256/aa/bb/object").orElseThrow();
+        assertThat(object.getSize()).isEqualTo(12);
+        assertThat(read(store.open("sha256/aa/bb/object", 0, 12))).isEqualTo("hello, media");
+    }
+
+    @Test
+    void opensARange() throws IOException {
+        put("ranged", "0123456789");
+
+        assertThat(read(store.open("ranged", 3, 4))).isEqualTo("3456");
+        assertThat(read(store.open("ranged", 9, 1))).isEqualTo("9");
+    }
+
+    @Test
+    void readsEmptyObjectsAndZeroLengthRanges() throws IOException {
+        put("empty", "");
+
+        assertThat(store.stat("empty").orElseThrow().getSize()).isZero();
+        assertThat(read(store.open("empty", 0, 0))).isEmpty();
+        // What sniffing the head of an empty upload asks for
+        assertThat(read(store.open("empty", 0, 12))).isEmpty();
+        put("short", "abc");
+        assertThat(read(store.open("short", 1, 0))).isEmpty();
+    }
+
+    @Test
+    void deletesAnObject() throws IOException {
+        put("doomed", "bye");
+        store.delete("doomed");
+
+        assertThat(store.stat("doomed")).isEmpty();
+        assertThat(store.exists("doomed")).isFalse();
+    }
+
+    @Test
+    void reportsAMissingKey() throws IOException {
+        assertThat(store.stat("missing/key")).isEmpty();
+        assertThatThrownBy(() -> store.open("missing/key", 0, 10)).isInstanceOf(ResourceNotFoundException.class);
+        store.delete("missing/key");
+    }
+
+    @Test
+    void listsAndMovesByPrefix() throws IOException {
+        put("listed/one", "1");
+        put("listed/two", "22");
+        store.move("listed/two", "moved/two");
+
+        List<String> keys = new ArrayList<>();
+        store.list("listed/", object -> keys.add(object.getKey()));
+        assertThat(keys).containsExactly("listed/one");
+        assertThat(read(store.open("moved/two", 0, 2))).isEqualTo("22");
+    }
+
+    private static void put(String key, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        store.put(key, new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.cosmoconnect.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    @Test
+    void countsExactlyWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+
+        assertEquals(1, sketch.add("orion", 1));
+        assertEquals(3, sketch.add("orion", 2));
+        sketch.add("andromeda", 5);
+
+        assertEquals(3, sketch.estimate("orion"));
+        assertEquals(5, sketch.estimate("andromeda"));
+        assertEquals(0, sketch.estimate("pleiades"));
+    }
+
+    // Checked against exact counts over a skewed stream: never under, and over by at most the bound
+    // for nearly every key
+    @Test
+    void neverUndercountsAndStaysWithinTheErrorBound() {
+        int width = 256;
+        CountMinSketch sketch = new CountMinSketch(4, width);
+        Map<String, Integer> exact = new HashMap<>();
+        Random random = new Random(11);
+        int total = 50_000;
+        for (int i = 0; i < total; i++) {
+            // Roughly Zipfian: a few tags take most of the traffic
+            String key = "tag" + (int) Math.pow(2000, random.nextDouble());
+            sketch.add(key, 1);
+            exact.merge(key, 1, Integer::sum);
+        }
+
+        int bound = (int) Math.ceil(Math.E * total / width);
+        int outside = 0;
+        for (Map.Entry<String, Integer> entry : exact.entrySet()) {
+            int estimate = sketch.estimate(entry.getKey());
+            assertTrue(estimate >= entry.getValue(), entry.getKey());
+            if (estimate - entry.getValue() > bound) {
+                outside++;
+            }
+        }
+        assertTrue(outside <= exact.size() / 16, outside + " of " + exact.size() + " keys past the bound");
+    }
+
+    @Test
+    void restoresFromItsCounters() {
+        CountMinSketch sketch = new CountMinSketch(3, 64);
+        sketch.add("m31", 7);
+        sketch.add("m42", 2);
+
+        CountMinSketch copy = CountMinSketch.of(3, 64, sketch.counts());
+        assertEquals(7, copy.estimate("m31"));
+        assertArrayEquals(sketch.counts(), copy.counts());
+        // The copy owns its counters
+        copy.add("m31", 1);
+        assertEquals(7, sketch.estimate("m31"));
+
+        sketch.clear();
+        assertEquals(0, sketch.estimate("m31"));
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketch.of(3, 64, new int[10]));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 64));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.cosmoconnect.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotRankingTest {
+
+    private static final double HALF_LIFE_HOURS = 12;
+    private static final long HOUR = 3600;
+
+    // The log form must order posts exactly like engagement decayed from a common "now"
+    @Test
+    void scoreMatchesExponentialDecay() {
+        long now = 1_700_000_000L;
+        double older = HotRanking.score(40, 0, now - 12 * HOUR, HALF_LIFE_HOURS);
+        double newer = HotRanking.score(15, 0, now, HALF_LIFE_HOURS);
+        // 41 halved after one half-life is still more than 16
+        assertTrue(older > newer);
+        assertEquals(Math.log(41.0 / 2) - Math.log(16), older - newer, 1e-9);
+        // Comments weigh twice a like
+        assertEquals(HotRanking.score(4, 0, now, HALF_LIFE_HOURS), HotRanking.score(0, 2, now, HALF_LIFE_HOURS), 1e-12);
+    }
+
+    @Test
+    void updatesMoveAPostWithoutDuplicatingIt() {
+        HotRanking ranking = new HotRanking();
+        ranking.put("a", 3);
+        ranking.put("b", 2);
+        ranking.put("c", 1);
+        ranking.put("c", 5);
+
+        assertEquals(List.of("c", "a", "b"), ids(ranking.page(null, 10)));
+        assertEquals(3, ranking.size());
+        assertEquals(5.0, ranking.scoreOf("c"));
+
+        ranking.remove("a");
+        ranking.remove("missing");
+        assertEquals(List.of("c", "b"), ids(ranking.page(null, 10)));
+        assertNull(ranking.scoreOf("a"));
+    }
+
+    // Equal scores fall back to id order, so walking page by page visits every post once
+    @Test
+    void pagesFromACursorWithTies() {
+        HotRanking ranking = new HotRanking();
+        for (int i = 0; i < 25; i++) {
+            ranking.put(String.format("p%02d", i), i % 3);
+        }
+        List<String> walked = new ArrayList<>();
+        HotRanking.Entry after = null;
+        while (true) {
+            List<HotRanking.Entry> page = ranking.page(after, 4);
+            if (page.isEmpty()) {
+                break;
+            }
+            walked.addAll(ids(page));
+            after = page.get(page.size() - 1);
+        }
+        assertEquals(ids(ranking.page(null, 100)), walked);
+        assertEquals(25, walked.size());
+        assertEquals("p02", walked.get(0));
+
+        // A cursor entry that has since moved still pages from where it was
+        ranking.put("p02", -1);
+        assertEquals("p05", ranking.page(new HotRanking.Entry("p02", 2), 1).get(0).postId());
+    }
+
+    @Test
+    void prunesOnlyBelowTheFloor() {
+        HotRanking ranking = new HotRanking();
+        ranking.put("low", 0.5);
+        ranking.put("edge", 1.0);
+        ranking.put("high", 4);
+
+        assertEquals(1, ranking.pruneBelow(1.0));
+        assertEquals(List.of("high", "edge"), ids(ranking.page(null, 10)));
+        assertEquals(2, ranking.size());
+        assertEquals(0, ranking.pruneBelow(0));
+    }
+
+    private static List<String> ids(List<HotRanking.Entry> entries) {
+        return entries.stream().map(HotRanking.Entry::postId).toList();
+    }
+}
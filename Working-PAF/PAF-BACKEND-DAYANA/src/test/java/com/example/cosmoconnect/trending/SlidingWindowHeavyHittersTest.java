@@ -0,0 +1,87 @@
+package com.example.cosmoconnect.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowHeavyHittersTest {
+
+    @Test
+    void ranksKeysByCountAcrossTheWindow() {
+        SlidingWindowHeavyHitters hitters = new SlidingWindowHeavyHitters(24, 8, 4, 512);
+        add(hitters, "orion", 100, 5);
+        add(hitters, "orion", 101, 2);
+        add(hitters, "m31", 101, 4);
+        add(hitters, "jupiter", 102, 1);
+
+        assertEquals(List.of(
+                new SlidingWindowHeavyHitters.Count("orion", 7),
+                new SlidingWindowHeavyHitters.Count("m31", 4),
+                new SlidingWindowHeavyHitters.Count("jupiter", 1)), hitters.top(10, 102));
+        assertEquals(1, hitters.top(1, 102).size());
+    }
+
+    @Test
+    void oldHoursLeaveTheWindow() {
+        SlidingWindowHeavyHitters hitters = new SlidingWindowHeavyHitters(3, 8, 4, 512);
+        add(hitters, "comet", 10, 9);
+        add(hitters, "meteor", 12, 1);
+
+        assertEquals("comet", hitters.top(1, 12).get(0).key());
+        // Hour 13 takes over hour 10's slot in the ring
+        assertEquals("meteor", hitters.top(1, 13).get(0).key());
+        add(hitters, "aurora", 13, 2);
+        assertEquals(List.of("aurora", "meteor"), keys(hitters.top(10, 13)));
+
+        // Too late for its slot, which now belongs to a newer hour
+        add(hitters, "comet", 10, 50);
+        assertEquals(List.of("aurora", "meteor"), keys(hitters.top(10, 13)));
+    }
+
+    // A burst late in the hour must still push out a key that was only briefly ahead
+    @Test
+    void heavyLateComersDisplaceLightCandidates() {
+        SlidingWindowHeavyHitters hitters = new SlidingWindowHeavyHitters(24, 2, 4, 512);
+        add(hitters, "a", 5, 3);
+        add(hitters, "b", 5, 1);
+        add(hitters, "c", 5, 4);
+
+        List<String> top = keys(hitters.top(10, 5));
+        assertEquals(List.of("c", "a"), top);
+    }
+
+    @Test
+    void snapshotRestoresTheLiveHours() {
+        SlidingWindowHeavyHitters hitters = new SlidingWindowHeavyHitters(4, 8, 4, 512);
+        add(hitters, "saturn", 20, 3);
+        add(hitters, "venus", 22, 2);
+        List<SlidingWindowHeavyHitters.BucketState> snapshot = hitters.snapshot();
+        assertEquals(2, snapshot.size());
+
+        SlidingWindowHeavyHitters restored = new SlidingWindowHeavyHitters(4, 8, 4, 512);
+        restored.restore(snapshot, 22);
+        assertEquals(hitters.top(10, 22), restored.top(10, 22));
+
+        // Restoring later drops hour 20, which has left the window by hour 24
+        SlidingWindowHeavyHitters later = new SlidingWindowHeavyHitters(4, 8, 4, 512);
+        later.restore(snapshot, 24);
+        assertEquals(List.of("venus"), keys(later.top(10, 24)));
+        // Counters of another shape are skipped rather than misread
+        SlidingWindowHeavyHitters resized = new SlidingWindowHeavyHitters(4, 8, 4, 256);
+        resized.restore(snapshot, 22);
+        assertTrue(resized.top(10, 22).isEmpty());
+    }
+
+    private static void add(SlidingWindowHeavyHitters hitters, String key, long hour, int times) {
+        for (int i = 0; i < times; i++) {
+            hitters.add(key, hour);
+        }
+    }
+
+    private static List<String> keys(List<SlidingWindowHeavyHitters.Count> counts) {
+        return counts.stream().map(SlidingWindowHeavyHitters.Count::key).toList();
+    }
+}
@@ -4,6 +4,8 @@ import axios from 'axios';
 // Base URLs
 const API_BASE_URL = 'http://localhost:8080/api';
 const OAUTH2_BASE_URL = 'http://localhost:8080/oauth2';
+// Page size of the explore feed; a shorter page means there are no more posts
+export const PUBLIC_PAGE_SIZE = 20;
 
 // Create axios instance with default config
 const api = axios.create({
@@ -173,10 +175,10 @@ export const userService = {
     }
   },
 
-  getPublicPosts: async () => {
+  getPublicPosts: async (page = 0, size = PUBLIC_PAGE_SIZE) => {
     try {
       console.log('Fetching public posts...');
-      const response = await api.get('/posts/public');
+      const response = await api.get('/posts/public', { params: { page, size } });
       console.log('Public posts response:', response.data);
       return response;
     } catch (error) {
@@ -288,7 +290,7 @@ export const commentService = {
 };
 
 export const userApi = {
-  getAll: async () => api.get('/users'),
+  search: async (q = '', cursor) => api.get('/users/search', { params: { q, cursor } }),
   follow: async (id) => api.post(`/users/${id}/follow`),
   unfollow: async (id) => api.post(`/users/${id}/unfollow`),
   getFollowers: async (id) => api.get(`/users/${id}/followers`),
@@ -123,8 +123,9 @@ const Dashboard = () => {
   // Add at the top, after useState imports
   const [expandedPoll, setExpandedPoll] = useState({});
   const [allUsers, setAllUsers] = useState([]);
-  const [followers, setFollowers] = useState([]);
-  const [following, setFollowing] = useState([]);
+  const [discoverQuery, setDiscoverQuery] = useState('');
+  const [discoverCursor, setDiscoverCursor] = useState(null);
+  const [discoverLoading, setDiscoverLoading] = useState(false);
   const [showFollowers, setShowFollowers] = useState(false);
   const [showFollowing, setShowFollowing] = useState(false);
 
@@ -191,28 +192,46 @@ const Dashboard = () => {
     }
   }, [activeTab, userId]);
 
+  // Searches as the user types, after a short pause; a response for an older query is dropped
   useEffect(() => {
-    if (user) {
-      userApi.getAll()
-        .then(res => setAllUsers(res.data))
+    if (!userId) return undefined;
+    let stale = false;
+    const timer = setTimeout(() => {
+      setDiscoverLoading(true);
+      userApi.search(discoverQuery.trim())
+        .then(res => {
+          if (stale) return;
+          setAllUsers(res.data.items);
+          setDiscoverCursor(res.data.nextCursor || null);
+        })
         .catch(err => {
+          if (stale) return;
           console.error('Error fetching all users:', err);
           setAllUsers([]);
+          setDiscoverCursor(null);
+        })
+        .finally(() => {
+          if (!stale) setDiscoverLoading(false);
         });
-      userApi.getFollowers(user.id)
-        .then(res => setFollowers(res.data))
-        .catch(err => {
-          console.error('Error fetching followers:', err);
-          setFollowers([]);
-        });
-      userApi.getFollowing(user.id)
-        .then(res => setFollowing(res.data))
-        .catch(err => {
-          console.error('Error fetching following:', err);
-          setFollowing([]);
-        });
+    }, 300);
+    return () => {
+      stale = true;
+      clearTimeout(timer);
+    };
+  }, [userId, discoverQuery]);
+
+  const handleDiscoverMore = async () => {
+    setDiscoverLoading(true);
+    try {
+      const res = await userApi.search(discoverQuery.trim(), discoverCursor);
+      setAllUsers(prev => [...prev, ...res.data.items]);
+      setDiscoverCursor(res.data.nextCursor || null);
+    } catch (err) {
+      console.error('Error fetching more users:', err);
+    } finally {
+      setDiscoverLoading(false);
     }
-  }, [user]);
+  };
 
   // Helper to close menu on click outside
   useEffect(() => {
@@ -341,8 +360,8 @@ const Dashboard = () => {
     biography: '',
     skills: ['Telescope Operation', 'Astrophotography', 'Star Mapping'],
     progress: 75,
-    followers: 128,
-    following: 64,
+    followersCount: 128,
+    followingCount: 64,
     posts: [
       { id: 1, content: 'Just captured the Orion Nebula! 🌌 #astrophotography', likes: 45 },
       { id: 2, content: 'Learning about variable stars today. Fascinating stuff! ⭐', likes: 32 }
@@ -713,18 +732,20 @@ const Dashboard = () => {
     );
   };
 
+  // Flip the flag in place and refetch the counts, rather than reloading the list the user is scrolling
+  const setFollowedByMe = (targetId, followedByMe) => {
+    setAllUsers(prev => prev.map(u => (u.id === targetId ? { ...u, followedByMe } : u)));
+    userService.getCurrentUser().then(res => setUser(res.data));
+  };
+
   const handleFollow = async (targetId) => {
     await userApi.follow(targetId);
-    userApi.getAll().then(res => setAllUsers(res.data));
-    userApi.getFollowers(user.id).then(res => setFollowers(res.data));
-    userApi.getFollowing(user.id).then(res => setFollowing(res.data));
+    setFollowedByMe(targetId, true);
   };
 
   const handleUnfollow = async (targetId) => {
     await userApi.unfollow(targetId);
-    userApi.getAll().then(res => setAllUsers(res.data));
-    userApi.getFollowers(user.id).then(res => setFollowers(res.data));
-    userApi.getFollowing(user.id).then(res => setFollowing(res.data));
+    setFollowedByMe(targetId, false);
   };
 
   return (
@@ -846,11 +867,11 @@ const Dashboard = () => {
 
                 <div className="mt-6 grid grid-cols-2 gap-4">
                   <div className="text-center p-3 rounded-lg bg-gray-800 hover-card">
-                    <div className="text-2xl font-orbitron" style={styles.gradientText}>{followers.length}</div>
+                    <div className="text-2xl font-orbitron" style={styles.gradientText}>{renderUser.followersCount ?? 0}</div>
                     <div className="text-sm text-gray-400">Followers</div>
                   </div>
                   <div className="text-center p-3 rounded-lg bg-gray-800 hover-card">
-                    <div className="text-2xl font-orbitron" style={styles.gradientText}>{following.length}</div>
+                    <div className="text-2xl font-orbitron" style={styles.gradientText}>{renderUser.followingCount ?? 0}</div>
                     <div className="text-sm text-gray-400">Following</div>
                   </div>
                 </div>
@@ -872,9 +893,16 @@ const Dashboard = () => {
               {/* All Users List */}
               <div className="mt-8">
                 <h3 className="text-sm font-orbitron mb-2 text-space-purple">Discover Astronomers</h3>
+                <input
+                  type="text"
+                  value={discoverQuery}
+                  onChange={(e) => setDiscoverQuery(e.target.value)}
+                  className="w-full mb-3 bg-gray-800 rounded-lg p-2 text-white text-sm border border-space-purple focus:outline-none focus:ring-2 focus:ring-space-purple"
+                  placeholder="Search by name or username"
+                />
                 <div className="max-h-72 overflow-y-auto flex flex-col gap-3 pr-1">
                   {allUsers.filter(u => u.id !== user?.id).map(u => {
-                    const isFollowing = following.some(f => f.id === u.id);
+                    const isFollowing = !!u.followedByMe;
                     return (
                       <div key={u.id} className="flex items-center gap-3 bg-gray-800 rounded-lg p-2 hover-card">
                         {u.imageUrl ? (
@@ -896,9 +924,18 @@ const Dashboard = () => {
                       </div>
                     );
                   })}
-                  {allUsers.filter(u => u.id !== user?.id).length === 0 && (
+                  {allUsers.filter(u => u.id !== user?.id).length === 0 && !discoverLoading && (
                     <div className="text-gray-400 text-center text-xs">No other users found.</div>
                   )}
+                  {discoverCursor && (
+                    <button
+                      onClick={handleDiscoverMore}
+                      disabled={discoverLoading}
+                      className="px-3 py-1 bg-gray-700 text-white rounded-lg text-xs hover:bg-space-purple transition-all disabled:opacity-70"
+                    >
+                      {discoverLoading ? 'Loading...' : 'Load more'}
+                    </button>
+                  )}
                 </div>
               </div>
             </div>
@@ -974,7 +1011,7 @@ const Dashboard = () => {
                     <input
                       id="create-media-upload-input"
                       type="file"
-                      accept="image/*,video/*"
+                      accept="image/*,video/*,.fits,.fit"
                       multiple
                       className="hidden"
                       onChange={handleMediaChange}
@@ -1503,7 +1540,7 @@ const Dashboard = () => {
                           <input
                             id="edit-media-upload-input"
                             type="file"
-                            accept="image/*,video/*"
+                            accept="image/*,video/*,.fits,.fit"
                             multiple
                             className="hidden"
                             onChange={handleEditMediaChange}
@@ -1,6 +1,6 @@
 import React, { useEffect, useState, useRef } from 'react';
 import { motion } from 'framer-motion';
-import { userService } from '../api';
+import { userService, PUBLIC_PAGE_SIZE } from '../api';
 import { FaCommentDots, FaBookmark, FaUserAstronaut, FaPoll, FaCalendarAlt, FaTrophy, FaQuestionCircle, FaStar, FaUsers } from 'react-icons/fa';
 import { COLORFUL_CATEGORIES } from '../constants/categories';
 import CommentSection from '../components/CommentSection';
@@ -118,6 +118,9 @@ const CONSTELLATION_IMAGE = '/OIP.jpg';
 
 function Explore() {
   const [publicPosts, setPublicPosts] = useState([]);
+  const [nextPage, setNextPage] = useState(1);
+  const [hasMore, setHasMore] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [selectedPolls, setSelectedPolls] = useState({}); // { postId: selectedOptionIdx }
@@ -144,11 +147,13 @@ function Explore() {
           userService.getCurrentUser(),
           userService.getPublicPosts()
         ]);
+        const posts = Array.isArray(postsRes.data) ? postsRes.data : [];
         setCurrentUser(userRes.data);
-        setPublicPosts(Array.isArray(postsRes.data) ? postsRes.data : []);
+        setPublicPosts(posts);
+        setHasMore(posts.length === PUBLIC_PAGE_SIZE);
         // Initialize commentCounts from posts if available
         const counts = {};
-        (Array.isArray(postsRes.data) ? postsRes.data : []).forEach(post => {
+        posts.forEach(post => {
           counts[post.id] = post.commentCount || 0;
         });
         setCommentCounts(counts);
@@ -162,6 +167,33 @@ function Explore() {
     fetchData();
   }, []);
 
+  // Pages are by offset, so a post published meanwhile can push one we already show onto the next page
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const res = await userService.getPublicPosts(nextPage);
+      const posts = Array.isArray(res.data) ? res.data : [];
+      setPublicPosts(prev => {
+        const shown = new Set(prev.map(post => post.id));
+        return [...prev, ...posts.filter(post => !shown.has(post.id))];
+      });
+      setCommentCounts(prev => {
+        const counts = { ...prev };
+        posts.forEach(post => {
+          if (counts[post.id] === undefined) counts[post.id] = post.commentCount || 0;
+        });
+        return counts;
+      });
+      setNextPage(nextPage + 1);
+      setHasMore(posts.length === PUBLIC_PAGE_SIZE);
+    } catch (err) {
+      setError('Failed to load more posts.');
+      console.error('Error fetching public posts:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handlePollSelect = (postId, optionIdx) => {
     setSelectedPolls(prev => ({ ...prev, [postId]: optionIdx }));
     // TODO: Optionally send vote to backend here
@@ -269,6 +301,17 @@ function Explore() {
                 onPollSelect={handlePollSelect}
               />
             ))}
+            {!loading && hasMore && (
+              <div className="text-center">
+                <button
+                  onClick={handleLoadMore}
+                  disabled={loadingMore}
+                  className="px-6 py-2 rounded-full font-bold text-white bg-space-purple/80 hover:bg-space-purple transition-all disabled:opacity-70"
+                >
+                  {loadingMore ? 'Loading...' : 'Load more'}
+                </button>
+              </div>
+            )}
           </div>
         </div>
         {/* Right Sidebar */}